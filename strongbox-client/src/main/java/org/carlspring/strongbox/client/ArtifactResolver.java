@@ -15,6 +15,7 @@ import org.slf4j.LoggerFactory;
 import javax.ws.rs.client.Client;
 import javax.ws.rs.client.Invocation;
 import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import java.io.Closeable;
@@ -140,6 +141,39 @@ public class ArtifactResolver
         return resource.request().get();
     }
 
+    /**
+     * Performs a conditional GET, to which the remote responds with 304 (Not Modified), if the resource hasn't
+     * changed since the local copy was fetched.
+     *
+     * @param ifModifiedSince the Last-Modified date, with which the remote served the local copy, or null
+     * @param ifNoneMatch     the entity tag of the local copy, or null
+     */
+    public Response getResourceWithResponse(String path,
+                                            String ifModifiedSince,
+                                            String ifNoneMatch)
+            throws ArtifactTransportException,
+                   IOException
+    {
+        String url = escapeUrl(path);
+
+        logger.debug("Revalidating " + url + "...");
+
+        WebTarget resource = getClientInstance().target(url);
+        setupAuthentication(resource);
+
+        Invocation.Builder request = resource.request();
+        if (ifModifiedSince != null)
+        {
+            request = request.header(HttpHeaders.IF_MODIFIED_SINCE, ifModifiedSince);
+        }
+        if (ifNoneMatch != null)
+        {
+            request = request.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+
+        return request.get();
+    }
+
     public boolean artifactExists(Artifact artifact,
                                   String storageId,
                                   String repositoryId)
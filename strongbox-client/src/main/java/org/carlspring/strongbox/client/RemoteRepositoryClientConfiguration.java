@@ -0,0 +1,96 @@
+package org.carlspring.strongbox.client;
+
+/**
+ * The settings of the HTTP client, with which the requests to a remote repository are made.
+ */
+public class RemoteRepositoryClientConfiguration
+{
+
+    public static final int DEFAULT_CONNECT_TIMEOUT_MILLIS = 10000;
+
+    public static final int DEFAULT_SOCKET_TIMEOUT_MILLIS = 60000;
+
+    public static final int DEFAULT_KEEP_ALIVE_SECONDS = 60;
+
+    public static final int DEFAULT_VALIDATE_AFTER_INACTIVITY_MILLIS = 2000;
+
+    private int connectTimeoutMillis = DEFAULT_CONNECT_TIMEOUT_MILLIS;
+
+    /**
+     * The maximum time of inactivity between two packets of a response.
+     */
+    private int socketTimeoutMillis = DEFAULT_SOCKET_TIMEOUT_MILLIS;
+
+    /**
+     * The maximum time for which an idle connection is kept, unless the remote asks for less.
+     */
+    private int keepAliveSeconds = DEFAULT_KEEP_ALIVE_SECONDS;
+
+    /**
+     * The time of inactivity, after which a pooled connection is checked, before it's reused. The pool is shared by
+     * all the remote repositories, so the shortest of their intervals applies to all of them.
+     */
+    private int validateAfterInactivityMillis = DEFAULT_VALIDATE_AFTER_INACTIVITY_MILLIS;
+
+    /**
+     * Whether compressed responses are accepted. HttpClient accepts them by default, so disabling this is what makes
+     * a difference: the remote is then asked for uncompressed responses.
+     */
+    private boolean compression = true;
+
+
+    public RemoteRepositoryClientConfiguration()
+    {
+    }
+
+    public int getConnectTimeoutMillis()
+    {
+        return connectTimeoutMillis;
+    }
+
+    public void setConnectTimeoutMillis(int connectTimeoutMillis)
+    {
+        this.connectTimeoutMillis = connectTimeoutMillis;
+    }
+
+    public int getSocketTimeoutMillis()
+    {
+        return socketTimeoutMillis;
+    }
+
+    public void setSocketTimeoutMillis(int socketTimeoutMillis)
+    {
+        this.socketTimeoutMillis = socketTimeoutMillis;
+    }
+
+    public int getKeepAliveSeconds()
+    {
+        return keepAliveSeconds;
+    }
+
+    public void setKeepAliveSeconds(int keepAliveSeconds)
+    {
+        this.keepAliveSeconds = keepAliveSeconds;
+    }
+
+    public int getValidateAfterInactivityMillis()
+    {
+        return validateAfterInactivityMillis;
+    }
+
+    public void setValidateAfterInactivityMillis(int validateAfterInactivityMillis)
+    {
+        this.validateAfterInactivityMillis = validateAfterInactivityMillis;
+    }
+
+    public boolean isCompression()
+    {
+        return compression;
+    }
+
+    public void setCompression(boolean compression)
+    {
+        this.compression = compression;
+    }
+
+}
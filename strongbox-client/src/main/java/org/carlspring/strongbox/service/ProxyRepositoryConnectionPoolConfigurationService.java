@@ -1,6 +1,7 @@
 package org.carlspring.strongbox.service;
 
 import org.apache.http.pool.PoolStats;
+import org.carlspring.strongbox.client.RemoteRepositoryClientConfiguration;
 
 import javax.ws.rs.client.Client;
 
@@ -12,6 +13,13 @@ public interface ProxyRepositoryConnectionPoolConfigurationService
 
     Client getClient();
 
+    /**
+     * @return the client for the given remote repository, which is shared and must not be closed
+     */
+    Client getClient(String repository);
+
+    void setClientConfiguration(String repository, RemoteRepositoryClientConfiguration configuration);
+
     void setMaxTotal(int max);
 
     void setDefaultMaxPerRepository(int defaultMax);
@@ -1,13 +1,19 @@
 package org.carlspring.strongbox.service.impl;
 
+import org.apache.http.HttpClientConnection;
 import org.apache.http.HttpHost;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.HttpClientConnectionManager;
 import org.apache.http.conn.routing.HttpRoute;
 import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+import org.carlspring.strongbox.client.RemoteRepositoryClientConfiguration;
 import org.carlspring.strongbox.service.ProxyRepositoryConnectionPoolConfigurationService;
 import org.glassfish.jersey.apache.connector.ApacheClientProperties;
 import org.glassfish.jersey.apache.connector.ApacheConnectorProvider;
 import org.glassfish.jersey.client.ClientConfig;
+import org.glassfish.jersey.client.ClientProperties;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -17,8 +23,14 @@ import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import javax.ws.rs.client.Client;
 import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.client.ClientRequestContext;
+import javax.ws.rs.client.ClientRequestFilter;
+import javax.ws.rs.core.HttpHeaders;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -42,6 +54,14 @@ public class ProxyRepositoryConnectionPoolConfigurationServiceImpl
     @Value("${pool.idleConnectionsTimeoutInSeconds:60}")
     private int idleConnectionsTimeoutInSeconds;
 
+    /**
+     * K: The URL of the remote repository
+     * V: The client, with which the requests to the remote repository are made.
+     */
+    private final ConcurrentMap<String, Client> clients = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, RemoteRepositoryClientConfiguration> clientConfigurations = new ConcurrentHashMap<>();
+
     @PostConstruct
     public void init()
     {
@@ -63,13 +83,65 @@ public class ProxyRepositoryConnectionPoolConfigurationServiceImpl
     }
 
     public Client getClient()
+    {
+        return createClient(new RemoteRepositoryClientConfiguration());
+    }
+
+    @Override
+    public Client getClient(String repository)
+    {
+        return clients.computeIfAbsent(repository,
+                                       r -> createClient(clientConfigurations.getOrDefault(r,
+                                                                                           new RemoteRepositoryClientConfiguration())));
+    }
+
+    @Override
+    public void setClientConfiguration(String repository, RemoteRepositoryClientConfiguration configuration)
+    {
+        // The configuration is replaced under the same lock of the clients map, under which getClient() creates
+        // the client from it, so that no client can be created from the previous configuration, once it's been replaced.
+        clients.compute(repository, (r, previousClient) -> {
+            clientConfigurations.put(r, configuration);
+
+            // The responses, which the previous client is still reading, aren't affected, as the pool isn't closed
+            // with it.
+            if (previousClient != null)
+            {
+                previousClient.close();
+            }
+
+            return null;
+        });
+
+        // The pool is shared by all the remote repositories, so it validates connections as often as the strictest one
+        // of them requires.
+        int validateAfterInactivity = clientConfigurations.values()
+                                                          .stream()
+                                                          .mapToInt(RemoteRepositoryClientConfiguration::getValidateAfterInactivityMillis)
+                                                          .min()
+                                                          .orElse(RemoteRepositoryClientConfiguration.DEFAULT_VALIDATE_AFTER_INACTIVITY_MILLIS);
+        poolingHttpClientConnectionManager.setValidateAfterInactivity(validateAfterInactivity);
+    }
+
+    private Client createClient(RemoteRepositoryClientConfiguration configuration)
     {
         ClientConfig config = new ClientConfig();
         config.connectorProvider(new ApacheConnectorProvider());
-        config.property(ApacheClientProperties.CONNECTION_MANAGER, poolingHttpClientConnectionManager);
+        config.property(ApacheClientProperties.CONNECTION_MANAGER,
+                        new KeepAliveLimitingConnectionManager(poolingHttpClientConnectionManager,
+                                                               configuration.getKeepAliveSeconds()));
         // property to prevent closing connection manager when client is closed
         config.property(ApacheClientProperties.CONNECTION_MANAGER_SHARED, true);
 
+        config.property(ClientProperties.CONNECT_TIMEOUT, configuration.getConnectTimeoutMillis());
+        config.property(ClientProperties.READ_TIMEOUT, configuration.getSocketTimeoutMillis());
+
+        // HttpClient asks for, and decodes, compressed responses by itself, so this can only turn it off.
+        if (!configuration.isCompression())
+        {
+            config.register(IdentityEncodingFilter.class);
+        }
+
         // TODO set basic authentication here instead of setting it always in client?
         /* CredentialsProvider credentialsProvider = new BasicCredentialsProvider();
         credentialsProvider.setCredentials(AuthScope.ANY, new UsernamePasswordCredentials(userName, password));
@@ -161,6 +233,109 @@ public class ProxyRepositoryConnectionPoolConfigurationServiceImpl
         return new HttpRoute(HttpHost.create(repository));
     }
 
+    /**
+     * Asks the remote not to compress its responses.
+     */
+    public static final class IdentityEncodingFilter
+            implements ClientRequestFilter
+    {
+
+        @Override
+        public void filter(ClientRequestContext requestContext)
+        {
+            requestContext.getHeaders().putSingle(HttpHeaders.ACCEPT_ENCODING, "identity");
+        }
+
+    }
+
+    /**
+     * Hands the connections of a remote repository back to the shared pool for no longer than its keep-alive
+     * duration.
+     */
+    private static final class KeepAliveLimitingConnectionManager
+            implements HttpClientConnectionManager
+    {
+
+        private final HttpClientConnectionManager connectionManager;
+
+        private final long keepAliveMillis;
+
+        KeepAliveLimitingConnectionManager(HttpClientConnectionManager connectionManager,
+                                           int keepAliveSeconds)
+        {
+            this.connectionManager = connectionManager;
+            this.keepAliveMillis = TimeUnit.SECONDS.toMillis(keepAliveSeconds);
+        }
+
+        @Override
+        public ConnectionRequest requestConnection(HttpRoute route, Object state)
+        {
+            return connectionManager.requestConnection(route, state);
+        }
+
+        @Override
+        public void releaseConnection(HttpClientConnection connection,
+                                      Object newState,
+                                      long validDuration,
+                                      TimeUnit timeUnit)
+        {
+            // A non-positive duration means that the remote hasn't limited it.
+            long validMillis = validDuration > 0 ? timeUnit.toMillis(validDuration) : Long.MAX_VALUE;
+
+            connectionManager.releaseConnection(connection,
+                                                newState,
+                                                Math.min(validMillis, keepAliveMillis),
+                                                TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public void connect(HttpClientConnection connection,
+                            HttpRoute route,
+                            int connectTimeout,
+                            HttpContext context)
+                throws IOException
+        {
+            connectionManager.connect(connection, route, connectTimeout, context);
+        }
+
+        @Override
+        public void upgrade(HttpClientConnection connection,
+                            HttpRoute route,
+                            HttpContext context)
+                throws IOException
+        {
+            connectionManager.upgrade(connection, route, context);
+        }
+
+        @Override
+        public void routeComplete(HttpClientConnection connection,
+                                  HttpRoute route,
+                                  HttpContext context)
+                throws IOException
+        {
+            connectionManager.routeComplete(connection, route, context);
+        }
+
+        @Override
+        public void closeIdleConnections(long idleTime, TimeUnit timeUnit)
+        {
+            connectionManager.closeIdleConnections(idleTime, timeUnit);
+        }
+
+        @Override
+        public void closeExpiredConnections()
+        {
+            connectionManager.closeExpiredConnections();
+        }
+
+        @Override
+        public void shutdown()
+        {
+            // The pool is shared and is shut down along with this service.
+        }
+
+    }
+
     private static final class IdleConnectionMonitorThread extends Thread
     {
 
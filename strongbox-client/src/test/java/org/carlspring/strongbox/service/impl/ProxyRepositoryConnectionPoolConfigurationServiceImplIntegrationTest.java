@@ -1,11 +1,13 @@
 package org.carlspring.strongbox.service.impl;
 
+import org.carlspring.strongbox.client.RemoteRepositoryClientConfiguration;
 import org.carlspring.strongbox.config.ClientConfig;
 import org.carlspring.strongbox.service.ProxyRepositoryConnectionPoolConfigurationService;
 
 import javax.ws.rs.client.Client;
 import javax.ws.rs.core.Response;
 
+import org.glassfish.jersey.client.ClientProperties;
 import org.junit.Ignore;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -15,6 +17,8 @@ import org.springframework.context.annotation.Import;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
 /**
  * @author korest
@@ -56,6 +60,26 @@ public class ProxyRepositoryConnectionPoolConfigurationServiceImplIntegrationTes
         assertEquals(3, proxyRepositoryConnectionPoolConfigurationService.getPoolStats(repositoryUrl).getMax());
     }
 
+    @Test
+    public void clientsAreCachedPerRepository()
+    {
+        String repositoryUrl = "http://repo.spring.io/snapshot";
+        Client client = proxyRepositoryConnectionPoolConfigurationService.getClient(repositoryUrl);
+
+        assertSame(client, proxyRepositoryConnectionPoolConfigurationService.getClient(repositoryUrl));
+
+        RemoteRepositoryClientConfiguration configuration = new RemoteRepositoryClientConfiguration();
+        configuration.setSocketTimeoutMillis(5000);
+        configuration.setCompression(false);
+
+        proxyRepositoryConnectionPoolConfigurationService.setClientConfiguration(repositoryUrl, configuration);
+
+        Client reconfiguredClient = proxyRepositoryConnectionPoolConfigurationService.getClient(repositoryUrl);
+
+        assertNotSame(client, reconfiguredClient);
+        assertEquals(5000, reconfiguredClient.getConfiguration().getProperty(ClientProperties.READ_TIMEOUT));
+    }
+
     // integration test, external call to repo
     @Test
     public void connectionsReleasedTest()
@@ -3,6 +3,7 @@ package org.carlspring.strongbox.io;
 import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.LinkedHashMap;
@@ -28,6 +29,12 @@ public class ArtifactInputStream extends FilterInputStream
 
     private Map<String, String> hexDigests = new LinkedHashMap<>();
 
+    /**
+     * The file, which is being read, if it's stored on the file system. For a group repository, this is the file
+     * of the member, which the artifact was resolved from.
+     */
+    private Path path;
+
     public ArtifactInputStream(ArtifactCoordinates coordinates,
                                InputStream is)
         throws NoSuchAlgorithmException
@@ -43,6 +50,16 @@ public class ArtifactInputStream extends FilterInputStream
         return artifactCoordinates;
     }
 
+    public Path getPath()
+    {
+        return path;
+    }
+
+    public void setPath(Path path)
+    {
+        this.path = path;
+    }
+
     public final void addAlgorithm(String algorithm)
         throws NoSuchAlgorithmException
     {
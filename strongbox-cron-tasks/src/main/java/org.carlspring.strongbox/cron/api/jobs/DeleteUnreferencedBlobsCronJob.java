@@ -0,0 +1,76 @@
+package org.carlspring.strongbox.cron.api.jobs;
+
+import org.carlspring.strongbox.configuration.ConfigurationManager;
+import org.carlspring.strongbox.cron.config.JobManager;
+import org.carlspring.strongbox.cron.domain.CronTaskConfiguration;
+import org.carlspring.strongbox.providers.storage.ContentAddressableStorageProvider;
+import org.carlspring.strongbox.storage.Storage;
+
+import java.io.IOException;
+
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Reclaims the space of the blobs, which are no longer linked from any repository, because the artifacts were
+ * overwritten, or deleted (and the trash was emptied), in the storage given by the storageId property, or in all
+ * the storages, if it isn't set.
+ */
+public class DeleteUnreferencedBlobsCronJob
+        extends JavaCronJob
+{
+
+    private final Logger logger = LoggerFactory.getLogger(DeleteUnreferencedBlobsCronJob.class);
+
+    @Autowired
+    private ContentAddressableStorageProvider contentAddressableStorageProvider;
+
+    @Autowired
+    private ConfigurationManager configurationManager;
+
+    @Autowired
+    private JobManager manager;
+
+    @Override
+    protected void executeInternal(JobExecutionContext jobExecutionContext)
+            throws JobExecutionException
+    {
+        logger.debug("Executed DeleteUnreferencedBlobsCronJob.");
+
+        CronTaskConfiguration config = (CronTaskConfiguration) jobExecutionContext.getMergedJobDataMap().get("config");
+
+        try
+        {
+            String storageId = config.getProperty("storageId");
+
+            if (storageId == null)
+            {
+                for (Storage storage : configurationManager.getConfiguration().getStorages().values())
+                {
+                    contentAddressableStorageProvider.deleteUnreferencedBlobs(storage);
+                }
+            }
+            else
+            {
+                Storage storage = configurationManager.getConfiguration().getStorage(storageId);
+                if (storage != null)
+                {
+                    contentAddressableStorageProvider.deleteUnreferencedBlobs(storage);
+                }
+                else
+                {
+                    logger.warn("Storage " + storageId + " does not exist.");
+                }
+            }
+        }
+        catch (IOException e)
+        {
+            logger.error(e.getMessage(), e);
+        }
+
+        manager.addExecutedJob(config.getName(), true);
+    }
+}
@@ -0,0 +1,56 @@
+package org.carlspring.strongbox.cron.api.jobs;
+
+import org.carlspring.strongbox.cron.config.JobManager;
+import org.carlspring.strongbox.cron.domain.CronTaskConfiguration;
+import org.carlspring.strongbox.services.ProxyCacheEvictionService;
+
+import java.io.IOException;
+
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+
+public class EvictProxyRepositoryCacheCronJob
+        extends JavaCronJob
+{
+
+    private final Logger logger = LoggerFactory.getLogger(EvictProxyRepositoryCacheCronJob.class);
+
+    @Autowired
+    private ProxyCacheEvictionService proxyCacheEvictionService;
+
+    @Autowired
+    private JobManager manager;
+
+    @Override
+    protected void executeInternal(JobExecutionContext jobExecutionContext)
+            throws JobExecutionException
+    {
+        logger.debug("Executed EvictProxyRepositoryCacheCronJob.");
+
+        CronTaskConfiguration config = (CronTaskConfiguration) jobExecutionContext.getMergedJobDataMap().get("config");
+
+        try
+        {
+            String storageId = config.getProperty("storageId");
+            String repositoryId = config.getProperty("repositoryId");
+
+            if (storageId == null && repositoryId == null)
+            {
+                proxyCacheEvictionService.evict();
+            }
+            else
+            {
+                proxyCacheEvictionService.evict(storageId, repositoryId);
+            }
+        }
+        catch (IOException e)
+        {
+            logger.error(e.getMessage(), e);
+        }
+
+        manager.addExecutedJob(config.getName(), true);
+    }
+}
@@ -44,6 +44,7 @@ public class RebuildMavenMetadataCronJob
         logger.debug("Executed RebuildMavenMetadataCronJob.");
 
         CronTaskConfiguration config = (CronTaskConfiguration) jobExecutionContext.getMergedJobDataMap().get("config");
+        boolean rebuilt = true;
         try
         {
             String storageId = config.getProperty("storageId");
@@ -55,12 +56,12 @@ public class RebuildMavenMetadataCronJob
                 Map<String, Storage> storages = getStorages();
                 for (String storage : storages.keySet())
                 {
-                    rebuildRepositories(storage);
+                    rebuilt &= rebuildRepositories(storage);
                 }
             }
             else if (repositoryId == null)
             {
-                rebuildRepositories(storageId);
+                rebuilt = rebuildRepositories(storageId);
             }
             else
             {
@@ -70,28 +71,39 @@ public class RebuildMavenMetadataCronJob
         catch (IOException | XmlPullParserException | NoSuchAlgorithmException e)
         {
             logger.error(e.getMessage(), e);
+
+            rebuilt = false;
         }
 
-        manager.addExecutedJob(config.getName(), true);
+        manager.addExecutedJob(config.getName(), rebuilt);
     }
 
     /**
-     * To rebuild artifact's metadata in repositories
+     * To rebuild artifact's metadata in repositories; a repository which fails doesn't stop the others
      *
      * @param storageId path of storage
-     * @throws NoSuchAlgorithmException
-     * @throws XmlPullParserException
-     * @throws IOException
+     * @return whether the metadata of all the repositories was rebuilt
      */
-    private void rebuildRepositories(String storageId)
-            throws NoSuchAlgorithmException, XmlPullParserException, IOException
+    private boolean rebuildRepositories(String storageId)
     {
         Map<String, Repository> repositories = getRepositories(storageId);
 
+        boolean rebuilt = true;
         for (String repository : repositories.keySet())
         {
-            artifactMetadataService.rebuildMetadata(storageId, repository, null);
+            try
+            {
+                artifactMetadataService.rebuildMetadata(storageId, repository, null);
+            }
+            catch (IOException | XmlPullParserException | NoSuchAlgorithmException e)
+            {
+                logger.error(e.getMessage(), e);
+
+                rebuilt = false;
+            }
         }
+
+        return rebuilt;
     }
 
     private Map<String, Storage> getStorages()
@@ -0,0 +1,85 @@
+package org.carlspring.strongbox.cron.api.jobs;
+
+import org.carlspring.strongbox.cron.config.JobManager;
+import org.carlspring.strongbox.cron.domain.CronTaskConfiguration;
+import org.carlspring.strongbox.services.ProxyRepositoryWarmUpService;
+import org.carlspring.strongbox.storage.proxy.ProxyRepositoryWarmUpProgress;
+
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Populates the cache of a proxy repository with the artifacts (comma-separated, in the
+ * groupId:artifactId:version[:type[:classifier]] format), the parent and dependencies of the POM file
+ * and the artifacts listed by its index under the prefix, which are specified in the configuration.
+ */
+public class WarmUpProxyRepositoryCronJob
+        extends JavaCronJob
+{
+
+    private final Logger logger = LoggerFactory.getLogger(WarmUpProxyRepositoryCronJob.class);
+
+    @Autowired
+    private ProxyRepositoryWarmUpService proxyRepositoryWarmUpService;
+
+    @Autowired
+    private JobManager manager;
+
+    @Override
+    protected void executeInternal(JobExecutionContext jobExecutionContext)
+            throws JobExecutionException
+    {
+        logger.debug("Executed WarmUpProxyRepositoryCronJob.");
+
+        CronTaskConfiguration config = (CronTaskConfiguration) jobExecutionContext.getMergedJobDataMap().get("config");
+        try
+        {
+            String storageId = config.getProperty("storageId");
+            String repositoryId = config.getProperty("repositoryId");
+            String artifacts = config.getProperty("artifacts");
+            String pomPath = config.getProperty("pomPath");
+            String prefix = config.getProperty("prefix");
+
+            Set<String> paths = new LinkedHashSet<>();
+            if (artifacts != null)
+            {
+                paths.addAll(proxyRepositoryWarmUpService.getPathsOfArtifacts(Arrays.asList(artifacts.split(","))));
+            }
+            if (pomPath != null)
+            {
+                try (InputStream is = new FileInputStream(pomPath))
+                {
+                    paths.addAll(proxyRepositoryWarmUpService.getPathsOfDependencies(is));
+                }
+            }
+            if (prefix != null)
+            {
+                paths.addAll(proxyRepositoryWarmUpService.getPathsUnderPrefix(storageId, repositoryId, prefix));
+            }
+
+            ProxyRepositoryWarmUpProgress progress = proxyRepositoryWarmUpService.warmUp(storageId,
+                                                                                         repositoryId,
+                                                                                         paths,
+                                                                                         p -> manager.setJobProgress(
+                                                                                                 config.getName(),
+                                                                                                 p.toString()));
+
+            manager.setJobProgress(config.getName(), progress.toString());
+        }
+        catch (Exception e)
+        {
+            logger.error(e.getMessage(), e);
+        }
+
+        manager.addExecutedJob(config.getName(), true);
+    }
+}
@@ -24,4 +24,27 @@ public interface JobManager
      */
     Map<String, Boolean> getExecutedJobs();
 
+    /**
+     * Set the progress of a running job
+     *
+     * @param jobName  job's name type String
+     * @param progress human-readable progress type String
+     */
+    void setJobProgress(String jobName,
+                        String progress);
+
+    /**
+     * Get map of the progress of jobs
+     *
+     * @return progress of jobs type Map<String, String>
+     */
+    Map<String, String> getJobProgress();
+
+    /**
+     * Remove the status and the progress of a job, which is not going to be executed again
+     *
+     * @param jobName job's name type String
+     */
+    void removeJob(String jobName);
+
 }
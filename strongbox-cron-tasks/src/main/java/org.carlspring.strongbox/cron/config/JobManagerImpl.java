@@ -15,6 +15,8 @@ public class JobManagerImpl
 
     private Map<String, Boolean> executedJobs = new ConcurrentHashMap<>();
 
+    private Map<String, String> jobProgress = new ConcurrentHashMap<>();
+
     public void addExecutedJob(String jobName,
                                Boolean statusExecuted)
     {
@@ -26,4 +28,21 @@ public class JobManagerImpl
         return executedJobs;
     }
 
+    public void setJobProgress(String jobName,
+                               String progress)
+    {
+        jobProgress.put(jobName, progress);
+    }
+
+    public Map<String, String> getJobProgress()
+    {
+        return jobProgress;
+    }
+
+    public void removeJob(String jobName)
+    {
+        executedJobs.remove(jobName);
+        jobProgress.remove(jobName);
+    }
+
 }
@@ -0,0 +1,272 @@
+package org.carlspring.strongbox.cron.controller;
+
+import org.carlspring.strongbox.controller.BaseArtifactController;
+import org.carlspring.strongbox.cron.config.JobManager;
+import org.carlspring.strongbox.services.ProxyRepositoryWarmUpService;
+import org.carlspring.strongbox.storage.ArtifactStorageException;
+import org.carlspring.strongbox.storage.repository.RepositoryTypeEnum;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Warms up the caches of proxy repositories in the background. Each warm-up is reported as a job of the
+ * {@link JobManager}, whose name is returned, so that its progress can be followed. Unlike cron jobs, these jobs
+ * don't run again, so they are removed from the {@link JobManager}, once they've been finished for a while.
+ */
+@RestController
+@RequestMapping("/proxy-cache")
+@Api(value = "/proxy-cache")
+public class ProxyCacheManagementController
+        extends BaseArtifactController
+{
+
+    @Autowired
+    private ProxyRepositoryWarmUpService proxyRepositoryWarmUpService;
+
+    @Autowired
+    private JobManager jobManager;
+
+    @Value("${proxy.warmUp.progressRetentionMinutes:60}")
+    private long progressRetentionMinutes;
+
+    /**
+     * K: The name of the job of a finished warm-up
+     * V: The time at which it finished.
+     */
+    private final ConcurrentMap<String, Long> finishedWarmUps = new ConcurrentHashMap<>();
+
+
+    @ApiOperation(value = "Used to populate the cache of a proxy repository with the given artifacts, " +
+                          "or with the artifacts listed by its index under the given path.",
+                  position = 0)
+    @ApiResponses(value = { @ApiResponse(code = 202,
+                                         message = "The warm-up was started; the name of its job is returned."),
+                            @ApiResponse(code = 400,
+                                         message = "The specified repository is not a proxy repository, " +
+                                                   "or nothing to warm up was specified."),
+                            @ApiResponse(code = 404,
+                                         message = "The specified (storageId/repositoryId) does not exist!"),
+                            @ApiResponse(code = 500,
+                                         message = "An error occurred.") })
+    @PreAuthorize("hasAuthority('MANAGEMENT_WARM_UP_PROXY_CACHE')")
+    @RequestMapping(value = "{storageId}/{repositoryId}/warm-up",
+                    method = RequestMethod.POST,
+                    produces = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity warmUp(@ApiParam(value = "The storageId",
+                                           required = true)
+                                 @PathVariable String storageId,
+                                 @ApiParam(value = "The repositoryId",
+                                           required = true)
+                                 @PathVariable String repositoryId,
+                                 @ApiParam(value = "The artifacts (groupId:artifactId:version[:type[:classifier]])")
+                                 @RequestParam(name = "artifact", required = false) List<String> artifacts,
+                                 @ApiParam(value = "The path of a group, or an artifact, in the index of the repository")
+                                 @RequestParam(name = "prefix", required = false) String prefix)
+            throws IOException
+    {
+        ResponseEntity error = validate(storageId, repositoryId);
+        if (error != null)
+        {
+            return error;
+        }
+
+        Set<String> paths = new LinkedHashSet<>(proxyRepositoryWarmUpService.getPathsOfArtifacts(
+                artifacts != null ? artifacts : Collections.emptyList()));
+        if (prefix != null && !prefix.trim().isEmpty())
+        {
+            paths.addAll(proxyRepositoryWarmUpService.getPathsUnderPrefix(storageId, repositoryId, prefix.trim()));
+        }
+
+        if (paths.isEmpty())
+        {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                                 .body("No artifacts to warm up were specified!");
+        }
+
+        return warmUp(storageId, repositoryId, paths);
+    }
+
+    @ApiOperation(value = "Used to populate the cache of a proxy repository with the parent and the dependencies " +
+                          "of the POM in the request body.",
+                  position = 1)
+    @ApiResponses(value = { @ApiResponse(code = 202,
+                                         message = "The warm-up was started; the name of its job is returned."),
+                            @ApiResponse(code = 400,
+                                         message = "The specified repository is not a proxy repository, " +
+                                                   "or the POM could not be parsed."),
+                            @ApiResponse(code = 404,
+                                         message = "The specified (storageId/repositoryId) does not exist!"),
+                            @ApiResponse(code = 500,
+                                         message = "An error occurred.") })
+    @PreAuthorize("hasAuthority('MANAGEMENT_WARM_UP_PROXY_CACHE')")
+    @RequestMapping(value = "{storageId}/{repositoryId}/warm-up/pom",
+                    method = RequestMethod.POST,
+                    consumes = { MediaType.APPLICATION_XML_VALUE,
+                                 MediaType.TEXT_XML_VALUE,
+                                 MediaType.APPLICATION_OCTET_STREAM_VALUE },
+                    produces = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity warmUpDependencies(@ApiParam(value = "The storageId",
+                                                       required = true)
+                                             @PathVariable String storageId,
+                                             @ApiParam(value = "The repositoryId",
+                                                       required = true)
+                                             @PathVariable String repositoryId,
+                                             HttpServletRequest request)
+            throws IOException
+    {
+        ResponseEntity error = validate(storageId, repositoryId);
+        if (error != null)
+        {
+            return error;
+        }
+
+        Set<String> paths;
+        try
+        {
+            paths = proxyRepositoryWarmUpService.getPathsOfDependencies(request.getInputStream());
+        }
+        catch (XmlPullParserException e)
+        {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                                 .body("Failed to parse the POM: " + e.getMessage());
+        }
+
+        return warmUp(storageId, repositoryId, paths);
+    }
+
+    private ResponseEntity validate(String storageId,
+                                    String repositoryId)
+    {
+        if (getStorage(storageId) == null)
+        {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                                 .body("The specified storageId does not exist!");
+        }
+        if (getRepository(storageId, repositoryId) == null)
+        {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                                 .body("The specified repositoryId does not exist!");
+        }
+        if (!RepositoryTypeEnum.PROXY.getType().equals(getRepository(storageId, repositoryId).getType()))
+        {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                                 .body("The specified repository is not a proxy repository!");
+        }
+
+        return null;
+    }
+
+    @ApiOperation(value = "Used to get the progress of a warm-up.",
+                  position = 2)
+    @ApiResponses(value = { @ApiResponse(code = 200,
+                                         message = "The progress of the warm-up."),
+                            @ApiResponse(code = 404,
+                                         message = "The specified warm-up does not exist!") })
+    @PreAuthorize("hasAuthority('MANAGEMENT_WARM_UP_PROXY_CACHE')")
+    @RequestMapping(value = "warm-up/{jobName}",
+                    method = RequestMethod.GET,
+                    produces = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity getWarmUpProgress(@ApiParam(value = "The name of the job of the warm-up",
+                                                      required = true)
+                                            @PathVariable String jobName)
+    {
+        removeExpiredWarmUps();
+
+        String progress = jobManager.getJobProgress().get(jobName);
+        if (progress == null)
+        {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                                 .body("The specified warm-up does not exist!");
+        }
+
+        return ResponseEntity.ok(progress);
+    }
+
+    private ResponseEntity warmUp(String storageId,
+                                  String repositoryId,
+                                  Set<String> paths)
+            throws IOException
+    {
+        removeExpiredWarmUps();
+
+        String jobName = "WarmUp-" + storageId + "-" + repositoryId + "-" + UUID.randomUUID();
+        try
+        {
+            jobManager.setJobProgress(jobName, "0/" + paths.size());
+
+            proxyRepositoryWarmUpService.warmUpAsync(storageId,
+                                                     repositoryId,
+                                                     paths,
+                                                     p -> jobManager.setJobProgress(jobName, p.toString()))
+                                        .whenComplete((progress, e) -> {
+                                            if (e != null)
+                                            {
+                                                logger.error("Failed to warm up " + storageId + ":" + repositoryId, e);
+
+                                                jobManager.setJobProgress(jobName, "Failed: " + e.getMessage());
+                                            }
+                                            else
+                                            {
+                                                jobManager.setJobProgress(jobName, progress.toString());
+                                            }
+
+                                            jobManager.addExecutedJob(jobName, e == null);
+
+                                            finishedWarmUps.put(jobName, System.currentTimeMillis());
+                                        });
+
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                                 .body(jobName);
+        }
+        catch (ArtifactStorageException e)
+        {
+            jobManager.getJobProgress().remove(jobName);
+
+            logger.error(e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                                 .body(e.getMessage());
+        }
+    }
+
+    private void removeExpiredWarmUps()
+    {
+        long expiredBefore = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(progressRetentionMinutes);
+        for (Map.Entry<String, Long> finishedWarmUp : finishedWarmUps.entrySet())
+        {
+            if (finishedWarmUp.getValue() < expiredBefore &&
+                finishedWarmUps.remove(finishedWarmUp.getKey(), finishedWarmUp.getValue()))
+            {
+                jobManager.removeJob(finishedWarmUp.getKey());
+            }
+        }
+    }
+
+}
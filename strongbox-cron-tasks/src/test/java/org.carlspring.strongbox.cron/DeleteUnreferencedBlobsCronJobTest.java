@@ -0,0 +1,166 @@
+package org.carlspring.strongbox.cron;
+
+import org.carlspring.strongbox.cron.api.jobs.DeleteUnreferencedBlobsCronJob;
+import org.carlspring.strongbox.cron.config.JobManager;
+import org.carlspring.strongbox.cron.context.CronTaskTest;
+import org.carlspring.strongbox.cron.domain.CronTaskConfiguration;
+import org.carlspring.strongbox.cron.services.CronTaskConfigurationService;
+import org.carlspring.strongbox.io.RepositoryPath;
+import org.carlspring.strongbox.providers.storage.ContentAddressableStorageProvider;
+import org.carlspring.strongbox.services.ConfigurationManagementService;
+import org.carlspring.strongbox.services.RepositoryManagementService;
+import org.carlspring.strongbox.storage.Storage;
+import org.carlspring.strongbox.storage.repository.Repository;
+import org.carlspring.strongbox.storage.repository.RepositoryPolicyEnum;
+import org.carlspring.strongbox.storage.repository.RepositoryTypeEnum;
+import org.carlspring.strongbox.testing.TestCaseWithArtifactGeneration;
+
+import javax.inject.Inject;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Reclaims the blob of an artifact in a content-addressable repository, once the artifact has been deleted. Relies
+ * on the link counts of the files, so it only reclaims anything on Unix-like file systems.
+ */
+@CronTaskTest
+@RunWith(SpringJUnit4ClassRunner.class)
+public class DeleteUnreferencedBlobsCronJobTest
+        extends TestCaseWithArtifactGeneration
+{
+
+    private static final String ARTIFACT_PATH = "org/carlspring/strongbox/cas/strongbox-cas/1.0/strongbox-cas-1.0.jar";
+
+    private static final String CONTENT = "strongbox-unreferenced-blob";
+
+    private static final long TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(60);
+
+    @Inject
+    private CronTaskConfigurationService cronTaskConfigurationService;
+
+    @Inject
+    private ConfigurationManagementService configurationManagementService;
+
+    @Inject
+    private RepositoryManagementService repositoryManagementService;
+
+    @Inject
+    private ContentAddressableStorageProvider contentAddressableStorageProvider;
+
+    @Inject
+    private JobManager jobManager;
+
+    private static Repository repository;
+
+    private static boolean initialized;
+
+
+    @Before
+    public void setUp()
+            throws Exception
+    {
+        if (!initialized)
+        {
+            repository = new Repository("releases-cas");
+            repository.setPolicy(RepositoryPolicyEnum.RELEASE.getPolicy());
+            repository.setType(RepositoryTypeEnum.HOSTED.getType());
+            repository.setImplementation("content-addressable");
+            Storage storage = configurationManagementService.getStorage("storage0");
+            repository.setStorage(storage);
+            repositoryManagementService.createRepository("storage0", "releases-cas");
+            storage.addOrUpdateRepository(repository);
+
+            initialized = true;
+        }
+    }
+
+    public void addBlobsCronJobConfig(String name,
+                                      String storageId)
+            throws Exception
+    {
+        CronTaskConfiguration cronTaskConfiguration = new CronTaskConfiguration();
+        cronTaskConfiguration.setName(name);
+        cronTaskConfiguration.addProperty("jobClass", DeleteUnreferencedBlobsCronJob.class.getName());
+        cronTaskConfiguration.addProperty("cronExpression", "0/5 * * * * ? *");
+        cronTaskConfiguration.addProperty("storageId", storageId);
+
+        cronTaskConfigurationService.saveConfiguration(cronTaskConfiguration);
+        CronTaskConfiguration obj = cronTaskConfigurationService.findOne(name);
+        assertNotNull(obj);
+    }
+
+    public void deleteBlobsCronJobConfig(String name)
+            throws Exception
+    {
+        List<CronTaskConfiguration> confs = cronTaskConfigurationService.getConfiguration(name);
+
+        for (CronTaskConfiguration cnf : confs)
+        {
+            assertNotNull(cnf);
+            cronTaskConfigurationService.deleteConfiguration(cnf);
+        }
+
+        assertNull(cronTaskConfigurationService.findOne(name));
+    }
+
+    @Test
+    public void testBlobsOfDeletedArtifactsAreReclaimed()
+            throws Exception
+    {
+        String jobName = "DeleteUnreferencedBlobs-1";
+
+        RepositoryPath repositoryPath = contentAddressableStorageProvider.resolve(repository);
+        Path artifactPath = repositoryPath.resolve(ARTIFACT_PATH).getTarget();
+        Files.createDirectories(artifactPath.getParent());
+
+        try (OutputStream os = contentAddressableStorageProvider.getOutputStreamImplementation(repositoryPath,
+                                                                                              ARTIFACT_PATH))
+        {
+            os.write(CONTENT.getBytes(StandardCharsets.UTF_8));
+        }
+
+        String digest = DigestUtils.sha256Hex(CONTENT);
+        Path blob = Paths.get(repository.getStorage().getBasedir(), ".blobs", "sha256", digest.substring(0, 2),
+                              digest.substring(2, 4), digest);
+        assertTrue("Failed to store the blob!", Files.isSameFile(blob, artifactPath));
+
+        Files.delete(artifactPath);
+
+        addBlobsCronJobConfig(jobName, "storage0");
+
+        try
+        {
+            //Checking if job was executed
+            long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+            while (!jobManager.getExecutedJobs().containsKey(jobName))
+            {
+                assertTrue("The job was not executed within " + TIMEOUT_MILLIS + " ms!",
+                           System.currentTimeMillis() < deadline);
+
+                Thread.sleep(500);
+            }
+
+            assertFalse("Failed to delete the unreferenced blob!", Files.exists(blob));
+        }
+        finally
+        {
+            deleteBlobsCronJobConfig(jobName);
+        }
+    }
+
+}
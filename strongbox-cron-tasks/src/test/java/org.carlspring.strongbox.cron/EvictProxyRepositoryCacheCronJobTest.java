@@ -0,0 +1,153 @@
+package org.carlspring.strongbox.cron;
+
+import org.carlspring.maven.commons.util.ArtifactUtils;
+import org.carlspring.strongbox.cron.api.jobs.EvictProxyRepositoryCacheCronJob;
+import org.carlspring.strongbox.cron.config.JobManager;
+import org.carlspring.strongbox.cron.context.CronTaskTest;
+import org.carlspring.strongbox.cron.domain.CronTaskConfiguration;
+import org.carlspring.strongbox.cron.services.CronTaskConfigurationService;
+import org.carlspring.strongbox.resource.ConfigurationResourceResolver;
+import org.carlspring.strongbox.services.ConfigurationManagementService;
+import org.carlspring.strongbox.services.RepositoryManagementService;
+import org.carlspring.strongbox.storage.Storage;
+import org.carlspring.strongbox.storage.repository.CacheEvictionConfiguration;
+import org.carlspring.strongbox.storage.repository.CacheEvictionPolicyEnum;
+import org.carlspring.strongbox.storage.repository.Repository;
+import org.carlspring.strongbox.storage.repository.RepositoryPolicyEnum;
+import org.carlspring.strongbox.storage.repository.RepositoryTypeEnum;
+import org.carlspring.strongbox.testing.TestCaseWithArtifactGeneration;
+
+import javax.inject.Inject;
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.artifact.Artifact;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@CronTaskTest
+@RunWith(SpringJUnit4ClassRunner.class)
+public class EvictProxyRepositoryCacheCronJobTest
+        extends TestCaseWithArtifactGeneration
+{
+
+    @Inject
+    private CronTaskConfigurationService cronTaskConfigurationService;
+
+    @Inject
+    private ConfigurationManagementService configurationManagementService;
+
+    @Inject
+    private RepositoryManagementService repositoryManagementService;
+
+    @Inject
+    private JobManager jobManager;
+
+    private static final File REPOSITORY_BASEDIR = new File(ConfigurationResourceResolver.getVaultDirectory() +
+                                                            "/storages/storage0/proxied-evicted");
+
+    private static final long TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(60);
+
+    private static Artifact artifact;
+
+    private static boolean initialized;
+
+    @Before
+    public void setUp()
+            throws Exception
+    {
+        if (!initialized)
+        {
+            CacheEvictionConfiguration cacheEvictionConfiguration = new CacheEvictionConfiguration();
+            // Anything is over the quota, so all the artifacts are evicted.
+            cacheEvictionConfiguration.setMaxSizeBytes(1);
+            cacheEvictionConfiguration.setPolicy(CacheEvictionPolicyEnum.LRU.getPolicy());
+
+            Repository repository = new Repository("proxied-evicted");
+            repository.setPolicy(RepositoryPolicyEnum.RELEASE.getPolicy());
+            repository.setType(RepositoryTypeEnum.PROXY.getType());
+            repository.setCacheEvictionConfiguration(cacheEvictionConfiguration);
+            Storage storage = configurationManagementService.getStorage("storage0");
+            repository.setStorage(storage);
+            repositoryManagementService.createRepository("storage0", "proxied-evicted");
+            storage.addOrUpdateRepository(repository);
+
+            artifact = generateArtifact(REPOSITORY_BASEDIR.getAbsolutePath(),
+                                        "org.carlspring.strongbox.evict:strongbox-test-one:1.0:jar");
+
+            initialized = true;
+        }
+    }
+
+    public void addEvictionCronJobConfig(String name,
+                                         String storageId,
+                                         String repositoryId)
+            throws Exception
+    {
+        CronTaskConfiguration cronTaskConfiguration = new CronTaskConfiguration();
+        cronTaskConfiguration.setName(name);
+        cronTaskConfiguration.addProperty("jobClass", EvictProxyRepositoryCacheCronJob.class.getName());
+        cronTaskConfiguration.addProperty("cronExpression", "0/5 * * * * ? *");
+        cronTaskConfiguration.addProperty("storageId", storageId);
+        cronTaskConfiguration.addProperty("repositoryId", repositoryId);
+
+        cronTaskConfigurationService.saveConfiguration(cronTaskConfiguration);
+        CronTaskConfiguration obj = cronTaskConfigurationService.findOne(name);
+        assertNotNull(obj);
+    }
+
+    public void deleteEvictionCronJobConfig(String name)
+            throws Exception
+    {
+        List<CronTaskConfiguration> confs = cronTaskConfigurationService.getConfiguration(name);
+
+        for (CronTaskConfiguration cnf : confs)
+        {
+            assertNotNull(cnf);
+            cronTaskConfigurationService.deleteConfiguration(cnf);
+        }
+
+        assertNull(cronTaskConfigurationService.findOne(name));
+    }
+
+    @Test
+    public void testEvictArtifactsOverQuota()
+            throws Exception
+    {
+        String jobName = "EvictProxyCache-1";
+
+        File artifactFile = new File(REPOSITORY_BASEDIR, ArtifactUtils.convertArtifactToPath(artifact));
+        assertTrue("Failed to generate the artifact!", artifactFile.exists());
+
+        addEvictionCronJobConfig(jobName, "storage0", "proxied-evicted");
+
+        try
+        {
+            //Checking if job was executed
+            long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+            while (!jobManager.getExecutedJobs().containsKey(jobName))
+            {
+                assertTrue("The job was not executed within " + TIMEOUT_MILLIS + " ms!",
+                           System.currentTimeMillis() < deadline);
+
+                Thread.sleep(500);
+            }
+
+            assertFalse("Failed to evict the artifact!", artifactFile.exists());
+            assertFalse("Failed to evict the checksum of the artifact!",
+                        new File(artifactFile.getAbsolutePath() + ".sha1").exists());
+        }
+        finally
+        {
+            deleteEvictionCronJobConfig(jobName);
+        }
+    }
+
+}
@@ -0,0 +1,187 @@
+package org.carlspring.strongbox.cron;
+
+import org.carlspring.strongbox.cron.api.jobs.WarmUpProxyRepositoryCronJob;
+import org.carlspring.strongbox.cron.config.JobManager;
+import org.carlspring.strongbox.cron.context.CronTaskTest;
+import org.carlspring.strongbox.cron.domain.CronTaskConfiguration;
+import org.carlspring.strongbox.cron.services.CronTaskConfigurationService;
+import org.carlspring.strongbox.providers.repository.LocalRemoteRepository;
+import org.carlspring.strongbox.resource.ConfigurationResourceResolver;
+import org.carlspring.strongbox.services.ConfigurationManagementService;
+import org.carlspring.strongbox.services.RepositoryManagementService;
+import org.carlspring.strongbox.storage.Storage;
+import org.carlspring.strongbox.storage.repository.RemoteRepository;
+import org.carlspring.strongbox.storage.repository.Repository;
+import org.carlspring.strongbox.storage.repository.RepositoryPolicyEnum;
+import org.carlspring.strongbox.storage.repository.RepositoryTypeEnum;
+import org.carlspring.strongbox.testing.TestCaseWithArtifactGeneration;
+
+import javax.inject.Inject;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Warms up a proxy of a {@link LocalRemoteRepository}, so that the test doesn't depend on the network.
+ */
+@CronTaskTest
+@RunWith(SpringJUnit4ClassRunner.class)
+public class WarmUpProxyRepositoryCronJobTest
+        extends TestCaseWithArtifactGeneration
+{
+
+    private static final String ARTIFACT_PATH = "org/carlspring/strongbox/warmup/warmup-foo/1.0/warmup-foo-1.0.jar";
+
+    private static final String POM_PATH = "org/carlspring/strongbox/warmup/warmup-foo/1.0/warmup-foo-1.0.pom";
+
+    private static final File REPOSITORY_BASEDIR = new File(ConfigurationResourceResolver.getVaultDirectory() +
+                                                            "/storages/storage0/proxied-warm-up");
+
+    private static final long TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(60);
+
+    @Inject
+    private CronTaskConfigurationService cronTaskConfigurationService;
+
+    @Inject
+    private ConfigurationManagementService configurationManagementService;
+
+    @Inject
+    private RepositoryManagementService repositoryManagementService;
+
+    @Inject
+    private JobManager jobManager;
+
+    private static LocalRemoteRepository remote;
+
+    private static boolean initialized;
+
+
+    @BeforeClass
+    public static void startRemote()
+            throws Exception
+    {
+        byte[] artifact = "warmup-foo".getBytes(StandardCharsets.UTF_8);
+        byte[] pom = "<project/>".getBytes(StandardCharsets.UTF_8);
+
+        remote = new LocalRemoteRepository();
+        remote.addResource(ARTIFACT_PATH, artifact);
+        remote.addResource(ARTIFACT_PATH + ".sha1", checksum(artifact));
+        remote.addResource(POM_PATH, pom);
+        remote.addResource(POM_PATH + ".sha1", checksum(pom));
+    }
+
+    @AfterClass
+    public static void stopRemote()
+    {
+        remote.close();
+    }
+
+    @Before
+    public void setUp()
+            throws Exception
+    {
+        if (!initialized)
+        {
+            RemoteRepository remoteRepository = new RemoteRepository();
+            remoteRepository.setUrl(remote.getUrl());
+
+            Repository repository = new Repository("proxied-warm-up");
+            repository.setPolicy(RepositoryPolicyEnum.RELEASE.getPolicy());
+            repository.setType(RepositoryTypeEnum.PROXY.getType());
+            repository.setRemoteRepository(remoteRepository);
+            Storage storage = configurationManagementService.getStorage("storage0");
+            repository.setStorage(storage);
+            repositoryManagementService.createRepository("storage0", "proxied-warm-up");
+            storage.addOrUpdateRepository(repository);
+
+            initialized = true;
+        }
+    }
+
+    public void addWarmUpCronJobConfig(String name,
+                                       String storageId,
+                                       String repositoryId,
+                                       String artifacts)
+            throws Exception
+    {
+        CronTaskConfiguration cronTaskConfiguration = new CronTaskConfiguration();
+        cronTaskConfiguration.setName(name);
+        cronTaskConfiguration.addProperty("jobClass", WarmUpProxyRepositoryCronJob.class.getName());
+        cronTaskConfiguration.addProperty("cronExpression", "0/5 * * * * ? *");
+        cronTaskConfiguration.addProperty("storageId", storageId);
+        cronTaskConfiguration.addProperty("repositoryId", repositoryId);
+        cronTaskConfiguration.addProperty("artifacts", artifacts);
+
+        cronTaskConfigurationService.saveConfiguration(cronTaskConfiguration);
+        CronTaskConfiguration obj = cronTaskConfigurationService.findOne(name);
+        assertNotNull(obj);
+    }
+
+    public void deleteWarmUpCronJobConfig(String name)
+            throws Exception
+    {
+        List<CronTaskConfiguration> confs = cronTaskConfigurationService.getConfiguration(name);
+
+        for (CronTaskConfiguration cnf : confs)
+        {
+            assertNotNull(cnf);
+            cronTaskConfigurationService.deleteConfiguration(cnf);
+        }
+
+        assertNull(cronTaskConfigurationService.findOne(name));
+    }
+
+    @Test
+    public void testWarmUpReportsProgress()
+            throws Exception
+    {
+        String jobName = "WarmUp-1";
+
+        addWarmUpCronJobConfig(jobName,
+                               "storage0",
+                               "proxied-warm-up",
+                               "org.carlspring.strongbox.warmup:warmup-foo:1.0");
+
+        try
+        {
+            //Checking if job was executed
+            long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+            while (!jobManager.getExecutedJobs().containsKey(jobName))
+            {
+                assertTrue("The job was not executed within " + TIMEOUT_MILLIS + " ms!",
+                           System.currentTimeMillis() < deadline);
+
+                Thread.sleep(500);
+            }
+
+            // The jar, the POM and the checksums of both.
+            String progress = jobManager.getJobProgress().get(jobName);
+            assertTrue("Unexpected progress " + progress + "!", progress.startsWith("4/4"));
+
+            assertTrue("Failed to cache the artifact!", new File(REPOSITORY_BASEDIR, ARTIFACT_PATH).exists());
+            assertTrue("Failed to cache the POM!", new File(REPOSITORY_BASEDIR, POM_PATH).exists());
+        }
+        finally
+        {
+            deleteWarmUpCronJobConfig(jobName);
+        }
+    }
+
+    private static byte[] checksum(byte[] content)
+    {
+        return DigestUtils.sha1Hex(content).getBytes(StandardCharsets.UTF_8);
+    }
+
+}
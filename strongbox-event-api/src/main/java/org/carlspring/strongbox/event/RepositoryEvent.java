@@ -22,6 +22,10 @@ public class RepositoryEvent
 
     private int type;
 
+    private String storageId;
+
+    private String repositoryId;
+
 
     public RepositoryEvent()
     {
@@ -32,6 +36,15 @@ public class RepositoryEvent
         this.type = type;
     }
 
+    public RepositoryEvent(int type,
+                           String storageId,
+                           String repositoryId)
+    {
+        this.type = type;
+        this.storageId = storageId;
+        this.repositoryId = repositoryId;
+    }
+
     public int getType()
     {
         return type;
@@ -42,4 +55,24 @@ public class RepositoryEvent
         this.type = type;
     }
 
+    public String getStorageId()
+    {
+        return storageId;
+    }
+
+    public void setStorageId(String storageId)
+    {
+        this.storageId = storageId;
+    }
+
+    public String getRepositoryId()
+    {
+        return repositoryId;
+    }
+
+    public void setRepositoryId(String repositoryId)
+    {
+        this.repositoryId = repositoryId;
+    }
+
 }
@@ -1,11 +1,18 @@
 package org.carlspring.strongbox.storage.metadata;
 
 import org.carlspring.maven.commons.util.ArtifactUtils;
+import org.carlspring.strongbox.storage.metadata.comparators.SnapshotVersionComparator;
+import org.carlspring.strongbox.storage.metadata.comparators.VersionComparator;
 
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.artifact.repository.metadata.Metadata;
@@ -120,6 +127,124 @@ public class MetadataMerger
         return metadata;
     }
 
+    /**
+     * Merges the metadata of the same path from several repositories (for example, the members of a group),
+     * so that the result lists the versions, snapshot versions and plugins of all of them. Where the documents
+     * disagree (latest, release, snapshot), the most recent value wins.
+     *
+     * @param metadatas the metadata in the order of precedence
+     * @return the merged metadata, or null if there was nothing to merge
+     */
+    public Metadata merge(List<Metadata> metadatas)
+    {
+        if (metadatas.isEmpty())
+        {
+            return null;
+        }
+
+        VersionComparator versionComparator = new VersionComparator();
+
+        Metadata merged = new Metadata();
+        Set<String> versions = new TreeSet<>(versionComparator);
+        Map<String, SnapshotVersion> snapshotVersions = new LinkedHashMap<>();
+        Map<String, Plugin> plugins = new LinkedHashMap<>();
+
+        Versioning mergedVersioning = null;
+        for (Metadata metadata : metadatas)
+        {
+            if (merged.getGroupId() == null)
+            {
+                merged.setGroupId(metadata.getGroupId());
+            }
+            if (merged.getArtifactId() == null)
+            {
+                merged.setArtifactId(metadata.getArtifactId());
+            }
+            if (merged.getVersion() == null)
+            {
+                merged.setVersion(metadata.getVersion());
+            }
+
+            for (Plugin plugin : metadata.getPlugins())
+            {
+                plugins.putIfAbsent(plugin.getPrefix() + ":" + plugin.getArtifactId(), plugin);
+            }
+
+            Versioning versioning = metadata.getVersioning();
+            if (versioning == null)
+            {
+                continue;
+            }
+            if (mergedVersioning == null)
+            {
+                mergedVersioning = new Versioning();
+            }
+
+            versions.addAll(versioning.getVersions());
+
+            mergedVersioning.setLatest(max(mergedVersioning.getLatest(), versioning.getLatest(), versionComparator));
+            mergedVersioning.setRelease(max(mergedVersioning.getRelease(), versioning.getRelease(), versionComparator));
+            mergedVersioning.setLastUpdated(max(mergedVersioning.getLastUpdated(),
+                                                versioning.getLastUpdated(),
+                                                Comparator.naturalOrder()));
+
+            Snapshot snapshot = versioning.getSnapshot();
+            if (snapshot != null && (mergedVersioning.getSnapshot() == null ||
+                                     isMoreRecent(snapshot.getTimestamp(),
+                                                  mergedVersioning.getSnapshot().getTimestamp())))
+            {
+                mergedVersioning.setSnapshot(snapshot);
+            }
+
+            for (SnapshotVersion snapshotVersion : versioning.getSnapshotVersions())
+            {
+                // There is one snapshot version per classifier and extension, which is the most recent one.
+                snapshotVersions.merge(snapshotVersion.getClassifier() + ":" + snapshotVersion.getExtension(),
+                                       snapshotVersion,
+                                       (v1, v2) -> isMoreRecent(v2.getUpdated(), v1.getUpdated()) ? v2 : v1);
+            }
+        }
+
+        if (mergedVersioning != null)
+        {
+            mergedVersioning.setVersions(new ArrayList<>(versions));
+
+            List<SnapshotVersion> mergedSnapshotVersions = new ArrayList<>(snapshotVersions.values());
+            mergedSnapshotVersions.sort(new SnapshotVersionComparator());
+            mergedVersioning.setSnapshotVersions(mergedSnapshotVersions);
+
+            merged.setVersioning(mergedVersioning);
+        }
+        merged.setPlugins(new ArrayList<>(plugins.values()));
+
+        return merged;
+    }
+
+    private static <T> T max(T value1,
+                             T value2,
+                             Comparator<T> comparator)
+    {
+        if (value1 == null)
+        {
+            return value2;
+        }
+        if (value2 == null)
+        {
+            return value1;
+        }
+
+        return comparator.compare(value1, value2) >= 0 ? value1 : value2;
+    }
+
+    /**
+     * The timestamps are formatted so that they sort lexicographically.
+     */
+    private static boolean isMoreRecent(String timestamp1,
+                                        String timestamp2)
+    {
+        return timestamp1 != null && (timestamp2 == null || timestamp1.compareTo(timestamp2) > 0);
+    }
+
     private Collection<SnapshotVersion> createNewSnapshotVersions(String version, String timestamp, int buildNumber)
     {
         Collection<SnapshotVersion> toReturn = new ArrayList<>();
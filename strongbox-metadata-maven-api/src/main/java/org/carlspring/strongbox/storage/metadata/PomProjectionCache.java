@@ -0,0 +1,304 @@
+package org.carlspring.strongbox.storage.metadata;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Holds the few fields of the POM-s, which the metadata generation needs, so that the POM-s of the versions, which
+ * haven't changed, aren't parsed again on every generation.
+ *
+ * An entry is only used, while the last modified time and the size of its POM are still the same. The least recently
+ * used entries are evicted, once there are more than the maximum size.
+ *
+ * A pass over a repository with more POM-s than the maximum size would evict every entry before it's used again, so
+ * a rebuild doesn't use the cache shared by the incremental updates. It loads the entries of each artifact directory
+ * from a {@link #FILE_NAME} file in it into a cache of its own and saves them back, once the directory is done, so
+ * that it only ever holds the POM-s of the directories it's working on.
+ */
+public class PomProjectionCache
+{
+
+    private static final Logger logger = LoggerFactory.getLogger(PomProjectionCache.class);
+
+    /**
+     * The file, in which the entries of an artifact directory are saved.
+     */
+    public static final String FILE_NAME = ".pom-projections";
+
+    private static final String SEPARATOR = "\t";
+
+    /**
+     * K: the absolute path of the POM
+     * V: the projection of the POM
+     */
+    private final Cache<String, PomProjection> entries;
+
+
+    /**
+     * Creates a cache, which is never evicted, for the POM-s of a single artifact directory.
+     */
+    public PomProjectionCache()
+    {
+        this.entries = CacheBuilder.newBuilder().build();
+    }
+
+    public PomProjectionCache(int maxSize)
+    {
+        this.entries = CacheBuilder.newBuilder()
+                                   .maximumSize(maxSize)
+                                   .build();
+    }
+
+    /**
+     * @return the projection of the POM; it's only parsed, if it has changed since it was last cached
+     */
+    public PomProjection get(Path pomPath)
+            throws IOException,
+                   XmlPullParserException
+    {
+        BasicFileAttributes fileAttributes = Files.readAttributes(pomPath, BasicFileAttributes.class);
+        long lastModified = fileAttributes.lastModifiedTime().toMillis();
+        long size = fileAttributes.size();
+
+        String key = pomPath.toAbsolutePath().toString();
+
+        PomProjection projection = entries.getIfPresent(key);
+        if (projection != null && projection.getLastModified() == lastModified && projection.getSize() == size)
+        {
+            return projection;
+        }
+
+        projection = PomProjection.of(read(pomPath), lastModified, size);
+
+        entries.put(key, projection);
+
+        return projection;
+    }
+
+    public static Model read(Path pomPath)
+            throws IOException,
+                   XmlPullParserException
+    {
+        try (InputStream is = Files.newInputStream(pomPath))
+        {
+            return new MavenXpp3Reader().read(is);
+        }
+    }
+
+    /**
+     * Loads the entries, which were saved for the POM-s under the given directory.
+     */
+    public void load(Path cachePath,
+                     Path basedir)
+            throws IOException
+    {
+        int loaded = 0;
+        try (Stream<String> lines = Files.lines(cachePath, StandardCharsets.UTF_8))
+        {
+            for (String line : (Iterable<String>) lines::iterator)
+            {
+                String[] fields = line.split(SEPARATOR, -1);
+                if (fields.length != 7)
+                {
+                    logger.warn("Skipping a malformed entry in " + cachePath + ".");
+
+                    continue;
+                }
+
+                PomProjection projection = new PomProjection(emptyToNull(fields[3]),
+                                                             emptyToNull(fields[4]),
+                                                             emptyToNull(fields[5]),
+                                                             emptyToNull(fields[6]),
+                                                             Long.parseLong(fields[1]),
+                                                             Long.parseLong(fields[2]));
+
+                entries.asMap().putIfAbsent(basedir.resolve(fields[0]).toAbsolutePath().toString(), projection);
+
+                loaded++;
+            }
+        }
+        catch (NoSuchFileException e)
+        {
+            return;
+        }
+        catch (NumberFormatException e)
+        {
+            throw new IOException("Failed to load " + cachePath + ".", e);
+        }
+
+        logger.debug("Loaded " + loaded + " POM projections from " + cachePath + ".");
+    }
+
+    /**
+     * Saves the entries of the POM-s under the given directory, replacing the previously saved ones. The entries of
+     * the POM-s, which have been deleted since, are dropped.
+     */
+    public void save(Path cachePath,
+                     Path basedir)
+            throws IOException
+    {
+        String prefix = basedir.toAbsolutePath().toString() + File.separator;
+
+        Files.createDirectories(cachePath.getParent());
+
+        String fileName = cachePath.getFileName().toString();
+        Path tempPath = cachePath.resolveSibling((fileName.startsWith(".") ? "" : ".") + fileName + ".tmp");
+        try
+        {
+            try (BufferedWriter writer = Files.newBufferedWriter(tempPath, StandardCharsets.UTF_8))
+            {
+                for (Map.Entry<String, PomProjection> entry : entries.asMap().entrySet())
+                {
+                    if (!entry.getKey().startsWith(prefix) || !Files.exists(Paths.get(entry.getKey())))
+                    {
+                        continue;
+                    }
+
+                    PomProjection projection = entry.getValue();
+
+                    writer.write(String.join(SEPARATOR,
+                                             entry.getKey().substring(prefix.length()),
+                                             String.valueOf(projection.getLastModified()),
+                                             String.valueOf(projection.getSize()),
+                                             nullToEmpty(projection.getVersion()),
+                                             nullToEmpty(projection.getPackaging()),
+                                             nullToEmpty(projection.getName()),
+                                             nullToEmpty(projection.getArtifactId())));
+                    writer.newLine();
+                }
+            }
+
+            Files.move(tempPath, cachePath, StandardCopyOption.REPLACE_EXISTING);
+        }
+        finally
+        {
+            Files.deleteIfExists(tempPath);
+        }
+    }
+
+    public int size()
+    {
+        return (int) entries.size();
+    }
+
+    public void invalidateAll()
+    {
+        entries.invalidateAll();
+    }
+
+    private static String nullToEmpty(String value)
+    {
+        // Tabs and line breaks would break the format and are meaningless in these fields anyway.
+        return value != null ? value.replaceAll("[\\t\\r\\n]+", " ") : "";
+    }
+
+    private static String emptyToNull(String value)
+    {
+        return !value.isEmpty() ? value : null;
+    }
+
+    public static class PomProjection
+    {
+
+        private final String version;
+
+        private final String packaging;
+
+        private final String name;
+
+        private final String artifactId;
+
+        private final long lastModified;
+
+        private final long size;
+
+
+        public PomProjection(String version,
+                             String packaging,
+                             String name,
+                             String artifactId,
+                             long lastModified,
+                             long size)
+        {
+            this.version = version;
+            this.packaging = packaging;
+            this.name = name;
+            this.artifactId = artifactId;
+            this.lastModified = lastModified;
+            this.size = size;
+        }
+
+        public static PomProjection of(Model pom,
+                                       long lastModified,
+                                       long size)
+        {
+            // The version may be inherited from the parent.
+            String version = pom.getVersion() != null ?
+                             pom.getVersion() :
+                             (pom.getParent() != null ? pom.getParent().getVersion() : null);
+
+            return new PomProjection(version,
+                                     pom.getPackaging(),
+                                     pom.getName(),
+                                     pom.getArtifactId(),
+                                     lastModified,
+                                     size);
+        }
+
+        public String getVersion()
+        {
+            return version;
+        }
+
+        public String getPackaging()
+        {
+            return packaging;
+        }
+
+        public String getName()
+        {
+            return name;
+        }
+
+        public String getArtifactId()
+        {
+            return artifactId;
+        }
+
+        public long getLastModified()
+        {
+            return lastModified;
+        }
+
+        public long getSize()
+        {
+            return size;
+        }
+
+        public boolean isPlugin()
+        {
+            return "maven-plugin".equals(packaging);
+        }
+
+    }
+
+}
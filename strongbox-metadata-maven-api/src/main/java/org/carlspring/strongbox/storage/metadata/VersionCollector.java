@@ -3,13 +3,13 @@ package org.carlspring.strongbox.storage.metadata;
 import org.carlspring.maven.commons.io.filters.PomFilenameFilter;
 import org.carlspring.maven.commons.util.ArtifactUtils;
 import org.carlspring.strongbox.io.filters.ArtifactVersionDirectoryFilter;
+import org.carlspring.strongbox.storage.metadata.PomProjectionCache.PomProjection;
 import org.carlspring.strongbox.storage.metadata.comparators.MetadataVersionComparator;
 import org.carlspring.strongbox.storage.metadata.comparators.SnapshotVersionComparator;
 import org.carlspring.strongbox.storage.metadata.versions.MetadataVersion;
 import org.carlspring.strongbox.storage.metadata.visitors.ArtifactVersionDirectoryVisitor;
 
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -26,7 +26,6 @@ import org.apache.maven.artifact.repository.metadata.Plugin;
 import org.apache.maven.artifact.repository.metadata.SnapshotVersion;
 import org.apache.maven.artifact.repository.metadata.Versioning;
 import org.apache.maven.model.Model;
-import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
 import org.apache.maven.plugin.descriptor.PluginDescriptor;
 import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
 import org.slf4j.Logger;
@@ -40,11 +39,21 @@ public class VersionCollector
 
     private static final Logger logger = LoggerFactory.getLogger(VersionCollector.class);
 
+    /**
+     * Optional; when not set, the POM-s are parsed every time.
+     */
+    private PomProjectionCache pomProjectionCache;
+
 
     public VersionCollector()
     {
     }
 
+    public VersionCollector(PomProjectionCache pomProjectionCache)
+    {
+        this.pomProjectionCache = pomProjectionCache;
+    }
+
     public VersionCollectionRequest collectVersions(Path artifactBasePath)
     {
         VersionCollectionRequest request = new VersionCollectionRequest();
@@ -66,14 +75,14 @@ public class VersionCollector
                 // No pom, no metadata.
                 if (pomArtifactPath != null)
                 {
-                    Model pom = getPom(pomArtifactPath);
+                    PomProjection pom = getPom(pomArtifactPath);
 
                     BasicFileAttributes fileAttributes = Files.readAttributes(versionDirectoryPath, BasicFileAttributes.class);
 
-                    // TODO: This will not work for versionless POM-s which extend the version from a parent.
-                    // TODO: If pom.getVersion() == null, walk the parents until a parent with
+                    // TODO: This will not work for versionless POM-s which inherit the version from a grandparent.
+                    // TODO: If the parent's version is null as well, walk the parents until a parent with
                     // TODO: a non-null version is found and use that as the version.
-                    String version = pom.getVersion() != null ? pom.getVersion() : (pom.getParent() != null ? pom.getVersion() : null);
+                    String version = pom.getVersion();
 
                     if (ArtifactUtils.isSnapshot(version))
                     {
@@ -86,7 +95,7 @@ public class VersionCollector
 
                     versions.add(metadataVersion);
 
-                    if (artifactIsPlugin(pom))
+                    if (pom.isPlugin())
                     {
                         String name = pom.getName() != null ? pom.getName() : pom.getArtifactId();
 
@@ -218,21 +227,34 @@ public class VersionCollector
         return versioning;
     }
 
-    private boolean artifactIsPlugin(Model model)
-    {
-        return model.getPackaging().equals("maven-plugin");
-    }
-
     private boolean artifactIsSnapshot(Model model)
     {
         return model.getVersion().matches("^(.+)-((?i)snapshot).*$");
     }
 
-    private Model getPom(Path filePath)
+    private PomProjection getPom(Path filePath)
             throws IOException, XmlPullParserException
     {
-        MavenXpp3Reader reader = new MavenXpp3Reader();
-        return reader.read(new FileReader(filePath.toFile()));
+        if (pomProjectionCache != null)
+        {
+            return pomProjectionCache.get(filePath);
+        }
+
+        BasicFileAttributes fileAttributes = Files.readAttributes(filePath, BasicFileAttributes.class);
+
+        return PomProjection.of(PomProjectionCache.read(filePath),
+                                fileAttributes.lastModifiedTime().toMillis(),
+                                fileAttributes.size());
+    }
+
+    public PomProjectionCache getPomProjectionCache()
+    {
+        return pomProjectionCache;
+    }
+
+    public void setPomProjectionCache(PomProjectionCache pomProjectionCache)
+    {
+        this.pomProjectionCache = pomProjectionCache;
     }
 
 }
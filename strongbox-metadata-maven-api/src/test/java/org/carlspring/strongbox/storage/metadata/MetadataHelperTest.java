@@ -1,6 +1,7 @@
 package org.carlspring.strongbox.storage.metadata;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collection;
 import java.util.List;
@@ -270,6 +271,72 @@ public class MetadataHelperTest
         Assert.assertEquals("", metadata.getPlugins().get(0).getPrefix());
     }
 
+    @Test
+    public void mergeMetadataOfSeveralRepositoriesTest()
+    {
+        Metadata metadata1 = new Metadata();
+        metadata1.setGroupId(GROUP_ID);
+        metadata1.setArtifactId(ARTIFACT_ID);
+        metadata1.setVersioning(new Versioning());
+        metadata1.getVersioning().addVersion(PRE_VERSION);
+        metadata1.getVersioning().addVersion("1.10");
+        metadata1.getVersioning().setRelease("1.10");
+        metadata1.getVersioning().setLastUpdated("20170101000000");
+
+        Metadata metadata2 = new Metadata();
+        metadata2.setGroupId(GROUP_ID);
+        metadata2.setArtifactId(ARTIFACT_ID);
+        metadata2.setVersioning(new Versioning());
+        metadata2.getVersioning().addVersion(PRE_VERSION);
+        metadata2.getVersioning().addVersion(VERSION);
+        metadata2.getVersioning().setRelease(VERSION);
+        metadata2.getVersioning().setLastUpdated("20170202000000");
+
+        Plugin plugin = new Plugin();
+        plugin.setArtifactId(ANOTHER_ARTIFACT_ID);
+        plugin.setPrefix("mockito");
+        metadata2.addPlugin(plugin);
+
+        Metadata merged = metadataMerger.merge(Arrays.asList(metadata1, metadata2));
+
+        Assert.assertEquals(GROUP_ID, merged.getGroupId());
+        Assert.assertEquals(ARTIFACT_ID, merged.getArtifactId());
+        // The versions are ordered as versions, rather than as strings.
+        Assert.assertEquals(Arrays.asList(PRE_VERSION, VERSION, "1.10"), merged.getVersioning().getVersions());
+        Assert.assertEquals("1.10", merged.getVersioning().getRelease());
+        Assert.assertEquals("20170202000000", merged.getVersioning().getLastUpdated());
+        Assert.assertEquals(1, merged.getPlugins().size());
+    }
+
+    @Test
+    public void mergeSnapshotVersionsKeepsTheMostRecentTest()
+    {
+        SnapshotVersion older = new SnapshotVersion();
+        older.setExtension(JAR);
+        older.setVersion("1.0-20170101.000000-1");
+        older.setUpdated("20170101000000");
+
+        SnapshotVersion newer = new SnapshotVersion();
+        newer.setExtension(JAR);
+        newer.setVersion("1.0-20170202.000000-2");
+        newer.setUpdated("20170202000000");
+
+        Metadata metadata1 = new Metadata();
+        metadata1.setVersion(SNAPSHOT_VERSION);
+        metadata1.setVersioning(new Versioning());
+        metadata1.getVersioning().addSnapshotVersion(older);
+
+        Metadata metadata2 = new Metadata();
+        metadata2.setVersion(SNAPSHOT_VERSION);
+        metadata2.setVersioning(new Versioning());
+        metadata2.getVersioning().addSnapshotVersion(newer);
+
+        Metadata merged = metadataMerger.merge(Arrays.asList(metadata1, metadata2));
+
+        Assert.assertEquals(1, merged.getVersioning().getSnapshotVersions().size());
+        Assert.assertEquals(newer.getVersion(), merged.getVersioning().getSnapshotVersions().get(0).getVersion());
+    }
+
     private Metadata createGroupLevelMetadata()
     {
         Metadata metadata = new Metadata();
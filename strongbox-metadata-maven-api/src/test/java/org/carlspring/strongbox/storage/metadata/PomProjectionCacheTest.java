@@ -0,0 +1,182 @@
+package org.carlspring.strongbox.storage.metadata;
+
+import org.carlspring.strongbox.storage.metadata.PomProjectionCache.PomProjection;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PomProjectionCacheTest
+{
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+
+    @Test
+    public void testUnchangedPomIsNotParsedAgain()
+            throws Exception
+    {
+        Path pomPath = writePom("foo-plugin", "1.0", "maven-plugin");
+
+        PomProjectionCache cache = new PomProjectionCache(10);
+
+        PomProjection projection = cache.get(pomPath);
+
+        assertEquals("1.0", projection.getVersion());
+        assertEquals("foo-plugin", projection.getArtifactId());
+        assertTrue(projection.isPlugin());
+        assertSame(projection, cache.get(pomPath));
+    }
+
+    @Test
+    public void testChangedPomIsParsedAgain()
+            throws Exception
+    {
+        Path pomPath = writePom("foo", "1.0", "jar");
+
+        PomProjectionCache cache = new PomProjectionCache(10);
+        PomProjection projection = cache.get(pomPath);
+
+        writePom("foo", "1.0.1", "jar");
+        Files.setLastModifiedTime(pomPath, FileTime.fromMillis(projection.getLastModified() + 1000));
+
+        PomProjection changedProjection = cache.get(pomPath);
+
+        assertNotSame(projection, changedProjection);
+        assertEquals("1.0.1", changedProjection.getVersion());
+        assertFalse(changedProjection.isPlugin());
+    }
+
+    @Test
+    public void testCacheIsBounded()
+            throws Exception
+    {
+        PomProjectionCache cache = new PomProjectionCache(2);
+
+        cache.get(writePom("foo", "1.0", "jar"));
+        cache.get(writePom("bar", "1.0", "jar"));
+        cache.get(writePom("baz", "1.0", "jar"));
+
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testUnboundedCacheSavesEveryEntry()
+            throws Exception
+    {
+        Path basedir = temporaryFolder.getRoot().toPath();
+        Path cachePath = basedir.resolve(PomProjectionCache.FILE_NAME);
+
+        // More POM-s than a bounded cache of the same pass would keep.
+        PomProjectionCache cache = new PomProjectionCache();
+        for (int i = 0; i < 5; i++)
+        {
+            cache.get(writePom("foo-" + i, "1.0", "jar"));
+        }
+        cache.save(cachePath, basedir);
+
+        PomProjectionCache loadedCache = new PomProjectionCache();
+        loadedCache.load(cachePath, basedir);
+
+        assertEquals(5, loadedCache.size());
+    }
+
+    @Test
+    public void testEntriesOfDeletedPomsAreNotSaved()
+            throws Exception
+    {
+        Path basedir = temporaryFolder.getRoot().toPath();
+        Path cachePath = basedir.resolve(PomProjectionCache.FILE_NAME);
+
+        PomProjectionCache cache = new PomProjectionCache();
+        cache.get(writePom("foo", "1.0", "jar"));
+        cache.get(writePom("bar", "1.0", "jar"));
+        cache.save(cachePath, basedir);
+
+        Files.delete(basedir.resolve("bar.pom"));
+
+        PomProjectionCache loadedCache = new PomProjectionCache();
+        loadedCache.load(cachePath, basedir);
+        loadedCache.save(cachePath, basedir);
+
+        PomProjectionCache reloadedCache = new PomProjectionCache();
+        reloadedCache.load(cachePath, basedir);
+
+        assertEquals(1, reloadedCache.size());
+    }
+
+    @Test
+    public void testSavedEntriesAreLoaded()
+            throws Exception
+    {
+        Path basedir = temporaryFolder.getRoot().toPath();
+        Path cachePath = basedir.resolve(PomProjectionCache.FILE_NAME);
+        Path pomPath = writePom("foo-plugin", "1.0", "maven-plugin");
+
+        PomProjectionCache cache = new PomProjectionCache(10);
+        PomProjection projection = cache.get(pomPath);
+        cache.save(cachePath, basedir);
+
+        PomProjectionCache loadedCache = new PomProjectionCache(10);
+        loadedCache.load(cachePath, basedir);
+
+        assertEquals(1, loadedCache.size());
+
+        PomProjection loadedProjection = loadedCache.get(pomPath);
+
+        assertEquals(projection.getVersion(), loadedProjection.getVersion());
+        assertEquals(projection.getPackaging(), loadedProjection.getPackaging());
+        assertEquals(projection.getName(), loadedProjection.getName());
+        assertEquals(projection.getArtifactId(), loadedProjection.getArtifactId());
+    }
+
+    @Test
+    public void testVersionIsInheritedFromTheParent()
+            throws Exception
+    {
+        Path pomPath = temporaryFolder.newFile("child.pom").toPath();
+        Files.write(pomPath,
+                    ("<project>" +
+                     "<modelVersion>4.0.0</modelVersion>" +
+                     "<parent>" +
+                     "<groupId>org.carlspring.strongbox</groupId>" +
+                     "<artifactId>parent</artifactId>" +
+                     "<version>2.0</version>" +
+                     "</parent>" +
+                     "<artifactId>child</artifactId>" +
+                     "</project>").getBytes(StandardCharsets.UTF_8));
+
+        assertEquals("2.0", new PomProjectionCache(10).get(pomPath).getVersion());
+    }
+
+    private Path writePom(String artifactId,
+                          String version,
+                          String packaging)
+            throws Exception
+    {
+        Path pomPath = temporaryFolder.getRoot().toPath().resolve(artifactId + ".pom");
+        Files.write(pomPath,
+                    ("<project>" +
+                     "<modelVersion>4.0.0</modelVersion>" +
+                     "<groupId>org.carlspring.strongbox</groupId>" +
+                     "<artifactId>" + artifactId + "</artifactId>" +
+                     "<version>" + version + "</version>" +
+                     "<packaging>" + packaging + "</packaging>" +
+                     "<name>" + artifactId + "</name>" +
+                     "</project>").getBytes(StandardCharsets.UTF_8));
+
+        return pomPath;
+    }
+
+}
@@ -0,0 +1,220 @@
+package org.carlspring.strongbox.artifact.locator;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Records the directories, which a {@link ParallelArtifactDirectoryLocator} has completely processed, so that an
+ * interrupted run can be resumed, rather than started all over again.
+ *
+ * Only the group directories are recorded, as recording every artifact directory would make the file, and the set
+ * loaded from it, as large as the repository is.
+ *
+ * Only one run at a time can use a checkpoint; while it's open, a lock is held on a file next to it, which is kept
+ * afterwards, as deleting it would let two runs lock different files of the same name.
+ */
+public class ArtifactDirectoryCheckpoint
+        implements Closeable
+{
+
+    private static final Logger logger = LoggerFactory.getLogger(ArtifactDirectoryCheckpoint.class);
+
+    private static final String HEADER_PREFIX = "# startingPath: ";
+
+    private static final String LOCK_EXTENSION = ".lock";
+
+    private final Path checkpointPath;
+
+    /**
+     * The directory, which the recorded paths are relative to.
+     */
+    private final Path basedir;
+
+    private final Set<String> completedPaths = new HashSet<>();
+
+    private BufferedWriter writer;
+
+    private FileChannel lockChannel;
+
+    private FileLock lock;
+
+
+    public ArtifactDirectoryCheckpoint(Path checkpointPath,
+                                       Path basedir)
+    {
+        this.checkpointPath = checkpointPath;
+        this.basedir = basedir;
+    }
+
+    /**
+     * Loads the directories completed by a previous run from the same starting path. The checkpoint of a run from
+     * a different starting path is discarded.
+     *
+     * @throws ArtifactDirectoryCheckpointLockedException if another run is using the checkpoint
+     */
+    public synchronized void open(Path startingPath)
+            throws IOException
+    {
+        lock();
+        try
+        {
+            load(startingPath);
+        }
+        catch (IOException | RuntimeException e)
+        {
+            close();
+
+            throw e;
+        }
+    }
+
+    private void lock()
+            throws IOException
+    {
+        Path lockPath = checkpointPath.resolveSibling(checkpointPath.getFileName() + LOCK_EXTENSION);
+
+        lockChannel = FileChannel.open(lockPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try
+        {
+            lock = lockChannel.tryLock();
+        }
+        catch (OverlappingFileLockException e)
+        {
+            // Held by another run in this JVM.
+            lock = null;
+        }
+
+        if (lock == null)
+        {
+            lockChannel.close();
+            lockChannel = null;
+
+            throw new ArtifactDirectoryCheckpointLockedException("Another run is already using " + checkpointPath +
+                                                                 ".");
+        }
+    }
+
+    private void load(Path startingPath)
+            throws IOException
+    {
+        String header = HEADER_PREFIX + relativize(startingPath);
+
+        boolean resume = false;
+        if (Files.exists(checkpointPath))
+        {
+            List<String> lines = Files.readAllLines(checkpointPath, StandardCharsets.UTF_8);
+            if (!lines.isEmpty() && lines.get(0).equals(header))
+            {
+                completedPaths.addAll(lines.subList(1, lines.size()));
+                resume = true;
+
+                logger.info("Resuming from " + checkpointPath + " (" + completedPaths.size() + " directories" +
+                            " have already been completed).");
+            }
+        }
+
+        writer = Files.newBufferedWriter(checkpointPath,
+                                         StandardCharsets.UTF_8,
+                                         StandardOpenOption.CREATE,
+                                         resume ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING,
+                                         StandardOpenOption.WRITE);
+        if (!resume)
+        {
+            writer.write(header);
+            writer.newLine();
+            writer.flush();
+        }
+    }
+
+    public boolean isCompleted(Path directory)
+    {
+        return completedPaths.contains(relativize(directory));
+    }
+
+    public synchronized void complete(Path directory)
+            throws IOException
+    {
+        if (writer == null)
+        {
+            // The run has already been stopped.
+            return;
+        }
+
+        writer.write(relativize(directory));
+        writer.newLine();
+        writer.flush();
+    }
+
+    /**
+     * Removes the checkpoint, once the run has completed.
+     */
+    public synchronized void delete()
+            throws IOException
+    {
+        try
+        {
+            if (writer != null)
+            {
+                writer.close();
+                writer = null;
+            }
+
+            // Before the lock is released, so that the checkpoint of the next run is not deleted instead.
+            Files.deleteIfExists(checkpointPath);
+        }
+        finally
+        {
+            close();
+        }
+    }
+
+    @Override
+    public synchronized void close()
+            throws IOException
+    {
+        try
+        {
+            if (writer != null)
+            {
+                writer.close();
+                writer = null;
+            }
+        }
+        finally
+        {
+            if (lockChannel != null)
+            {
+                // Closing the channel releases the lock.
+                lockChannel.close();
+                lockChannel = null;
+                lock = null;
+            }
+        }
+    }
+
+    private String relativize(Path directory)
+    {
+        return basedir.relativize(directory).toString().replace(File.separatorChar, '/');
+    }
+
+    public Path getCheckpointPath()
+    {
+        return checkpointPath;
+    }
+
+}
@@ -0,0 +1,17 @@
+package org.carlspring.strongbox.artifact.locator;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a run tries to open an {@link ArtifactDirectoryCheckpoint}, which another run is using.
+ */
+public class ArtifactDirectoryCheckpointLockedException
+        extends IOException
+{
+
+    public ArtifactDirectoryCheckpointLockedException(String message)
+    {
+        super(message);
+    }
+
+}
@@ -0,0 +1,251 @@
+package org.carlspring.strongbox.artifact.locator;
+
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Locates the artifact directories (the ones containing the version directories of an artifact) under a starting
+ * path and passes each of them to a handler.
+ *
+ * Unlike the {@link ArtifactDirectoryLocator}, this never walks, or sorts the whole tree at once. Each directory is
+ * a task of a {@link ForkJoinPool}, which forks a task for each of its sub-directories, so that idle threads steal
+ * whole groupId subtrees from the busy ones. Memory use is bounded by the depth of the tree, rather than its size.
+ *
+ * The handler is called concurrently and must therefore be thread-safe.
+ */
+public class ParallelArtifactDirectoryLocator
+{
+
+    private static final Logger logger = LoggerFactory.getLogger(ParallelArtifactDirectoryLocator.class);
+
+    // Skip directories which start with a dot (like, for example: .index)
+    private static final DirectoryStream.Filter<Path> VISIBLE_DIRECTORIES =
+            path -> Files.isDirectory(path) && !path.getFileName().toString().startsWith(".");
+
+    private Path startingPath;
+
+    private Consumer<Path> handler;
+
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Optional; when set, the run can be resumed, if it's interrupted.
+     */
+    private ArtifactDirectoryCheckpoint checkpoint;
+
+
+    /**
+     * @return whether all the artifact directories were handled; if not, the checkpoint is kept, so that the next
+     *         run resumes from where this one stopped
+     */
+    public boolean locateArtifactDirectories()
+            throws IOException
+    {
+        if (!Files.isDirectory(startingPath))
+        {
+            throw new NoSuchFileException(startingPath.toString());
+        }
+
+        long startTime = System.currentTimeMillis();
+
+        if (checkpoint != null)
+        {
+            checkpoint.open(startingPath);
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        boolean completed = false;
+        try
+        {
+            completed = pool.submit(new DirectoryTask(startingPath)).get();
+        }
+        catch (InterruptedException e)
+        {
+            logger.warn("Interrupted while locating the artifact directories under " + startingPath + ".");
+
+            Thread.currentThread().interrupt();
+        }
+        catch (ExecutionException e)
+        {
+            throw new IOException("Failed to locate the artifact directories under " + startingPath + ".",
+                                  e.getCause());
+        }
+        finally
+        {
+            pool.shutdownNow();
+
+            if (checkpoint != null)
+            {
+                if (completed)
+                {
+                    checkpoint.delete();
+                }
+                else
+                {
+                    checkpoint.close();
+                }
+            }
+        }
+
+        long endTime = System.currentTimeMillis();
+
+        logger.debug("Located the artifact directories under " + startingPath + " in " + (endTime - startTime) +
+                     " ms (parallelism: " + parallelism + ", completed: " + completed + ").");
+
+        return completed;
+    }
+
+    private static boolean containsPom(Path directory)
+            throws IOException
+    {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*.pom"))
+        {
+            return stream.iterator().hasNext();
+        }
+    }
+
+    public Path getStartingPath()
+    {
+        return startingPath;
+    }
+
+    public void setStartingPath(Path startingPath)
+    {
+        this.startingPath = startingPath;
+    }
+
+    public Consumer<Path> getHandler()
+    {
+        return handler;
+    }
+
+    public void setHandler(Consumer<Path> handler)
+    {
+        this.handler = handler;
+    }
+
+    public int getParallelism()
+    {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism)
+    {
+        this.parallelism = parallelism;
+    }
+
+    public ArtifactDirectoryCheckpoint getCheckpoint()
+    {
+        return checkpoint;
+    }
+
+    public void setCheckpoint(ArtifactDirectoryCheckpoint checkpoint)
+    {
+        this.checkpoint = checkpoint;
+    }
+
+    /**
+     * Handles the directory, if it's an artifact directory, and then its sub-directories.
+     *
+     * @return whether the whole subtree was handled
+     */
+    private class DirectoryTask
+            extends RecursiveTask<Boolean>
+    {
+
+        private final Path directory;
+
+
+        DirectoryTask(Path directory)
+        {
+            this.directory = directory;
+        }
+
+        @Override
+        protected Boolean compute()
+        {
+            if (getPool().isShutdown())
+            {
+                return false;
+            }
+
+            if (checkpoint != null && checkpoint.isCompleted(directory))
+            {
+                return true;
+            }
+
+            boolean artifactDirectory = false;
+            List<DirectoryTask> subtasks = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, VISIBLE_DIRECTORIES))
+            {
+                for (Path subdirectory : stream)
+                {
+                    // Version directories are recognized by their POM files and are left to the handler.
+                    if (containsPom(subdirectory))
+                    {
+                        artifactDirectory = true;
+                    }
+                    else
+                    {
+                        subtasks.add(new DirectoryTask(subdirectory));
+                    }
+                }
+            }
+            catch (IOException | DirectoryIteratorException e)
+            {
+                logger.error("Failed to list " + directory + ".", e);
+
+                return false;
+            }
+
+            boolean completed = true;
+            if (artifactDirectory)
+            {
+                try
+                {
+                    handler.accept(directory);
+                }
+                catch (RuntimeException e)
+                {
+                    logger.error("Failed to handle " + directory + ".", e);
+
+                    completed = false;
+                }
+            }
+
+            for (DirectoryTask subtask : invokeAll(subtasks))
+            {
+                completed &= subtask.join();
+            }
+
+            if (completed && !artifactDirectory && checkpoint != null)
+            {
+                try
+                {
+                    checkpoint.complete(directory);
+                }
+                catch (IOException e)
+                {
+                    logger.warn("Failed to record " + directory + " in " + checkpoint.getCheckpointPath() + ".", e);
+                }
+            }
+
+            return completed;
+        }
+
+    }
+
+}
@@ -3,6 +3,7 @@ package org.carlspring.strongbox.artifact.locator.handlers;
 import org.carlspring.maven.commons.io.filters.PomFilenameFilter;
 import org.carlspring.strongbox.providers.ProviderImplementationException;
 import org.carlspring.strongbox.storage.metadata.MavenMetadataManager;
+import org.carlspring.strongbox.storage.metadata.PomProjectionCache;
 import org.carlspring.strongbox.storage.metadata.VersionCollectionRequest;
 import org.carlspring.strongbox.storage.metadata.VersionCollector;
 import org.carlspring.strongbox.storage.repository.UnknownRepositoryTypeException;
@@ -13,6 +14,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.security.NoSuchAlgorithmException;
@@ -31,6 +33,12 @@ public class ArtifactLocationGenerateMavenMetadataOperation
 
     private MavenMetadataManager mavenMetadataManager;
 
+    /**
+     * Whether the POM projections of each artifact directory are loaded from and saved to the directory (see
+     * {@link PomProjectionCache#FILE_NAME}), rather than kept in the bounded cache of the {@link MavenMetadataManager}.
+     */
+    private boolean persistentPomProjections;
+
     private String previousPath;
 
 
@@ -88,9 +96,6 @@ public class ArtifactLocationGenerateMavenMetadataOperation
             {
                 getVisitedRootPaths().put(parentPath, versionDirectories);
 
-                VersionCollector versionCollector = new VersionCollector();
-                VersionCollectionRequest request = versionCollector.collectVersions(path.getParent().toAbsolutePath());
-
                 if (logger.isDebugEnabled())
                 {
                     for (File directory : versionDirectories)
@@ -100,24 +105,59 @@ public class ArtifactLocationGenerateMavenMetadataOperation
                     }
                 }
 
-                String artifactPath = parentPath.substring(getRepository().getBasedir().length() + 1, parentPath.length());
-
                 try
                 {
-                    mavenMetadataManager.generateMetadata(getRepository(), artifactPath, request);
+                    generateMetadata(path.getParent());
                 }
-                catch (IOException |
-                       XmlPullParserException |
-                       NoSuchAlgorithmException |
-                       ProviderImplementationException |
-                       UnknownRepositoryTypeException e)
+                catch (UncheckedIOException e)
                 {
-                    logger.error("Failed to generate metadata for " + artifactPath, e);
+                    logger.error(e.getCause().getMessage(), e.getCause());
                 }
             }
         }
     }
 
+    /**
+     * Generates the metadata of the artifact in the given directory. Unlike {@link #execute(Path)}, this keeps no
+     * state and can be called concurrently.
+     *
+     * @throws UncheckedIOException if the metadata could not be generated, so that the caller doesn't count the
+     *                              directory as done
+     */
+    public void generateMetadata(Path artifactBasePath)
+    {
+        String parentPath = artifactBasePath.toAbsolutePath().toString();
+        String artifactPath = parentPath.substring(getRepository().getBasedir().length() + 1, parentPath.length());
+
+        PomProjectionCache pomProjectionCache = persistentPomProjections ?
+                                                loadPomProjections(artifactBasePath) :
+                                                mavenMetadataManager.getPomProjectionCache();
+
+        VersionCollector versionCollector = new VersionCollector(pomProjectionCache);
+        VersionCollectionRequest request = versionCollector.collectVersions(artifactBasePath.toAbsolutePath());
+
+        if (persistentPomProjections)
+        {
+            savePomProjections(pomProjectionCache, artifactBasePath);
+        }
+
+        try
+        {
+            mavenMetadataManager.generateMetadata(getRepository(), artifactPath, request);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException("Failed to generate metadata for " + artifactPath, e);
+        }
+        catch (XmlPullParserException |
+               NoSuchAlgorithmException |
+               ProviderImplementationException |
+               UnknownRepositoryTypeException e)
+        {
+            throw new UncheckedIOException(new IOException("Failed to generate metadata for " + artifactPath, e));
+        }
+    }
+
     public MavenMetadataManager getMavenMetadataManager()
     {
         return mavenMetadataManager;
@@ -128,4 +168,45 @@ public class ArtifactLocationGenerateMavenMetadataOperation
         this.mavenMetadataManager = mavenMetadataManager;
     }
 
+    public boolean isPersistentPomProjections()
+    {
+        return persistentPomProjections;
+    }
+
+    public void setPersistentPomProjections(boolean persistentPomProjections)
+    {
+        this.persistentPomProjections = persistentPomProjections;
+    }
+
+    private static PomProjectionCache loadPomProjections(Path artifactBasePath)
+    {
+        PomProjectionCache pomProjectionCache = new PomProjectionCache();
+
+        Path cachePath = artifactBasePath.resolve(PomProjectionCache.FILE_NAME);
+        try
+        {
+            pomProjectionCache.load(cachePath, artifactBasePath);
+        }
+        catch (IOException e)
+        {
+            logger.warn("Failed to load " + cachePath + "; the POM-s will be parsed again.", e);
+        }
+
+        return pomProjectionCache;
+    }
+
+    private static void savePomProjections(PomProjectionCache pomProjectionCache,
+                                           Path artifactBasePath)
+    {
+        Path cachePath = artifactBasePath.resolve(PomProjectionCache.FILE_NAME);
+        try
+        {
+            pomProjectionCache.save(cachePath, artifactBasePath);
+        }
+        catch (IOException e)
+        {
+            logger.warn("Failed to save " + cachePath + ".", e);
+        }
+    }
+
 }
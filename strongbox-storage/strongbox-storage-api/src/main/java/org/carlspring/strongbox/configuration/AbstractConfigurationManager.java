@@ -20,7 +20,10 @@ public abstract class AbstractConfigurationManager<T>
 
     private static final Logger logger = LoggerFactory.getLogger(AbstractConfigurationManager.class);
     
-    protected ServerConfiguration configuration;
+    /**
+     * The live configuration of the {@link ConfigurationRepository}, which replaces it, whenever it's updated.
+     */
+    protected volatile ServerConfiguration configuration;
     
     @Autowired
     protected ConfigurationRepository configurationRepository;
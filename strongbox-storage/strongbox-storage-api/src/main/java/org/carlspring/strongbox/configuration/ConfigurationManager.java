@@ -3,6 +3,7 @@ package org.carlspring.strongbox.configuration;
 import org.carlspring.strongbox.resource.ConfigurationResourceResolver;
 import org.carlspring.strongbox.service.ProxyRepositoryConnectionPoolConfigurationService;
 import org.carlspring.strongbox.storage.Storage;
+import org.carlspring.strongbox.storage.repository.HttpConnectionPool;
 import org.carlspring.strongbox.storage.repository.Repository;
 import org.carlspring.strongbox.storage.repository.RepositoryTypeEnum;
 
@@ -111,9 +112,20 @@ public class ConfigurationManager
                              && repository.getRemoteRepository() != null &&
                              repository.getRemoteRepository().getUrl() != null)
                          {
-                             proxyRepositoryConnectionPoolConfigurationService.setMaxPerRepository(
-                                     repository.getRemoteRepository().getUrl(),
-                                     repository.getHttpConnectionPool().getAllocatedConnections());
+                             String url = repository.getRemoteRepository().getUrl();
+                             HttpConnectionPool httpConnectionPool = repository.getHttpConnectionPool();
+
+                             // The element may only tune the client, in which case the pool size is left as it is.
+                             if (httpConnectionPool.getAllocatedConnections() > 0)
+                             {
+                                 proxyRepositoryConnectionPoolConfigurationService.setMaxPerRepository(
+                                         url,
+                                         httpConnectionPool.getAllocatedConnections());
+                             }
+
+                             proxyRepositoryConnectionPoolConfigurationService.setClientConfiguration(
+                                     url,
+                                     httpConnectionPool.getClientConfiguration());
                          }
                      });
     }
@@ -11,6 +11,9 @@ import javax.inject.Inject;
 import org.apache.commons.io.IOUtils;
 import org.carlspring.strongbox.resource.ConfigurationResourceResolver;
 import org.carlspring.strongbox.services.ServerConfigurationService;
+import org.carlspring.strongbox.storage.Storage;
+import org.carlspring.strongbox.storage.repository.Repository;
+import org.carlspring.strongbox.storage.routing.CompiledRoutingRulesCache;
 import org.carlspring.strongbox.xml.parsers.GenericParser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,7 +42,16 @@ public class ConfigurationRepository
     @Inject
     private ConfigurationManager configurationManager;
 
-    private String currentDatabaseId;
+    @Inject
+    private CompiledRoutingRulesCache compiledRoutingRulesCache;
+
+    private volatile String currentDatabaseId;
+
+    /**
+     * The live configuration, which is shared by all the readers and must not be modified. It's replaced as a whole
+     * by {@link #updateConfiguration(Configuration)}, so reading it neither blocks, nor deserializes anything.
+     */
+    private volatile Configuration configuration;
 
 
     public ConfigurationRepository()
@@ -116,15 +128,84 @@ public class ConfigurationRepository
         return configuration;
     }
     
-    public synchronized Configuration getConfiguration()
+    /**
+     * @return the live configuration, which is shared and must not be modified
+     * @see #copyConfiguration()
+     */
+    public Configuration getConfiguration()
+    {
+        Configuration current = configuration;
+
+        return current != null ? current : loadConfiguration();
+    }
+
+    /**
+     * Deserializes the stored configuration, unless another thread has already done so.
+     */
+    private synchronized Configuration loadConfiguration()
+    {
+        if (configuration == null)
+        {
+            Optional<Configuration> optionalConfig = configurationCache.getConfiguration(currentDatabaseId);
+            optionalConfig.ifPresent(this::setConfiguration);
+        }
+
+        return configuration;
+    }
+
+    /**
+     * @return a copy of the live configuration, which can be modified and then passed to
+     *         {@link #updateConfiguration(Configuration)}
+     */
+    public Configuration copyConfiguration()
+    {
+        Configuration current = getConfiguration();
+        if (current == null)
+        {
+            return null;
+        }
+
+        try
+        {
+            GenericParser<Configuration> parser = configurationCache.getParser();
+
+            Configuration copy = parser.deserialize(parser.serialize(current));
+            copy.setId(current.getId());
+            setRepositoryStorageRelationships(copy);
+
+            return copy;
+        }
+        catch (Exception e)
+        {
+            throw new IllegalStateException("Unable to copy the configuration.", e);
+        }
+    }
+
+    private void setConfiguration(Configuration configuration)
+    {
+        this.configuration = configuration;
+
+        // The manager hands out the same snapshot.
+        configurationManager.setConfiguration(configuration);
+    }
+
+    private void setRepositoryStorageRelationships(Configuration configuration)
     {
-        Optional<Configuration> optionalConfig = configurationCache.getConfiguration(currentDatabaseId);
-        if (optionalConfig.isPresent())
+        if (configuration.getStorages() == null)
         {
-            return optionalConfig.get();
+            return;
         }
 
-        return null;
+        for (Storage storage : configuration.getStorages().values())
+        {
+            if (storage.getRepositories() != null)
+            {
+                for (Repository repository : storage.getRepositories().values())
+                {
+                    repository.setStorage(storage);
+                }
+            }
+        }
     }
 
     @Transactional
@@ -159,6 +240,12 @@ public class ConfigurationRepository
             configuration.setId(currentDatabaseId);
             configurationCache.save(configuration);
 
+            // Copy-on-write: the saved configuration replaces the live one as a whole.
+            setConfiguration(configuration);
+
+            // The routing rules, or the group repositories may have changed.
+            compiledRoutingRulesCache.invalidate();
+
             logger.debug("Configuration updated under ID " + currentDatabaseId);
         }
         catch (Exception e)
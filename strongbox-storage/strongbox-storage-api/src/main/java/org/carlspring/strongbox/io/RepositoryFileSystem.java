@@ -63,6 +63,11 @@ public class RepositoryFileSystem extends FileSystemWrapper
         return getRootDirectory().resolve(".temp");
     }
 
+    public RepositoryPath getQuarantinePath()
+    {
+        return getRootDirectory().resolve(".quarantine");
+    }
+
     public Path getPath(String first,
                         String... more)
     {
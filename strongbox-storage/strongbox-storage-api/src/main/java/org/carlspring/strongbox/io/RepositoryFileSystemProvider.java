@@ -223,6 +223,20 @@ public class RepositoryFileSystemProvider extends FileSystemProvider
         }
     }
 
+    /**
+     * Moves the temporary file of the given path into the quarantine of the repository, where it can be
+     * inspected, without being served.
+     */
+    public void quarantineTemp(RepositoryPath path)
+        throws IOException
+    {
+        RepositoryPath tempPath = getTempPath(path);
+        if (Files.exists(tempPath.getTarget()))
+        {
+            Files.move(tempPath.getTarget(), getQuarantinePath(path).getTarget(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
     public void deleteTrash(RepositoryPath path)
         throws IOException
     {
@@ -232,18 +246,32 @@ public class RepositoryFileSystemProvider extends FileSystemProvider
             return;
         }
 
-        RepositoryPath trashPath = getTrashPath(path);
-        if (!Files.exists(trashPath.getTarget()))
+        deleteRecursively(getTrashPath(path).getTarget());
+    }
+
+    /**
+     * Deletes the quarantined copy of the given path, or the whole quarantine, if it's the root of the repository.
+     */
+    public void deleteQuarantine(RepositoryPath path)
+        throws IOException
+    {
+        deleteRecursively(rebase(path, path.getFileSystem().getQuarantinePath()).getTarget());
+    }
+
+    private static void deleteRecursively(Path path)
+        throws IOException
+    {
+        if (!Files.exists(path))
         {
             return;
         }
-        if (!Files.isDirectory(trashPath.getTarget()))
+        if (!Files.isDirectory(path))
         {
-            Files.delete(trashPath.getTarget());
+            Files.delete(path);
         }
         else
         {
-            Files.walkFileTree(trashPath.getTarget(), new SimpleFileVisitor<Path>()
+            Files.walkFileTree(path, new SimpleFileVisitor<Path>()
             {
                 @Override
                 public FileVisitResult visitFile(Path file,
@@ -281,6 +309,20 @@ public class RepositoryFileSystemProvider extends FileSystemProvider
         return tempPath;
     }
 
+    public RepositoryPath getQuarantinePath(RepositoryPath path)
+        throws IOException
+    {
+        RepositoryPath quarantineBasePath = path.getFileSystem().getQuarantinePath();
+        RepositoryPath quarantinePath = rebase(path, quarantineBasePath);
+        if (!Files.exists(quarantinePath.getParent().getTarget()))
+        {
+            logger.debug(String.format("Creating: dir-[%s]", quarantinePath.getParent()));
+            Files.createDirectories(quarantinePath.getParent().getTarget());
+        }
+
+        return quarantinePath;
+    }
+
     public RepositoryPath getTrashPath(RepositoryPath path)
         throws IOException
     {
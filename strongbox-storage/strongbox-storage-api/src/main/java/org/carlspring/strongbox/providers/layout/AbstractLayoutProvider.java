@@ -4,12 +4,17 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -106,22 +111,28 @@ public abstract class AbstractLayoutProvider<T extends ArtifactCoordinates> impl
         StorageProvider storageProvider = storageProviderRegistry.getProvider(repository.getImplementation());
 
         InputStream is;
+        RepositoryPath filePath;
         T artifactCoordinates = null;
         if (isArtifact(repository, path, true))
         {
             artifactCoordinates = getArtifactCoordinates(path);
             ArtifactPath artifactPath = resolve(repository, artifactCoordinates);
             is = storageProvider.getInputStreamImplementation(artifactPath);
+            filePath = artifactPath;
         }
         else
         {
             RepositoryPath repositoryPath = resolve(repository);
             is = storageProvider.getInputStreamImplementation(repositoryPath, path);
+            filePath = repositoryPath.resolve(path);
         }
 
         logger.debug("Resolved " + path + "!");
 
-        return decorateStream(storageId, repositoryId, path, is, artifactCoordinates);
+        ArtifactInputStream result = decorateStream(storageId, repositoryId, path, is, artifactCoordinates);
+        result.setPath(filePath.getTarget());
+
+        return result;
     }
 
     @Override
@@ -152,6 +163,89 @@ public abstract class AbstractLayoutProvider<T extends ArtifactCoordinates> impl
         return decorateStream(path, os, artifactCoordinates);
     }
 
+    @Override
+    public ArtifactOutputStream getTempOutputStream(String storageId,
+                                                    String repositoryId,
+                                                    String path,
+                                                    String transferId)
+        throws IOException,
+               NoSuchAlgorithmException
+    {
+        Storage storage = getConfiguration().getStorage(storageId);
+        Repository repository = storage.getRepository(repositoryId);
+        StorageProvider storageProvider = storageProviderRegistry.getProvider(repository.getImplementation());
+
+        T artifactCoordinates = isArtifact(repository, path, false) ? getArtifactCoordinates(path) : null;
+
+        RepositoryPath repositoryPath = resolve(repository);
+        RepositoryPath tempPath = getTransferPath(repositoryPath, transferId).resolve(path);
+        Files.createDirectories(tempPath.getParent().getTarget());
+
+        // The path stays relative to the repository, so that the storage provider can still tell what kind of file it is.
+        OutputStream os = storageProvider.getOutputStreamImplementation(repositoryPath,
+                                                                        repositoryPath.relativize(tempPath.getTarget())
+                                                                                      .toString());
+
+        return decorateStream(path, os, artifactCoordinates);
+    }
+
+    @Override
+    public void moveFromTemp(String storageId,
+                             String repositoryId,
+                             String path,
+                             String transferId)
+        throws IOException
+    {
+        Storage storage = getConfiguration().getStorage(storageId);
+        Repository repository = storage.getRepository(repositoryId);
+
+        RepositoryPath repositoryPath = resolve(repository);
+        RepositoryPath tempPath = getTransferPath(repositoryPath, transferId).resolve(path);
+        RepositoryPath artifactPath = repositoryPath.resolve(path);
+
+        Files.createDirectories(artifactPath.getParent().getTarget());
+        Files.move(tempPath.getTarget(), artifactPath.getTarget(), StandardCopyOption.REPLACE_EXISTING);
+
+        deleteTemp(storageId, repositoryId, transferId);
+    }
+
+    @Override
+    public void deleteTemp(String storageId,
+                           String repositoryId,
+                           String transferId)
+        throws IOException
+    {
+        Storage storage = getConfiguration().getStorage(storageId);
+        Repository repository = storage.getRepository(repositoryId);
+        Path transferPath = getTransferPath(resolve(repository), transferId).getTarget();
+        if (!Files.exists(transferPath))
+        {
+            return;
+        }
+
+        List<Path> paths;
+        try (Stream<Path> stream = Files.walk(transferPath))
+        {
+            // The files first and the directories after their contents.
+            paths = stream.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+        }
+
+        for (Path p : paths)
+        {
+            Files.deleteIfExists(p);
+        }
+    }
+
+    /**
+     * Each transfer has a directory of its own under the temporary location of the repository, so that concurrent
+     * transfers of the same path don't write to the same file.
+     */
+    private RepositoryPath getTransferPath(RepositoryPath repositoryPath,
+                                           String transferId)
+    {
+        return repositoryPath.getFileSystem().getTempPath().resolve(transferId);
+    }
+
     protected ArtifactOutputStream decorateStream(String path,
                                                   OutputStream os,
                                                   T artifactCoordinates)
@@ -186,13 +280,20 @@ public abstract class AbstractLayoutProvider<T extends ArtifactCoordinates> impl
         // Add digest algorithm only if it is not a Checksum (we don't need a Checksum of Checksum).
         if (!ArtifactFileUtils.isChecksum(path))
         {
-            getDigestAlgorithmSet().stream().forEach(a -> {
+            // Only the stored checksums of the digests, which the stream would otherwise calculate, are read,
+            // as each of them costs a lookup of its own.
+            Set<String> algorithms = new HashSet<>(result.getDigests().keySet());
+            algorithms.retainAll(getDigestAlgorithmSet());
+
+            algorithms.forEach(a -> {
                 String checksum = getChecksum(storageId, repositoryId, path, a);
                 if (checksum == null)
                 {
                     return;
                 }
                 result.getHexDigests().put(a, checksum);
+                // The stored digest is used, so there's no need to calculate it again while reading.
+                result.getDigests().remove(a);
             });
         }
         return result;
@@ -203,13 +304,18 @@ public abstract class AbstractLayoutProvider<T extends ArtifactCoordinates> impl
                                String path,
                                String digestAlgorithm)
     {
-        String checksumPath = path.concat(".").concat(digestAlgorithm.toLowerCase().replaceAll("-", ""));
+        String checksumPath = getChecksumPath(path, digestAlgorithm);
         try
         {
             return MessageDigestUtils.readChecksumFile(getInputStream(storageId,
                                                                       repositoryId,
                                                                       checksumPath));
         }
+        catch (FileNotFoundException e)
+        {
+            logger.debug(String.format("No stored checksum: alg-[%s]; path-[%s];", digestAlgorithm, checksumPath));
+            return null;
+        }
         catch (Exception e)
         {
             logger.error(String.format("Failed to read checksum: alg-[%s]; path-[%s];", digestAlgorithm, checksumPath), e);
@@ -217,9 +323,49 @@ public abstract class AbstractLayoutProvider<T extends ArtifactCoordinates> impl
         }
     }
     
+    @Override
+    public void storeChecksums(String storageId,
+                               String repositoryId,
+                               String path,
+                               Map<String, String> digests)
+        throws IOException
+    {
+        Storage storage = getConfiguration().getStorage(storageId);
+        Repository repository = storage.getRepository(repositoryId);
+        RepositoryPath repositoryPath = resolve(repository);
+
+        for (Map.Entry<String, String> digest : digests.entrySet())
+        {
+            RepositoryPath checksumPath = repositoryPath.resolve(getChecksumPath(path, digest.getKey()));
+            byte[] checksum = digest.getValue().getBytes(StandardCharsets.UTF_8);
+
+            // Write the checksum to the temporary location and move it into place, so that it is never seen half-written.
+            RepositoryFileSystemProvider provider = getProvider(checksumPath);
+            RepositoryPath tempChecksumPath = provider.getTempPath(checksumPath);
+            try (OutputStream os = provider.newOutputStream(tempChecksumPath))
+            {
+                os.write(checksum);
+            }
+
+            provider.restoreFromTemp(checksumPath);
+        }
+
+        logger.debug("Stored checksums " + digests.keySet() + " for /" + storageId + "/" + repositoryId + "/" + path);
+    }
+
+    protected String getChecksumPath(String path,
+                                     String digestAlgorithm)
+    {
+        return path.concat(".").concat(digestAlgorithm.toLowerCase().replaceAll("-", ""));
+    }
+
     public Set<String> getDigestAlgorithmSet()
     {
-        return Stream.of(MessageDigestAlgorithms.MD5, MessageDigestAlgorithms.SHA_1).collect(Collectors.toSet());
+        return Stream.of(MessageDigestAlgorithms.MD5,
+                         MessageDigestAlgorithms.SHA_1,
+                         MessageDigestAlgorithms.SHA_256,
+                         MessageDigestAlgorithms.SHA_512)
+                     .collect(Collectors.toSet());
     }
 
     protected abstract boolean isMetadata(String path);
@@ -239,6 +385,11 @@ public abstract class AbstractLayoutProvider<T extends ArtifactCoordinates> impl
         return path.contains(".temp");
     }
 
+    protected boolean isQuarantine(String path)
+    {
+        return path.contains(".quarantine");
+    }
+
     protected boolean isIndex(String path)
     {
         return path.contains(".index");
@@ -266,7 +417,7 @@ public abstract class AbstractLayoutProvider<T extends ArtifactCoordinates> impl
 
     protected boolean isServiceFolder(String path)
     {
-        return isTemp(path) || isTrash(path) || isIndex(path);
+        return isTemp(path) || isTrash(path) || isQuarantine(path) || isIndex(path);
     }
 
     protected RepositoryPath resolve(Repository repository)
@@ -419,6 +570,7 @@ public abstract class AbstractLayoutProvider<T extends ArtifactCoordinates> impl
         RepositoryFileSystemProvider provider = (RepositoryFileSystemProvider) path.getFileSystem().provider();
 
         provider.deleteTrash(path);
+        provider.deleteQuarantine(path);
     }
 
     @Override
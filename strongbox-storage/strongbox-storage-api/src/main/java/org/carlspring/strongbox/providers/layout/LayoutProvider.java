@@ -2,6 +2,7 @@ package org.carlspring.strongbox.providers.layout;
 
 import java.io.IOException;
 import java.security.NoSuchAlgorithmException;
+import java.util.Map;
 
 import org.carlspring.strongbox.artifact.coordinates.ArtifactCoordinates;
 import org.carlspring.strongbox.client.ArtifactTransportException;
@@ -27,6 +28,32 @@ public interface LayoutProvider<T extends ArtifactCoordinates>
     ArtifactOutputStream getOutputStream(String storageId, String repositoryId, String path)
             throws IOException, NoSuchAlgorithmException;
 
+    /**
+     * Opens a stream to a temporary file for the specified path, which belongs to the given transfer. Nothing is
+     * visible under the path itself, until {@link #moveFromTemp} is called.
+     */
+    ArtifactOutputStream getTempOutputStream(String storageId, String repositoryId, String path, String transferId)
+            throws IOException, NoSuchAlgorithmException;
+
+    /**
+     * Moves the file, which was written via {@link #getTempOutputStream}, into place and discards what is left of
+     * the transfer.
+     */
+    void moveFromTemp(String storageId, String repositoryId, String path, String transferId)
+            throws IOException;
+
+    /**
+     * Discards the temporary files of the given transfer, if there are any.
+     */
+    void deleteTemp(String storageId, String repositoryId, String transferId)
+            throws IOException;
+
+    /**
+     * Stores the given digests (algorithm -> checksum) next to the artifact under the specified path.
+     */
+    void storeChecksums(String storageId, String repositoryId, String path, Map<String, String> digests)
+            throws IOException;
+
     boolean containsArtifact(Repository repository, ArtifactCoordinates coordinates)
             throws IOException;
 
@@ -56,6 +83,9 @@ public interface LayoutProvider<T extends ArtifactCoordinates>
     void deleteMetadata(String storageId, String repositoryId, String metadataPath)
             throws IOException;
 
+    /**
+     * Empties the trash of the repository, along with its quarantine.
+     */
     void deleteTrash(String storageId, String repositoryId)
             throws IOException;
 
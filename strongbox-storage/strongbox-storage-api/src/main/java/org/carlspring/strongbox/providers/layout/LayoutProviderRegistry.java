@@ -60,6 +60,9 @@ public class LayoutProviderRegistry extends AbstractMappedProviderRegistry<Layou
                 {
                     logger.warn("Repository " + repository.getId() + " does not support removal of trash.");
                 }
+
+                // Quarantined files are never served, so they are removed regardless.
+                FileUtils.deleteDirectory(repository.getQuarantineDir());
             }
         }
     }
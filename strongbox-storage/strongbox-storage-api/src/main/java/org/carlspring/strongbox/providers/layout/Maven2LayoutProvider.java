@@ -79,11 +79,23 @@ public class Maven2LayoutProvider extends AbstractLayoutProvider<MavenArtifactCo
     {
         RepositoryPath md5Path = repositoryPath.resolveSibling(repositoryPath.getFileName() + ".md5");
         RepositoryPath sha1Path = repositoryPath.resolveSibling(repositoryPath.getFileName() + ".sha1");
+        RepositoryPath sha256Path = repositoryPath.resolveSibling(repositoryPath.getFileName() + ".sha256");
+        RepositoryPath sha512Path = repositoryPath.resolveSibling(repositoryPath.getFileName() + ".sha512");
         super.doDeletePath(repositoryPath, force, deleteChecksum);
         if (deleteChecksum)
         {
             super.doDeletePath(md5Path, force, deleteChecksum);
             super.doDeletePath(sha1Path, force, deleteChecksum);
+
+            // Artifacts deployed before these were stored won't have them.
+            if (Files.exists(sha256Path))
+            {
+                super.doDeletePath(sha256Path, force, deleteChecksum);
+            }
+            if (Files.exists(sha512Path))
+            {
+                super.doDeletePath(sha512Path, force, deleteChecksum);
+            }
         }
     }
 
@@ -0,0 +1,130 @@
+package org.carlspring.strongbox.providers.repository;
+
+import org.carlspring.strongbox.storage.repository.NotFoundCacheConfiguration;
+import org.carlspring.strongbox.storage.repository.Repository;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Remembers the paths which could not be resolved in a given proxy, or group repository, so that
+ * repeated requests for them don't walk all the group members, or go to the remote host every time.
+ *
+ * The cache is only used for repositories which have a <not-found-cache/> element in their configuration.
+ */
+@Component
+public class ArtifactNotFoundCache
+{
+
+    private static final Logger logger = LoggerFactory.getLogger(ArtifactNotFoundCache.class);
+
+    /**
+     * K: storageId:repositoryId
+     * V: The paths which were not found in this repository.
+     */
+    private final ConcurrentMap<String, RepositoryNotFoundCache> caches = new ConcurrentHashMap<>();
+
+
+    public boolean isNotFound(Repository repository,
+                              String path)
+    {
+        RepositoryNotFoundCache cache = getCache(repository);
+
+        return cache != null && cache.paths.getIfPresent(path) != null;
+    }
+
+    public void markNotFound(Repository repository,
+                             String path)
+    {
+        RepositoryNotFoundCache cache = getCache(repository);
+        if (cache != null)
+        {
+            logger.debug("Caching the missing path " + getKey(repository) + "/" + path + ".");
+
+            cache.paths.put(path, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Forgets the path in all repositories, as it may now be resolvable via any group, or proxy
+     * which (directly, or not) includes the repository it has been deployed to.
+     */
+    public void invalidate(String path)
+    {
+        for (RepositoryNotFoundCache cache : caches.values())
+        {
+            cache.paths.invalidate(path);
+        }
+    }
+
+    public void invalidateAll()
+    {
+        caches.clear();
+    }
+
+    private RepositoryNotFoundCache getCache(Repository repository)
+    {
+        NotFoundCacheConfiguration configuration = repository.getNotFoundCacheConfiguration();
+        String key = getKey(repository);
+
+        if (configuration == null || !configuration.isEnabled())
+        {
+            caches.remove(key);
+
+            return null;
+        }
+
+        RepositoryNotFoundCache cache = caches.get(key);
+        if (cache != null && cache.matches(configuration))
+        {
+            return cache;
+        }
+
+        // Either the first lookup, or the settings have been changed, in which case we start afresh. This is done
+        // atomically, so that concurrent lookups don't replace each other's caches and lose the paths marked in them.
+        return caches.compute(key, (k, existing) -> existing != null && existing.matches(configuration) ?
+                                                    existing :
+                                                    new RepositoryNotFoundCache(configuration));
+    }
+
+    private String getKey(Repository repository)
+    {
+        return repository.getStorage().getId() + ":" + repository.getId();
+    }
+
+    private static class RepositoryNotFoundCache
+    {
+
+        private final long maxSize;
+
+        private final long timeToLiveSeconds;
+
+        private final Cache<String, Boolean> paths;
+
+
+        RepositoryNotFoundCache(NotFoundCacheConfiguration configuration)
+        {
+            this.maxSize = configuration.getMaxSize();
+            this.timeToLiveSeconds = configuration.getTimeToLiveSeconds();
+            this.paths = CacheBuilder.newBuilder()
+                                     .maximumSize(maxSize)
+                                     .expireAfterWrite(timeToLiveSeconds, TimeUnit.SECONDS)
+                                     .build();
+        }
+
+        boolean matches(NotFoundCacheConfiguration configuration)
+        {
+            return maxSize == configuration.getMaxSize() &&
+                   timeToLiveSeconds == configuration.getTimeToLiveSeconds();
+        }
+
+    }
+
+}
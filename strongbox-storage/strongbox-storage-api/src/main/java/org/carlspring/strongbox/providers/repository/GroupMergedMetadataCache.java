@@ -0,0 +1,146 @@
+package org.carlspring.strongbox.providers.repository;
+
+import javax.annotation.PostConstruct;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Holds the maven-metadata.xml files, which have been merged from the members of group repositories, along with
+ * their checksums.
+ *
+ * Each entry remembers the state of the members' metadata files it was merged from, so that it's only served,
+ * while none of them has changed. The time to live bounds how long changes of the remote repositories of proxy
+ * members go unnoticed.
+ */
+@Component
+public class GroupMergedMetadataCache
+{
+
+    private static final Logger logger = LoggerFactory.getLogger(GroupMergedMetadataCache.class);
+
+    @Value("${group.mergedMetadataCache.maxSize:10000}")
+    private long maxSize;
+
+    @Value("${group.mergedMetadataCache.timeToLiveSeconds:60}")
+    private long timeToLiveSeconds;
+
+    /**
+     * K: path
+     * V: K: storageId:groupRepositoryId
+     *    V: the merged metadata
+     */
+    private Cache<String, ConcurrentMap<String, MergedMetadata>> entries;
+
+
+    @PostConstruct
+    public void init()
+    {
+        entries = CacheBuilder.newBuilder()
+                              .maximumSize(maxSize)
+                              .expireAfterWrite(timeToLiveSeconds, TimeUnit.SECONDS)
+                              .build();
+    }
+
+    /**
+     * @return the merged metadata, or null if it's not known, or the members' metadata has changed since
+     */
+    public MergedMetadata get(String storageId,
+                              String groupRepositoryId,
+                              String path,
+                              String fingerprint)
+    {
+        ConcurrentMap<String, MergedMetadata> groupEntries = entries.getIfPresent(path);
+        MergedMetadata mergedMetadata = groupEntries != null ?
+                                        groupEntries.get(storageId + ":" + groupRepositoryId) :
+                                        null;
+        if (mergedMetadata == null)
+        {
+            return null;
+        }
+
+        if (!mergedMetadata.getFingerprint().equals(fingerprint))
+        {
+            logger.debug("The metadata of the members of " + storageId + ":" + groupRepositoryId + " has changed" +
+                         " for " + path + ".");
+
+            groupEntries.remove(storageId + ":" + groupRepositoryId, mergedMetadata);
+
+            return null;
+        }
+
+        return mergedMetadata;
+    }
+
+    public void put(String storageId,
+                    String groupRepositoryId,
+                    String path,
+                    MergedMetadata mergedMetadata)
+    {
+        entries.asMap()
+               .computeIfAbsent(path, p -> new ConcurrentHashMap<>())
+               .put(storageId + ":" + groupRepositoryId, mergedMetadata);
+    }
+
+    public void invalidate(String path)
+    {
+        entries.invalidate(path);
+    }
+
+    public void invalidateAll()
+    {
+        logger.debug("Invalidating all the merged group repository metadata.");
+
+        entries.invalidateAll();
+    }
+
+    public static class MergedMetadata
+    {
+
+        private final byte[] content;
+
+        /**
+         * K: digest algorithm
+         * V: the checksum of the content
+         */
+        private final Map<String, String> checksums;
+
+        private final String fingerprint;
+
+
+        public MergedMetadata(byte[] content,
+                              Map<String, String> checksums,
+                              String fingerprint)
+        {
+            this.content = content;
+            this.checksums = Collections.unmodifiableMap(checksums);
+            this.fingerprint = fingerprint;
+        }
+
+        public byte[] getContent()
+        {
+            return content;
+        }
+
+        public Map<String, String> getChecksums()
+        {
+            return checksums;
+        }
+
+        public String getFingerprint()
+        {
+            return fingerprint;
+        }
+
+    }
+
+}
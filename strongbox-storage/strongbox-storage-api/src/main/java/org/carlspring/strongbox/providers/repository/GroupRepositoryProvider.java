@@ -2,25 +2,65 @@ package org.carlspring.strongbox.providers.repository;
 
 import static org.carlspring.strongbox.providers.layout.LayoutProviderRegistry.getLayoutProvider;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import javax.annotation.PostConstruct;
 
 import org.carlspring.strongbox.client.ArtifactTransportException;
+import org.carlspring.strongbox.event.RepositoryEvent;
+import org.carlspring.strongbox.event.RepositoryEventListener;
 import org.carlspring.strongbox.io.ArtifactInputStream;
 import org.carlspring.strongbox.io.ArtifactOutputStream;
 import org.carlspring.strongbox.providers.ProviderImplementationException;
 import org.carlspring.strongbox.providers.layout.LayoutProvider;
+import org.carlspring.strongbox.providers.repository.GroupMergedMetadataCache.MergedMetadata;
 import org.carlspring.strongbox.storage.Storage;
+import org.carlspring.strongbox.storage.metadata.MavenMetadataManager;
+import org.carlspring.strongbox.storage.metadata.MetadataMerger;
+import org.carlspring.strongbox.storage.repository.GroupResolutionConfiguration;
 import org.carlspring.strongbox.storage.repository.Repository;
-import org.carlspring.strongbox.storage.routing.RoutingRule;
+import org.carlspring.strongbox.storage.repository.RepositoryLayoutEnum;
+import org.carlspring.strongbox.storage.routing.CompiledRoutingRule;
+import org.carlspring.strongbox.storage.routing.CompiledRoutingRules;
+import org.carlspring.strongbox.storage.routing.CompiledRoutingRulesCache;
+import org.carlspring.strongbox.storage.routing.RepositoryReference;
 import org.carlspring.strongbox.storage.routing.RoutingRules;
-import org.carlspring.strongbox.storage.routing.RuleSet;
+import org.carlspring.strongbox.util.MessageDigestUtils;
+
+import com.google.common.collect.ImmutableMap;
+import org.apache.commons.codec.digest.MessageDigestAlgorithms;
+import org.apache.maven.artifact.repository.metadata.Metadata;
+import org.apache.maven.artifact.repository.metadata.io.xpp3.MetadataXpp3Writer;
+import org.codehaus.plexus.util.WriterFactory;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 /**
@@ -28,12 +68,55 @@ import org.springframework.stereotype.Component;
  */
 @Component
 public class GroupRepositoryProvider extends AbstractRepositoryProvider
+        implements RepositoryEventListener
 {
 
     private static final Logger logger = LoggerFactory.getLogger(GroupRepositoryProvider.class);
 
     private static final String ALIAS = "group";
 
+    private static final Closeable RESOLUTION_COMPLETE = () -> {};
+
+    private static final String MAVEN_METADATA_FILE = "maven-metadata.xml";
+
+    /**
+     * K: checksum file extension
+     * V: digest algorithm
+     */
+    private static final Map<String, String> CHECKSUM_ALGORITHMS = ImmutableMap.of(".md5",
+                                                                                   MessageDigestAlgorithms.MD5,
+                                                                                   ".sha1",
+                                                                                   MessageDigestAlgorithms.SHA_1,
+                                                                                   ".sha256",
+                                                                                   MessageDigestAlgorithms.SHA_256,
+                                                                                   ".sha512",
+                                                                                   MessageDigestAlgorithms.SHA_512);
+
+    @Autowired
+    private ArtifactNotFoundCache artifactNotFoundCache;
+
+    @Autowired
+    private CompiledRoutingRulesCache compiledRoutingRulesCache;
+
+    @Autowired
+    private GroupRepositoryResolutionExecutor groupRepositoryResolutionExecutor;
+
+    @Autowired
+    private GroupResolvedLocationCache groupResolvedLocationCache;
+
+    @Autowired
+    private GroupMergedMetadataCache groupMergedMetadataCache;
+
+    @Autowired
+    private MavenMetadataManager mavenMetadataManager;
+
+    private final MetadataMerger metadataMerger = new MetadataMerger();
+
+    /**
+     * The proxy repositories (storageId:repositoryId), whose remote repositories are currently unavailable.
+     * While they are, these members only serve what they have cached.
+     */
+    private final Set<String> unavailableRepositories = ConcurrentHashMap.newKeySet();
 
     @PostConstruct
     @Override
@@ -50,6 +133,21 @@ public class GroupRepositoryProvider extends AbstractRepositoryProvider
         return ALIAS;
     }
 
+    @Override
+    public void handle(RepositoryEvent event)
+    {
+        String key = event.getStorageId() + ":" + event.getRepositoryId();
+
+        if (event.getType() == RepositoryEvent.EVENT_REPOSITORY_REMOTE_UNAVAILABLE)
+        {
+            unavailableRepositories.add(key);
+        }
+        else if (event.getType() == RepositoryEvent.EVENT_REPOSITORY_REMOTE_AVAILABLE)
+        {
+            unavailableRepositories.remove(key);
+        }
+    }
+
     @Override
     public ArtifactInputStream getInputStream(String storageId,
                                               String repositoryId,
@@ -65,11 +163,36 @@ public class GroupRepositoryProvider extends AbstractRepositoryProvider
 
         Repository groupRepository = storage.getRepository(repositoryId);
 
+        if (isMergedMetadata(groupRepository, artifactPath))
+        {
+            return getMergedMetadataInputStream(storage, groupRepository, artifactPath);
+        }
+
+        if (artifactNotFoundCache.isNotFound(groupRepository, artifactPath))
+        {
+            logger.debug("The artifact was recently not found in any of the members of the group.");
+
+            return null;
+        }
+
+        final String resolvedLocation = groupResolvedLocationCache.getLocation(storageId, repositoryId, artifactPath);
+        if (resolvedLocation != null)
+        {
+            ArtifactInputStream is = resolveArtifactFromLocation(storage, repositoryId, artifactPath, resolvedLocation);
+            if (is != null)
+            {
+                return is;
+            }
+        }
+
+        final CompiledRoutingRules routingRules = compiledRoutingRulesCache.getCompiledRoutingRules();
+
         // Check the routing rules first.
         // Check the routing accept rules for the specified repository.
-        final ArtifactInputStream isRepositoryAccept = getInputStreamFromRepositoryAcceptRules(repositoryId,
-                                                                                               artifactPath,
-                                                                                               storage);
+        final ArtifactInputStream isRepositoryAccept = getArtifactInputStreamViaAcceptedRules(artifactPath,
+                                                                                              storage,
+                                                                                              repositoryId,
+                                                                                              routingRules.getAcceptRules(repositoryId));
 
         if (isRepositoryAccept != null)
         {
@@ -77,117 +200,577 @@ public class GroupRepositoryProvider extends AbstractRepositoryProvider
         }
 
         // Check the routing rules for wildcard accept rules
-        final ArtifactInputStream isWildcardRepositoryAccept = getInputStreamFromWildcardRepositoryAcceptRules(artifactPath, storage);
+        final ArtifactInputStream isWildcardRepositoryAccept = getArtifactInputStreamViaAcceptedRules(artifactPath,
+                                                                                                      storage,
+                                                                                                      repositoryId,
+                                                                                                      routingRules.getWildcardAcceptRules());
         if (isWildcardRepositoryAccept != null)
         {
             return isWildcardRepositoryAccept;
         }
 
+        // If there are no matches in the routing rules, then loop as usual:
+        final List<RepositoryReference> members = getMembers(storage, groupRepository, artifactPath, routingRules);
+
+        final GroupResolutionConfiguration resolution = groupRepository.getGroupResolutionConfiguration();
+
+        if (resolution != null && resolution.isParallel() && members.size() > 1 &&
+            !groupRepositoryResolutionExecutor.isWorkerThread())
+        {
+            return resolveArtifactInParallel(storage,
+                                             groupRepository,
+                                             members,
+                                             artifactPath,
+                                             resolution.getMemberTimeoutSeconds());
+        }
+        else
+        {
+            return resolveArtifactSequentially(storage, groupRepository, members, artifactPath);
+        }
+    }
+
+    /**
+     * @return the members of the group, which are in service and aren't denied the path by the routing rules
+     */
+    private List<RepositoryReference> getMembers(Storage storage,
+                                                 Repository groupRepository,
+                                                 String artifactPath,
+                                                 CompiledRoutingRules routingRules)
+    {
         // Handle:
         // - Repository deny
         // - Repository wildcard repository deny
-        final RuleSet denyRules = getRoutingRules().getDenyRules(repositoryId);
-        final RuleSet wildcardDenyRules = getRoutingRules().getWildcardDeniedRules();
+        final List<CompiledRoutingRule> denyRules = routingRules.getDenyRules(groupRepository.getId());
+        final List<CompiledRoutingRule> wildcardDenyRules = routingRules.getWildcardDenyRules();
 
-        // If there are no matches in the routing rules, then loop as usual:
-        for (String storageAndRepositoryId : groupRepository.getGroupRepositories())
+        final List<RepositoryReference> members = new ArrayList<>();
+        for (RepositoryReference member : routingRules.getGroupMembers(groupRepository))
         {
-            String sId = getConfigurationManager().getStorageId(storage, storageAndRepositoryId);
-            String rId = getConfigurationManager().getRepositoryId(storageAndRepositoryId);
-
-            Repository r = getConfiguration().getStorage(sId).getRepository(rId);
+            Repository r = getConfiguration().getStorage(member.getStorageId(storage))
+                                             .getRepository(member.getRepositoryId());
 
             if (r.isInService() &&
                 !repositoryRejects(r.getId(), artifactPath, denyRules) &&
                 !repositoryRejects(r.getId(), artifactPath, wildcardDenyRules))
             {
-                ArtifactInputStream is;
+                members.add(member);
+            }
+        }
+
+        return members;
+    }
+
+    /**
+     * Maven metadata lists what's available in a single repository, so that of a group is merged from all of its
+     * members, rather than served from the first one which has it.
+     */
+    private boolean isMergedMetadata(Repository groupRepository,
+                                     String artifactPath)
+    {
+        if (!RepositoryLayoutEnum.MAVEN_2.getLayout().equals(groupRepository.getLayout()))
+        {
+            return false;
+        }
+
+        if (artifactPath.endsWith(MAVEN_METADATA_FILE))
+        {
+            return true;
+        }
+
+        for (String extension : CHECKSUM_ALGORITHMS.keySet())
+        {
+            if (artifactPath.endsWith(MAVEN_METADATA_FILE + extension))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private ArtifactInputStream getMergedMetadataInputStream(Storage storage,
+                                                             Repository groupRepository,
+                                                             String artifactPath)
+            throws IOException,
+                   NoSuchAlgorithmException,
+                   ArtifactTransportException,
+                   ProviderImplementationException
+    {
+        String metadataPath = artifactPath.substring(0, artifactPath.lastIndexOf(MAVEN_METADATA_FILE) +
+                                                        MAVEN_METADATA_FILE.length());
+
+        CompiledRoutingRules routingRules = compiledRoutingRulesCache.getCompiledRoutingRules();
+        List<RepositoryReference> members = getMembers(storage, groupRepository, metadataPath, routingRules);
+
+        // Taken before the members' metadata is read, so that changes made while reading it aren't missed.
+        String fingerprint = getFingerprint(storage, members, metadataPath, routingRules);
+
+        MergedMetadata mergedMetadata = groupMergedMetadataCache.get(storage.getId(),
+                                                                     groupRepository.getId(),
+                                                                     metadataPath,
+                                                                     fingerprint);
+        if (mergedMetadata == null)
+        {
+            mergedMetadata = mergeMetadata(storage, members, metadataPath, fingerprint);
+            if (mergedMetadata == null)
+            {
+                return null;
+            }
+
+            groupMergedMetadataCache.put(storage.getId(), groupRepository.getId(), metadataPath, mergedMetadata);
+        }
+
+        if (artifactPath.equals(metadataPath))
+        {
+            ArtifactInputStream is = new ArtifactInputStream(null,
+                                                             new ByteArrayInputStream(mergedMetadata.getContent()));
+            is.getHexDigests().putAll(mergedMetadata.getChecksums());
+            // The checksums are known, so there's no need to calculate them again while reading.
+            is.getDigests().clear();
+
+            return is;
+        }
+
+        String algorithm = CHECKSUM_ALGORITHMS.get(artifactPath.substring(metadataPath.length()));
+        byte[] checksum = mergedMetadata.getChecksums().get(algorithm).getBytes(StandardCharsets.UTF_8);
+
+        ArtifactInputStream is = new ArtifactInputStream(null, new ByteArrayInputStream(checksum));
+        is.getDigests().clear();
+
+        return is;
+    }
+
+    /**
+     * @return the merged metadata of the members, or null if none of them has any
+     */
+    private MergedMetadata mergeMetadata(Storage storage,
+                                         List<RepositoryReference> members,
+                                         String metadataPath,
+                                         String fingerprint)
+            throws IOException,
+                   NoSuchAlgorithmException,
+                   ArtifactTransportException,
+                   ProviderImplementationException
+    {
+        List<Metadata> metadatas = new ArrayList<>();
+        for (RepositoryReference member : members)
+        {
+            ArtifactInputStream is;
+            try
+            {
+                is = resolveArtifact(member.getStorageId(storage), member.getRepositoryId(), metadataPath);
+            }
+            catch (FileNotFoundException e)
+            {
+                continue;
+            }
+            if (is == null)
+            {
+                continue;
+            }
+
+            try
+            {
+                // Closes the stream.
+                metadatas.add(mavenMetadataManager.readMetadata(is));
+            }
+            catch (XmlPullParserException e)
+            {
+                logger.warn("Skipping the invalid metadata " + metadataPath + " of " + member + ".", e);
+            }
+        }
+
+        Metadata metadata = metadataMerger.merge(metadatas);
+        if (metadata == null)
+        {
+            return null;
+        }
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (Writer writer = WriterFactory.newXmlWriter(baos))
+        {
+            new MetadataXpp3Writer().write(writer, metadata);
+        }
+        byte[] content = baos.toByteArray();
+
+        Map<String, String> checksums = new LinkedHashMap<>();
+        for (String algorithm : CHECKSUM_ALGORITHMS.values())
+        {
+            checksums.put(algorithm,
+                          MessageDigestUtils.convertToHexadecimalString(MessageDigest.getInstance(algorithm)
+                                                                                     .digest(content)));
+        }
+
+        logger.debug("Merged " + metadataPath + " from " + metadatas.size() + " members.");
+
+        return new MergedMetadata(content, checksums, fingerprint);
+    }
+
+    /**
+     * @return the state of the members' metadata files, which changes whenever any of them is written, or deleted
+     */
+    private String getFingerprint(Storage storage,
+                                  List<RepositoryReference> members,
+                                  String metadataPath,
+                                  CompiledRoutingRules routingRules)
+            throws IOException
+    {
+        StringBuilder fingerprint = new StringBuilder();
+        for (RepositoryReference member : members)
+        {
+            Storage memberStorage = getConfiguration().getStorage(member.getStorageId(storage));
+            Repository repository = memberStorage.getRepository(member.getRepositoryId());
+
+            fingerprint.append(memberStorage.getId()).append(':').append(repository.getId()).append('=');
+            if (getAlias().equals(repository.getType()))
+            {
+                fingerprint.append('[')
+                           .append(getFingerprint(memberStorage,
+                                                  getMembers(memberStorage, repository, metadataPath, routingRules),
+                                                  metadataPath,
+                                                  routingRules))
+                           .append(']');
+            }
+            else
+            {
+                Path path = Paths.get(repository.getBasedir()).resolve(metadataPath);
                 try
                 {
-                    is = resolveArtifact(sId, r.getId(), artifactPath);
-                }
-                catch (FileNotFoundException e)
-                {
-                    continue;
+                    BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                    fingerprint.append(attributes.lastModifiedTime().toMillis()).append('/').append(attributes.size());
                 }
-                if (is != null)
+                catch (NoSuchFileException e)
                 {
-                    return is;
+                    fingerprint.append('-');
                 }
             }
+            fingerprint.append(';');
+        }
+
+        return fingerprint.toString();
+    }
+
+    /**
+     * Resolves the artifact directly from the member it was last resolved from.
+     *
+     * @return The artifact, or null, if the member is no longer able to serve it.
+     */
+    private ArtifactInputStream resolveArtifactFromLocation(Storage storage,
+                                                            String groupRepositoryId,
+                                                            String artifactPath,
+                                                            String location)
+            throws IOException,
+                   NoSuchAlgorithmException,
+                   ArtifactTransportException,
+                   ProviderImplementationException
+    {
+        RepositoryReference member = RepositoryReference.parse(location);
+
+        Storage memberStorage = getConfiguration().getStorage(member.getStorageId(storage));
+        Repository repository = memberStorage != null ? memberStorage.getRepository(member.getRepositoryId()) : null;
+
+        ArtifactInputStream is = null;
+        if (repository != null && repository.isInService())
+        {
+            try
+            {
+                is = resolveArtifact(memberStorage.getId(), repository.getId(), artifactPath);
+            }
+            catch (FileNotFoundException e)
+            {
+                // Fall back to looking it up in all the members.
+            }
+        }
+
+        if (is == null)
+        {
+            logger.debug("The artifact is no longer available in " + location + ".");
+
+            groupResolvedLocationCache.invalidate(storage.getId(), groupRepositoryId, artifactPath);
+        }
+
+        return is;
+    }
+
+    private ArtifactInputStream resolveArtifactSequentially(Storage storage,
+                                                            Repository groupRepository,
+                                                            List<RepositoryReference> members,
+                                                            String artifactPath)
+            throws IOException,
+                   NoSuchAlgorithmException,
+                   ArtifactTransportException,
+                   ProviderImplementationException
+    {
+        for (RepositoryReference member : members)
+        {
+            ArtifactInputStream is;
+            try
+            {
+                is = resolveArtifact(member.getStorageId(storage), member.getRepositoryId(), artifactPath);
+            }
+            catch (FileNotFoundException e)
+            {
+                continue;
+            }
+            if (is != null)
+            {
+                groupResolvedLocationCache.putLocation(storage.getId(),
+                                                       groupRepository.getId(),
+                                                       artifactPath,
+                                                       member.getStorageId(storage),
+                                                       member.getRepositoryId());
+
+                return is;
+            }
+        }
+
+        if (!hasUnavailableMember(storage, members))
+        {
+            artifactNotFoundCache.markNotFound(groupRepository, artifactPath);
         }
 
         return null;
     }
 
-    public boolean repositoryRejects(String repositoryId, String artifactPath, RuleSet denyRules)
+    /**
+     * Paths aren't remembered as missing, while some of the members can't ask their remote repositories.
+     */
+    private boolean hasUnavailableMember(Storage storage,
+                                         List<RepositoryReference> members)
     {
-        if (denyRules != null && !denyRules.getRoutingRules().isEmpty())
+        if (unavailableRepositories.isEmpty())
+        {
+            return false;
+        }
+
+        for (RepositoryReference member : members)
         {
-            for (RoutingRule rule : denyRules.getRoutingRules())
+            if (unavailableRepositories.contains(member.getStorageId(storage) + ":" + member.getRepositoryId()))
             {
-                if (rule.getRepositories().contains(repositoryId) && artifactPath.matches(rule.getPattern()))
-                {
-                    return true;
-                }
+                return true;
             }
         }
 
         return false;
     }
 
-    private ArtifactInputStream getInputStreamFromWildcardRepositoryAcceptRules(String artifactPath, Storage storage)
+    /**
+     * Probes all the members at the same time, but still returns the artifact from the first member
+     * (in the declared order) which has it. Members which haven't responded within the timeout are treated
+     * as if they didn't have the artifact. Once the result is known, the lookups which are still in progress
+     * are cancelled and any streams they have already opened are closed.
+     */
+    private ArtifactInputStream resolveArtifactInParallel(Storage storage,
+                                                          Repository groupRepository,
+                                                          List<RepositoryReference> members,
+                                                          String artifactPath,
+                                                          long memberTimeoutSeconds)
             throws IOException,
                    NoSuchAlgorithmException,
                    ArtifactTransportException,
                    ProviderImplementationException
     {
-        RuleSet globalAcceptRules = getRoutingRules().getWildcardAcceptedRules();
+        // Holds the streams opened by the members, until either the result has been determined (in which
+        // case they're swapped for RESOLUTION_COMPLETE and closed), or they have been returned.
+        final AtomicReferenceArray<Closeable> streams = new AtomicReferenceArray<>(members.size());
+        final List<Future<ArtifactInputStream>> lookups = new ArrayList<>(members.size());
+
+        for (int i = 0; i < members.size(); i++)
+        {
+            final int index = i;
+            final RepositoryReference member = members.get(i);
+
+            lookups.add(groupRepositoryResolutionExecutor.submit(() -> {
+                ArtifactInputStream is = resolveArtifact(member.getStorageId(storage),
+                                                         member.getRepositoryId(),
+                                                         artifactPath);
+                if (is != null && !streams.compareAndSet(index, null, is))
+                {
+                    // The result has already been determined without this member.
+                    is.close();
+
+                    return null;
+                }
+
+                return is;
+            }));
+        }
+
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(memberTimeoutSeconds);
+
+        int resolvedIndex = -1;
+        boolean timedOut = false;
+        try
+        {
+            for (int i = 0; i < lookups.size(); i++)
+            {
+                ArtifactInputStream is;
+                try
+                {
+                    is = awaitLookup(members.get(i), lookups.get(i), deadline);
+                }
+                catch (TimeoutException e)
+                {
+                    logger.warn("Timed out while waiting for " + members.get(i) + " to respond. Skipping it.");
+
+                    timedOut = true;
+                    continue;
+                }
+
+                if (is != null)
+                {
+                    resolvedIndex = i;
+
+                    groupResolvedLocationCache.putLocation(storage.getId(),
+                                                           groupRepository.getId(),
+                                                           artifactPath,
+                                                           members.get(i).getStorageId(storage),
+                                                           members.get(i).getRepositoryId());
+
+                    return is;
+                }
+            }
+
+            // Don't remember the path as missing, if some of the members didn't get the chance to answer.
+            if (!timedOut && !hasUnavailableMember(storage, members))
+            {
+                artifactNotFoundCache.markNotFound(groupRepository, artifactPath);
+            }
+
+            return null;
+        }
+        finally
+        {
+            for (int i = 0; i < lookups.size(); i++)
+            {
+                if (i == resolvedIndex)
+                {
+                    continue;
+                }
 
-        return getArtifactInputStreamViaAcceptedRules(artifactPath, storage, globalAcceptRules);
+                lookups.get(i).cancel(true);
+
+                Closeable stream = streams.getAndSet(i, RESOLUTION_COMPLETE);
+                if (stream != null)
+                {
+                    closeQuietly(stream);
+                }
+            }
+        }
     }
 
-    private ArtifactInputStream getInputStreamFromRepositoryAcceptRules(String repositoryId,
-                                                                        String artifactPath,
-                                                                        Storage storage)
+    private ArtifactInputStream awaitLookup(RepositoryReference member,
+                                            Future<ArtifactInputStream> lookup,
+                                            long deadline)
             throws IOException,
                    NoSuchAlgorithmException,
                    ArtifactTransportException,
-                   ProviderImplementationException
+                   ProviderImplementationException,
+                   TimeoutException
     {
-        RuleSet acceptRules = getRoutingRules().getAcceptRules(repositoryId);
+        try
+        {
+            return lookup.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
 
-        return getArtifactInputStreamViaAcceptedRules(artifactPath, storage, acceptRules);
+            throw new InterruptedIOException("Interrupted while waiting for " + member + " to respond.");
+        }
+        catch (ExecutionException e)
+        {
+            Throwable cause = e.getCause();
+            if (cause instanceof FileNotFoundException)
+            {
+                return null;
+            }
+            if (cause instanceof IOException)
+            {
+                throw (IOException) cause;
+            }
+            if (cause instanceof NoSuchAlgorithmException)
+            {
+                throw (NoSuchAlgorithmException) cause;
+            }
+            if (cause instanceof ArtifactTransportException)
+            {
+                throw (ArtifactTransportException) cause;
+            }
+            if (cause instanceof ProviderImplementationException)
+            {
+                throw (ProviderImplementationException) cause;
+            }
+            if (cause instanceof RuntimeException)
+            {
+                throw (RuntimeException) cause;
+            }
+
+            throw new IOException("Failed to resolve the artifact in " + member, cause);
+        }
+    }
+
+    private void closeQuietly(Closeable stream)
+    {
+        try
+        {
+            stream.close();
+        }
+        catch (IOException e)
+        {
+            logger.debug("Failed to close an unused stream.", e);
+        }
+    }
+
+    private boolean repositoryRejects(String repositoryId,
+                                      String artifactPath,
+                                      List<CompiledRoutingRule> denyRules)
+    {
+        for (CompiledRoutingRule rule : denyRules)
+        {
+            if (rule.appliesTo(repositoryId) && rule.matches(artifactPath))
+            {
+                return true;
+            }
+        }
+
+        return false;
     }
 
     private ArtifactInputStream getArtifactInputStreamViaAcceptedRules(String artifactPath,
                                                                        Storage storage,
-                                                                       RuleSet acceptRules)
+                                                                       String groupRepositoryId,
+                                                                       List<CompiledRoutingRule> acceptRules)
             throws ProviderImplementationException,
                    NoSuchAlgorithmException,
                    IOException,
                    ArtifactTransportException
     {
-        if (acceptRules != null && acceptRules.getRoutingRules() != null &&
-            !acceptRules.getRoutingRules().isEmpty())
+        for (CompiledRoutingRule rule : acceptRules)
         {
-            final List<RoutingRule> routingRules = acceptRules.getRoutingRules();
-            for (RoutingRule rule : routingRules)
+            if (rule.matches(artifactPath))
             {
-                if (artifactPath.matches(rule.getPattern()))
+                for (RepositoryReference reference : rule.getRepositories())
                 {
-                    for (String rId : rule.getRepositories())
-                    {
-                        String sId = getConfigurationManager().getStorageId(storage, rId);
-                        rId = getConfigurationManager().getRepositoryId(rId);
+                    String sId = reference.getStorageId(storage);
+                    String rId = reference.getRepositoryId();
 
-                        Repository repository = getConfiguration().getStorage(sId).getRepository(rId);
-                        LayoutProvider layoutProvider = getLayoutProvider(repository, getLayoutProviderRegistry());
+                    Repository repository = getConfiguration().getStorage(sId).getRepository(rId);
+                    LayoutProvider layoutProvider = getLayoutProvider(repository, getLayoutProviderRegistry());
 
-                        if (repository.isInService() && layoutProvider.containsPath(repository, artifactPath))
+                    if (repository.isInService() && layoutProvider.containsPath(repository, artifactPath))
+                    {
+                        ArtifactInputStream is = resolveArtifact(sId, repository.getId(), artifactPath);
+                        if (is != null)
                         {
-                            return resolveArtifact(sId, repository.getId(), artifactPath);
+                            groupResolvedLocationCache.putLocation(storage.getId(),
+                                                                   groupRepositoryId,
+                                                                   artifactPath,
+                                                                   sId,
+                                                                   repository.getId());
                         }
+
+                        return is;
                     }
                 }
             }
@@ -0,0 +1,153 @@
+package org.carlspring.strongbox.providers.repository;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * The bounded thread pool on which the members of group repositories with parallel resolution are probed.
+ *
+ * When both the threads and the queue are exhausted, the lookup is not run at all and is treated like a member, which
+ * has exceeded its timeout. Running it in the calling thread instead would block the request without a time limit,
+ * which is the very stall that the parallel resolution is meant to prevent.
+ */
+@Component
+public class GroupRepositoryResolutionExecutor
+{
+
+    private static final Logger logger = LoggerFactory.getLogger(GroupRepositoryResolutionExecutor.class);
+
+    private static final ThreadLocal<Boolean> WORKER_THREAD = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    @Value("${group.resolution.threads:16}")
+    private int threads;
+
+    @Value("${group.resolution.queueSize:256}")
+    private int queueSize;
+
+    private ThreadPoolExecutor executor;
+
+
+    @PostConstruct
+    public void init()
+    {
+        executor = new ThreadPoolExecutor(threads,
+                                          threads,
+                                          60L,
+                                          TimeUnit.SECONDS,
+                                          new ArrayBlockingQueue<>(queueSize),
+                                          new WorkerThreadFactory(),
+                                          new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+
+        logger.debug("Initialized the group repository resolution executor with " + threads + " threads.");
+    }
+
+    @PreDestroy
+    public void destroy()
+    {
+        executor.shutdownNow();
+    }
+
+    /**
+     * @return the lookup, or, if the executor is saturated, one which has already timed out
+     */
+    public <T> Future<T> submit(Callable<T> task)
+    {
+        try
+        {
+            return executor.submit(task);
+        }
+        catch (RejectedExecutionException e)
+        {
+            logger.warn("The group repository resolution executor is saturated (" + threads + " threads, " +
+                        queueSize + " queued lookups); skipping a member.");
+
+            return new TimedOutLookup<>();
+        }
+    }
+
+    /**
+     * Lookups which are already running on this executor must not fan out again (for nested group repositories),
+     * as waiting on tasks queued behind them could exhaust the pool.
+     */
+    public boolean isWorkerThread()
+    {
+        return WORKER_THREAD.get();
+    }
+
+    private static class TimedOutLookup<T>
+            implements Future<T>
+    {
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning)
+        {
+            return false;
+        }
+
+        @Override
+        public boolean isCancelled()
+        {
+            return false;
+        }
+
+        @Override
+        public boolean isDone()
+        {
+            return true;
+        }
+
+        @Override
+        public T get()
+                throws ExecutionException
+        {
+            throw new ExecutionException(new RejectedExecutionException("The lookup was rejected."));
+        }
+
+        @Override
+        public T get(long timeout,
+                     TimeUnit unit)
+                throws TimeoutException
+        {
+            throw new TimeoutException("The lookup was rejected.");
+        }
+
+    }
+
+    private static class WorkerThreadFactory
+            implements ThreadFactory
+    {
+
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+
+        @Override
+        public Thread newThread(Runnable runnable)
+        {
+            Thread thread = new Thread(() -> {
+                WORKER_THREAD.set(Boolean.TRUE);
+                runnable.run();
+            }, "group-resolution-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+
+            return thread;
+        }
+
+    }
+
+}
@@ -0,0 +1,118 @@
+package org.carlspring.strongbox.providers.repository;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Remembers which member of a group repository a path was last resolved from, so that the following requests
+ * for it can go straight to that member, instead of evaluating the routing rules and probing all the members
+ * before it again.
+ *
+ * Only release artifacts are cached, as their location doesn't change unless they're deployed, or deleted.
+ */
+@Component
+public class GroupResolvedLocationCache
+{
+
+    private static final Logger logger = LoggerFactory.getLogger(GroupResolvedLocationCache.class);
+
+    @Value("${group.resolvedLocationCache.maxSize:10000}")
+    private long maxSize;
+
+    @Value("${group.resolvedLocationCache.timeToLiveSeconds:600}")
+    private long timeToLiveSeconds;
+
+    /**
+     * K: path
+     * V: K: storageId:groupRepositoryId
+     *    V: storageId:repositoryId of the member which the path was resolved from
+     */
+    private Cache<String, ConcurrentMap<String, String>> locations;
+
+
+    @PostConstruct
+    public void init()
+    {
+        locations = CacheBuilder.newBuilder()
+                                .maximumSize(maxSize)
+                                .expireAfterWrite(timeToLiveSeconds, TimeUnit.SECONDS)
+                                .build();
+    }
+
+    /**
+     * @return The storageId:repositoryId of the member the path was resolved from, or null if it's not known.
+     */
+    public String getLocation(String storageId,
+                              String groupRepositoryId,
+                              String path)
+    {
+        ConcurrentMap<String, String> groupLocations = locations.getIfPresent(path);
+
+        return groupLocations != null ? groupLocations.get(storageId + ":" + groupRepositoryId) : null;
+    }
+
+    public void putLocation(String storageId,
+                            String groupRepositoryId,
+                            String path,
+                            String memberStorageId,
+                            String memberRepositoryId)
+    {
+        if (!isCacheable(path))
+        {
+            return;
+        }
+
+        ConcurrentMap<String, String> groupLocations = locations.asMap().computeIfAbsent(path,
+                                                                                         p -> new ConcurrentHashMap<>());
+        groupLocations.put(storageId + ":" + groupRepositoryId, memberStorageId + ":" + memberRepositoryId);
+    }
+
+    public void invalidate(String storageId,
+                           String groupRepositoryId,
+                           String path)
+    {
+        ConcurrentMap<String, String> groupLocations = locations.getIfPresent(path);
+        if (groupLocations != null)
+        {
+            groupLocations.remove(storageId + ":" + groupRepositoryId);
+        }
+    }
+
+    public void invalidate(String path)
+    {
+        locations.invalidate(path);
+    }
+
+    /**
+     * Forgets the path and everything beneath it (for when a whole directory is deleted).
+     */
+    public void invalidateAllUnder(String path)
+    {
+        String directory = path.endsWith("/") ? path : path + "/";
+
+        locations.invalidate(path);
+        locations.asMap().keySet().removeIf(p -> p.startsWith(directory));
+    }
+
+    public void invalidateAll()
+    {
+        logger.debug("Invalidating all the resolved group repository locations.");
+
+        locations.invalidateAll();
+    }
+
+    private boolean isCacheable(String path)
+    {
+        return !path.contains("SNAPSHOT") && !path.contains("maven-metadata");
+    }
+
+}
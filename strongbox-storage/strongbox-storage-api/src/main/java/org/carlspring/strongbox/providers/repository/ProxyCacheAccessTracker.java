@@ -0,0 +1,177 @@
+package org.carlspring.strongbox.providers.repository;
+
+import org.carlspring.strongbox.storage.repository.CacheEvictionConfiguration;
+import org.carlspring.strongbox.storage.repository.Repository;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps track of when, and how often, the artifacts in the local cache of a proxy repository are served, so that
+ * the least used ones can be evicted, once the cache exceeds its quota.
+ *
+ * The accesses are kept in memory, rather than by touching the files, so that serving an artifact from the cache
+ * stays a read-only operation. Only repositories which have a <cache-eviction/> element in their configuration are
+ * tracked and only the most recently served paths are remembered, up to proxy.cache.accessTracker.maxSize of them.
+ * For the paths which aren't remembered (because they were dropped, or haven't been served since the startup), the
+ * eviction falls back to the access and modification times of the files.
+ *
+ * It also keeps an estimate of the size of each cache, so that the eviction only has to walk a cache, once it might
+ * have exceeded its quota.
+ */
+@Component
+public class ProxyCacheAccessTracker
+{
+
+    private static final Logger logger = LoggerFactory.getLogger(ProxyCacheAccessTracker.class);
+
+    @Value("${proxy.cache.accessTracker.maxSize:100000}")
+    private long maxSize;
+
+    /**
+     * K: storageId:repositoryId/path
+     * V: The accesses of the path.
+     */
+    private Cache<String, Access> accesses;
+
+    /**
+     * K: storageId:repositoryId
+     * V: The size of the cache, as of its last walk, plus what has been cached since.
+     */
+    private final ConcurrentMap<String, AtomicLong> estimatedSizes = new ConcurrentHashMap<>();
+
+
+    @PostConstruct
+    public void init()
+    {
+        accesses = CacheBuilder.newBuilder()
+                               .maximumSize(maxSize)
+                               .build();
+    }
+
+    public void recordAccess(Repository repository,
+                             String path)
+    {
+        if (!isTracked(repository))
+        {
+            return;
+        }
+
+        Access access = accesses.asMap().computeIfAbsent(getKey(repository, path), p -> new Access());
+        access.record();
+    }
+
+    /**
+     * Adds the size of a file, which has just been downloaded into the cache, to the estimated size of the cache.
+     */
+    public void recordCached(Repository repository,
+                             Path file)
+    {
+        AtomicLong estimatedSize = isTracked(repository) ? estimatedSizes.get(getKey(repository)) : null;
+        if (estimatedSize == null)
+        {
+            // Not walked yet, the walk is going to count it.
+            return;
+        }
+
+        try
+        {
+            estimatedSize.addAndGet(Files.size(file));
+        }
+        catch (IOException e)
+        {
+            // Evicted, or deleted in the meantime.
+            logger.debug("Failed to determine the size of " + file + ".", e);
+        }
+    }
+
+    /**
+     * @return the estimated size of the cache of the given repository, or -1, if it hasn't been walked yet
+     */
+    public long getEstimatedSize(Repository repository)
+    {
+        AtomicLong estimatedSize = estimatedSizes.get(getKey(repository));
+
+        return estimatedSize != null ? estimatedSize.get() : -1;
+    }
+
+    public void setEstimatedSize(Repository repository,
+                                 long size)
+    {
+        estimatedSizes.computeIfAbsent(getKey(repository), k -> new AtomicLong()).set(size);
+    }
+
+    /**
+     * @return the accesses of the given path, or null, if it hasn't been served since the startup, or it has been
+     *         dropped in favour of the more recently served ones
+     */
+    public Access getAccess(Repository repository,
+                            String path)
+    {
+        return accesses.getIfPresent(getKey(repository, path));
+    }
+
+    public void forget(Repository repository,
+                       String path)
+    {
+        accesses.invalidate(getKey(repository, path));
+    }
+
+    private boolean isTracked(Repository repository)
+    {
+        CacheEvictionConfiguration configuration = repository.getCacheEvictionConfiguration();
+
+        return configuration != null && configuration.isEnabled();
+    }
+
+    private String getKey(Repository repository)
+    {
+        return repository.getStorage().getId() + ":" + repository.getId();
+    }
+
+    private String getKey(Repository repository,
+                          String path)
+    {
+        return getKey(repository) + "/" + path;
+    }
+
+    public static class Access
+    {
+
+        private volatile long lastAccessed;
+
+        private final LongAdder count = new LongAdder();
+
+
+        void record()
+        {
+            lastAccessed = System.currentTimeMillis();
+            count.increment();
+        }
+
+        public long getLastAccessed()
+        {
+            return lastAccessed;
+        }
+
+        public long getCount()
+        {
+            return count.sum();
+        }
+
+    }
+
+}
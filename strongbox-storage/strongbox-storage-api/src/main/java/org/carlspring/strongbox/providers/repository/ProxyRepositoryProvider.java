@@ -2,13 +2,22 @@ package org.carlspring.strongbox.providers.repository;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.nio.file.Files;
 import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
 
 import javax.annotation.PostConstruct;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
 
-import org.carlspring.commons.io.MultipleDigestOutputStream;
+import com.google.common.io.ByteStreams;
+import org.apache.commons.codec.digest.MessageDigestAlgorithms;
 import org.carlspring.strongbox.client.ArtifactResolver;
 import org.carlspring.strongbox.client.ArtifactTransportException;
 import org.carlspring.strongbox.io.ArtifactInputStream;
@@ -20,10 +29,13 @@ import org.carlspring.strongbox.service.ProxyRepositoryConnectionPoolConfigurati
 import org.carlspring.strongbox.storage.Storage;
 import org.carlspring.strongbox.storage.repository.RemoteRepository;
 import org.carlspring.strongbox.storage.repository.Repository;
+import org.carlspring.strongbox.storage.repository.RepositoryChecksumPolicyValidationTypeEnum;
+import org.carlspring.strongbox.util.ArtifactFileUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 /**
@@ -37,6 +49,17 @@ public class ProxyRepositoryProvider extends AbstractRepositoryProvider
 
     private static final String ALIAS = "proxy";
 
+    /**
+     * The checksum headers sent by Strongbox itself, as well as by Maven Central, Nexus and Artifactory.
+     */
+    private static final Map<String, String[]> REMOTE_CHECKSUM_HEADERS = new LinkedHashMap<>();
+
+    static
+    {
+        REMOTE_CHECKSUM_HEADERS.put(MessageDigestAlgorithms.SHA_1, new String[]{ "Checksum-SHA1", "X-Checksum-Sha1" });
+        REMOTE_CHECKSUM_HEADERS.put(MessageDigestAlgorithms.MD5, new String[]{ "Checksum-MD5", "X-Checksum-Md5" });
+    }
+
     @Autowired
     private RepositoryProviderRegistry repositoryProviderRegistry;
 
@@ -47,6 +70,37 @@ public class ProxyRepositoryProvider extends AbstractRepositoryProvider
     @Qualifier("filesystemStorageProvider")
     private StorageProvider filesystemStorageProvider;
 
+    @Autowired
+    private ArtifactNotFoundCache artifactNotFoundCache;
+
+    @Autowired
+    private RemoteChecksumResolver remoteChecksumResolver;
+
+    @Autowired
+    private RemoteMetadataRevalidator remoteMetadataRevalidator;
+
+    @Autowired
+    private RemoteRepositoryHealthMonitor remoteRepositoryHealthMonitor;
+
+    @Autowired
+    private RemoteArtifactPrefetcher remoteArtifactPrefetcher;
+
+    @Autowired
+    private ProxyCacheAccessTracker proxyCacheAccessTracker;
+
+    /**
+     * Whether the artifacts, which are being downloaded from the remote, are served to the client at the same time.
+     * When disabled, the whole artifact is downloaded, before it's served.
+     */
+    @Value("${proxy.streamThrough.enabled:true}")
+    private boolean streamThroughEnabled;
+
+    /**
+     * K: storageId:repositoryId/path
+     * V: The download of this path from the remote repository, which is currently in progress.
+     */
+    private final ConcurrentMap<String, CompletableFuture<Boolean>> downloadsInProgress = new ConcurrentHashMap<>();
+
     @PostConstruct
     @Override
     public void register()
@@ -78,8 +132,7 @@ public class ProxyRepositoryProvider extends AbstractRepositoryProvider
 
         RepositoryPath reposytoryPath = filesystemStorageProvider.resolve(repository);
         RepositoryPath artifactPath = reposytoryPath.resolve(path);
-        RepositoryFileSystemProvider fileSystemProvider = (RepositoryFileSystemProvider)artifactPath.getFileSystem().provider();
-        
+
         logger.debug(" -> Checking for " + artifactPath + "...");
         
         if (Files.exists(artifactPath))
@@ -87,57 +140,391 @@ public class ProxyRepositoryProvider extends AbstractRepositoryProvider
             logger.debug("The artifact was found in the local cache.");
             logger.debug("Resolved " + artifactPath + "!");
 
+            // Artifacts don't change, but the metadata does, so it's revalidated once it has expired.
+            if (isRevalidatedMetadata(path) &&
+                remoteMetadataRevalidator.isExpired(repository, artifactPath) &&
+                remoteRepositoryHealthMonitor.isAvailable(storageId, repository))
+            {
+                logger.debug("Serving the expired " + artifactPath + ", while it's being revalidated.");
+
+                remoteMetadataRevalidator.revalidate(repository, path, artifactPath);
+            }
+
+            proxyCacheAccessTracker.recordAccess(repository, path);
+
             return new ArtifactInputStream(null, Files.newInputStream(artifactPath));
         }
         else
         {
             logger.debug("The artifact was not found in the local cache.");
-            
-            RepositoryPath tempArtifact = fileSystemProvider.getTempPath(artifactPath);
-            
-            RemoteRepository remoteRepository = repository.getRemoteRepository();
 
-            ArtifactResolver client = new ArtifactResolver(proxyRepositoryConnectionPoolConfigurationService.getClient());
-            client.setRepositoryBaseUrl(remoteRepository.getUrl());
-            client.setUsername(remoteRepository.getUsername());
-            client.setPassword(remoteRepository.getPassword());
+            if (artifactNotFoundCache.isNotFound(repository, path))
+            {
+                logger.debug("The artifact was recently not found in the remote repository.");
 
-            Response response = client.getResourceWithResponse(path);
-            if (response.getStatus() != 200 || response.getEntity() == null)
+                return null;
+            }
+
+            if (!remoteRepositoryHealthMonitor.isAvailable(storageId, repository))
             {
+                // Not remembered as missing, as the remote might have it, once it's back.
+                logger.debug("The remote repository is unavailable, only cached artifacts are served.");
+
                 return null;
             }
 
-            InputStream remoteIs = response.readEntity(InputStream.class);
+            // 1 b) If it exists on the remote, serve it while it's being downloaded
+            ArtifactInputStream is = resolveRemoteArtifact(storageId, repositoryId, path, artifactPath);
+            if (is == null)
+            {
+                artifactNotFoundCache.markNotFound(repository, path);
+            }
+            else
+            {
+                proxyCacheAccessTracker.recordAccess(repository, path);
+
+                // The build is going to ask for the POM and the checksums next.
+                remoteArtifactPrefetcher.prefetchCompanions(this,
+                                                            storageId,
+                                                            repositoryId,
+                                                            path,
+                                                            artifactPath,
+                                                            repository.getRemoteRepository().isChecksumValidation());
+            }
+
+            return is;
+        }
+    }
+
+    /**
+     * Makes sure that only one download of a given path from the remote repository takes place at a time.
+     * The request which starts the download is served the artifact as it arrives from the remote, while it's
+     * also being written to the local cache. Concurrent requests for the same path wait for that download
+     * and then serve the artifact from the local cache.
+     *
+     * @return the artifact, or null, if the remote doesn't have it
+     */
+    private ArtifactInputStream resolveRemoteArtifact(String storageId,
+                                                      String repositoryId,
+                                                      String path,
+                                                      RepositoryPath artifactPath)
+            throws IOException,
+                   NoSuchAlgorithmException,
+                   ArtifactTransportException
+    {
+        String downloadKey = storageId + ":" + repositoryId + "/" + path;
+
+        CompletableFuture<Boolean> download = new CompletableFuture<>();
+        CompletableFuture<Boolean> downloadInProgress = downloadsInProgress.putIfAbsent(downloadKey, download);
+        if (downloadInProgress != null)
+        {
+            logger.debug("Waiting for the download of " + downloadKey + " which is already in progress...");
+
+            Boolean available = awaitDownload(downloadKey, downloadInProgress);
+            if (available == null)
+            {
+                logger.debug("The download of " + downloadKey + " did not complete, retrying...");
+
+                return resolveRemoteArtifact(storageId, repositoryId, path, artifactPath);
+            }
+
+            return available ? new ArtifactInputStream(null, Files.newInputStream(artifactPath)) : null;
+        }
+
+        download.whenComplete((available, e) -> {
+            downloadsInProgress.remove(downloadKey, download);
+
+            Repository repository = getConfiguration().getStorage(storageId).getRepository(repositoryId);
+            if (Boolean.TRUE.equals(available))
+            {
+                proxyCacheAccessTracker.recordCached(repository, artifactPath);
+            }
+            else if (Boolean.FALSE.equals(available))
+            {
+                // Also covers quarantined artifacts, so that they aren't downloaded again on every request.
+                artifactNotFoundCache.markNotFound(repository, path);
+            }
+        });
+
+        try
+        {
+            // The previous download of this path might have finished right before we registered ours.
+            if (Files.exists(artifactPath))
+            {
+                download.complete(Boolean.TRUE);
+
+                return new ArtifactInputStream(null, Files.newInputStream(artifactPath));
+            }
+
+            InputStream remoteIs = openRemoteArtifact(storageId, repositoryId, path, artifactPath, download);
             if (remoteIs == null)
             {
+                download.complete(Boolean.FALSE);
+
                 return null;
             }
-            
-            int total = 0;
-            try (MultipleDigestOutputStream mdos = new MultipleDigestOutputStream(fileSystemProvider.newOutputStream(tempArtifact)))
+
+            if (streamThroughEnabled)
+            {
+                return new ArtifactInputStream(null, remoteIs);
+            }
+
+            // Download the whole artifact, before serving it from the local cache.
+            try (InputStream is = remoteIs)
             {
-                int len;
-                final int size = 1024;
-                byte[] bytes = new byte[size];
+                ByteStreams.exhaust(is);
+            }
+
+            return Boolean.TRUE.equals(download.getNow(null)) ?
+                   new ArtifactInputStream(null, Files.newInputStream(artifactPath)) :
+                   null;
+        }
+        catch (IOException | NoSuchAlgorithmException | ArtifactTransportException | RuntimeException e)
+        {
+            download.completeExceptionally(e);
+
+            throw e;
+        }
+    }
+
+    /**
+     * @return null, if the download was aborted; otherwise, whether the remote has the artifact
+     */
+    private Boolean awaitDownload(String downloadKey,
+                                  CompletableFuture<Boolean> download)
+            throws IOException,
+                   NoSuchAlgorithmException,
+                   ArtifactTransportException
+    {
+        try
+        {
+            return download.get();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
 
-                while ((len = remoteIs.read(bytes, 0, size)) != -1)
+            throw new InterruptedIOException("Interrupted while waiting for the download of " + downloadKey);
+        }
+        catch (ExecutionException e)
+        {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException)
+            {
+                throw (IOException) cause;
+            }
+            if (cause instanceof NoSuchAlgorithmException)
+            {
+                throw (NoSuchAlgorithmException) cause;
+            }
+            if (cause instanceof ArtifactTransportException)
+            {
+                throw (ArtifactTransportException) cause;
+            }
+
+            throw new IOException("Failed to download " + downloadKey, cause);
+        }
+    }
+
+    /**
+     * @return a stream, which caches the artifact, while it's being read from the remote, or null, if the remote
+     *         doesn't have it
+     */
+    private InputStream openRemoteArtifact(String storageId,
+                                           String repositoryId,
+                                           String path,
+                                           RepositoryPath artifactPath,
+                                           CompletableFuture<Boolean> download)
+            throws IOException,
+                   ArtifactTransportException
+    {
+        Repository repository = getConfiguration().getStorage(storageId).getRepository(repositoryId);
+        RepositoryFileSystemProvider fileSystemProvider = (RepositoryFileSystemProvider)artifactPath.getFileSystem().provider();
+
+        RemoteRepository remoteRepository = repository.getRemoteRepository();
+
+        ArtifactResolver client = new ArtifactResolver(
+                proxyRepositoryConnectionPoolConfigurationService.getClient(remoteRepository.getUrl()));
+        client.setRepositoryBaseUrl(remoteRepository.getUrl());
+        client.setUsername(remoteRepository.getUsername());
+        client.setPassword(remoteRepository.getPassword());
+
+        // Another request may have become the one, which decides whether the half-open circuit is closed again.
+        if (!remoteRepositoryHealthMonitor.tryStartRequest(storageId, repository))
+        {
+            throw new IOException("The remote repository " + remoteRepository.getUrl() + " of " + storageId + ":" +
+                                  repositoryId + " is unavailable.");
+        }
+
+        long startTime = System.currentTimeMillis();
+
+        Response response;
+        try
+        {
+            response = client.getResourceWithResponse(path);
+        }
+        catch (IOException | ArtifactTransportException | RuntimeException e)
+        {
+            // Whatever went wrong, the outcome has to be recorded, or a half-open circuit would never be decided.
+            remoteRepositoryHealthMonitor.recordFailure(storageId,
+                                                        repository,
+                                                        System.currentTimeMillis() - startTime,
+                                                        e.toString());
+
+            throw e;
+        }
+
+        long latencyMillis = System.currentTimeMillis() - startTime;
+        if (response.getStatus() != 200 || response.getEntity() == null)
+        {
+            if (response.getStatus() >= 500)
+            {
+                remoteRepositoryHealthMonitor.recordFailure(storageId,
+                                                            repository,
+                                                            latencyMillis,
+                                                            "it responded with " + response.getStatus());
+            }
+            else
+            {
+                remoteRepositoryHealthMonitor.recordSuccess(storageId, repository, latencyMillis);
+            }
+
+            response.close();
+
+            return null;
+        }
+
+        // The outcome of this request is recorded once the body has been read, as the remote may still break it off.
+
+        InputStream remoteIs = null;
+        try
+        {
+            InputStream entityIs = response.readEntity(InputStream.class);
+            if (entityIs == null)
+            {
+                remoteRepositoryHealthMonitor.recordSuccess(storageId, repository, latencyMillis);
+
+                response.close();
+
+                return null;
+            }
+
+            remoteIs = remoteRepositoryHealthMonitor.monitorStream(storageId, repository, entityIs, latencyMillis);
+
+            if (isRevalidatedMetadata(path))
+            {
+                remoteMetadataRevalidator.storeValidators(artifactPath, response);
+            }
+
+            // The length can only be verified, if the entity hasn't been decoded on the way.
+            long expectedLength = response.getHeaderString(HttpHeaders.CONTENT_ENCODING) == null ?
+                                  response.getLength() : -1L;
+
+            // The checksum files are fetched, while the artifact is being downloaded.
+            Map<String, String> headerChecksums = getRemoteChecksums(response);
+            CompletableFuture<Map<String, String>> expectedChecksums;
+            if (remoteRepository.isChecksumValidation() && !isMetadata(path) && !ArtifactFileUtils.isChecksum(path))
+            {
+                expectedChecksums = remoteChecksumResolver.resolveChecksums(remoteRepository, path)
+                                                          .thenApply(checksums -> {
+                                                              Map<String, String> result = new LinkedHashMap<>(headerChecksums);
+                                                              result.putAll(checksums);
+
+                                                              return result;
+                                                          });
+            }
+            else
+            {
+                expectedChecksums = CompletableFuture.completedFuture(headerChecksums);
+            }
+
+            return new RemoteArtifactInputStream(remoteIs,
+                                                 fileSystemProvider,
+                                                 artifactPath,
+                                                 expectedLength,
+                                                 expectedChecksums,
+                                                 getChecksumPolicy(remoteRepository),
+                                                 download);
+        }
+        catch (IOException | RuntimeException e)
+        {
+            // Only the stream would have closed the response, so its pooled connection would leak.
+            response.close();
+
+            if (remoteIs == null)
+            {
+                // The remote isn't to blame, but the outcome still has to be recorded.
+                remoteRepositoryHealthMonitor.recordSuccess(storageId, repository, latencyMillis);
+            }
+            else
+            {
+                try
                 {
-                    mdos.write(bytes, 0, len);
-                    total += len;
+                    remoteIs.close();
                 }
+                catch (IOException closeFailure)
+                {
+                    e.addSuppressed(closeFailure);
+                }
+            }
 
-                mdos.flush();
+            throw e;
+        }
+    }
+
+    /**
+     * Metadata is regenerated by the remote, so it may legitimately change between fetching it and its checksums.
+     */
+    private boolean isMetadata(String path)
+    {
+        return ArtifactFileUtils.isMetadataFile(path) || path.startsWith("maven-metadata.");
+    }
+
+    /**
+     * The checksums of the metadata are dropped, when it changes, so they are fetched again on demand.
+     */
+    private boolean isRevalidatedMetadata(String path)
+    {
+        return isMetadata(path) && !ArtifactFileUtils.isChecksum(path);
+    }
+
+    /**
+     * Artifacts, which fail the verification, are not served, unless the repository explicitly allows it.
+     */
+    private RepositoryChecksumPolicyValidationTypeEnum getChecksumPolicy(RemoteRepository remoteRepository)
+    {
+        String checksumPolicy = remoteRepository.getChecksumPolicy();
+        for (RepositoryChecksumPolicyValidationTypeEnum policy : RepositoryChecksumPolicyValidationTypeEnum.values())
+        {
+            if (policy.getPolicyType().equalsIgnoreCase(checksumPolicy) || policy.name().equalsIgnoreCase(checksumPolicy))
+            {
+                return policy;
             }
-            
-            
-            // TODO: Add a policy for validating the checksums of downloaded artifacts
-            // TODO: Validate the local checksum against the remote's checksums
-            fileSystemProvider.restoreFromTemp(artifactPath);
+        }
 
-            // 1 b) If it exists on the remote, serve the downloaded artifact
-            return new ArtifactInputStream(null, Files.newInputStream(artifactPath));
+        return RepositoryChecksumPolicyValidationTypeEnum.STRICT;
+    }
+
+    /**
+     * Collects the checksums, which remote repository managers send along with artifacts.
+     */
+    private Map<String, String> getRemoteChecksums(Response response)
+    {
+        Map<String, String> checksums = new LinkedHashMap<>();
+        for (Map.Entry<String, String[]> entry : REMOTE_CHECKSUM_HEADERS.entrySet())
+        {
+            for (String header : entry.getValue())
+            {
+                String checksum = response.getHeaderString(header);
+                if (checksum != null && !checksum.trim().isEmpty())
+                {
+                    checksums.put(entry.getKey(), checksum.trim());
+                    break;
+                }
+            }
         }
+
+        return checksums;
     }
 
     @Override
@@ -0,0 +1,473 @@
+package org.carlspring.strongbox.providers.repository;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.carlspring.commons.io.MultipleDigestOutputStream;
+import org.carlspring.strongbox.io.RepositoryFileSystemProvider;
+import org.carlspring.strongbox.io.RepositoryPath;
+import org.carlspring.strongbox.storage.repository.RepositoryChecksumPolicyValidationTypeEnum;
+import org.carlspring.strongbox.util.ArtifactFileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Forwards an artifact, which is being downloaded from a remote repository, to the reader, while writing it
+ * to a temporary file at the same time. Once the whole artifact has been read, and its length and checksums
+ * match the ones announced by the remote, the temporary file is moved into the local cache of the proxy repository.
+ * A body whose length doesn't match the announced one fails the read at its end, so that the reader doesn't take
+ * a truncated artifact for a complete one.
+ * <p>
+ * Artifacts with mismatching checksums are handled according to the checksum policy of the repository:
+ * <ul>
+ * <li>{@link RepositoryChecksumPolicyValidationTypeEnum#STRICT} (the default) moves them into the quarantine and fails
+ * the read;</li>
+ * <li>{@link RepositoryChecksumPolicyValidationTypeEnum#WARN} moves them into the quarantine, but completes the read;</li>
+ * <li>{@link RepositoryChecksumPolicyValidationTypeEnum#LOG} only logs the mismatch and caches them anyway.</li>
+ * </ul>
+ * The quarantine is emptied along with the trash of the repository. A quarantined copy is also dropped, as soon as
+ * the artifact has been cached successfully.
+ * <p>
+ * The remote checksums, which the artifact has been verified with, are cached next to it, so that they don't have to
+ * be fetched again, when they are requested.
+ * <p>
+ * The given download is completed with <code>true</code>, when the artifact has been cached, with <code>false</code>,
+ * when it has been quarantined, or with <code>null</code>, when it couldn't be cached, because the transfer was
+ * aborted.
+ */
+public class RemoteArtifactInputStream
+        extends FilterInputStream
+{
+
+    private static final Logger logger = LoggerFactory.getLogger(RemoteArtifactInputStream.class);
+
+    /**
+     * How long to wait for the remote checksums, once the artifact itself has been read.
+     */
+    private static final long CHECKSUM_TIMEOUT_SECONDS = 30;
+
+    private final RepositoryFileSystemProvider fileSystemProvider;
+
+    private final RepositoryPath artifactPath;
+
+    private final RepositoryPath tempArtifactPath;
+
+    private final long expectedLength;
+
+    private final CompletableFuture<Map<String, String>> expectedChecksums;
+
+    private final RepositoryChecksumPolicyValidationTypeEnum checksumPolicy;
+
+    private final CompletableFuture<Boolean> download;
+
+    private MultipleDigestOutputStream cacheOutputStream;
+
+    /**
+     * The remote checksums (algorithm -> checksum), which the artifact has been verified with.
+     */
+    private Map<String, String> verifiedChecksums = Collections.emptyMap();
+
+    private long transferred;
+
+    private boolean finished;
+
+
+    public RemoteArtifactInputStream(InputStream remoteInputStream,
+                                     RepositoryFileSystemProvider fileSystemProvider,
+                                     RepositoryPath artifactPath,
+                                     long expectedLength,
+                                     CompletableFuture<Map<String, String>> expectedChecksums,
+                                     RepositoryChecksumPolicyValidationTypeEnum checksumPolicy,
+                                     CompletableFuture<Boolean> download)
+            throws IOException
+    {
+        super(remoteInputStream);
+
+        this.fileSystemProvider = fileSystemProvider;
+        this.artifactPath = artifactPath;
+        this.tempArtifactPath = fileSystemProvider.getTempPath(artifactPath);
+        this.expectedLength = expectedLength;
+        this.expectedChecksums = expectedChecksums;
+        this.checksumPolicy = checksumPolicy;
+        this.download = download;
+
+        try
+        {
+            this.cacheOutputStream = new MultipleDigestOutputStream(fileSystemProvider.newOutputStream(tempArtifactPath));
+        }
+        catch (Exception e)
+        {
+            download.complete(null);
+
+            throw new IOException("Failed to create " + tempArtifactPath, e);
+        }
+    }
+
+    @Override
+    public int read()
+            throws IOException
+    {
+        int b;
+        try
+        {
+            b = super.read();
+        }
+        catch (IOException e)
+        {
+            abort("the remote transfer failed");
+
+            throw e;
+        }
+
+        if (b == -1)
+        {
+            finish();
+            return b;
+        }
+
+        transferred++;
+
+        if (cacheOutputStream != null)
+        {
+            try
+            {
+                cacheOutputStream.write(b);
+            }
+            catch (IOException e)
+            {
+                logger.error("Failed to write to " + tempArtifactPath, e);
+
+                abort("the temporary file could not be written");
+            }
+        }
+
+        return b;
+    }
+
+    @Override
+    public int read(byte[] bytes,
+                    int off,
+                    int len)
+            throws IOException
+    {
+        int read;
+        try
+        {
+            read = super.read(bytes, off, len);
+        }
+        catch (IOException e)
+        {
+            abort("the remote transfer failed");
+
+            throw e;
+        }
+
+        if (read == -1)
+        {
+            finish();
+            return read;
+        }
+
+        transferred += read;
+
+        if (read > 0 && cacheOutputStream != null)
+        {
+            try
+            {
+                cacheOutputStream.write(bytes, off, read);
+            }
+            catch (IOException e)
+            {
+                // The reader is still served, even though the artifact won't be cached.
+                logger.error("Failed to write to " + tempArtifactPath, e);
+
+                abort("the temporary file could not be written");
+            }
+        }
+
+        return read;
+    }
+
+    /**
+     * Skipped bytes still have to be written to the cache, so they are read instead.
+     */
+    @Override
+    public long skip(long n)
+            throws IOException
+    {
+        byte[] bytes = new byte[(int) Math.min(n, 8192)];
+
+        long skipped = 0;
+        while (skipped < n)
+        {
+            int read = read(bytes, 0, (int) Math.min(bytes.length, n - skipped));
+            if (read == -1)
+            {
+                break;
+            }
+
+            skipped += read;
+        }
+
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported()
+    {
+        return false;
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        try
+        {
+            if (!finished)
+            {
+                abort("it was closed before the whole artifact was read");
+            }
+        }
+        finally
+        {
+            super.close();
+        }
+    }
+
+    private void finish()
+            throws IOException
+    {
+        if (finished)
+        {
+            return;
+        }
+
+        finished = true;
+
+        // The remote may close the connection early without an error, in which case the reader has to be told
+        // that the body is incomplete, even if the artifact isn't being cached.
+        String lengthMismatch = expectedLength >= 0 && transferred != expectedLength ?
+                                "its length was " + transferred + ", instead of " + expectedLength :
+                                null;
+
+        if (cacheOutputStream == null)
+        {
+            if (lengthMismatch != null)
+            {
+                throw new IOException("Failed to read " + artifactPath + ", as " + lengthMismatch + ".");
+            }
+
+            return;
+        }
+
+        try
+        {
+            cacheOutputStream.close();
+
+            if (lengthMismatch != null)
+            {
+                discard(lengthMismatch);
+
+                throw new IOException("Failed to read " + artifactPath + ", as " + lengthMismatch + ".");
+            }
+
+            String mismatch = verifyChecksums();
+            if (mismatch != null)
+            {
+                if (checksumPolicy == RepositoryChecksumPolicyValidationTypeEnum.LOG)
+                {
+                    logger.info("Caching " + artifactPath + ", even though " + mismatch + ".");
+                }
+                else
+                {
+                    quarantine(mismatch);
+
+                    if (checksumPolicy == RepositoryChecksumPolicyValidationTypeEnum.STRICT)
+                    {
+                        throw new IOException("Failed to verify " + artifactPath + ", as " + mismatch + ".");
+                    }
+
+                    return;
+                }
+            }
+
+            // Like with the metadata, the checksums are moved into place before the artifact.
+            storeVerifiedChecksums();
+
+            fileSystemProvider.restoreFromTemp(artifactPath);
+            fileSystemProvider.deleteQuarantine(artifactPath);
+
+            logger.debug("Cached " + transferred + " bytes for " + artifactPath + ".");
+
+            download.complete(Boolean.TRUE);
+        }
+        catch (IOException | RuntimeException e)
+        {
+            if (!download.isDone())
+            {
+                discard("it could not be moved into place");
+            }
+
+            throw e;
+        }
+        finally
+        {
+            cacheOutputStream = null;
+        }
+    }
+
+    /**
+     * @return the description of the first checksum which doesn't match, or null, if they all match
+     */
+    private String verifyChecksums()
+    {
+        Map<String, String> checksums;
+        try
+        {
+            checksums = expectedChecksums.get(CHECKSUM_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+
+            checksums = Collections.emptyMap();
+        }
+        catch (ExecutionException | TimeoutException e)
+        {
+            logger.warn("Failed to get the remote checksums of " + artifactPath + ", it won't be verified.");
+
+            checksums = Collections.emptyMap();
+        }
+
+        for (Map.Entry<String, String> expectedChecksum : checksums.entrySet())
+        {
+            String checksum = cacheOutputStream.getMessageDigestAsHexadecimalString(expectedChecksum.getKey());
+            if (checksum != null && !checksum.equalsIgnoreCase(expectedChecksum.getValue()))
+            {
+                return "its " + expectedChecksum.getKey() + " checksum " + checksum +
+                       " does not match the remote's " + expectedChecksum.getValue();
+            }
+        }
+
+        verifiedChecksums = checksums;
+
+        return null;
+    }
+
+    private void storeVerifiedChecksums()
+    {
+        if (ArtifactFileUtils.isChecksum(artifactPath.getFileName().toString()))
+        {
+            return;
+        }
+
+        for (Map.Entry<String, String> verifiedChecksum : verifiedChecksums.entrySet())
+        {
+            Path checksumPath = artifactPath.getTarget()
+                                            .resolveSibling(artifactPath.getFileName() + "." +
+                                                            verifiedChecksum.getKey().toLowerCase().replaceAll("-", ""));
+            if (Files.exists(checksumPath))
+            {
+                continue;
+            }
+
+            Path tempChecksumPath = null;
+            try
+            {
+                tempChecksumPath = Files.createTempFile(checksumPath.getParent(),
+                                                        "." + checksumPath.getFileName() + ".",
+                                                        ".tmp");
+                Files.write(tempChecksumPath, verifiedChecksum.getValue().getBytes(StandardCharsets.UTF_8));
+                Files.move(tempChecksumPath, checksumPath, StandardCopyOption.ATOMIC_MOVE);
+            }
+            catch (IOException e)
+            {
+                // It's simply fetched from the remote, when it's requested.
+                logger.warn("Failed to store " + checksumPath + ".", e);
+            }
+            finally
+            {
+                deleteQuietly(tempChecksumPath);
+            }
+        }
+    }
+
+    private static void deleteQuietly(Path path)
+    {
+        if (path == null)
+        {
+            return;
+        }
+
+        try
+        {
+            Files.deleteIfExists(path);
+        }
+        catch (IOException e)
+        {
+            logger.debug("Failed to delete " + path, e);
+        }
+    }
+
+    private void quarantine(String reason)
+            throws IOException
+    {
+        logger.error("Quarantining " + artifactPath + ", as " + reason + ".");
+
+        fileSystemProvider.quarantineTemp(artifactPath);
+
+        download.complete(Boolean.FALSE);
+    }
+
+    private void abort(String reason)
+    {
+        if (cacheOutputStream == null)
+        {
+            return;
+        }
+
+        try
+        {
+            cacheOutputStream.close();
+        }
+        catch (IOException e)
+        {
+            logger.debug("Failed to close " + tempArtifactPath, e);
+        }
+        finally
+        {
+            cacheOutputStream = null;
+        }
+
+        discard(reason);
+    }
+
+    private void discard(String reason)
+    {
+        logger.warn("Not caching " + artifactPath + ", as " + reason + ".");
+
+        try
+        {
+            Files.deleteIfExists(tempArtifactPath.getTarget());
+        }
+        catch (IOException e)
+        {
+            logger.error("Failed to delete " + tempArtifactPath, e);
+        }
+
+        download.complete(null);
+    }
+
+}
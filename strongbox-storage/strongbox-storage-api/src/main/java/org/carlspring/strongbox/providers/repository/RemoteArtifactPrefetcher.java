@@ -0,0 +1,192 @@
+package org.carlspring.strongbox.providers.repository;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.io.ByteStreams;
+import org.apache.maven.artifact.Artifact;
+import org.carlspring.maven.commons.util.ArtifactUtils;
+import org.carlspring.strongbox.io.RepositoryPath;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fetches the files, which builds request right after a jar (its POM and the checksums of both), from the remote
+ * repository in the background, once the jar itself has been requested, so that the follow-up requests are served
+ * from the local cache.
+ * <p>
+ * With checksum validation, the checksums are already fetched along with the files they belong to and cached next
+ * to them (see {@link RemoteArtifactInputStream}), so only the POM is prefetched.
+ * <p>
+ * Prefetching is best-effort: when both the threads and the queue are busy, the companion files are simply
+ * fetched on demand instead.
+ */
+@Component
+public class RemoteArtifactPrefetcher
+{
+
+    private static final Logger logger = LoggerFactory.getLogger(RemoteArtifactPrefetcher.class);
+
+    private static final String JAR_EXTENSION = ".jar";
+
+    private static final String CHECKSUM_EXTENSION = ".sha1";
+
+    @Value("${proxy.prefetch.enabled:false}")
+    private boolean enabled;
+
+    @Value("${proxy.prefetch.threads:4}")
+    private int threads;
+
+    @Value("${proxy.prefetch.queueSize:256}")
+    private int queueSize;
+
+    private ThreadPoolExecutor executor;
+
+
+    @PostConstruct
+    public void init()
+    {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads,
+                                          threads,
+                                          60L,
+                                          TimeUnit.SECONDS,
+                                          new ArrayBlockingQueue<>(queueSize),
+                                          r -> {
+                                              Thread thread = new Thread(r, "remote-artifact-prefetcher-" +
+                                                                            threadNumber.incrementAndGet());
+                                              thread.setDaemon(true);
+
+                                              return thread;
+                                          },
+                                          new ThreadPoolExecutor.DiscardPolicy());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void destroy()
+    {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Schedules the companion files of the given artifact, which aren't cached yet, to be fetched through
+     * the given proxy repository provider.
+     */
+    public void prefetchCompanions(RepositoryProvider provider,
+                                   String storageId,
+                                   String repositoryId,
+                                   String path,
+                                   RepositoryPath artifactPath,
+                                   boolean checksumValidation)
+    {
+        if (!enabled)
+        {
+            return;
+        }
+
+        String directory = path.substring(0, path.lastIndexOf('/') + 1);
+        for (String companion : getCompanions(path, checksumValidation))
+        {
+            if (Files.exists(artifactPath.resolveSibling(companion)))
+            {
+                continue;
+            }
+
+            String companionPath = directory + companion;
+            executor.execute(() -> prefetch(provider, storageId, repositoryId, companionPath));
+        }
+    }
+
+    private void prefetch(RepositoryProvider provider,
+                          String storageId,
+                          String repositoryId,
+                          String path)
+    {
+        try (InputStream is = provider.getInputStream(storageId, repositoryId, path))
+        {
+            if (is != null)
+            {
+                // Reading it through is what stores it in the cache.
+                ByteStreams.exhaust(is);
+
+                logger.debug("Prefetched " + storageId + ":" + repositoryId + "/" + path + ".");
+            }
+        }
+        catch (Exception e)
+        {
+            logger.debug("Failed to prefetch " + storageId + ":" + repositoryId + "/" + path + ".", e);
+        }
+    }
+
+    /**
+     * @return the names of the files, which are requested along with the given artifact and are located
+     *         in the same directory, and which aren't fetched anyway
+     */
+    static List<String> getCompanions(String path,
+                                      boolean checksumValidation)
+    {
+        if (!path.endsWith(JAR_EXTENSION))
+        {
+            return Collections.emptyList();
+        }
+
+        String fileName = path.substring(path.lastIndexOf('/') + 1);
+
+        List<String> companions = new ArrayList<>();
+        if (!checksumValidation)
+        {
+            companions.add(fileName + CHECKSUM_EXTENSION);
+        }
+
+        String pomFileName = getPomFileName(path, fileName);
+        if (pomFileName != null)
+        {
+            companions.add(pomFileName);
+            if (!checksumValidation)
+            {
+                companions.add(pomFileName + CHECKSUM_EXTENSION);
+            }
+        }
+
+        return companions;
+    }
+
+    private static String getPomFileName(String path,
+                                         String fileName)
+    {
+        String baseName = fileName.substring(0, fileName.length() - JAR_EXTENSION.length());
+
+        try
+        {
+            Artifact artifact = ArtifactUtils.convertPathToArtifact(path);
+
+            // The classifier (sources, javadoc, etc.) only applies to the attached artifacts, not to the POM.
+            String classifier = artifact.getClassifier();
+            if (classifier != null && !classifier.isEmpty() && baseName.endsWith("-" + classifier))
+            {
+                baseName = baseName.substring(0, baseName.length() - classifier.length() - 1);
+            }
+        }
+        catch (Exception e)
+        {
+            logger.debug("Failed to parse " + path + ", its POM will not be prefetched.", e);
+
+            return null;
+        }
+
+        return baseName + ".pom";
+    }
+
+}
@@ -0,0 +1,131 @@
+package org.carlspring.strongbox.providers.repository;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.ws.rs.core.Response;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.codec.digest.MessageDigestAlgorithms;
+import org.carlspring.strongbox.client.ArtifactResolver;
+import org.carlspring.strongbox.service.ProxyRepositoryConnectionPoolConfigurationService;
+import org.carlspring.strongbox.storage.repository.RemoteRepository;
+import org.carlspring.strongbox.util.MessageDigestUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fetches the checksum files of artifacts from remote repositories, while the artifacts themselves are
+ * being downloaded, so that they can be verified, before they are cached.
+ */
+@Component
+public class RemoteChecksumResolver
+{
+
+    private static final Logger logger = LoggerFactory.getLogger(RemoteChecksumResolver.class);
+
+    /**
+     * The checksum files to look for, in order of preference. Only the first one found is fetched.
+     */
+    private static final Map<String, String> CHECKSUM_EXTENSIONS = new LinkedHashMap<>();
+
+    static
+    {
+        CHECKSUM_EXTENSIONS.put(MessageDigestAlgorithms.SHA_1, ".sha1");
+        CHECKSUM_EXTENSIONS.put(MessageDigestAlgorithms.MD5, ".md5");
+    }
+
+    @Autowired
+    private ProxyRepositoryConnectionPoolConfigurationService proxyRepositoryConnectionPoolConfigurationService;
+
+    @Value("${proxy.checksum.threads:8}")
+    private int threads;
+
+    private ExecutorService executor;
+
+
+    @PostConstruct
+    public void init()
+    {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "remote-checksum-resolver-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void destroy()
+    {
+        executor.shutdownNow();
+    }
+
+    /**
+     * @return the checksums (algorithm -> checksum) of the artifact under the given path, which could be found
+     *         in the remote repository; an empty map, if there are none, or they could not be fetched
+     */
+    public CompletableFuture<Map<String, String>> resolveChecksums(RemoteRepository remoteRepository,
+                                                                   String path)
+    {
+        return CompletableFuture.supplyAsync(() -> fetchChecksums(remoteRepository, path), executor);
+    }
+
+    private Map<String, String> fetchChecksums(RemoteRepository remoteRepository,
+                                               String path)
+    {
+        ArtifactResolver client = new ArtifactResolver(
+                proxyRepositoryConnectionPoolConfigurationService.getClient(remoteRepository.getUrl()));
+        client.setRepositoryBaseUrl(remoteRepository.getUrl());
+        client.setUsername(remoteRepository.getUsername());
+        client.setPassword(remoteRepository.getPassword());
+
+        for (Map.Entry<String, String> checksumExtension : CHECKSUM_EXTENSIONS.entrySet())
+        {
+            String checksumPath = path + checksumExtension.getValue();
+
+            Response response = null;
+            try
+            {
+                response = client.getResourceWithResponse(checksumPath);
+                if (response.getStatus() != 200 || response.getEntity() == null)
+                {
+                    continue;
+                }
+
+                String checksum = MessageDigestUtils.readChecksumFile(response.readEntity(InputStream.class));
+                if (checksum != null && !checksum.trim().isEmpty())
+                {
+                    // Some checksum files are followed by the name of the file.
+                    return Collections.singletonMap(checksumExtension.getKey(), checksum.trim().split("\\s+")[0]);
+                }
+            }
+            catch (Exception e)
+            {
+                logger.debug("Failed to fetch " + remoteRepository.getUrl() + checksumPath, e);
+            }
+            finally
+            {
+                if (response != null)
+                {
+                    response.close();
+                }
+            }
+        }
+
+        logger.debug("No remote checksum found for " + path + " in " + remoteRepository.getUrl() + ".");
+
+        return Collections.emptyMap();
+    }
+
+}
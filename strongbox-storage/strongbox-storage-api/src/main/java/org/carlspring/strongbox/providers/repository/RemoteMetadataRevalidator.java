@@ -0,0 +1,294 @@
+package org.carlspring.strongbox.providers.repository;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.io.ByteStreams;
+import org.apache.commons.codec.digest.MessageDigestAlgorithms;
+import org.carlspring.commons.io.MultipleDigestOutputStream;
+import org.carlspring.strongbox.client.ArtifactResolver;
+import org.carlspring.strongbox.io.RepositoryFileSystemProvider;
+import org.carlspring.strongbox.io.RepositoryPath;
+import org.carlspring.strongbox.service.ProxyRepositoryConnectionPoolConfigurationService;
+import org.carlspring.strongbox.storage.metadata.MavenMetadataManager;
+import org.carlspring.strongbox.storage.repository.RemoteRepository;
+import org.carlspring.strongbox.storage.repository.Repository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Revalidates the metadata, which proxy repositories have fetched from their remotes, once it has become older
+ * than the metadata max-age of the remote repository. The revalidation is a conditional request, which is done
+ * in the background, while the stale metadata is still served. Only one revalidation of a path runs at a time.
+ * <p>
+ * The last modification time of the cached file is the time at which it was last fetched, or revalidated. The
+ * validators, with which the remote served it (its ETag and Last-Modified headers), are stored next to it, in a
+ * hidden <code>.validators</code> file, so that they survive restarts, without being served themselves.
+ * <p>
+ * Changed metadata replaces the cached copy in the same order as {@link MavenMetadataManager#storeMetadata} uses:
+ * its checksums are moved into place first, so that a client, which gets the new metadata, also gets its checksums.
+ */
+@Component
+public class RemoteMetadataRevalidator
+{
+
+    private static final Logger logger = LoggerFactory.getLogger(RemoteMetadataRevalidator.class);
+
+    private static final String[] CHECKSUM_ALGORITHMS = { MessageDigestAlgorithms.MD5,
+                                                          MessageDigestAlgorithms.SHA_1,
+                                                          MessageDigestAlgorithms.SHA_256,
+                                                          MessageDigestAlgorithms.SHA_512 };
+
+    static final String VALIDATORS_EXTENSION = ".validators";
+
+    @Autowired
+    private ProxyRepositoryConnectionPoolConfigurationService proxyRepositoryConnectionPoolConfigurationService;
+
+    @Value("${proxy.metadata.revalidation.threads:4}")
+    private int threads;
+
+    private ExecutorService executor;
+
+    private final Set<String> revalidationsInProgress = ConcurrentHashMap.newKeySet();
+
+
+    @PostConstruct
+    public void init()
+    {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "remote-metadata-revalidator-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void destroy()
+    {
+        executor.shutdownNow();
+    }
+
+    public boolean isExpired(Repository repository,
+                             RepositoryPath metadataPath)
+            throws IOException
+    {
+        RemoteRepository remoteRepository = repository.getRemoteRepository();
+        if (remoteRepository == null || remoteRepository.getMetadataMaxAgeSeconds() < 0)
+        {
+            return false;
+        }
+
+        long age = System.currentTimeMillis() - Files.getLastModifiedTime(metadataPath.getTarget()).toMillis();
+
+        return age > remoteRepository.getMetadataMaxAgeSeconds() * 1000;
+    }
+
+    /**
+     * Schedules the revalidation of the given metadata, unless one is already in progress.
+     */
+    public void revalidate(Repository repository,
+                           String path,
+                           RepositoryPath metadataPath)
+    {
+        String key = getKey(metadataPath);
+        if (!revalidationsInProgress.add(key))
+        {
+            return;
+        }
+
+        try
+        {
+            executor.execute(() -> {
+                try
+                {
+                    doRevalidate(repository, path, metadataPath);
+                }
+                catch (Exception e)
+                {
+                    logger.warn("Failed to revalidate " + key + ", the cached copy will be served until it succeeds.", e);
+                }
+                finally
+                {
+                    revalidationsInProgress.remove(key);
+                }
+            });
+        }
+        catch (RejectedExecutionException e)
+        {
+            revalidationsInProgress.remove(key);
+        }
+    }
+
+    /**
+     * Stores the validators, with which the remote has served the metadata, for the next revalidation.
+     */
+    public void storeValidators(RepositoryPath metadataPath,
+                                Response response)
+            throws IOException
+    {
+        Properties validators = new Properties();
+        for (String header : new String[]{ HttpHeaders.ETAG, HttpHeaders.LAST_MODIFIED })
+        {
+            String value = response.getHeaderString(header);
+            if (value != null)
+            {
+                validators.setProperty(header, value);
+            }
+        }
+
+        RepositoryPath validatorsPath = getValidatorsPath(metadataPath);
+        if (validators.isEmpty())
+        {
+            Files.deleteIfExists(validatorsPath.getTarget());
+
+            return;
+        }
+
+        // The metadata itself may not have been moved into place yet.
+        Files.createDirectories(validatorsPath.getTarget().getParent());
+
+        try (OutputStream os = Files.newOutputStream(validatorsPath.getTarget()))
+        {
+            validators.store(os, null);
+        }
+    }
+
+    private Properties loadValidators(RepositoryPath metadataPath)
+            throws IOException
+    {
+        Properties validators = new Properties();
+
+        RepositoryPath validatorsPath = getValidatorsPath(metadataPath);
+        if (Files.exists(validatorsPath.getTarget()))
+        {
+            try (InputStream is = Files.newInputStream(validatorsPath.getTarget()))
+            {
+                validators.load(is);
+            }
+        }
+
+        return validators;
+    }
+
+    private RepositoryPath getValidatorsPath(RepositoryPath metadataPath)
+    {
+        return metadataPath.resolveSibling("." + metadataPath.getFileName() + VALIDATORS_EXTENSION);
+    }
+
+    private void doRevalidate(Repository repository,
+                              String path,
+                              RepositoryPath metadataPath)
+            throws Exception
+    {
+        String key = getKey(metadataPath);
+        RemoteRepository remoteRepository = repository.getRemoteRepository();
+
+        ArtifactResolver client = new ArtifactResolver(
+                proxyRepositoryConnectionPoolConfigurationService.getClient(remoteRepository.getUrl()));
+        client.setRepositoryBaseUrl(remoteRepository.getUrl());
+        client.setUsername(remoteRepository.getUsername());
+        client.setPassword(remoteRepository.getPassword());
+
+        // Without the remote's own validators, the metadata is fetched again, as the local modification time may
+        // well be ahead of, or behind, the remote's clock.
+        Properties validators = loadValidators(metadataPath);
+
+        Response response = client.getResourceWithResponse(path,
+                                                           validators.getProperty(HttpHeaders.LAST_MODIFIED),
+                                                           validators.getProperty(HttpHeaders.ETAG));
+        try
+        {
+            if (response.getStatus() == Response.Status.NOT_MODIFIED.getStatusCode())
+            {
+                logger.debug("The cached copy of " + key + " is still current.");
+
+                Files.setLastModifiedTime(metadataPath.getTarget(), FileTime.fromMillis(System.currentTimeMillis()));
+
+                return;
+            }
+
+            if (response.getStatus() != Response.Status.OK.getStatusCode() || response.getEntity() == null)
+            {
+                logger.warn("Failed to revalidate " + key + ", the remote responded with " + response.getStatus() + ".");
+
+                return;
+            }
+
+            RepositoryFileSystemProvider fileSystemProvider = (RepositoryFileSystemProvider) metadataPath.getFileSystem()
+                                                                                                         .provider();
+            RepositoryPath tempPath = fileSystemProvider.getTempPath(metadataPath);
+            MultipleDigestOutputStream os = new MultipleDigestOutputStream(fileSystemProvider.newOutputStream(tempPath),
+                                                                           CHECKSUM_ALGORITHMS);
+            try (InputStream is = response.readEntity(InputStream.class))
+            {
+                ByteStreams.copy(is, os);
+            }
+            finally
+            {
+                os.close();
+            }
+
+            // The cached checksums belong to the previous metadata, so they're replaced before it.
+            for (String algorithm : CHECKSUM_ALGORITHMS)
+            {
+                Path checksumPath = metadataPath.getTarget()
+                                                .resolveSibling(metadataPath.getFileName() + "." +
+                                                                algorithm.toLowerCase().replaceAll("-", ""));
+                Path tempChecksumPath = Files.createTempFile(checksumPath.getParent(),
+                                                             "." + checksumPath.getFileName() + ".",
+                                                             ".tmp");
+                try
+                {
+                    Files.write(tempChecksumPath,
+                                os.getMessageDigestAsHexadecimalString(algorithm).getBytes(StandardCharsets.UTF_8));
+                    Files.move(tempChecksumPath,
+                               checksumPath,
+                               StandardCopyOption.REPLACE_EXISTING,
+                               StandardCopyOption.ATOMIC_MOVE);
+                }
+                finally
+                {
+                    Files.deleteIfExists(tempChecksumPath);
+                }
+            }
+
+            fileSystemProvider.restoreFromTemp(metadataPath);
+
+            storeValidators(metadataPath, response);
+
+            logger.debug("Updated the cached copy of " + key + ".");
+        }
+        finally
+        {
+            response.close();
+        }
+    }
+
+    private String getKey(RepositoryPath metadataPath)
+    {
+        return metadataPath.getTarget().toString();
+    }
+
+}
@@ -0,0 +1,576 @@
+package org.carlspring.strongbox.providers.repository;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.pool.PoolStats;
+import org.carlspring.strongbox.event.RepositoryEvent;
+import org.carlspring.strongbox.event.RepositoryEventListener;
+import org.carlspring.strongbox.net.ConnectionChecker;
+import org.carlspring.strongbox.service.ProxyRepositoryConnectionPoolConfigurationService;
+import org.carlspring.strongbox.storage.repository.RemoteRepository;
+import org.carlspring.strongbox.storage.repository.Repository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps track of the health of the remote repositories of the proxy repositories and acts as a circuit breaker
+ * for them. Once a remote has failed a number of times in a row, its circuit is opened and the proxy repository
+ * only serves what it has already cached. While the circuit is open, the remote host is probed periodically
+ * and once it accepts connections again, a single request is let through, which decides whether to close it. The
+ * other requests fail fast, as long as that one is in flight.
+ * <p>
+ * The outcome of a request, whose response has a body, is only recorded once the body has been read, so that
+ * a remote, which breaks off its responses, counts as failing.
+ * <p>
+ * Whenever a remote becomes unavailable, or available again, a {@link RepositoryEvent} is sent to all the
+ * {@link RepositoryEventListener}-s.
+ */
+@Component
+public class RemoteRepositoryHealthMonitor
+{
+
+    private static final Logger logger = LoggerFactory.getLogger(RemoteRepositoryHealthMonitor.class);
+
+    @Autowired
+    private ProxyRepositoryConnectionPoolConfigurationService proxyRepositoryConnectionPoolConfigurationService;
+
+    @Autowired(required = false)
+    private List<RepositoryEventListener> repositoryEventListeners = Collections.emptyList();
+
+    /**
+     * The number of consecutive failures, after which the circuit is opened.
+     */
+    @Value("${proxy.circuitBreaker.failureThreshold:5}")
+    private int failureThreshold;
+
+    /**
+     * The minimum time for which a circuit stays open, before the remote is probed.
+     */
+    @Value("${proxy.circuitBreaker.openSeconds:30}")
+    private int openSeconds;
+
+    @Value("${proxy.circuitBreaker.probeIntervalSeconds:10}")
+    private int probeIntervalSeconds;
+
+    @Value("${proxy.circuitBreaker.probeTimeoutMillis:5000}")
+    private int probeTimeoutMillis;
+
+    private ScheduledExecutorService executor;
+
+    /**
+     * K: storageId:repositoryId
+     * V: The health of the remote repository of this proxy repository.
+     */
+    private final ConcurrentMap<String, RemoteRepositoryHealth> healths = new ConcurrentHashMap<>();
+
+
+    @PostConstruct
+    public void init()
+    {
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "remote-repository-health-monitor");
+            thread.setDaemon(true);
+
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::probeOpenCircuits,
+                                        probeIntervalSeconds,
+                                        probeIntervalSeconds,
+                                        TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void destroy()
+    {
+        executor.shutdownNow();
+    }
+
+    /**
+     * @return whether a request may be sent to the remote repository of the given proxy repository
+     */
+    public boolean isAvailable(String storageId,
+                               Repository repository)
+    {
+        RemoteRepositoryHealth health = healths.get(getKey(storageId, repository));
+
+        return health == null || health.isAvailable();
+    }
+
+    /**
+     * Has to be called right before sending a request to the remote repository of the given proxy repository, whose
+     * outcome is then recorded with {@link #recordSuccess}, or {@link #recordFailure}.
+     *
+     * @return whether the request may be sent; while the circuit is half-open, only one request at a time may be
+     */
+    public boolean tryStartRequest(String storageId,
+                                   Repository repository)
+    {
+        RemoteRepositoryHealth health = healths.get(getKey(storageId, repository));
+
+        return health == null || health.tryStartRequest();
+    }
+
+    public void recordSuccess(String storageId,
+                              Repository repository,
+                              long latencyMillis)
+    {
+        RemoteRepositoryHealth health = getOrCreateHealth(storageId, repository);
+        if (health.recordSuccess(latencyMillis))
+        {
+            logger.info("The remote repository " + health.getUrl() + " of " + health.getKey() + " is available again.");
+
+            publish(RepositoryEvent.EVENT_REPOSITORY_REMOTE_AVAILABLE, storageId, repository);
+        }
+    }
+
+    public void recordFailure(String storageId,
+                              Repository repository,
+                              long latencyMillis,
+                              String reason)
+    {
+        RemoteRepositoryHealth health = getOrCreateHealth(storageId, repository);
+
+        logger.debug("Request to " + health.getUrl() + " failed, as " + reason + ".");
+
+        if (health.recordFailure(latencyMillis, failureThreshold, TimeUnit.SECONDS.toMillis(openSeconds)))
+        {
+            PoolStats poolStats = proxyRepositoryConnectionPoolConfigurationService.getPoolStats(health.getUrl());
+
+            logger.warn("The remote repository " + health.getUrl() + " of " + health.getKey() + " is unavailable" +
+                        " (" + health + ", pool: " + poolStats + "). Only cached artifacts will be served.");
+
+            publish(RepositoryEvent.EVENT_REPOSITORY_REMOTE_UNAVAILABLE, storageId, repository);
+        }
+    }
+
+    /**
+     * Records the outcome of a request, whose response has a body, once the body has been read: a success at its
+     * end, or once it's closed early, and a failure, if reading it fails.
+     *
+     * @param latencyMillis how long the remote took to respond
+     * @return the body, which records the outcome
+     */
+    public InputStream monitorStream(String storageId,
+                                     Repository repository,
+                                     InputStream remoteInputStream,
+                                     long latencyMillis)
+    {
+        return new MonitoredInputStream(remoteInputStream, storageId, repository, latencyMillis);
+    }
+
+    /**
+     * @return the health of the remote repository of the given proxy repository, or null, if it hasn't been used yet
+     */
+    public RemoteRepositoryHealth getHealth(String storageId,
+                                            String repositoryId)
+    {
+        return healths.get(storageId + ":" + repositoryId);
+    }
+
+    private RemoteRepositoryHealth getOrCreateHealth(String storageId,
+                                                     Repository repository)
+    {
+        RemoteRepository remoteRepository = repository.getRemoteRepository();
+
+        return healths.computeIfAbsent(getKey(storageId, repository),
+                                       key -> new RemoteRepositoryHealth(key, remoteRepository.getUrl()));
+    }
+
+    private void probeOpenCircuits()
+    {
+        for (RemoteRepositoryHealth health : healths.values())
+        {
+            if (!health.isProbeDue())
+            {
+                continue;
+            }
+
+            if (isReachable(health.getUrl()))
+            {
+                logger.debug("The remote repository " + health.getUrl() + " accepts connections again.");
+
+                health.halfOpen();
+            }
+        }
+    }
+
+    private boolean isReachable(String url)
+    {
+        try
+        {
+            URI uri = new URI(url);
+
+            int port = uri.getPort();
+            if (port < 0)
+            {
+                port = "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+            }
+
+            return ConnectionChecker.checkServiceAvailability(uri.getHost(), port, probeTimeoutMillis);
+        }
+        catch (Exception e)
+        {
+            logger.debug("Failed to probe " + url, e);
+
+            return false;
+        }
+    }
+
+    private void publish(int type,
+                         String storageId,
+                         Repository repository)
+    {
+        RepositoryEvent event = new RepositoryEvent(type, storageId, repository.getId());
+        for (RepositoryEventListener listener : repositoryEventListeners)
+        {
+            try
+            {
+                listener.handle(event);
+            }
+            catch (Exception e)
+            {
+                logger.error("Failed to handle the repository event in " + listener.getClass().getName(), e);
+            }
+        }
+    }
+
+    private String getKey(String storageId,
+                          Repository repository)
+    {
+        return storageId + ":" + repository.getId();
+    }
+
+    /**
+     * Records the outcome of a request, once its body has been read.
+     */
+    private class MonitoredInputStream
+            extends FilterInputStream
+    {
+
+        private final String storageId;
+
+        private final Repository repository;
+
+        private final long latencyMillis;
+
+        private boolean recorded;
+
+
+        MonitoredInputStream(InputStream remoteInputStream,
+                             String storageId,
+                             Repository repository,
+                             long latencyMillis)
+        {
+            super(remoteInputStream);
+
+            this.storageId = storageId;
+            this.repository = repository;
+            this.latencyMillis = latencyMillis;
+        }
+
+        @Override
+        public int read()
+                throws IOException
+        {
+            int b;
+            try
+            {
+                b = super.read();
+            }
+            catch (IOException e)
+            {
+                recordOutcome(e);
+
+                throw e;
+            }
+
+            if (b == -1)
+            {
+                recordOutcome(null);
+            }
+
+            return b;
+        }
+
+        @Override
+        public int read(byte[] bytes,
+                        int off,
+                        int len)
+                throws IOException
+        {
+            int read;
+            try
+            {
+                read = super.read(bytes, off, len);
+            }
+            catch (IOException e)
+            {
+                recordOutcome(e);
+
+                throw e;
+            }
+
+            if (read == -1)
+            {
+                recordOutcome(null);
+            }
+
+            return read;
+        }
+
+        /**
+         * A reader, which stops early, is no sign of trouble with the remote.
+         */
+        @Override
+        public void close()
+                throws IOException
+        {
+            try
+            {
+                super.close();
+            }
+            finally
+            {
+                recordOutcome(null);
+            }
+        }
+
+        private void recordOutcome(IOException failure)
+        {
+            if (recorded)
+            {
+                return;
+            }
+
+            recorded = true;
+
+            if (failure == null)
+            {
+                recordSuccess(storageId, repository, latencyMillis);
+            }
+            else
+            {
+                recordFailure(storageId, repository, latencyMillis, failure.toString());
+            }
+        }
+
+    }
+
+    public enum CircuitState
+    {
+
+        /**
+         * Requests are sent to the remote.
+         */
+        CLOSED,
+
+        /**
+         * Only cached artifacts are served.
+         */
+        OPEN,
+
+        /**
+         * The remote accepts connections again and the outcome of the next request decides whether to close the
+         * circuit, or to open it again. The other requests fail fast meanwhile.
+         */
+        HALF_OPEN
+
+    }
+
+    public static class RemoteRepositoryHealth
+    {
+
+        /**
+         * The weight of the latest request in the average latency.
+         */
+        private static final double LATENCY_WEIGHT = 0.2;
+
+        private final String key;
+
+        private final String url;
+
+        private CircuitState state = CircuitState.CLOSED;
+
+        private int consecutiveFailures;
+
+        private long requests;
+
+        private long failures;
+
+        private double averageLatencyMillis;
+
+        private long openedAt;
+
+        private long openMillis;
+
+        /**
+         * Whether the request, which decides the outcome of the half-open circuit, has been let through.
+         */
+        private boolean probeInFlight;
+
+
+        RemoteRepositoryHealth(String key,
+                               String url)
+        {
+            this.key = key;
+            this.url = url;
+        }
+
+        /**
+         * @return whether this has closed the circuit
+         */
+        synchronized boolean recordSuccess(long latencyMillis)
+        {
+            recordRequest(latencyMillis);
+
+            consecutiveFailures = 0;
+            probeInFlight = false;
+
+            if (state == CircuitState.CLOSED)
+            {
+                return false;
+            }
+
+            state = CircuitState.CLOSED;
+
+            return true;
+        }
+
+        /**
+         * @return whether this has opened the circuit
+         */
+        synchronized boolean recordFailure(long latencyMillis,
+                                           int failureThreshold,
+                                           long openMillis)
+        {
+            recordRequest(latencyMillis);
+
+            failures++;
+            consecutiveFailures++;
+            probeInFlight = false;
+
+            if (state == CircuitState.HALF_OPEN)
+            {
+                // The remote accepts connections, but still can't serve, so it's given more time to recover.
+                open(openMillis);
+
+                return false;
+            }
+
+            if (state == CircuitState.CLOSED && consecutiveFailures >= failureThreshold)
+            {
+                open(openMillis);
+
+                return true;
+            }
+
+            return false;
+        }
+
+        /**
+         * @return whether a request may be sent; once the circuit is half-open, only the first one may be
+         */
+        synchronized boolean tryStartRequest()
+        {
+            if (state == CircuitState.HALF_OPEN && !probeInFlight)
+            {
+                probeInFlight = true;
+
+                return true;
+            }
+
+            return state == CircuitState.CLOSED;
+        }
+
+        synchronized boolean isAvailable()
+        {
+            return state == CircuitState.CLOSED || (state == CircuitState.HALF_OPEN && !probeInFlight);
+        }
+
+        synchronized boolean isProbeDue()
+        {
+            return state == CircuitState.OPEN && System.currentTimeMillis() - openedAt >= openMillis;
+        }
+
+        synchronized void halfOpen()
+        {
+            if (state == CircuitState.OPEN)
+            {
+                state = CircuitState.HALF_OPEN;
+                probeInFlight = false;
+            }
+        }
+
+        private void open(long openMillis)
+        {
+            this.state = CircuitState.OPEN;
+            this.openedAt = System.currentTimeMillis();
+            this.openMillis = openMillis;
+        }
+
+        private void recordRequest(long latencyMillis)
+        {
+            averageLatencyMillis = requests == 0 ?
+                                   latencyMillis :
+                                   LATENCY_WEIGHT * latencyMillis + (1 - LATENCY_WEIGHT) * averageLatencyMillis;
+
+            requests++;
+        }
+
+        public String getKey()
+        {
+            return key;
+        }
+
+        public String getUrl()
+        {
+            return url;
+        }
+
+        public synchronized CircuitState getState()
+        {
+            return state;
+        }
+
+        public synchronized int getConsecutiveFailures()
+        {
+            return consecutiveFailures;
+        }
+
+        public synchronized double getErrorRate()
+        {
+            return requests > 0 ? (double) failures / requests : 0;
+        }
+
+        public synchronized double getAverageLatencyMillis()
+        {
+            return averageLatencyMillis;
+        }
+
+        @Override
+        public synchronized String toString()
+        {
+            return "state: " + state +
+                   ", requests: " + requests +
+                   ", failures: " + failures +
+                   ", average latency: " + Math.round(averageLatencyMillis) + " ms";
+        }
+
+    }
+
+}
@@ -0,0 +1,520 @@
+package org.carlspring.strongbox.providers.storage;
+
+import org.carlspring.strongbox.io.ArtifactPath;
+import org.carlspring.strongbox.io.RepositoryPath;
+import org.carlspring.strongbox.storage.Storage;
+import org.carlspring.strongbox.storage.repository.Repository;
+import org.carlspring.strongbox.util.ArtifactFileUtils;
+
+import javax.annotation.PostConstruct;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.UUID;
+import java.util.concurrent.locks.Lock;
+
+import com.google.common.io.BaseEncoding;
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.Striped;
+import org.apache.commons.codec.digest.MessageDigestAlgorithms;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stores the content of the artifacts once per storage, under its SHA-256, in the <code>.blobs</code> directory
+ * of the storage. The paths in the repositories are hard links to these blobs, so that:
+ * <ul>
+ * <li>artifacts are read exactly like from a {@link FileSystemStorageProvider} repository;</li>
+ * <li>the same artifact in a hosted, a staging and a proxy repository takes up the disk space only once;</li>
+ * <li>copying, or promoting, an artifact between the repositories of a storage only creates a link;</li>
+ * <li>the link count of a blob is its reference count, which is kept by the file system itself.</li>
+ * </ul>
+ * Blobs are never written in place: a changed artifact is linked to a new blob, which is moved over the path.
+ * Metadata and checksums are mutable and small, so they are stored as regular files.
+ * <p>
+ * Hard links only work within a single file system, so all the repositories of the storage, which use this
+ * provider, have to be on the same volume as the storage's base directory.
+ * <p>
+ * Overwritten and deleted artifacts leave their blobs behind, which are reclaimed by
+ * {@link #deleteUnreferencedBlobs(Storage)}, scheduled through the DeleteUnreferencedBlobsCronJob. It reads the
+ * link counts from the <code>unix:nlink</code> attribute, which is only available on Unix-like systems. Elsewhere
+ * (e.g. on Windows), the blobs are never reclaimed.
+ */
+@Component("contentAddressableStorageProvider")
+public class ContentAddressableStorageProvider
+        extends FileSystemStorageProvider
+{
+
+    private static final Logger logger = LoggerFactory.getLogger(ContentAddressableStorageProvider.class);
+
+    private static final String ALIAS = "content-addressable";
+
+    private static final String BLOBS_DIRECTORY = ".blobs";
+
+    private static final String BLOBS_TEMP_DIRECTORY = ".temp";
+
+    private static final String DIGEST_ALGORITHM = MessageDigestAlgorithms.SHA_256;
+
+    @Autowired
+    private StorageProviderRegistry storageProviderRegistry;
+
+    /**
+     * Guards a blob between checking whether it exists and linking to it, so that it isn't deleted as unreferenced
+     * in the meantime.
+     */
+    private final Striped<Lock> blobLocks = Striped.lock(256);
+
+
+    @Override
+    public String getAlias()
+    {
+        return ALIAS;
+    }
+
+    @PostConstruct
+    @Override
+    public void register()
+    {
+        storageProviderRegistry.addProvider(getAlias(), this);
+
+        logger.info("Registered storage provider '" + getClass().getCanonicalName() + "' with alias '" + ALIAS + "'.");
+    }
+
+    @Override
+    public OutputStream getOutputStreamImplementation(ArtifactPath artifactPath)
+            throws IOException,
+                   NoSuchAlgorithmException
+    {
+        return newBlobOutputStream(artifactPath.getFileSystem().getRepository(), artifactPath.getTarget());
+    }
+
+    @Override
+    public OutputStream getOutputStreamImplementation(RepositoryPath repositoryPath,
+                                                      String path)
+            throws IOException
+    {
+        if (!ArtifactFileUtils.isArtifactFile(path))
+        {
+            return super.getOutputStreamImplementation(repositoryPath, path);
+        }
+
+        try
+        {
+            return newBlobOutputStream(repositoryPath.getFileSystem().getRepository(),
+                                       repositoryPath.resolve(path).getTarget());
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void copy(Repository srcRepository,
+                     Repository destRepository,
+                     String path)
+            throws IOException
+    {
+        Path srcPath = Paths.get(srcRepository.getBasedir()).resolve(path);
+        Path destPath = Paths.get(destRepository.getBasedir()).resolve(path);
+
+        if (!Files.isDirectory(srcPath))
+        {
+            copyFile(srcRepository, destRepository, srcPath, destPath);
+            return;
+        }
+
+        Files.walkFileTree(srcPath, new SimpleFileVisitor<Path>()
+        {
+
+            @Override
+            public FileVisitResult visitFile(Path file,
+                                             BasicFileAttributes attrs)
+                    throws IOException
+            {
+                copyFile(srcRepository, destRepository, file, destPath.resolve(srcPath.relativize(file).toString()));
+
+                return FileVisitResult.CONTINUE;
+            }
+
+        });
+    }
+
+    private void copyFile(Repository srcRepository,
+                          Repository destRepository,
+                          Path srcPath,
+                          Path destPath)
+            throws IOException
+    {
+        Files.createDirectories(destPath.getParent());
+
+        String path = Paths.get(srcRepository.getBasedir()).relativize(srcPath).toString().replace('\\', '/');
+        if (!ArtifactFileUtils.isArtifactFile(path))
+        {
+            Files.copy(srcPath, destPath, StandardCopyOption.REPLACE_EXISTING);
+            return;
+        }
+
+        if (isSameBlobStore(srcRepository, destRepository))
+        {
+            // The source is pinned under a name of its own first, as a redeployment may replace it at any time.
+            // The content which is digested is then the same one, which ends up in the blob.
+            Path pinnedPath = pin(destRepository.getStorage(), srcPath);
+            if (pinnedPath != null)
+            {
+                try
+                {
+                    String digest = digest(pinnedPath);
+                    if (ingest(destRepository.getStorage(), pinnedPath, digest))
+                    {
+                        link(destRepository.getStorage(), digest, destPath);
+
+                        logger.debug("Linked " + destPath + " to the blob of " + srcPath + ".");
+
+                        return;
+                    }
+                }
+                finally
+                {
+                    Files.deleteIfExists(pinnedPath);
+                }
+            }
+        }
+
+        // The source isn't deduplicated, so its content is added to the blobs, while it's being copied.
+        try (InputStream is = Files.newInputStream(srcPath);
+             OutputStream os = newBlobOutputStream(destRepository, destPath))
+        {
+            ByteStreams.copy(is, os);
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Deletes the blobs of the given storage, which are no longer linked from any repository. Artifacts in the
+     * trash still link to their blobs, so these are only reclaimed, once the trash has been emptied.
+     * <p>
+     * Only works where the file system reports the link counts as <code>unix:nlink</code>. Elsewhere, every blob is
+     * assumed to be in use and nothing is deleted.
+     *
+     * @return the number of bytes which were freed
+     */
+    public long deleteUnreferencedBlobs(Storage storage)
+            throws IOException
+    {
+        Path blobsDirectory = getBlobsDirectory(storage).resolve(DIGEST_ALGORITHM.toLowerCase().replace("-", ""));
+        if (!Files.isDirectory(blobsDirectory))
+        {
+            return 0;
+        }
+
+        long[] freed = new long[1];
+        Files.walkFileTree(blobsDirectory, new SimpleFileVisitor<Path>()
+        {
+
+            @Override
+            public FileVisitResult visitFile(Path blob,
+                                             BasicFileAttributes attrs)
+                    throws IOException
+            {
+                Lock lock = blobLocks.get(blob.getFileName().toString());
+                lock.lock();
+                try
+                {
+                    if (getLinkCount(blob) <= 1 && Files.deleteIfExists(blob))
+                    {
+                        freed[0] += attrs.size();
+                    }
+                }
+                finally
+                {
+                    lock.unlock();
+                }
+
+                return FileVisitResult.CONTINUE;
+            }
+
+        });
+
+        logger.info("Deleted " + freed[0] + " bytes of unreferenced blobs in storage " + storage.getId() + ".");
+
+        return freed[0];
+    }
+
+    /**
+     * Hard-links the given file to a temporary name among the blobs.
+     *
+     * @return the temporary link, or null, if hard links are not supported
+     */
+    private Path pin(Storage storage,
+                     Path path)
+            throws IOException
+    {
+        Path tempDirectory = getBlobsDirectory(storage).resolve(BLOBS_TEMP_DIRECTORY);
+        Files.createDirectories(tempDirectory);
+
+        Path pinnedPath = tempDirectory.resolve("pin-" + UUID.randomUUID() + ".tmp");
+        try
+        {
+            Files.createLink(pinnedPath, path);
+
+            return pinnedPath;
+        }
+        catch (UnsupportedOperationException e)
+        {
+            logger.warn("Hard links are not supported for " + path + ", it will be copied instead.");
+
+            return null;
+        }
+    }
+
+    private OutputStream newBlobOutputStream(Repository repository,
+                                             Path path)
+            throws IOException,
+                   NoSuchAlgorithmException
+    {
+        Path tempDirectory = getBlobsDirectory(repository.getStorage()).resolve(BLOBS_TEMP_DIRECTORY);
+        Files.createDirectories(tempDirectory);
+
+        Path tempPath = Files.createTempFile(tempDirectory, "blob-", ".tmp");
+
+        return new BlobOutputStream(repository.getStorage(), path, tempPath);
+    }
+
+    /**
+     * Makes the given file a blob, unless there already is a blob with the same content, in which case the file is
+     * replaced by a link to it.
+     *
+     * @return false, if the file can't be linked to, as it's on a different file system
+     */
+    private boolean ingest(Storage storage,
+                           Path path,
+                           String digest)
+            throws IOException
+    {
+        Path blob = getBlobPath(storage, digest);
+        Files.createDirectories(blob.getParent());
+
+        Lock lock = blobLocks.get(digest);
+        lock.lock();
+        try
+        {
+            if (!Files.exists(blob))
+            {
+                Files.createLink(blob, path);
+            }
+            else if (!Files.isSameFile(blob, path))
+            {
+                replaceWithLink(blob, path);
+            }
+
+            return true;
+        }
+        catch (UnsupportedOperationException e)
+        {
+            logger.warn("Hard links are not supported for " + path + ", it will be copied instead.");
+
+            return false;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    private void link(Storage storage,
+                      String digest,
+                      Path path)
+            throws IOException
+    {
+        Lock lock = blobLocks.get(digest);
+        lock.lock();
+        try
+        {
+            replaceWithLink(getBlobPath(storage, digest), path);
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The link is created next to the path and then moved over it, so that readers either get the previous file,
+     * or the new one, but never a missing, or a partial one.
+     */
+    private void replaceWithLink(Path blob,
+                                 Path path)
+            throws IOException
+    {
+        Files.createDirectories(path.getParent());
+
+        Path linkPath = path.resolveSibling("." + path.getFileName() + "." + UUID.randomUUID() + ".link");
+        Files.createLink(linkPath, blob);
+        try
+        {
+            Files.move(linkPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (IOException e)
+        {
+            Files.deleteIfExists(linkPath);
+
+            throw e;
+        }
+    }
+
+    private boolean isSameBlobStore(Repository srcRepository,
+                                    Repository destRepository)
+    {
+        return ALIAS.equals(srcRepository.getImplementation()) &&
+               srcRepository.getStorage().getId().equals(destRepository.getStorage().getId());
+    }
+
+    private Path getBlobsDirectory(Storage storage)
+    {
+        return Paths.get(storage.getBasedir()).resolve(BLOBS_DIRECTORY);
+    }
+
+    private Path getBlobPath(Storage storage,
+                             String digest)
+    {
+        return getBlobsDirectory(storage).resolve(DIGEST_ALGORITHM.toLowerCase().replace("-", ""))
+                                         .resolve(digest.substring(0, 2))
+                                         .resolve(digest.substring(2, 4))
+                                         .resolve(digest);
+    }
+
+    private static long getLinkCount(Path path)
+            throws IOException
+    {
+        try
+        {
+            return ((Number) Files.getAttribute(path, "unix:nlink")).longValue();
+        }
+        catch (UnsupportedOperationException | IllegalArgumentException e)
+        {
+            // The link count can't be determined, so the blob is assumed to be in use.
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private static String digest(Path path)
+            throws IOException
+    {
+        try (DigestInputStream is = new DigestInputStream(Files.newInputStream(path),
+                                                          MessageDigest.getInstance(DIGEST_ALGORITHM)))
+        {
+            ByteStreams.exhaust(is);
+
+            return BaseEncoding.base16().lowerCase().encode(is.getMessageDigest().digest());
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Writes the content to a temporary file, while digesting it. Once closed, the temporary file becomes the blob,
+     * unless there already is one with the same content, and the path is linked to it.
+     */
+    private class BlobOutputStream
+            extends FilterOutputStream
+    {
+
+        private final Storage storage;
+
+        private final Path path;
+
+        private final Path tempPath;
+
+        private boolean closed;
+
+
+        BlobOutputStream(Storage storage,
+                         Path path,
+                         Path tempPath)
+                throws IOException,
+                       NoSuchAlgorithmException
+        {
+            super(new DigestOutputStream(Files.newOutputStream(tempPath), MessageDigest.getInstance(DIGEST_ALGORITHM)));
+
+            this.storage = storage;
+            this.path = path;
+            this.tempPath = tempPath;
+        }
+
+        @Override
+        public void write(byte[] b,
+                          int off,
+                          int len)
+                throws IOException
+        {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close()
+                throws IOException
+        {
+            if (closed)
+            {
+                return;
+            }
+            closed = true;
+
+            try
+            {
+                super.close();
+
+                String digest = BaseEncoding.base16().lowerCase().encode(((DigestOutputStream) out).getMessageDigest()
+                                                                                                   .digest());
+                Path blob = getBlobPath(storage, digest);
+                Files.createDirectories(blob.getParent());
+
+                Lock lock = blobLocks.get(digest);
+                lock.lock();
+                try
+                {
+                    if (Files.exists(blob))
+                    {
+                        logger.debug("Deduplicated " + path + " (" + digest + ").");
+                    }
+                    else
+                    {
+                        Files.move(tempPath, blob, StandardCopyOption.ATOMIC_MOVE);
+                    }
+
+                    replaceWithLink(blob, path);
+                }
+                finally
+                {
+                    lock.unlock();
+                }
+            }
+            finally
+            {
+                Files.deleteIfExists(tempPath);
+            }
+        }
+
+    }
+
+}
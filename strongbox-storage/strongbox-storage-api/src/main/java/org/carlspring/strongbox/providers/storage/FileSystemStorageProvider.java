@@ -1,5 +1,6 @@
 package org.carlspring.strongbox.providers.storage;
 
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
@@ -11,6 +12,7 @@ import java.security.NoSuchAlgorithmException;
 
 import javax.annotation.PostConstruct;
 
+import org.apache.commons.io.FileUtils;
 import org.carlspring.commons.io.reloading.FSReloadableInputStreamHandler;
 import org.carlspring.strongbox.artifact.coordinates.ArtifactCoordinates;
 import org.carlspring.strongbox.io.ArtifactPath;
@@ -135,6 +137,25 @@ public class FileSystemStorageProvider extends AbstractStorageProvider
         return resolve(repository).resolve(path);
     }
 
+    @Override
+    public void copy(Repository srcRepository,
+                     Repository destRepository,
+                     String path)
+        throws IOException
+    {
+        File srcFile = new File(srcRepository.getBasedir(), path);
+        File destFile = new File(destRepository.getBasedir(), path);
+
+        if (srcFile.isDirectory())
+        {
+            FileUtils.copyDirectoryToDirectory(srcFile, destFile.getParentFile());
+        }
+        else
+        {
+            FileUtils.copyFile(srcFile, destFile);
+        }
+    }
+
     public static Path getArtifactPath(String basePath,
                                        String artifactPath)
         throws IOException
@@ -42,4 +42,11 @@ public interface StorageProvider
     
     RepositoryPath resolve(Repository repository, String path)
             throws IOException;
+
+    /**
+     * Copies the file, or the directory, at the given path from the source repository to the destination one,
+     * which is backed by this provider.
+     */
+    void copy(Repository srcRepository, Repository destRepository, String path)
+            throws IOException;
 }
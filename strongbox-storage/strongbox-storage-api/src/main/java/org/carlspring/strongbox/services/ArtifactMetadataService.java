@@ -1,6 +1,8 @@
 package org.carlspring.strongbox.services;
 
+import org.carlspring.strongbox.artifact.locator.ArtifactDirectoryCheckpointLockedException;
 import org.carlspring.strongbox.providers.ProviderImplementationException;
+import org.carlspring.strongbox.storage.ArtifactStorageException;
 import org.carlspring.strongbox.storage.metadata.MetadataType;
 
 import java.io.IOException;
@@ -63,6 +65,8 @@ public interface ArtifactMetadataService extends ConfigurationService
      * @param repositoryId  String
      * @param artifactPath  String
      *
+     * @throws ArtifactDirectoryCheckpointLockedException if the metadata of the repository is already being rebuilt
+     * @throws ArtifactStorageException if some of the metadata could not be rebuilt
      * @throws IOException
      * @throws XmlPullParserException
      */
@@ -83,6 +87,22 @@ public interface ArtifactMetadataService extends ConfigurationService
     void mergeMetadata(String storageId, String repositoryId, Artifact artifact, Metadata mergeMetadata)
             throws IOException, XmlPullParserException, NoSuchAlgorithmException, ProviderImplementationException;
 
+    /**
+     * Adds a newly deployed artifact file to the metadata of its artifact, its snapshot version and, for Maven
+     * plugins, its group, instead of rebuilding the metadata from the files in the repository.
+     *
+     * @param storageId
+     * @param repositoryId
+     * @param artifactPath  The path of the artifact file
+     * @throws IOException
+     * @throws XmlPullParserException
+     * @throws NoSuchAlgorithmException
+     */
+    void addArtifact(String storageId,
+                     String repositoryId,
+                     String artifactPath)
+            throws IOException, XmlPullParserException, NoSuchAlgorithmException;
+
     /**
      * Add a version to a metadata and store it to a file.
      *
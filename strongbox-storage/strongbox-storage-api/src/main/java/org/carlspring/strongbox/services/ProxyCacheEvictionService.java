@@ -0,0 +1,29 @@
+package org.carlspring.strongbox.services;
+
+import java.io.IOException;
+
+/**
+ * Keeps the local caches of proxy repositories within the quotas configured by their <cache-eviction/> elements.
+ */
+public interface ProxyCacheEvictionService
+{
+
+    /**
+     * Evict the least used artifacts, along with their checksums, from the cache of the given proxy repository,
+     * until it's back under its target size.
+     *
+     * @return the number of bytes which were evicted
+     */
+    long evict(String storageId,
+               String repositoryId)
+            throws IOException;
+
+    /**
+     * Evict the caches of all the proxy repositories, which have a quota.
+     *
+     * @return the number of bytes which were evicted
+     */
+    long evict()
+            throws IOException;
+
+}
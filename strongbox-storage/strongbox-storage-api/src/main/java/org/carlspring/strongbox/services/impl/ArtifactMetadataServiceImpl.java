@@ -6,15 +6,21 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.locks.Lock;
 
+import com.google.common.base.Strings;
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.artifact.repository.metadata.Metadata;
+import org.apache.maven.artifact.repository.metadata.Plugin;
 import org.apache.maven.artifact.repository.metadata.SnapshotVersion;
 import org.apache.maven.artifact.repository.metadata.Versioning;
+import org.apache.maven.plugin.descriptor.PluginDescriptor;
 import org.carlspring.maven.commons.util.ArtifactUtils;
-import org.carlspring.strongbox.artifact.locator.ArtifactDirectoryLocator;
+import org.carlspring.strongbox.artifact.locator.ArtifactDirectoryCheckpoint;
+import org.carlspring.strongbox.artifact.locator.ParallelArtifactDirectoryLocator;
 import org.carlspring.strongbox.artifact.locator.handlers.ArtifactLocationGenerateMavenMetadataOperation;
 import org.carlspring.strongbox.configuration.Configuration;
 import org.carlspring.strongbox.configuration.ConfigurationManager;
@@ -23,16 +29,22 @@ import org.carlspring.strongbox.providers.ProviderImplementationException;
 import org.carlspring.strongbox.providers.storage.StorageProvider;
 import org.carlspring.strongbox.providers.storage.StorageProviderRegistry;
 import org.carlspring.strongbox.services.ArtifactMetadataService;
+import org.carlspring.strongbox.storage.ArtifactStorageException;
 import org.carlspring.strongbox.storage.Storage;
 import org.carlspring.strongbox.storage.metadata.MavenMetadataManager;
 import org.carlspring.strongbox.storage.metadata.MetadataHelper;
 import org.carlspring.strongbox.storage.metadata.MetadataType;
+import org.carlspring.strongbox.storage.metadata.PomProjectionCache.PomProjection;
+import org.carlspring.strongbox.storage.metadata.comparators.MetadataVersionComparator;
+import org.carlspring.strongbox.storage.metadata.versions.MetadataVersion;
 import org.carlspring.strongbox.storage.repository.Repository;
 import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 
 /**
  * @author stodorov
@@ -45,6 +57,17 @@ public class ArtifactMetadataServiceImpl
 
     private static final Logger logger = LoggerFactory.getLogger(ArtifactMetadataServiceImpl.class);
 
+    /**
+     * Where the progress of an interrupted metadata rebuild is kept, relative to the repository's basedir.
+     */
+    private static final String REBUILD_CHECKPOINT = ".metadata-rebuild.checkpoint";
+
+    /**
+     * Orders versions the way a full rebuild does (1.9 < 1.10 < 2.0-SNAPSHOT < 2.0).
+     */
+    private static final Comparator<String> VERSION_COMPARATOR =
+            Comparator.comparing(ArtifactMetadataServiceImpl::toMetadataVersion, new MetadataVersionComparator());
+
     @Autowired
     private ConfigurationManager configurationManager;
 
@@ -54,6 +77,12 @@ public class ArtifactMetadataServiceImpl
     @Autowired
     private MavenMetadataManager mavenMetadataManager;
 
+    /**
+     * The number of threads rebuilding the metadata of a repository; zero, or less means one per processor.
+     */
+    @Value("${metadata.rebuild.parallelism:0}")
+    private int rebuildParallelism;
+
 
     public ArtifactMetadataServiceImpl()
     {
@@ -102,9 +131,31 @@ public class ArtifactMetadataServiceImpl
         operation.setRepository(repository);
         operation.setBasePath(basePath);
 
-        ArtifactDirectoryLocator locator = new ArtifactDirectoryLocator();
-        locator.setOperation(operation);
-        locator.locateArtifactDirectories();
+        // Each artifact directory keeps the POM projections of its own versions, so that none of them is evicted
+        // before the next rebuild has used it, without holding those of the whole repository in memory.
+        operation.setPersistentPomProjections(true);
+
+        Path repositoryBasePath = Paths.get(repository.getBasedir());
+        Path startingPath = !StringUtils.isEmpty(basePath) ?
+                            repositoryBasePath.resolve(StringUtils.trimLeadingCharacter(basePath, '/')) :
+                            repositoryBasePath;
+
+        ParallelArtifactDirectoryLocator locator = new ParallelArtifactDirectoryLocator();
+        locator.setStartingPath(startingPath);
+        locator.setHandler(operation::generateMetadata);
+        locator.setCheckpoint(new ArtifactDirectoryCheckpoint(repositoryBasePath.resolve(REBUILD_CHECKPOINT),
+                                                              repositoryBasePath));
+        if (rebuildParallelism > 0)
+        {
+            locator.setParallelism(rebuildParallelism);
+        }
+
+        if (!locator.locateArtifactDirectories())
+        {
+            throw new ArtifactStorageException("The metadata of " + storageId + ":" + repositoryId + " was not" +
+                                               " rebuilt completely; the next rebuild will resume from where this" +
+                                               " one stopped.");
+        }
     }
 
     @Override
@@ -121,6 +172,232 @@ public class ArtifactMetadataServiceImpl
         mavenMetadataManager.mergeMetadata(repository, artifact, mergeMetadata);
     }
 
+    @Override
+    public void addArtifact(String storageId,
+                            String repositoryId,
+                            String artifactPath)
+            throws IOException,
+                   XmlPullParserException,
+                   NoSuchAlgorithmException
+    {
+        Storage storage = getConfiguration().getStorage(storageId);
+        Repository repository = storage.getRepository(repositoryId);
+
+        Artifact artifact = ArtifactUtils.convertPathToArtifact(artifactPath);
+
+        Path artifactFilePath = Paths.get(repository.getBasedir(), artifactPath);
+        Path artifactBasePath = artifactFilePath.getParent().getParent();
+
+        String version = artifact.getVersion();
+        boolean snapshot = ArtifactUtils.isSnapshot(version);
+        String baseVersion = snapshot ? ArtifactUtils.getSnapshotBaseVersion(version) : version;
+
+        addVersion(artifactBasePath, artifact, baseVersion);
+
+        // Non-unique snapshots (1.0-SNAPSHOT) have no timestamped versions to list.
+        if (snapshot && !baseVersion.equals(version))
+        {
+            addTimestampedSnapshotVersion(artifactBasePath, artifact, baseVersion);
+        }
+
+        if (artifactFilePath.getFileName().toString().endsWith(".pom"))
+        {
+            addPlugin(artifactBasePath, artifactFilePath);
+        }
+
+        logger.debug("Added " + artifactPath + " to the metadata of " + storageId + ":" + repositoryId + ".");
+    }
+
+    private void addVersion(Path artifactBasePath,
+                            Artifact artifact,
+                            String version)
+            throws IOException,
+                   XmlPullParserException,
+                   NoSuchAlgorithmException
+    {
+        Lock lock = mavenMetadataManager.getMetadataLock(artifactBasePath, null, MetadataType.ARTIFACT_ROOT_LEVEL);
+        lock.lock();
+        try
+        {
+            Metadata metadata = readMetadata(MetadataHelper.getMetadataPath(artifactBasePath,
+                                                                            null,
+                                                                            MetadataType.ARTIFACT_ROOT_LEVEL));
+            if (metadata == null)
+            {
+                metadata = new Metadata();
+                metadata.setGroupId(artifact.getGroupId());
+                metadata.setArtifactId(artifact.getArtifactId());
+            }
+            if (metadata.getVersioning() == null)
+            {
+                metadata.setVersioning(new Versioning());
+            }
+
+            if (metadata.getVersioning().getVersions().contains(version))
+            {
+                // Another file of the same version has already been deployed.
+                return;
+            }
+
+            addVersionInOrder(metadata.getVersioning(), version);
+
+            mavenMetadataManager.storeMetadata(artifactBasePath, null, metadata, MetadataType.ARTIFACT_ROOT_LEVEL);
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds the version, so that the list stays sorted the way a full rebuild sorts it, and updates the latest and
+     * the release version accordingly. Snapshots are never releases.
+     */
+    private void addVersionInOrder(Versioning versioning,
+                                   String version)
+    {
+        List<String> versions = versioning.getVersions();
+        versions.add(version);
+        versions.sort(VERSION_COMPARATOR);
+
+        versioning.setLatest(versions.get(versions.size() - 1));
+
+        for (int i = versions.size() - 1; i >= 0; i--)
+        {
+            if (!ArtifactUtils.isSnapshot(versions.get(i)))
+            {
+                versioning.setRelease(versions.get(i));
+                break;
+            }
+        }
+
+        MetadataHelper.setLastUpdated(versioning);
+    }
+
+    private static MetadataVersion toMetadataVersion(String version)
+    {
+        MetadataVersion metadataVersion = new MetadataVersion();
+        metadataVersion.setVersion(version);
+
+        return metadataVersion;
+    }
+
+    private void addTimestampedSnapshotVersion(Path artifactBasePath,
+                                               Artifact artifact,
+                                               String baseVersion)
+            throws IOException,
+                   XmlPullParserException,
+                   NoSuchAlgorithmException
+    {
+        Lock lock = mavenMetadataManager.getMetadataLock(artifactBasePath,
+                                                         baseVersion,
+                                                         MetadataType.SNAPSHOT_VERSION_LEVEL);
+        lock.lock();
+        try
+        {
+            Metadata metadata = readMetadata(MetadataHelper.getMetadataPath(artifactBasePath,
+                                                                            baseVersion,
+                                                                            MetadataType.SNAPSHOT_VERSION_LEVEL));
+            if (metadata == null)
+            {
+                metadata = new Metadata();
+                metadata.setGroupId(artifact.getGroupId());
+                metadata.setArtifactId(artifact.getArtifactId());
+                metadata.setVersion(baseVersion);
+            }
+            if (metadata.getVersioning() == null)
+            {
+                metadata.setVersioning(new Versioning());
+            }
+
+            String classifier = Strings.nullToEmpty(artifact.getClassifier());
+            String extension = artifact.getType();
+
+            // The metadata only lists the most recent snapshot of each classifier and extension.
+            metadata.getVersioning()
+                    .getSnapshotVersions()
+                    .removeIf(v -> classifier.equals(Strings.nullToEmpty(v.getClassifier())) &&
+                                   extension.equals(v.getExtension()));
+
+            addTimestampedSnapshotVersion(metadata,
+                                          artifact.getVersion(),
+                                          artifact.getClassifier(),
+                                          extension);
+
+            mavenMetadataManager.storeMetadata(artifactBasePath,
+                                               baseVersion,
+                                               metadata,
+                                               MetadataType.SNAPSHOT_VERSION_LEVEL);
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    private void addPlugin(Path artifactBasePath,
+                           Path pomPath)
+            throws IOException,
+                   XmlPullParserException,
+                   NoSuchAlgorithmException
+    {
+        PomProjection pom = mavenMetadataManager.getPomProjectionCache().get(pomPath);
+        if (!pom.isPlugin())
+        {
+            return;
+        }
+
+        Lock lock = mavenMetadataManager.getMetadataLock(artifactBasePath, null, MetadataType.PLUGIN_GROUP_LEVEL);
+        lock.lock();
+        try
+        {
+            Metadata metadata = readMetadata(MetadataHelper.getMetadataPath(artifactBasePath,
+                                                                            null,
+                                                                            MetadataType.PLUGIN_GROUP_LEVEL));
+            if (metadata == null)
+            {
+                metadata = new Metadata();
+            }
+
+            String artifactId = artifactBasePath.getFileName().toString();
+            for (Plugin plugin : metadata.getPlugins())
+            {
+                if (artifactId.equals(plugin.getArtifactId()))
+                {
+                    return;
+                }
+            }
+
+            Plugin plugin = new Plugin();
+            plugin.setName(pom.getName() != null ? pom.getName() : artifactId);
+            plugin.setArtifactId(artifactId);
+            plugin.setPrefix(PluginDescriptor.getGoalPrefixFromArtifactId(artifactId));
+
+            metadata.addPlugin(plugin);
+
+            mavenMetadataManager.storeMetadata(artifactBasePath, null, metadata, MetadataType.PLUGIN_GROUP_LEVEL);
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the metadata, or null, if there is none yet
+     */
+    private Metadata readMetadata(Path metadataPath)
+            throws IOException,
+                   XmlPullParserException
+    {
+        if (!Files.exists(metadataPath))
+        {
+            return null;
+        }
+
+        return mavenMetadataManager.readMetadata(Files.newInputStream(metadataPath));
+    }
+
     @Override
     public void addVersion(String storageId,
                            String repositoryId,
@@ -16,15 +16,22 @@ import org.carlspring.strongbox.storage.repository.Repository;
 import org.carlspring.strongbox.storage.repository.RepositoryPolicyEnum;
 import org.carlspring.strongbox.storage.repository.UnknownRepositoryTypeException;
 
+import javax.annotation.PostConstruct;
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.security.NoSuchAlgorithmException;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
 
+import com.google.common.util.concurrent.Striped;
+import org.apache.commons.codec.digest.MessageDigestAlgorithms;
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.artifact.repository.metadata.Metadata;
 import org.apache.maven.artifact.repository.metadata.SnapshotVersion;
@@ -36,6 +43,7 @@ import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import static org.carlspring.strongbox.providers.layout.LayoutProviderRegistry.getLayoutProvider;
 
@@ -48,17 +56,36 @@ public class MavenMetadataManager
 
     private static final Logger logger = LoggerFactory.getLogger(MavenMetadataManager.class);
 
-    private ReentrantLock lock = new ReentrantLock();
+    private static final String[] CHECKSUM_ALGORITHMS = { MessageDigestAlgorithms.MD5,
+                                                          MessageDigestAlgorithms.SHA_1,
+                                                          MessageDigestAlgorithms.SHA_256,
+                                                          MessageDigestAlgorithms.SHA_512 };
+
+    /**
+     * Keyed by the path of the metadata file, so that the metadata of unrelated artifacts is written in parallel.
+     */
+    private final Striped<Lock> metadataLocks = Striped.lock(1024);
 
     @Autowired
     private LayoutProviderRegistry layoutProviderRegistry;
     @Autowired
     protected StorageProviderRegistry storageProviderRegistry;
 
+    @Value("${metadata.pomCache.maxSize:50000}")
+    private int pomCacheMaxSize;
+
+    private PomProjectionCache pomProjectionCache;
+
     public MavenMetadataManager()
     {
     }
 
+    @PostConstruct
+    public void init()
+    {
+        pomProjectionCache = new PomProjectionCache(pomCacheMaxSize);
+    }
+
     public Metadata readMetadata(Repository repository, Artifact artifact)
             throws IOException,
                    XmlPullParserException,
@@ -140,42 +167,104 @@ public class MavenMetadataManager
         return metadata;
     }
 
+    /**
+     * Stores the metadata along with its checksums. Writes of the same metadata file are serialized, while writes of
+     * different ones are not.
+     * <p>
+     * The metadata and its checksums are first written to temporary files in the same directory, which are then
+     * moved into place, so that readers always see a complete maven-metadata.xml, either the previous, or the new one.
+     * Clients request the metadata first and its checksums after it, so the checksums are moved into place before
+     * the metadata: a client, which gets the new metadata, is then sure to get its checksums as well. A client,
+     * which got the previous metadata just before the move, may still get the new checksums and has to retry, which
+     * neither order can prevent.
+     */
     public void storeMetadata(Path metadataBasePath, String version, Metadata metadata, MetadataType metadataType)
             throws IOException,
                    NoSuchAlgorithmException
     {
-        File metadataFile = MetadataHelper.getMetadataFile(metadataBasePath, version, metadataType);
+        Path metadataPath = MetadataHelper.getMetadataFile(metadataBasePath, version, metadataType).toPath();
+        Files.createDirectories(metadataPath.getParent());
 
-        OutputStream os = null;
-        Writer writer = null;
+        Path tempMetadataPath = null;
+        Map<Path, Path> tempChecksumPaths = new LinkedHashMap<>();
 
+        Lock lock = getMetadataLock(metadataPath);
+        lock.lock();
         try
         {
-            lock.lock();
+            tempMetadataPath = createTempPath(metadataPath);
 
-            if (metadataFile.exists())
+            MultipleDigestOutputStream os = new MultipleDigestOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(tempMetadataPath)), CHECKSUM_ALGORITHMS);
+            try (Writer writer = WriterFactory.newXmlWriter(os))
             {
-                //noinspection ResultOfMethodCallIgnored
-                metadataFile.delete();
+                MetadataXpp3Writer mappingWriter = new MetadataXpp3Writer();
+                mappingWriter.write(writer, metadata);
             }
 
-            os = new MultipleDigestOutputStream(metadataFile, new FileOutputStream(metadataFile));
+            for (String algorithm : CHECKSUM_ALGORITHMS)
+            {
+                Path checksumPath = metadataPath.resolveSibling(metadataPath.getFileName() + "." +
+                                                                algorithm.toLowerCase().replaceAll("-", ""));
+                Path tempChecksumPath = createTempPath(checksumPath);
+                tempChecksumPaths.put(tempChecksumPath, checksumPath);
 
-            writer = WriterFactory.newXmlWriter(os);
-            MetadataXpp3Writer mappingWriter = new MetadataXpp3Writer();
-            mappingWriter.write(writer, metadata);
+                Files.write(tempChecksumPath,
+                            os.getMessageDigestAsHexadecimalString(algorithm).getBytes(StandardCharsets.UTF_8));
+            }
 
-            os.flush();
+            for (Map.Entry<Path, Path> entry : tempChecksumPaths.entrySet())
+            {
+                moveIntoPlace(entry.getKey(), entry.getValue());
+            }
+            moveIntoPlace(tempMetadataPath, metadataPath);
         }
         finally
         {
             lock.unlock();
 
-            ResourceCloser.close(writer, logger);
-            ResourceCloser.close(os, logger);
+            if (tempMetadataPath != null)
+            {
+                Files.deleteIfExists(tempMetadataPath);
+            }
+            for (Path tempChecksumPath : tempChecksumPaths.keySet())
+            {
+                Files.deleteIfExists(tempChecksumPath);
+            }
         }
     }
 
+    private static void moveIntoPlace(Path tempPath,
+                                      Path path)
+            throws IOException
+    {
+        Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Returns the lock, which is held while the given metadata file is stored. Updates, which read the metadata
+     * before storing it, should hold it for the whole update, so that concurrent updates aren't lost. The lock is
+     * reentrant.
+     */
+    public Lock getMetadataLock(Path metadataBasePath, String version, MetadataType metadataType)
+    {
+        return getMetadataLock(MetadataHelper.getMetadataPath(metadataBasePath, version, metadataType));
+    }
+
+    private Lock getMetadataLock(Path metadataPath)
+    {
+        return metadataLocks.get(metadataPath.toAbsolutePath().normalize().toString());
+    }
+
+    /**
+     * The temporary files are hidden, so that they are never mistaken for metadata, or checksums.
+     */
+    private static Path createTempPath(Path path)
+            throws IOException
+    {
+        return Files.createTempFile(path.getParent(), "." + path.getFileName() + ".", ".tmp");
+    }
+
     /**
      * Generate a metadata file for an artifact.
      *
@@ -402,4 +491,12 @@ public class MavenMetadataManager
         }
     }
 
+    /**
+     * @return the projections of the POM-s, which the metadata is generated from
+     */
+    public PomProjectionCache getPomProjectionCache()
+    {
+        return pomProjectionCache;
+    }
+
 }
@@ -0,0 +1,103 @@
+package org.carlspring.strongbox.storage.repository;
+
+import javax.persistence.Version;
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlRootElement;
+import java.io.Serializable;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * The <code>Cache-Control</code> max-age values which are sent with the artifacts and metadata
+ * served from a repository. Release artifacts don't change once deployed, so they can be cached
+ * for a long time, whereas snapshots and metadata should be revalidated often.
+ */
+@XmlRootElement(name = "cache-control")
+@XmlAccessorType(XmlAccessType.FIELD)
+public class CacheControlConfiguration
+        implements Serializable
+{
+
+    public static final long DEFAULT_RELEASE_MAX_AGE_SECONDS = 31536000;
+
+    public static final long DEFAULT_SNAPSHOT_MAX_AGE_SECONDS = 60;
+
+    public static final long DEFAULT_METADATA_MAX_AGE_SECONDS = 60;
+
+    /**
+     * Added to avoid a runtime error whereby the detachAll property is checked for existence but not actually used.
+     */
+    @JsonIgnore
+    protected String detachAll;
+
+    @Version
+    @JsonIgnore
+    protected Long version;
+
+    @XmlAttribute(name = "release-max-age-seconds")
+    private long releaseMaxAgeSeconds = DEFAULT_RELEASE_MAX_AGE_SECONDS;
+
+    @XmlAttribute(name = "snapshot-max-age-seconds")
+    private long snapshotMaxAgeSeconds = DEFAULT_SNAPSHOT_MAX_AGE_SECONDS;
+
+    @XmlAttribute(name = "metadata-max-age-seconds")
+    private long metadataMaxAgeSeconds = DEFAULT_METADATA_MAX_AGE_SECONDS;
+
+
+    public CacheControlConfiguration()
+    {
+    }
+
+    public long getReleaseMaxAgeSeconds()
+    {
+        return releaseMaxAgeSeconds;
+    }
+
+    public void setReleaseMaxAgeSeconds(long releaseMaxAgeSeconds)
+    {
+        this.releaseMaxAgeSeconds = releaseMaxAgeSeconds;
+    }
+
+    public long getSnapshotMaxAgeSeconds()
+    {
+        return snapshotMaxAgeSeconds;
+    }
+
+    public void setSnapshotMaxAgeSeconds(long snapshotMaxAgeSeconds)
+    {
+        this.snapshotMaxAgeSeconds = snapshotMaxAgeSeconds;
+    }
+
+    public long getMetadataMaxAgeSeconds()
+    {
+        return metadataMaxAgeSeconds;
+    }
+
+    public void setMetadataMaxAgeSeconds(long metadataMaxAgeSeconds)
+    {
+        this.metadataMaxAgeSeconds = metadataMaxAgeSeconds;
+    }
+
+    public String getDetachAll()
+    {
+        return detachAll;
+    }
+
+    public void setDetachAll(String detachAll)
+    {
+        this.detachAll = detachAll;
+    }
+
+    public Long getVersion()
+    {
+        return version;
+    }
+
+    public void setVersion(Long version)
+    {
+        this.version = version;
+    }
+
+}
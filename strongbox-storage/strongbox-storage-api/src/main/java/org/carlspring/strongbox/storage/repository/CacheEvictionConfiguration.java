@@ -0,0 +1,133 @@
+package org.carlspring.strongbox.storage.repository;
+
+import javax.persistence.Version;
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlRootElement;
+import java.io.Serializable;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * The disk quota of the local cache of a proxy repository. Once the cache exceeds it, the artifacts, which are
+ * the least recently (or frequently) used, are evicted, until the cache is back under the target size.
+ */
+@XmlRootElement(name = "cache-eviction")
+@XmlAccessorType(XmlAccessType.FIELD)
+public class CacheEvictionConfiguration
+        implements Serializable
+{
+
+    public static final int DEFAULT_TARGET_PERCENTAGE = 90;
+
+    /**
+     * Added to avoid a runtime error whereby the detachAll property is checked for existence but not actually used.
+     */
+    @JsonIgnore
+    protected String detachAll;
+
+    @Version
+    @JsonIgnore
+    protected Long version;
+
+    @XmlAttribute
+    private boolean enabled = true;
+
+    @XmlAttribute(name = "max-size-bytes")
+    private long maxSizeBytes;
+
+    /**
+     * The percentage of the quota, down to which the cache is evicted, so that it isn't over the quota again
+     * right after the next few downloads.
+     */
+    @XmlAttribute(name = "target-percentage")
+    private int targetPercentage = DEFAULT_TARGET_PERCENTAGE;
+
+    @XmlAttribute
+    private String policy = CacheEvictionPolicyEnum.LRU.getPolicy();
+
+
+    public CacheEvictionConfiguration()
+    {
+    }
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled)
+    {
+        this.enabled = enabled;
+    }
+
+    public long getMaxSizeBytes()
+    {
+        return maxSizeBytes;
+    }
+
+    public void setMaxSizeBytes(long maxSizeBytes)
+    {
+        this.maxSizeBytes = maxSizeBytes;
+    }
+
+    public int getTargetPercentage()
+    {
+        return targetPercentage;
+    }
+
+    public void setTargetPercentage(int targetPercentage)
+    {
+        this.targetPercentage = targetPercentage;
+    }
+
+    public String getPolicy()
+    {
+        return policy;
+    }
+
+    public void setPolicy(String policy)
+    {
+        this.policy = policy;
+    }
+
+    public CacheEvictionPolicyEnum getPolicyEnum()
+    {
+        for (CacheEvictionPolicyEnum policyEnum : CacheEvictionPolicyEnum.values())
+        {
+            if (policyEnum.getPolicy().equalsIgnoreCase(policy) || policyEnum.name().equalsIgnoreCase(policy))
+            {
+                return policyEnum;
+            }
+        }
+
+        return CacheEvictionPolicyEnum.LRU;
+    }
+
+    public long getTargetSizeBytes()
+    {
+        return maxSizeBytes * Math.max(0, Math.min(100, targetPercentage)) / 100;
+    }
+
+    public String getDetachAll()
+    {
+        return detachAll;
+    }
+
+    public void setDetachAll(String detachAll)
+    {
+        this.detachAll = detachAll;
+    }
+
+    public Long getVersion()
+    {
+        return version;
+    }
+
+    public void setVersion(Long version)
+    {
+        this.version = version;
+    }
+
+}
@@ -0,0 +1,40 @@
+package org.carlspring.strongbox.storage.repository;
+
+public enum CacheEvictionPolicyEnum
+{
+
+    /**
+     * Evict the least recently used artifacts first.
+     */
+    LRU("lru"),
+
+    /**
+     * Evict the least frequently used artifacts first.
+     */
+    LFU("lfu");
+
+    private String policy;
+
+
+    CacheEvictionPolicyEnum(String policy)
+    {
+        this.policy = policy;
+    }
+
+    public String getPolicy()
+    {
+        return policy;
+    }
+
+    public void setPolicy(String policy)
+    {
+        this.policy = policy;
+    }
+
+    @Override
+    public String toString()
+    {
+        return policy;
+    }
+
+}
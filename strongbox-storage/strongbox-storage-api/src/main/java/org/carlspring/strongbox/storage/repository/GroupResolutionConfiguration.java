@@ -0,0 +1,91 @@
+package org.carlspring.strongbox.storage.repository;
+
+import javax.persistence.Version;
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlRootElement;
+import java.io.Serializable;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Controls how the members of a group repository are looked up.
+ *
+ * By default they are tried one after another. In parallel mode they are all probed at the same time,
+ * the first hit in the declared order of the members wins and the lookups which are still in progress
+ * in the members with a lower priority are cancelled.
+ */
+@XmlRootElement(name = "group-resolution")
+@XmlAccessorType(XmlAccessType.FIELD)
+public class GroupResolutionConfiguration
+        implements Serializable
+{
+
+    public static final long DEFAULT_MEMBER_TIMEOUT_SECONDS = 30;
+
+    /**
+     * Added to avoid a runtime error whereby the detachAll property is checked for existence but not actually used.
+     */
+    @JsonIgnore
+    protected String detachAll;
+
+    @Version
+    @JsonIgnore
+    protected Long version;
+
+    @XmlAttribute
+    private boolean parallel;
+
+    /**
+     * How long to wait for a member in parallel mode, before treating it as if it didn't have the artifact.
+     */
+    @XmlAttribute(name = "member-timeout-seconds")
+    private long memberTimeoutSeconds = DEFAULT_MEMBER_TIMEOUT_SECONDS;
+
+
+    public GroupResolutionConfiguration()
+    {
+    }
+
+    public boolean isParallel()
+    {
+        return parallel;
+    }
+
+    public void setParallel(boolean parallel)
+    {
+        this.parallel = parallel;
+    }
+
+    public long getMemberTimeoutSeconds()
+    {
+        return memberTimeoutSeconds;
+    }
+
+    public void setMemberTimeoutSeconds(long memberTimeoutSeconds)
+    {
+        this.memberTimeoutSeconds = memberTimeoutSeconds;
+    }
+
+    public String getDetachAll()
+    {
+        return detachAll;
+    }
+
+    public void setDetachAll(String detachAll)
+    {
+        this.detachAll = detachAll;
+    }
+
+    public Long getVersion()
+    {
+        return version;
+    }
+
+    public void setVersion(Long version)
+    {
+        this.version = version;
+    }
+
+}
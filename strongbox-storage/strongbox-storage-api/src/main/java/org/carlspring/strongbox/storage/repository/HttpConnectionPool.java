@@ -8,6 +8,7 @@ import javax.xml.bind.annotation.XmlRootElement;
 import java.io.Serializable;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.carlspring.strongbox.client.RemoteRepositoryClientConfiguration;
 
 /**
  * @author korest
@@ -31,6 +32,45 @@ public class HttpConnectionPool
     @XmlAttribute(name = "allocated-connections")
     private int allocatedConnections;
 
+    @XmlAttribute(name = "connect-timeout-millis")
+    private int connectTimeoutMillis = RemoteRepositoryClientConfiguration.DEFAULT_CONNECT_TIMEOUT_MILLIS;
+
+    /**
+     * The maximum time of inactivity between two packets of a response.
+     */
+    @XmlAttribute(name = "socket-timeout-millis")
+    private int socketTimeoutMillis = RemoteRepositoryClientConfiguration.DEFAULT_SOCKET_TIMEOUT_MILLIS;
+
+    @XmlAttribute(name = "keep-alive-seconds")
+    private int keepAliveSeconds = RemoteRepositoryClientConfiguration.DEFAULT_KEEP_ALIVE_SECONDS;
+
+    /**
+     * Applies to the whole pool, which is shared by all the remote repositories, so the shortest of their intervals
+     * is used.
+     */
+    @XmlAttribute(name = "validate-after-inactivity-millis")
+    private int validateAfterInactivityMillis = RemoteRepositoryClientConfiguration.DEFAULT_VALIDATE_AFTER_INACTIVITY_MILLIS;
+
+    /**
+     * Whether compressed responses are accepted from the remote repository. They are by default, so this only has
+     * an effect, when it's disabled.
+     */
+    @XmlAttribute(name = "compression")
+    private boolean compression = true;
+
+
+    public RemoteRepositoryClientConfiguration getClientConfiguration()
+    {
+        RemoteRepositoryClientConfiguration configuration = new RemoteRepositoryClientConfiguration();
+        configuration.setConnectTimeoutMillis(connectTimeoutMillis);
+        configuration.setSocketTimeoutMillis(socketTimeoutMillis);
+        configuration.setKeepAliveSeconds(keepAliveSeconds);
+        configuration.setValidateAfterInactivityMillis(validateAfterInactivityMillis);
+        configuration.setCompression(compression);
+
+        return configuration;
+    }
+
     public int getAllocatedConnections()
     {
         return allocatedConnections;
@@ -41,6 +81,56 @@ public class HttpConnectionPool
         this.allocatedConnections = allocatedConnections;
     }
 
+    public int getConnectTimeoutMillis()
+    {
+        return connectTimeoutMillis;
+    }
+
+    public void setConnectTimeoutMillis(int connectTimeoutMillis)
+    {
+        this.connectTimeoutMillis = connectTimeoutMillis;
+    }
+
+    public int getSocketTimeoutMillis()
+    {
+        return socketTimeoutMillis;
+    }
+
+    public void setSocketTimeoutMillis(int socketTimeoutMillis)
+    {
+        this.socketTimeoutMillis = socketTimeoutMillis;
+    }
+
+    public int getKeepAliveSeconds()
+    {
+        return keepAliveSeconds;
+    }
+
+    public void setKeepAliveSeconds(int keepAliveSeconds)
+    {
+        this.keepAliveSeconds = keepAliveSeconds;
+    }
+
+    public int getValidateAfterInactivityMillis()
+    {
+        return validateAfterInactivityMillis;
+    }
+
+    public void setValidateAfterInactivityMillis(int validateAfterInactivityMillis)
+    {
+        this.validateAfterInactivityMillis = validateAfterInactivityMillis;
+    }
+
+    public boolean isCompression()
+    {
+        return compression;
+    }
+
+    public void setCompression(boolean compression)
+    {
+        this.compression = compression;
+    }
+
     public String getDetachAll()
     {
         return detachAll;
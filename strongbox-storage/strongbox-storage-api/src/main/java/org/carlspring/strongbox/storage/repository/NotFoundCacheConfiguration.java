@@ -0,0 +1,100 @@
+package org.carlspring.strongbox.storage.repository;
+
+import javax.persistence.Version;
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlRootElement;
+import java.io.Serializable;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Controls how long paths which could not be resolved in a proxy, or a group repository
+ * are remembered, before they are looked up again.
+ */
+@XmlRootElement(name = "not-found-cache")
+@XmlAccessorType(XmlAccessType.FIELD)
+public class NotFoundCacheConfiguration
+        implements Serializable
+{
+
+    public static final long DEFAULT_MAX_SIZE = 10000;
+
+    public static final long DEFAULT_TIME_TO_LIVE_SECONDS = 300;
+
+    /**
+     * Added to avoid a runtime error whereby the detachAll property is checked for existence but not actually used.
+     */
+    @JsonIgnore
+    protected String detachAll;
+
+    @Version
+    @JsonIgnore
+    protected Long version;
+
+    @XmlAttribute
+    private boolean enabled = true;
+
+    @XmlAttribute(name = "max-size")
+    private long maxSize = DEFAULT_MAX_SIZE;
+
+    @XmlAttribute(name = "time-to-live-seconds")
+    private long timeToLiveSeconds = DEFAULT_TIME_TO_LIVE_SECONDS;
+
+
+    public NotFoundCacheConfiguration()
+    {
+    }
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled)
+    {
+        this.enabled = enabled;
+    }
+
+    public long getMaxSize()
+    {
+        return maxSize;
+    }
+
+    public void setMaxSize(long maxSize)
+    {
+        this.maxSize = maxSize;
+    }
+
+    public long getTimeToLiveSeconds()
+    {
+        return timeToLiveSeconds;
+    }
+
+    public void setTimeToLiveSeconds(long timeToLiveSeconds)
+    {
+        this.timeToLiveSeconds = timeToLiveSeconds;
+    }
+
+    public String getDetachAll()
+    {
+        return detachAll;
+    }
+
+    public void setDetachAll(String detachAll)
+    {
+        this.detachAll = detachAll;
+    }
+
+    public Long getVersion()
+    {
+        return version;
+    }
+
+    public void setVersion(Long version)
+    {
+        this.version = version;
+    }
+
+}
@@ -18,6 +18,11 @@ public class RemoteRepository
         implements Serializable
 {
 
+    /**
+     * A day, as in most other repository managers.
+     */
+    public static final long DEFAULT_METADATA_MAX_AGE_SECONDS = 86400;
+
     /**
      * Added to avoid a runtime error whereby the detachAll property is checked for existence but not actually used.
      */
@@ -49,6 +54,13 @@ public class RemoteRepository
     @XmlAttribute(name = "checksum-policy")
     private String checksumPolicy;
 
+    /**
+     * How long the metadata, which has been fetched from the remote, is served, before it's revalidated.
+     * A negative value means that it's never revalidated.
+     */
+    @XmlAttribute(name = "metadata-max-age-seconds")
+    private long metadataMaxAgeSeconds = DEFAULT_METADATA_MAX_AGE_SECONDS;
+
 
     public RemoteRepository()
     {
@@ -124,6 +136,16 @@ public class RemoteRepository
         this.checksumPolicy = checksumPolicy;
     }
 
+    public long getMetadataMaxAgeSeconds()
+    {
+        return metadataMaxAgeSeconds;
+    }
+
+    public void setMetadataMaxAgeSeconds(long metadataMaxAgeSeconds)
+    {
+        this.metadataMaxAgeSeconds = metadataMaxAgeSeconds;
+    }
+
     public String getDetachAll()
     {
         return detachAll;
@@ -90,6 +90,15 @@ public class Repository
     @XmlElement(name = "remote-repository")
     private RemoteRepository remoteRepository;
 
+    @XmlElement(name = "not-found-cache")
+    private NotFoundCacheConfiguration notFoundCacheConfiguration;
+
+    @XmlElement(name = "cache-control")
+    private CacheControlConfiguration cacheControlConfiguration;
+
+    @XmlElement(name = "cache-eviction")
+    private CacheEvictionConfiguration cacheEvictionConfiguration;
+
     @XmlElement(name = "http-connection-pool")
     private HttpConnectionPool httpConnectionPool;
 
@@ -100,6 +109,9 @@ public class Repository
     @XmlElementWrapper(name = "group")
     private Set<String> groupRepositories = new LinkedHashSet<>();
 
+    @XmlElement(name = "group-resolution")
+    private GroupResolutionConfiguration groupResolutionConfiguration;
+
     @XmlTransient
     private Storage storage;
 
@@ -297,6 +309,36 @@ public class Repository
         this.remoteRepository = remoteRepository;
     }
 
+    public NotFoundCacheConfiguration getNotFoundCacheConfiguration()
+    {
+        return notFoundCacheConfiguration;
+    }
+
+    public void setNotFoundCacheConfiguration(NotFoundCacheConfiguration notFoundCacheConfiguration)
+    {
+        this.notFoundCacheConfiguration = notFoundCacheConfiguration;
+    }
+
+    public CacheControlConfiguration getCacheControlConfiguration()
+    {
+        return cacheControlConfiguration;
+    }
+
+    public void setCacheControlConfiguration(CacheControlConfiguration cacheControlConfiguration)
+    {
+        this.cacheControlConfiguration = cacheControlConfiguration;
+    }
+
+    public CacheEvictionConfiguration getCacheEvictionConfiguration()
+    {
+        return cacheEvictionConfiguration;
+    }
+
+    public void setCacheEvictionConfiguration(CacheEvictionConfiguration cacheEvictionConfiguration)
+    {
+        this.cacheEvictionConfiguration = cacheEvictionConfiguration;
+    }
+
     public Set<String> getGroupRepositories()
     {
         return groupRepositories;
@@ -307,6 +349,16 @@ public class Repository
         this.groupRepositories = groupRepositories;
     }
 
+    public GroupResolutionConfiguration getGroupResolutionConfiguration()
+    {
+        return groupResolutionConfiguration;
+    }
+
+    public void setGroupResolutionConfiguration(GroupResolutionConfiguration groupResolutionConfiguration)
+    {
+        this.groupResolutionConfiguration = groupResolutionConfiguration;
+    }
+
     public void addRepositoryToGroup(String repositoryId)
     {
         groupRepositories.add(repositoryId);
@@ -348,6 +400,11 @@ public class Repository
         return new File(getBasedir(), ".trash");
     }
 
+    public File getQuarantineDir()
+    {
+        return new File(getBasedir(), ".quarantine");
+    }
+
     public File getTempDir()
     {
         return new File(getBasedir(), ".temp");
@@ -0,0 +1,71 @@
+package org.carlspring.strongbox.storage.routing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * An immutable {@link RoutingRule} with its pattern compiled and its repositories parsed.
+ */
+public final class CompiledRoutingRule
+{
+
+    private final Pattern pattern;
+
+    /**
+     * The repositories exactly as they are listed in the rule.
+     */
+    private final Set<String> repositoryIds;
+
+    private final List<RepositoryReference> repositories;
+
+
+    CompiledRoutingRule(RoutingRule rule)
+    {
+        this.pattern = Pattern.compile(rule.getPattern());
+
+        Set<String> ids = new LinkedHashSet<>();
+        List<RepositoryReference> references = new ArrayList<>();
+        if (rule.getRepositories() != null)
+        {
+            for (String repositoryId : rule.getRepositories())
+            {
+                ids.add(repositoryId);
+                references.add(RepositoryReference.parse(repositoryId));
+            }
+        }
+
+        this.repositoryIds = Collections.unmodifiableSet(ids);
+        this.repositories = Collections.unmodifiableList(references);
+    }
+
+    public boolean matches(String artifactPath)
+    {
+        return pattern.matcher(artifactPath).matches();
+    }
+
+    public boolean appliesTo(String repositoryId)
+    {
+        return repositoryIds.contains(repositoryId);
+    }
+
+    public Pattern getPattern()
+    {
+        return pattern;
+    }
+
+    public List<RepositoryReference> getRepositories()
+    {
+        return repositories;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "CompiledRoutingRule{pattern='" + pattern + "', repositories=" + repositoryIds + '}';
+    }
+
+}
@@ -0,0 +1,168 @@
+package org.carlspring.strongbox.storage.routing;
+
+import org.carlspring.strongbox.configuration.Configuration;
+import org.carlspring.strongbox.storage.Storage;
+import org.carlspring.strongbox.storage.repository.Repository;
+import org.carlspring.strongbox.storage.repository.RepositoryTypeEnum;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.PatternSyntaxException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An immutable view of the {@link RoutingRules} and the group repository members of a {@link Configuration},
+ * in which the patterns have been compiled and the repository references have been parsed upfront,
+ * so that routing a request doesn't need to do either.
+ *
+ * Nothing is compared against the configuration, when routing a request; the {@link CompiledRoutingRulesCache} is
+ * invalidated, whenever the routing rules, or the group repositories are changed, instead.
+ */
+public final class CompiledRoutingRules
+{
+
+    private static final Logger logger = LoggerFactory.getLogger(CompiledRoutingRules.class);
+
+    /**
+     * K: groupRepositoryId
+     * V: The accept rules for this group repository.
+     */
+    private final Map<String, List<CompiledRoutingRule>> accepted;
+
+    /**
+     * K: groupRepositoryId
+     * V: The deny rules for this group repository.
+     */
+    private final Map<String, List<CompiledRoutingRule>> denied;
+
+    /**
+     * K: storageId:groupRepositoryId
+     * V: The members of this group repository.
+     */
+    private final Map<String, List<RepositoryReference>> groupMembers;
+
+
+    private CompiledRoutingRules(Map<String, List<CompiledRoutingRule>> accepted,
+                                 Map<String, List<CompiledRoutingRule>> denied,
+                                 Map<String, List<RepositoryReference>> groupMembers)
+    {
+        this.accepted = accepted;
+        this.denied = denied;
+        this.groupMembers = groupMembers;
+    }
+
+    public static CompiledRoutingRules compile(Configuration configuration)
+    {
+        RoutingRules routingRules = configuration.getRoutingRules();
+
+        Map<String, List<CompiledRoutingRule>> accepted = new HashMap<>();
+        Map<String, List<CompiledRoutingRule>> denied = new HashMap<>();
+        if (routingRules != null)
+        {
+            compile(routingRules.getAccepted(), accepted);
+            compile(routingRules.getDenied(), denied);
+        }
+
+        Map<String, List<RepositoryReference>> groupMembers = new HashMap<>();
+        if (configuration.getStorages() != null)
+        {
+            for (Storage storage : configuration.getStorages().values())
+            {
+                if (storage.getRepositories() == null)
+                {
+                    continue;
+                }
+
+                for (Repository repository : storage.getRepositories().values())
+                {
+                    if (RepositoryTypeEnum.GROUP.getType().equals(repository.getType()))
+                    {
+                        groupMembers.put(storage.getId() + ":" + repository.getId(), parseGroupMembers(repository));
+                    }
+                }
+            }
+        }
+
+        return new CompiledRoutingRules(accepted, denied, groupMembers);
+    }
+
+    private static void compile(Map<String, RuleSet> ruleSets,
+                                Map<String, List<CompiledRoutingRule>> compiledRuleSets)
+    {
+        if (ruleSets == null)
+        {
+            return;
+        }
+
+        for (Map.Entry<String, RuleSet> entry : ruleSets.entrySet())
+        {
+            RuleSet ruleSet = entry.getValue();
+            if (ruleSet == null || ruleSet.getRoutingRules() == null || ruleSet.getRoutingRules().isEmpty())
+            {
+                continue;
+            }
+
+            List<CompiledRoutingRule> compiledRules = new ArrayList<>(ruleSet.getRoutingRules().size());
+            for (RoutingRule rule : ruleSet.getRoutingRules())
+            {
+                try
+                {
+                    compiledRules.add(new CompiledRoutingRule(rule));
+                }
+                catch (PatternSyntaxException e)
+                {
+                    logger.error("Skipping routing rule with invalid pattern '" + rule.getPattern() +
+                                 "' for group repository '" + entry.getKey() + "'.", e);
+                }
+            }
+
+            compiledRuleSets.put(entry.getKey(), Collections.unmodifiableList(compiledRules));
+        }
+    }
+
+    private static List<RepositoryReference> parseGroupMembers(Repository groupRepository)
+    {
+        List<RepositoryReference> members = new ArrayList<>(groupRepository.getGroupRepositories().size());
+        for (String storageAndRepositoryId : groupRepository.getGroupRepositories())
+        {
+            members.add(RepositoryReference.parse(storageAndRepositoryId));
+        }
+
+        return Collections.unmodifiableList(members);
+    }
+
+    public List<CompiledRoutingRule> getAcceptRules(String groupRepositoryId)
+    {
+        return accepted.getOrDefault(groupRepositoryId, Collections.emptyList());
+    }
+
+    public List<CompiledRoutingRule> getWildcardAcceptRules()
+    {
+        return getAcceptRules(RoutingRules.WILDCARD);
+    }
+
+    public List<CompiledRoutingRule> getDenyRules(String groupRepositoryId)
+    {
+        return denied.getOrDefault(groupRepositoryId, Collections.emptyList());
+    }
+
+    public List<CompiledRoutingRule> getWildcardDenyRules()
+    {
+        return getDenyRules(RoutingRules.WILDCARD);
+    }
+
+    public List<RepositoryReference> getGroupMembers(Repository groupRepository)
+    {
+        List<RepositoryReference> members = groupMembers.get(groupRepository.getStorage().getId() + ":" +
+                                                             groupRepository.getId());
+
+        // The group may not have been stored yet, when the rules were compiled.
+        return members != null ? members : parseGroupMembers(groupRepository);
+    }
+
+}
@@ -0,0 +1,78 @@
+package org.carlspring.strongbox.storage.routing;
+
+import org.carlspring.strongbox.configuration.Configuration;
+import org.carlspring.strongbox.configuration.ConfigurationManager;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Holds the {@link CompiledRoutingRules} of the current configuration. They are compiled on first use and then again
+ * after the configuration has been replaced, or {@link #invalidate()} has been called, which is what every change of
+ * the routing rules, or the group repositories, has to do. A request only checks, whether the configuration is still
+ * the same instance.
+ */
+@Component
+public class CompiledRoutingRulesCache
+{
+
+    @Autowired
+    private ConfigurationManager configurationManager;
+
+    private volatile Entry entry;
+
+
+    public CompiledRoutingRules getCompiledRoutingRules()
+    {
+        Configuration configuration = configurationManager.getConfiguration();
+
+        Entry current = entry;
+        if (!isUpToDate(current, configuration))
+        {
+            current = compile(configuration);
+        }
+
+        return current.compiledRoutingRules;
+    }
+
+    private synchronized Entry compile(Configuration configuration)
+    {
+        Entry current = entry;
+        if (!isUpToDate(current, configuration))
+        {
+            current = new Entry(configuration, CompiledRoutingRules.compile(configuration));
+            entry = current;
+        }
+
+        return current;
+    }
+
+    private boolean isUpToDate(Entry current,
+                               Configuration configuration)
+    {
+        return current != null && current.configuration == configuration;
+    }
+
+    public synchronized void invalidate()
+    {
+        entry = null;
+    }
+
+    private static class Entry
+    {
+
+        private final Configuration configuration;
+
+        private final CompiledRoutingRules compiledRoutingRules;
+
+
+        Entry(Configuration configuration,
+              CompiledRoutingRules compiledRoutingRules)
+        {
+            this.configuration = configuration;
+            this.compiledRoutingRules = compiledRoutingRules;
+        }
+
+    }
+
+}
@@ -0,0 +1,52 @@
+package org.carlspring.strongbox.storage.routing;
+
+import org.carlspring.strongbox.storage.Storage;
+
+/**
+ * A pre-parsed "storageId:repositoryId", or plain "repositoryId" reference, as used in
+ * the routing rules and the members of group repositories.
+ */
+public final class RepositoryReference
+{
+
+    /**
+     * Null, if the reference is relative to the storage of the group repository.
+     */
+    private final String storageId;
+
+    private final String repositoryId;
+
+
+    private RepositoryReference(String storageId,
+                                String repositoryId)
+    {
+        this.storageId = storageId;
+        this.repositoryId = repositoryId;
+    }
+
+    public static RepositoryReference parse(String storageAndRepositoryId)
+    {
+        String[] storageAndRepositoryIdTokens = storageAndRepositoryId.split(":");
+
+        return storageAndRepositoryIdTokens.length == 2 ?
+               new RepositoryReference(storageAndRepositoryIdTokens[0], storageAndRepositoryIdTokens[1]) :
+               new RepositoryReference(null, storageAndRepositoryIdTokens[0]);
+    }
+
+    public String getStorageId(Storage storage)
+    {
+        return storageId != null ? storageId : storage.getId();
+    }
+
+    public String getRepositoryId()
+    {
+        return repositoryId;
+    }
+
+    @Override
+    public String toString()
+    {
+        return storageId != null ? storageId + ":" + repositoryId : repositoryId;
+    }
+
+}
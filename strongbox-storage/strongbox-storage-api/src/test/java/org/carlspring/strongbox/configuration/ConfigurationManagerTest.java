@@ -75,6 +75,9 @@ public class ConfigurationManagerTest
     @Autowired
     private ArtifactResolutionService artifactResolutionService;
 
+    @Autowired
+    private ConfigurationRepository configurationRepository;
+
 
     @Before
     public void setUp()
@@ -224,4 +227,36 @@ public class ConfigurationManagerTest
         // Not optimal, but that's as good as it gets right now.
     }
 
+    @Test
+    public void testReadersShareTheLiveConfigurationUntilItIsReplaced()
+    {
+        // The readers share the live configuration, rather than deserializing one of their own.
+        Configuration configuration = configurationRepository.getConfiguration();
+
+        assertSame(configuration, configurationRepository.getConfiguration());
+        assertSame(configuration, configurationManager.getConfiguration());
+
+        // Changes are made to a copy, which doesn't affect the readers, until it's stored.
+        Configuration copy = configurationRepository.copyConfiguration();
+
+        assertNotSame(configuration, copy);
+
+        copy.setBaseUrl(configuration.getBaseUrl() + "/copy");
+
+        assertSame(configuration, configurationManager.getConfiguration());
+        assertNotEquals(copy.getBaseUrl(), configurationManager.getConfiguration().getBaseUrl());
+
+        try
+        {
+            configurationRepository.updateConfiguration(copy);
+
+            assertSame(copy, configurationRepository.getConfiguration());
+            assertSame(copy, configurationManager.getConfiguration());
+        }
+        finally
+        {
+            configurationRepository.updateConfiguration(configuration);
+        }
+    }
+
 }
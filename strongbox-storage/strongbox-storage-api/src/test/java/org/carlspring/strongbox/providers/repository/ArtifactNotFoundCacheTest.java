@@ -0,0 +1,147 @@
+package org.carlspring.strongbox.providers.repository;
+
+import org.carlspring.strongbox.storage.Storage;
+import org.carlspring.strongbox.storage.repository.NotFoundCacheConfiguration;
+import org.carlspring.strongbox.storage.repository.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ArtifactNotFoundCacheTest
+{
+
+    private static final String PATH = "org/carlspring/strongbox/missing/missing-foo/1.0/missing-foo-1.0.jar";
+
+    private ArtifactNotFoundCache artifactNotFoundCache = new ArtifactNotFoundCache();
+
+    private Repository repository;
+
+
+    @Before
+    public void setUp()
+    {
+        repository = new Repository("proxy");
+        repository.setStorage(new Storage("storage-not-found"));
+        repository.setNotFoundCacheConfiguration(createConfiguration(100, 300));
+    }
+
+    @Test
+    public void testMissingPathIsCached()
+    {
+        assertFalse(artifactNotFoundCache.isNotFound(repository, PATH));
+
+        artifactNotFoundCache.markNotFound(repository, PATH);
+
+        assertTrue(artifactNotFoundCache.isNotFound(repository, PATH));
+        assertFalse(artifactNotFoundCache.isNotFound(repository, PATH + ".sha1"));
+    }
+
+    @Test
+    public void testMissingPathExpires()
+            throws InterruptedException
+    {
+        repository.setNotFoundCacheConfiguration(createConfiguration(100, 1));
+
+        artifactNotFoundCache.markNotFound(repository, PATH);
+
+        assertTrue(artifactNotFoundCache.isNotFound(repository, PATH));
+
+        Thread.sleep(1500);
+
+        assertFalse("Failed to expire the missing path!", artifactNotFoundCache.isNotFound(repository, PATH));
+    }
+
+    @Test
+    public void testDeployedPathIsInvalidated()
+    {
+        artifactNotFoundCache.markNotFound(repository, PATH);
+
+        // This is what the deployment of the path does.
+        artifactNotFoundCache.invalidate(PATH);
+
+        assertFalse(artifactNotFoundCache.isNotFound(repository, PATH));
+    }
+
+    @Test
+    public void testChangedSettingsStartAfresh()
+    {
+        artifactNotFoundCache.markNotFound(repository, PATH);
+
+        repository.setNotFoundCacheConfiguration(createConfiguration(200, 300));
+
+        assertFalse(artifactNotFoundCache.isNotFound(repository, PATH));
+    }
+
+    @Test
+    public void testDisabledCache()
+    {
+        repository.getNotFoundCacheConfiguration().setEnabled(false);
+
+        artifactNotFoundCache.markNotFound(repository, PATH);
+
+        assertFalse(artifactNotFoundCache.isNotFound(repository, PATH));
+    }
+
+    @Test
+    public void testConcurrentMarksAreNotLost()
+            throws Exception
+    {
+        int threads = 16;
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try
+        {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++)
+            {
+                String path = PATH + "." + i;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    artifactNotFoundCache.markNotFound(repository, path);
+
+                    return null;
+                }));
+            }
+
+            // The first lookups of all the threads race to create the cache of the repository.
+            start.countDown();
+
+            for (Future<?> result : results)
+            {
+                result.get(10, TimeUnit.SECONDS);
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+
+        for (int i = 0; i < threads; i++)
+        {
+            assertTrue("Lost the missing path " + PATH + "." + i + "!",
+                       artifactNotFoundCache.isNotFound(repository, PATH + "." + i));
+        }
+    }
+
+    private NotFoundCacheConfiguration createConfiguration(long maxSize,
+                                                           long timeToLiveSeconds)
+    {
+        NotFoundCacheConfiguration configuration = new NotFoundCacheConfiguration();
+        configuration.setMaxSize(maxSize);
+        configuration.setTimeToLiveSeconds(timeToLiveSeconds);
+
+        return configuration;
+    }
+
+}
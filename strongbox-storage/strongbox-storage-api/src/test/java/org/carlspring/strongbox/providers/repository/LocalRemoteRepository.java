@@ -0,0 +1,162 @@
+package org.carlspring.strongbox.providers.repository;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A remote repository served from memory on the loopback interface, so that the proxy tests don't depend on the
+ * network.
+ *
+ * Paths which haven't been added are answered with a 404. A conditional request, whose If-None-Match matches the
+ * ETag header of the resource, is answered with a 304.
+ */
+public class LocalRemoteRepository
+        implements Closeable
+{
+
+    private final HttpServer server;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    /**
+     * K: the path of the resource, relative to the root of the repository
+     * V: the handler serving it
+     */
+    private final ConcurrentMap<String, HttpHandler> handlers = new ConcurrentHashMap<>();
+
+    /**
+     * K: the path of the resource, relative to the root of the repository
+     * V: the number of requests for it
+     */
+    private final ConcurrentMap<String, AtomicInteger> requestCounts = new ConcurrentHashMap<>();
+
+    private volatile long responseDelayMillis;
+
+
+    public LocalRemoteRepository()
+            throws IOException
+    {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public String getUrl()
+    {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/";
+    }
+
+    public void addResource(String path,
+                            byte[] content)
+    {
+        addResource(path, content, Collections.emptyMap());
+    }
+
+    public void addResource(String path,
+                            byte[] content,
+                            Map<String, String> headers)
+    {
+        Map<String, String> responseHeaders = new LinkedHashMap<>(headers);
+
+        addHandler(path, exchange -> {
+            String eTag = responseHeaders.get("ETag");
+            if (eTag != null && eTag.equals(exchange.getRequestHeaders().getFirst("If-None-Match")))
+            {
+                responseHeaders.forEach(exchange.getResponseHeaders()::set);
+                exchange.sendResponseHeaders(304, -1);
+
+                return;
+            }
+
+            responseHeaders.forEach(exchange.getResponseHeaders()::set);
+            exchange.sendResponseHeaders(200, content.length);
+
+            try (OutputStream os = exchange.getResponseBody())
+            {
+                os.write(content);
+            }
+        });
+    }
+
+    /**
+     * Serves the path with a handler of its own, for the responses, which {@link #addResource} can't produce.
+     */
+    public void addHandler(String path,
+                           HttpHandler handler)
+    {
+        handlers.put(path, handler);
+    }
+
+    public int getRequestCount(String path)
+    {
+        AtomicInteger count = requestCounts.get(path);
+
+        return count != null ? count.get() : 0;
+    }
+
+    /**
+     * Delays every response, so that the concurrent requests for a path overlap.
+     */
+    public void setResponseDelayMillis(long responseDelayMillis)
+    {
+        this.responseDelayMillis = responseDelayMillis;
+    }
+
+    private void handle(HttpExchange exchange)
+            throws IOException
+    {
+        try
+        {
+            String path = exchange.getRequestURI().getPath().replaceFirst("^/+", "");
+
+            requestCounts.computeIfAbsent(path, p -> new AtomicInteger()).incrementAndGet();
+
+            if (responseDelayMillis > 0)
+            {
+                Thread.sleep(responseDelayMillis);
+            }
+
+            HttpHandler handler = handlers.get(path);
+            if (handler == null)
+            {
+                exchange.sendResponseHeaders(404, -1);
+
+                return;
+            }
+
+            handler.handle(exchange);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        finally
+        {
+            exchange.close();
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+}
@@ -1,21 +1,53 @@
 package org.carlspring.strongbox.providers.repository;
 
 import org.carlspring.strongbox.client.ArtifactTransportException;
+import org.carlspring.strongbox.configuration.ConfigurationManager;
 import org.carlspring.strongbox.providers.ProviderImplementationException;
+import org.carlspring.strongbox.providers.layout.LayoutProvider;
+import org.carlspring.strongbox.providers.layout.LayoutProviderRegistry;
 import org.carlspring.strongbox.services.ArtifactResolutionService;
+import org.carlspring.strongbox.storage.Storage;
+import org.carlspring.strongbox.storage.repository.RemoteRepository;
+import org.carlspring.strongbox.storage.repository.Repository;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import com.google.common.io.ByteStreams;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * @author carlspring
@@ -32,9 +64,44 @@ public class ProxyRepositoryProviderTest
 
     }
 
+    private static final String STORAGE_ID = "storage-common-proxies";
+
+    private static final String REPOSITORY_ID = "local-remote";
+
     @Autowired
     private ArtifactResolutionService artifactResolutionService;
 
+    @Autowired
+    private ConfigurationManager configurationManager;
+
+    @Autowired
+    private LayoutProviderRegistry layoutProviderRegistry;
+
+    @Autowired
+    private RemoteArtifactPrefetcher remoteArtifactPrefetcher;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private LocalRemoteRepository localRemoteRepository;
+
+
+    @Before
+    public void setUp()
+            throws IOException
+    {
+        localRemoteRepository = new LocalRemoteRepository();
+
+        createProxyRepository(localRemoteRepository.getUrl());
+    }
+
+    @After
+    public void tearDown()
+    {
+        configurationManager.getConfiguration().getStorage(STORAGE_ID).removeRepository(REPOSITORY_ID);
+
+        localRemoteRepository.close();
+    }
 
     @Test
     public void testMavenCentral()
@@ -68,4 +135,334 @@ public class ProxyRepositoryProviderTest
         System.out.println(ByteStreams.toByteArray(is));
     }
 
+    @Test
+    public void testConcurrentRequestsForTheSamePath()
+            throws Exception
+    {
+        final String path = "org/carlspring/strongbox/proxy/proxy-foo/1.0/proxy-foo-1.0.pom";
+        final byte[] content = "<project/>".getBytes(StandardCharsets.UTF_8);
+
+        localRemoteRepository.addResource(path, content);
+        // Makes sure that the requests overlap with the download.
+        localRemoteRepository.setResponseDelayMillis(500);
+
+        Callable<byte[]> resolve = () -> {
+            try (InputStream is = artifactResolutionService.getInputStream(STORAGE_ID, REPOSITORY_ID, path))
+            {
+                assertNotNull("Failed to resolve " + path + "!", is);
+
+                return ByteStreams.toByteArray(is);
+            }
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try
+        {
+            List<Future<byte[]>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++)
+            {
+                results.add(executor.submit(resolve));
+            }
+
+            for (Future<byte[]> result : results)
+            {
+                assertArrayEquals("Concurrent requests resolved different contents!",
+                                  content,
+                                  result.get(30, TimeUnit.SECONDS));
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+
+        assertEquals("The path was downloaded more than once!", 1, localRemoteRepository.getRequestCount(path));
+    }
+
+    @Test
+    public void testSecondReaderWaitsForTheDownloadInProgress()
+            throws Exception
+    {
+        final String path = "org/carlspring/strongbox/proxy/proxy-tee/1.0/proxy-tee-1.0.jar";
+        final byte[] content = createContent(1024 * 1024);
+
+        localRemoteRepository.addResource(path, content);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (InputStream is = artifactResolutionService.getInputStream(STORAGE_ID, REPOSITORY_ID, path))
+        {
+            assertNotNull("Failed to resolve " + path + "!", is);
+
+            byte[] firstHalf = new byte[content.length / 2];
+            ByteStreams.readFully(is, firstHalf);
+
+            Future<byte[]> secondReader = executor.submit(() -> {
+                try (InputStream cachedIs = artifactResolutionService.getInputStream(STORAGE_ID, REPOSITORY_ID, path))
+                {
+                    assertNotNull("Failed to resolve " + path + " for the second reader!", cachedIs);
+
+                    return ByteStreams.toByteArray(cachedIs);
+                }
+            });
+
+            try
+            {
+                secondReader.get(500, TimeUnit.MILLISECONDS);
+
+                fail("The second reader didn't wait for the download in progress!");
+            }
+            catch (TimeoutException e)
+            {
+                // This is the expected correct behavior
+            }
+
+            byte[] secondHalf = ByteStreams.toByteArray(is);
+
+            assertArrayEquals(content, concat(firstHalf, secondHalf));
+            assertArrayEquals("The second reader was served different contents!",
+                              content,
+                              secondReader.get(30, TimeUnit.SECONDS));
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+
+        assertEquals("The path was downloaded more than once!", 1, localRemoteRepository.getRequestCount(path));
+        assertArrayEquals(content, Files.readAllBytes(getCachedPath(path)));
+        assertFalse(Files.exists(getTempPath(path)));
+    }
+
+    @Test
+    public void testFailedRemoteTransferIsNotCached()
+            throws Exception
+    {
+        final String path = "org/carlspring/strongbox/proxy/proxy-broken/1.0/proxy-broken-1.0.jar";
+        final byte[] content = createContent(1024 * 1024);
+
+        // The remote announces the whole artifact, but the connection breaks after half of it.
+        localRemoteRepository.addHandler(path, exchange -> {
+            exchange.sendResponseHeaders(200, content.length);
+
+            OutputStream os = exchange.getResponseBody();
+            os.write(content, 0, content.length / 2);
+            os.flush();
+        });
+
+        try (InputStream is = artifactResolutionService.getInputStream(STORAGE_ID, REPOSITORY_ID, path))
+        {
+            assertNotNull("Failed to resolve " + path + "!", is);
+
+            ByteStreams.exhaust(is);
+
+            fail("The incomplete artifact was read without an error!");
+        }
+        catch (IOException e)
+        {
+            // This is the expected correct behavior
+        }
+
+        assertFalse("Cached an incomplete artifact!", Files.exists(getCachedPath(path)));
+        assertFalse("Left the incomplete artifact behind!", Files.exists(getTempPath(path)));
+
+        // The next request downloads it again.
+        localRemoteRepository.addResource(path, content);
+
+        try (InputStream is = artifactResolutionService.getInputStream(STORAGE_ID, REPOSITORY_ID, path))
+        {
+            assertArrayEquals(content, ByteStreams.toByteArray(is));
+        }
+
+        assertEquals(2, localRemoteRepository.getRequestCount(path));
+        assertArrayEquals(content, Files.readAllBytes(getCachedPath(path)));
+    }
+
+    @Test
+    public void testDisconnectedReaderDoesNotCacheTheArtifact()
+            throws Exception
+    {
+        final String path = "org/carlspring/strongbox/proxy/proxy-disconnect/1.0/proxy-disconnect-1.0.jar";
+        final byte[] content = createContent(1024 * 1024);
+
+        localRemoteRepository.addResource(path, content);
+
+        // The client goes away, before it has read the whole artifact.
+        try (InputStream is = artifactResolutionService.getInputStream(STORAGE_ID, REPOSITORY_ID, path))
+        {
+            assertNotNull("Failed to resolve " + path + "!", is);
+
+            ByteStreams.readFully(is, new byte[1024]);
+        }
+
+        assertFalse("Cached a partially read artifact!", Files.exists(getCachedPath(path)));
+        assertFalse("Left the partially read artifact behind!", Files.exists(getTempPath(path)));
+
+        // The download was abandoned, so the next request starts it again.
+        try (InputStream is = artifactResolutionService.getInputStream(STORAGE_ID, REPOSITORY_ID, path))
+        {
+            assertArrayEquals(content, ByteStreams.toByteArray(is));
+        }
+
+        assertEquals(2, localRemoteRepository.getRequestCount(path));
+        assertArrayEquals(content, Files.readAllBytes(getCachedPath(path)));
+    }
+
+    @Test
+    public void testMismatchingChecksumIsQuarantined()
+            throws Exception
+    {
+        final String path = "org/carlspring/strongbox/proxy/proxy-tampered/1.0/proxy-tampered-1.0.jar";
+        final byte[] content = createContent(64 * 1024);
+
+        localRemoteRepository.addResource(path, content);
+        localRemoteRepository.addResource(path + ".sha1",
+                                          "0123456789abcdef0123456789abcdef01234567".getBytes(StandardCharsets.UTF_8));
+
+        configurationManager.getRepository(STORAGE_ID + ":" + REPOSITORY_ID)
+                            .getRemoteRepository()
+                            .setChecksumValidation(true);
+
+        // No checksum policy is configured, so the read fails.
+        try (InputStream is = artifactResolutionService.getInputStream(STORAGE_ID, REPOSITORY_ID, path))
+        {
+            assertNotNull("Failed to resolve " + path + "!", is);
+
+            ByteStreams.exhaust(is);
+
+            fail("Served an artifact, whose checksum does not match the remote's!");
+        }
+        catch (IOException e)
+        {
+            // This is the expected correct behavior
+        }
+
+        assertFalse("Cached an artifact, whose checksum does not match the remote's!",
+                    Files.exists(getCachedPath(path)));
+        assertFalse("Left the artifact behind!", Files.exists(getTempPath(path)));
+        assertTrue("Failed to quarantine the artifact!", Files.exists(getQuarantinePath(path)));
+
+        LayoutProvider layoutProvider = layoutProviderRegistry.getProvider("Maven 2");
+        layoutProvider.deleteTrash(STORAGE_ID, REPOSITORY_ID);
+
+        assertFalse("Failed to empty the quarantine!", Files.exists(getQuarantinePath(path)));
+    }
+
+    @Test
+    public void testValidatedChecksumsAreOnlyFetchedOnce()
+            throws Exception
+    {
+        final String directory = "org/carlspring/strongbox/proxy/proxy-prefetch/1.0/";
+        final String jarPath = directory + "proxy-prefetch-1.0.jar";
+        final String pomPath = directory + "proxy-prefetch-1.0.pom";
+        final byte[] jar = createContent(1024);
+        final byte[] pom = "<project/>".getBytes(StandardCharsets.UTF_8);
+
+        localRemoteRepository.addResource(jarPath, jar);
+        localRemoteRepository.addResource(jarPath + ".sha1", DigestUtils.sha1Hex(jar).getBytes(StandardCharsets.UTF_8));
+        localRemoteRepository.addResource(pomPath, pom);
+        localRemoteRepository.addResource(pomPath + ".sha1", DigestUtils.sha1Hex(pom).getBytes(StandardCharsets.UTF_8));
+
+        configurationManager.getRepository(STORAGE_ID + ":" + REPOSITORY_ID)
+                            .getRemoteRepository()
+                            .setChecksumValidation(true);
+
+        ReflectionTestUtils.setField(remoteArtifactPrefetcher, "enabled", true);
+        try
+        {
+            try (InputStream is = artifactResolutionService.getInputStream(STORAGE_ID, REPOSITORY_ID, jarPath))
+            {
+                assertArrayEquals(jar, ByteStreams.toByteArray(is));
+            }
+
+            // The POM is prefetched in the background, its checksum is cached before it.
+            long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(30);
+            while (!Files.exists(getCachedPath(pomPath)))
+            {
+                assertTrue("Timed out waiting for the POM to be prefetched!", System.currentTimeMillis() < deadline);
+
+                Thread.sleep(50);
+            }
+        }
+        finally
+        {
+            ReflectionTestUtils.setField(remoteArtifactPrefetcher, "enabled", false);
+        }
+
+        // What the build asks for next is served from the cache.
+        for (String path : Arrays.asList(jarPath + ".sha1", pomPath, pomPath + ".sha1"))
+        {
+            try (InputStream is = artifactResolutionService.getInputStream(STORAGE_ID, REPOSITORY_ID, path))
+            {
+                assertNotNull("Failed to resolve " + path + "!", is);
+
+                ByteStreams.exhaust(is);
+            }
+        }
+
+        for (String path : Arrays.asList(jarPath, jarPath + ".sha1", pomPath, pomPath + ".sha1"))
+        {
+            assertEquals(path + " was fetched more than once!", 1, localRemoteRepository.getRequestCount(path));
+        }
+        assertEquals(DigestUtils.sha1Hex(jar),
+                     new String(Files.readAllBytes(getCachedPath(jarPath + ".sha1")), StandardCharsets.UTF_8));
+    }
+
+    private Path getCachedPath(String path)
+    {
+        return Paths.get(configurationManager.getRepository(STORAGE_ID + ":" + REPOSITORY_ID).getBasedir())
+                    .resolve(path);
+    }
+
+    private Path getTempPath(String path)
+    {
+        return Paths.get(configurationManager.getRepository(STORAGE_ID + ":" + REPOSITORY_ID).getBasedir())
+                    .resolve(".temp")
+                    .resolve(path);
+    }
+
+    private Path getQuarantinePath(String path)
+    {
+        return Paths.get(configurationManager.getRepository(STORAGE_ID + ":" + REPOSITORY_ID).getBasedir())
+                    .resolve(".quarantine")
+                    .resolve(path);
+    }
+
+    private static byte[] createContent(int length)
+    {
+        byte[] content = new byte[length];
+        new Random(length).nextBytes(content);
+
+        return content;
+    }
+
+    private static byte[] concat(byte[] first,
+                                 byte[] second)
+    {
+        byte[] result = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+
+        return result;
+    }
+
+    private Repository createProxyRepository(String url)
+            throws IOException
+    {
+        Storage storage = configurationManager.getConfiguration().getStorage(STORAGE_ID);
+
+        RemoteRepository remoteRepository = new RemoteRepository();
+        remoteRepository.setUrl(url);
+
+        Repository repository = new Repository(REPOSITORY_ID);
+        repository.setStorage(storage);
+        repository.setBasedir(temporaryFolder.newFolder(REPOSITORY_ID).getAbsolutePath());
+        repository.setImplementation("file-system");
+        repository.setLayout("Maven 2");
+        repository.setType("proxy");
+        repository.setRemoteRepository(remoteRepository);
+
+        storage.addOrUpdateRepository(repository);
+
+        return repository;
+    }
+
 }
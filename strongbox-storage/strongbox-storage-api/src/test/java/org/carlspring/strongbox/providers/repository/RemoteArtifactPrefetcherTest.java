@@ -0,0 +1,50 @@
+package org.carlspring.strongbox.providers.repository;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RemoteArtifactPrefetcherTest
+{
+
+    @Test
+    public void testCompanionsOfJar()
+    {
+        assertEquals(Arrays.asList("derby-maven-plugin-1.9.jar.sha1",
+                                   "derby-maven-plugin-1.9.pom",
+                                   "derby-maven-plugin-1.9.pom.sha1"),
+                     RemoteArtifactPrefetcher.getCompanions("org/carlspring/maven/derby-maven-plugin/1.9/" +
+                                                            "derby-maven-plugin-1.9.jar", false));
+    }
+
+    @Test
+    public void testCompanionsOfClassifiedJar()
+    {
+        assertEquals(Arrays.asList("derby-maven-plugin-1.9-sources.jar.sha1",
+                                   "derby-maven-plugin-1.9.pom",
+                                   "derby-maven-plugin-1.9.pom.sha1"),
+                     RemoteArtifactPrefetcher.getCompanions("org/carlspring/maven/derby-maven-plugin/1.9/" +
+                                                            "derby-maven-plugin-1.9-sources.jar", false));
+    }
+
+    @Test
+    public void testChecksumsAreNotPrefetchedWhenTheyAreValidated()
+    {
+        // They're fetched along with the jar and the POM, in order to verify them.
+        assertEquals(Arrays.asList("derby-maven-plugin-1.9.pom"),
+                     RemoteArtifactPrefetcher.getCompanions("org/carlspring/maven/derby-maven-plugin/1.9/" +
+                                                            "derby-maven-plugin-1.9.jar", true));
+    }
+
+    @Test
+    public void testNoCompanionsOfOtherFiles()
+    {
+        assertTrue(RemoteArtifactPrefetcher.getCompanions("org/carlspring/maven/derby-maven-plugin/1.9/" +
+                                                          "derby-maven-plugin-1.9.pom", false).isEmpty());
+        assertTrue(RemoteArtifactPrefetcher.getCompanions("org/carlspring/maven/derby-maven-plugin/1.9/" +
+                                                          "derby-maven-plugin-1.9.jar.sha1", false).isEmpty());
+    }
+
+}
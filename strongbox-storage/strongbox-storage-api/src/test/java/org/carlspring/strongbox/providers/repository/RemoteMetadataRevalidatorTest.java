@@ -0,0 +1,315 @@
+package org.carlspring.strongbox.providers.repository;
+
+import org.carlspring.strongbox.config.CommonConfig;
+import org.carlspring.strongbox.config.StorageApiConfig;
+import org.carlspring.strongbox.configuration.ConfigurationManager;
+import org.carlspring.strongbox.storage.Storage;
+import org.carlspring.strongbox.storage.repository.RemoteRepository;
+import org.carlspring.strongbox.storage.repository.Repository;
+import org.carlspring.strongbox.storage.repository.RepositoryTypeEnum;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import com.google.common.io.ByteStreams;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Revalidates the metadata cached by a proxy of a remote, which answers conditional requests with a 304, as long as
+ * the ETag of the metadata is still current.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration
+public class RemoteMetadataRevalidatorTest
+{
+
+    @org.springframework.context.annotation.Configuration
+    @Import({
+            StorageApiConfig.class,
+            CommonConfig.class
+    })
+    public static class SpringConfig { }
+
+    private static final String STORAGE_ID = "storage-revalidation";
+
+    private static final String REPOSITORY_ID = "proxy-revalidation";
+
+    private static final String PATH = "org/carlspring/strongbox/revalidation/revalidation-foo/maven-metadata.xml";
+
+    private static final String LAST_MODIFIED = "Wed, 21 Oct 2015 07:28:00 GMT";
+
+    private static final long TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(10);
+
+    @Autowired
+    private ConfigurationManager configurationManager;
+
+    @Autowired
+    private RepositoryProviderRegistry repositoryProviderRegistry;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private LocalRemoteRepository localRemoteRepository;
+
+    private Storage storage;
+
+    private Repository repository;
+
+    /**
+     * The conditional headers of the last request for the metadata.
+     */
+    private final Map<String, String> requestHeaders = new ConcurrentHashMap<>();
+
+    private volatile String currentETag = "\"v1\"";
+
+    private volatile byte[] currentContent = "<metadata>v1</metadata>".getBytes(StandardCharsets.UTF_8);
+
+
+    @Before
+    public void setUp()
+            throws IOException
+    {
+        localRemoteRepository = new LocalRemoteRepository();
+        localRemoteRepository.addHandler(PATH, exchange -> {
+            requestHeaders.clear();
+            for (String header : new String[]{ "If-None-Match", "If-Modified-Since" })
+            {
+                String value = exchange.getRequestHeaders().getFirst(header);
+                if (value != null)
+                {
+                    requestHeaders.put(header, value);
+                }
+            }
+
+            exchange.getResponseHeaders().set("ETag", currentETag);
+            exchange.getResponseHeaders().set("Last-Modified", LAST_MODIFIED);
+
+            if (currentETag.equals(exchange.getRequestHeaders().getFirst("If-None-Match")))
+            {
+                exchange.sendResponseHeaders(304, -1);
+
+                return;
+            }
+
+            byte[] content = currentContent;
+            exchange.sendResponseHeaders(200, content.length);
+            try (OutputStream os = exchange.getResponseBody())
+            {
+                os.write(content);
+            }
+        });
+
+        storage = new Storage(STORAGE_ID, temporaryFolder.newFolder(STORAGE_ID).getAbsolutePath());
+
+        RemoteRepository remoteRepository = new RemoteRepository();
+        remoteRepository.setUrl(localRemoteRepository.getUrl());
+        remoteRepository.setMetadataMaxAgeSeconds(60);
+
+        repository = new Repository(REPOSITORY_ID);
+        repository.setStorage(storage);
+        repository.setImplementation("file-system");
+        repository.setLayout("Maven 2");
+        repository.setType(RepositoryTypeEnum.PROXY.getType());
+        repository.setRemoteRepository(remoteRepository);
+        Files.createDirectories(Paths.get(repository.getBasedir()));
+
+        storage.addOrUpdateRepository(repository);
+
+        configurationManager.getConfiguration().addStorage(storage);
+    }
+
+    @After
+    public void tearDown()
+    {
+        configurationManager.getConfiguration().removeStorage(storage);
+
+        localRemoteRepository.close();
+    }
+
+    @Test
+    public void testValidatorsAreStoredNextToTheMetadata()
+            throws Exception
+    {
+        assertEquals("<metadata>v1</metadata>", resolve());
+
+        Properties validators = loadValidators();
+
+        assertEquals("\"v1\"", validators.getProperty("ETag"));
+        assertEquals(LAST_MODIFIED, validators.getProperty("Last-Modified"));
+    }
+
+    @Test
+    public void testUnchangedMetadataIsRevalidatedWithTheRemoteValidators()
+            throws Exception
+    {
+        resolve();
+        expire();
+
+        // The stale copy is served, while it's being revalidated.
+        assertEquals("<metadata>v1</metadata>", resolve());
+
+        waitFor(() -> localRemoteRepository.getRequestCount(PATH) == 2 && isFresh());
+
+        assertEquals("\"v1\"", requestHeaders.get("If-None-Match"));
+        assertEquals("Sent the local modification time, instead of the remote's!",
+                     LAST_MODIFIED,
+                     requestHeaders.get("If-Modified-Since"));
+        assertEquals("<metadata>v1</metadata>", new String(Files.readAllBytes(getMetadataPath()),
+                                                           StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testChangedMetadataIsReplaced()
+            throws Exception
+    {
+        resolve();
+        expire();
+
+        // The checksum of the previous metadata, as it was cached.
+        Path sha1Path = getMetadataPath().resolveSibling("maven-metadata.xml.sha1");
+        Files.write(sha1Path, DigestUtils.sha1Hex("<metadata>v1</metadata>").getBytes(StandardCharsets.UTF_8));
+
+        currentETag = "\"v2\"";
+        currentContent = "<metadata>v2</metadata>".getBytes(StandardCharsets.UTF_8);
+
+        resolve();
+
+        waitFor(() -> "\"v2\"".equals(loadValidatorsQuietly().getProperty("ETag")));
+
+        assertEquals("<metadata>v2</metadata>", new String(Files.readAllBytes(getMetadataPath()),
+                                                           StandardCharsets.UTF_8));
+        assertEquals("The checksum of the previous metadata was kept!",
+                     DigestUtils.sha1Hex("<metadata>v2</metadata>"),
+                     new String(Files.readAllBytes(sha1Path), StandardCharsets.UTF_8));
+        assertEquals("<metadata>v2</metadata>", resolve());
+    }
+
+    @Test
+    public void testStoredValidatorsSurviveRestarts()
+            throws Exception
+    {
+        // The metadata was cached before the restart, so nothing about it is held in memory.
+        Path metadataPath = getMetadataPath();
+        Files.createDirectories(metadataPath.getParent());
+        Files.write(metadataPath, "<metadata>v1</metadata>".getBytes(StandardCharsets.UTF_8));
+
+        Properties validators = new Properties();
+        validators.setProperty("ETag", "\"v1\"");
+        validators.setProperty("Last-Modified", LAST_MODIFIED);
+        try (OutputStream os = Files.newOutputStream(getValidatorsPath()))
+        {
+            validators.store(os, null);
+        }
+
+        expire();
+        resolve();
+
+        waitFor(() -> localRemoteRepository.getRequestCount(PATH) == 1 && isFresh());
+
+        assertEquals("\"v1\"", requestHeaders.get("If-None-Match"));
+        assertEquals(LAST_MODIFIED, requestHeaders.get("If-Modified-Since"));
+    }
+
+    private String resolve()
+            throws Exception
+    {
+        RepositoryProvider repositoryProvider = repositoryProviderRegistry.getProvider(repository.getType());
+
+        try (InputStream is = repositoryProvider.getInputStream(STORAGE_ID, REPOSITORY_ID, PATH))
+        {
+            return new String(ByteStreams.toByteArray(is), StandardCharsets.UTF_8);
+        }
+    }
+
+    private void expire()
+            throws IOException
+    {
+        Files.setLastModifiedTime(getMetadataPath(),
+                                  FileTime.fromMillis(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(1)));
+    }
+
+    private boolean isFresh()
+    {
+        try
+        {
+            return System.currentTimeMillis() - Files.getLastModifiedTime(getMetadataPath()).toMillis() <
+                   TimeUnit.MINUTES.toMillis(1);
+        }
+        catch (IOException e)
+        {
+            return false;
+        }
+    }
+
+    private void waitFor(BooleanSupplier condition)
+            throws InterruptedException
+    {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean())
+        {
+            assertTrue("Timed out waiting for the revalidation!", System.currentTimeMillis() < deadline);
+
+            Thread.sleep(50);
+        }
+    }
+
+    private Properties loadValidators()
+            throws IOException
+    {
+        Properties validators = new Properties();
+        try (InputStream is = Files.newInputStream(getValidatorsPath()))
+        {
+            validators.load(is);
+        }
+
+        return validators;
+    }
+
+    private Properties loadValidatorsQuietly()
+    {
+        try
+        {
+            return loadValidators();
+        }
+        catch (IOException e)
+        {
+            return new Properties();
+        }
+    }
+
+    private Path getMetadataPath()
+    {
+        return Paths.get(repository.getBasedir()).resolve(PATH);
+    }
+
+    private Path getValidatorsPath()
+    {
+        // Hidden, so that it isn't served.
+        return getMetadataPath().resolveSibling("." + getMetadataPath().getFileName() +
+                                                RemoteMetadataRevalidator.VALIDATORS_EXTENSION);
+    }
+
+}
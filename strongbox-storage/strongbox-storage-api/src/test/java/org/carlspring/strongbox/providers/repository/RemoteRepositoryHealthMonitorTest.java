@@ -0,0 +1,92 @@
+package org.carlspring.strongbox.providers.repository;
+
+import org.carlspring.strongbox.providers.repository.RemoteRepositoryHealthMonitor.RemoteRepositoryHealth;
+import org.carlspring.strongbox.storage.repository.RemoteRepository;
+import org.carlspring.strongbox.storage.repository.Repository;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.google.common.io.ByteStreams;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class RemoteRepositoryHealthMonitorTest
+{
+
+    private static final String STORAGE_ID = "storage0";
+
+    private RemoteRepositoryHealthMonitor monitor = new RemoteRepositoryHealthMonitor();
+
+    private Repository repository;
+
+
+    @Before
+    public void setUp()
+    {
+        ReflectionTestUtils.setField(monitor, "failureThreshold", 5);
+        ReflectionTestUtils.setField(monitor, "openSeconds", 30);
+
+        RemoteRepository remoteRepository = new RemoteRepository();
+        remoteRepository.setUrl("http://localhost:48080/");
+
+        repository = new Repository("proxy");
+        repository.setRemoteRepository(remoteRepository);
+    }
+
+    @Test
+    public void testBrokenOffBodiesCountAsFailures()
+            throws IOException
+    {
+        InputStream brokenIs = new InputStream()
+        {
+
+            @Override
+            public int read()
+                    throws IOException
+            {
+                throw new IOException("Connection reset");
+            }
+
+        };
+
+        try (InputStream is = monitor.monitorStream(STORAGE_ID, repository, brokenIs, 10))
+        {
+            ByteStreams.exhaust(is);
+
+            fail("The failure should have been passed on to the reader!");
+        }
+        catch (IOException e)
+        {
+            // This is the expected correct behavior
+        }
+
+        RemoteRepositoryHealth health = monitor.getHealth(STORAGE_ID, repository.getId());
+
+        assertEquals(1, health.getConsecutiveFailures());
+        assertEquals(1d, health.getErrorRate(), 0.001);
+
+        // A body, which has been read to its end, is a success.
+        try (InputStream is = monitor.monitorStream(STORAGE_ID, repository, new ByteArrayInputStream(new byte[100]), 10))
+        {
+            ByteStreams.exhaust(is);
+        }
+
+        assertEquals(0, health.getConsecutiveFailures());
+        assertEquals(1 / 2d, health.getErrorRate(), 0.001);
+
+        // So is one, which the reader stopped reading early, and it's only recorded once.
+        try (InputStream is = monitor.monitorStream(STORAGE_ID, repository, new ByteArrayInputStream(new byte[100]), 10))
+        {
+            ByteStreams.readFully(is, new byte[10]);
+        }
+
+        assertEquals(0, health.getConsecutiveFailures());
+        assertEquals(1 / 3d, health.getErrorRate(), 0.001);
+    }
+
+}
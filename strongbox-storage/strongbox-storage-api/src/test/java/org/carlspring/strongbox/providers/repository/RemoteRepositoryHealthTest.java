@@ -0,0 +1,97 @@
+package org.carlspring.strongbox.providers.repository;
+
+import org.carlspring.strongbox.providers.repository.RemoteRepositoryHealthMonitor.CircuitState;
+import org.carlspring.strongbox.providers.repository.RemoteRepositoryHealthMonitor.RemoteRepositoryHealth;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RemoteRepositoryHealthTest
+{
+
+    private static final int FAILURE_THRESHOLD = 3;
+
+
+    @Test
+    public void testCircuitOpensAfterConsecutiveFailures()
+    {
+        RemoteRepositoryHealth health = new RemoteRepositoryHealth("storage0:proxy", "http://localhost:48080/");
+
+        assertFalse(health.recordFailure(10, FAILURE_THRESHOLD, 0));
+        assertFalse(health.recordFailure(10, FAILURE_THRESHOLD, 0));
+        assertFalse(health.recordSuccess(10));
+
+        assertEquals("A success should have reset the consecutive failures!", 0, health.getConsecutiveFailures());
+
+        assertFalse(health.recordFailure(10, FAILURE_THRESHOLD, 0));
+        assertFalse(health.recordFailure(10, FAILURE_THRESHOLD, 0));
+        assertTrue("The circuit should have been opened!", health.recordFailure(10, FAILURE_THRESHOLD, 0));
+
+        assertEquals(CircuitState.OPEN, health.getState());
+        assertEquals(5 / 6d, health.getErrorRate(), 0.001);
+    }
+
+    @Test
+    public void testHalfOpenCircuit()
+    {
+        RemoteRepositoryHealth health = new RemoteRepositoryHealth("storage0:proxy", "http://localhost:48080/");
+        for (int i = 0; i < FAILURE_THRESHOLD; i++)
+        {
+            health.recordFailure(10, FAILURE_THRESHOLD, 0);
+        }
+
+        assertTrue(health.isProbeDue());
+
+        health.halfOpen();
+
+        assertEquals(CircuitState.HALF_OPEN, health.getState());
+
+        // A failing trial opens the circuit again, without reporting the remote as unavailable once more.
+        assertFalse(health.recordFailure(10, FAILURE_THRESHOLD, 0));
+        assertEquals(CircuitState.OPEN, health.getState());
+
+        health.halfOpen();
+
+        assertTrue("The circuit should have been closed!", health.recordSuccess(10));
+        assertEquals(CircuitState.CLOSED, health.getState());
+        assertFalse(health.isProbeDue());
+    }
+
+    @Test
+    public void testHalfOpenCircuitLetsOnlyOneRequestThrough()
+    {
+        RemoteRepositoryHealth health = new RemoteRepositoryHealth("storage0:proxy", "http://localhost:48080/");
+        for (int i = 0; i < FAILURE_THRESHOLD; i++)
+        {
+            health.recordFailure(10, FAILURE_THRESHOLD, 0);
+        }
+
+        assertFalse(health.isAvailable());
+        assertFalse(health.tryStartRequest());
+
+        health.halfOpen();
+
+        assertTrue(health.isAvailable());
+        assertTrue("The first request should have been let through!", health.tryStartRequest());
+
+        // The others fail fast, while it's in flight.
+        assertFalse(health.isAvailable());
+        assertFalse(health.tryStartRequest());
+
+        // It failed, so the remote is probed again.
+        health.recordFailure(10, FAILURE_THRESHOLD, 0);
+        health.halfOpen();
+
+        assertTrue(health.tryStartRequest());
+        assertFalse(health.tryStartRequest());
+
+        health.recordSuccess(10);
+
+        assertEquals(CircuitState.CLOSED, health.getState());
+        assertTrue(health.tryStartRequest());
+        assertTrue(health.tryStartRequest());
+    }
+
+}
@@ -0,0 +1,173 @@
+package org.carlspring.strongbox.providers.storage;
+
+import org.carlspring.strongbox.io.RepositoryPath;
+import org.carlspring.strongbox.storage.Storage;
+import org.carlspring.strongbox.storage.repository.Repository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.stream.Stream;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ContentAddressableStorageProviderTest
+{
+
+    private static final String ARTIFACT_PATH = "org/carlspring/strongbox/cas/strongbox-cas/1.0/strongbox-cas-1.0.jar";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private ContentAddressableStorageProvider storageProvider = new ContentAddressableStorageProvider();
+
+    private Storage storage;
+
+    private Repository releases;
+
+    private Repository staging;
+
+
+    @Before
+    public void setUp()
+            throws IOException
+    {
+        storage = new Storage("storage-cas", temporaryFolder.newFolder("storage-cas").getAbsolutePath());
+        releases = createRepository("releases");
+        staging = createRepository("staging");
+    }
+
+    @Test
+    public void testSameContentIsStoredOnce()
+            throws Exception
+    {
+        write(releases, ARTIFACT_PATH, "content");
+        write(staging, ARTIFACT_PATH, "content");
+
+        Path releasesPath = Paths.get(releases.getBasedir()).resolve(ARTIFACT_PATH);
+        Path stagingPath = Paths.get(staging.getBasedir()).resolve(ARTIFACT_PATH);
+
+        assertTrue(Files.isSameFile(releasesPath, stagingPath));
+        assertArrayEquals("content".getBytes(StandardCharsets.UTF_8), Files.readAllBytes(stagingPath));
+    }
+
+    @Test
+    public void testCopyLinksToTheSameBlob()
+            throws Exception
+    {
+        write(staging, ARTIFACT_PATH, "content");
+
+        storageProvider.copy(staging, releases, ARTIFACT_PATH);
+
+        assertTrue(Files.isSameFile(Paths.get(staging.getBasedir()).resolve(ARTIFACT_PATH),
+                                    Paths.get(releases.getBasedir()).resolve(ARTIFACT_PATH)));
+    }
+
+    @Test
+    public void testCopyOfAnArtifactWhichIsNotLinkedYet()
+            throws Exception
+    {
+        // The artifact was put in place, without going through the blobs.
+        Path stagingPath = Paths.get(staging.getBasedir()).resolve(ARTIFACT_PATH);
+        Files.createDirectories(stagingPath.getParent());
+        Files.write(stagingPath, "content".getBytes(StandardCharsets.UTF_8));
+
+        storageProvider.copy(staging, releases, ARTIFACT_PATH);
+
+        assertTrue(Files.isSameFile(stagingPath, Paths.get(releases.getBasedir()).resolve(ARTIFACT_PATH)));
+
+        // The link, under which the artifact was digested, is gone.
+        try (Stream<Path> tempPaths = Files.list(Paths.get(storage.getBasedir()).resolve(".blobs/.temp")))
+        {
+            assertEquals(0, tempPaths.count());
+        }
+    }
+
+    @Test
+    public void testOverwritingDoesNotChangeOtherRepositories()
+            throws Exception
+    {
+        write(staging, ARTIFACT_PATH, "content");
+        storageProvider.copy(staging, releases, ARTIFACT_PATH);
+
+        write(staging, ARTIFACT_PATH, "changed");
+
+        assertArrayEquals("content".getBytes(StandardCharsets.UTF_8),
+                          Files.readAllBytes(Paths.get(releases.getBasedir()).resolve(ARTIFACT_PATH)));
+    }
+
+    @Test
+    public void testUnreferencedBlobsAreDeleted()
+            throws Exception
+    {
+        write(staging, ARTIFACT_PATH, "content");
+        Files.delete(Paths.get(staging.getBasedir()).resolve(ARTIFACT_PATH));
+
+        assertEquals("content".length(), storageProvider.deleteUnreferencedBlobs(storage));
+        assertEquals(0, storageProvider.deleteUnreferencedBlobs(storage));
+    }
+
+    @Test
+    public void testBlobsOfOverwrittenArtifactsAreDeleted()
+            throws Exception
+    {
+        write(staging, ARTIFACT_PATH, "content");
+        write(staging, ARTIFACT_PATH, "changed");
+
+        // Only the blob of the previous content is left without links.
+        assertEquals("content".length(), storageProvider.deleteUnreferencedBlobs(storage));
+        assertArrayEquals("changed".getBytes(StandardCharsets.UTF_8),
+                          Files.readAllBytes(Paths.get(staging.getBasedir()).resolve(ARTIFACT_PATH)));
+    }
+
+    @Test
+    public void testMetadataIsNotDeduplicated()
+            throws Exception
+    {
+        String metadataPath = "org/carlspring/strongbox/cas/strongbox-cas/maven-metadata.xml";
+
+        write(releases, metadataPath, "<metadata/>");
+        write(staging, metadataPath, "<metadata/>");
+
+        assertFalse(Files.isSameFile(Paths.get(releases.getBasedir()).resolve(metadataPath),
+                                     Paths.get(staging.getBasedir()).resolve(metadataPath)));
+    }
+
+    private Repository createRepository(String repositoryId)
+            throws IOException
+    {
+        Repository repository = new Repository(repositoryId);
+        repository.setStorage(storage);
+        repository.setImplementation("content-addressable");
+        Files.createDirectories(Paths.get(repository.getBasedir()));
+
+        storage.addOrUpdateRepository(repository);
+
+        return repository;
+    }
+
+    private void write(Repository repository,
+                       String path,
+                       String content)
+            throws IOException
+    {
+        RepositoryPath repositoryPath = storageProvider.resolve(repository);
+        Files.createDirectories(repositoryPath.resolve(path).getTarget().getParent());
+
+        try (OutputStream os = storageProvider.getOutputStreamImplementation(repositoryPath, path))
+        {
+            os.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+}
@@ -1,10 +1,13 @@
 package org.carlspring.strongbox.services;
 
 import org.carlspring.maven.commons.util.ArtifactUtils;
+import org.carlspring.strongbox.artifact.locator.ArtifactDirectoryCheckpoint;
+import org.carlspring.strongbox.artifact.locator.ArtifactDirectoryCheckpointLockedException;
 import org.carlspring.strongbox.providers.ProviderImplementationException;
 import org.carlspring.strongbox.resource.ConfigurationResourceResolver;
 import org.carlspring.strongbox.storage.metadata.MetadataHelper;
 import org.carlspring.strongbox.storage.metadata.MetadataType;
+import org.carlspring.strongbox.storage.metadata.PomProjectionCache;
 import org.carlspring.strongbox.testing.TestCaseWithArtifactGeneration;
 
 import java.io.File;
@@ -26,6 +29,7 @@ import static junit.framework.TestCase.assertTrue;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
 
 /**
  * @author stodorov
@@ -109,6 +113,10 @@ public class ArtifactMetadataServiceReleasesTest
         assertEquals("Incorrect latest release version!", "1.5", versioning.getRelease());
         assertEquals("Incorrect number of versions stored in metadata!", 6, versioning.getVersions().size());
 
+        // The POM projections are kept next to the versions, for the next rebuild.
+        assertTrue(new File(REPOSITORY_BASEDIR,
+                            "org/carlspring/strongbox/metadata/strongbox-metadata/" + PomProjectionCache.FILE_NAME).exists());
+
         Metadata nestedMetadata1 = artifactMetadataService.getMetadata("storage0", "releases", "org/carlspring/strongbox/metadata/nested/foo");
 
         assertNotNull(nestedMetadata1);
@@ -241,6 +249,31 @@ public class ArtifactMetadataServiceReleasesTest
                      metadata.getVersioning().getVersions().size());
     }
 
+    @Test
+    public void testConcurrentRebuildIsRejected()
+            throws IOException, XmlPullParserException, NoSuchAlgorithmException
+    {
+        // Held by a rebuild, which is still running.
+        ArtifactDirectoryCheckpoint checkpoint =
+                new ArtifactDirectoryCheckpoint(REPOSITORY_BASEDIR.toPath().resolve(".metadata-rebuild.checkpoint"),
+                                                REPOSITORY_BASEDIR.toPath());
+        checkpoint.open(REPOSITORY_BASEDIR.toPath());
+        try
+        {
+            artifactMetadataService.rebuildMetadata("storage0", "releases", "org/carlspring/strongbox/metadata");
+
+            fail("Started a second rebuild, while the first one was running!");
+        }
+        catch (ArtifactDirectoryCheckpointLockedException e)
+        {
+            // This is the expected correct behavior
+        }
+        finally
+        {
+            checkpoint.close();
+        }
+    }
+
     /**
      * Generate a released artifact.
      *
@@ -0,0 +1,139 @@
+package org.carlspring.strongbox.storage.metadata;
+
+import org.carlspring.strongbox.util.MessageDigestUtils;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import org.apache.maven.artifact.repository.metadata.Metadata;
+import org.apache.maven.artifact.repository.metadata.Versioning;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MavenMetadataManagerTest
+{
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private MavenMetadataManager mavenMetadataManager = new MavenMetadataManager();
+
+
+    @Test
+    public void testConcurrentWritesLeaveCompleteMetadataAndChecksums()
+            throws Exception
+    {
+        Path artifactBasePath = temporaryFolder.newFolder("org", "carlspring", "strongbox", "metadata").toPath();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try
+        {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 100; i++)
+            {
+                String version = "1." + i;
+                futures.add(executor.submit(() -> {
+                    mavenMetadataManager.storeMetadata(artifactBasePath,
+                                                       null,
+                                                       createMetadata(version),
+                                                       MetadataType.ARTIFACT_ROOT_LEVEL);
+
+                    return null;
+                }));
+            }
+
+            for (Future<?> future : futures)
+            {
+                future.get();
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+
+        Path metadataPath = MetadataHelper.getMetadataFile(artifactBasePath);
+        byte[] content = Files.readAllBytes(metadataPath);
+
+        try (InputStream is = Files.newInputStream(metadataPath))
+        {
+            assertEquals("metadata", mavenMetadataManager.readMetadata(is).getArtifactId());
+        }
+
+        assertEquals(checksum("MD5", content), readChecksum(metadataPath, ".md5"));
+        assertEquals(checksum("SHA-1", content), readChecksum(metadataPath, ".sha1"));
+
+        try (Stream<Path> files = Files.list(artifactBasePath))
+        {
+            assertFalse("Temporary files were left behind!",
+                        files.anyMatch(p -> p.getFileName().toString().endsWith(".tmp")));
+        }
+    }
+
+    @Test
+    public void testChecksumsAreReplaced()
+            throws Exception
+    {
+        Path artifactBasePath = temporaryFolder.newFolder("org", "carlspring", "strongbox", "replaced").toPath();
+
+        mavenMetadataManager.storeMetadata(artifactBasePath,
+                                           null,
+                                           createMetadata("1.0"),
+                                           MetadataType.ARTIFACT_ROOT_LEVEL);
+        Path metadataPath = MetadataHelper.getMetadataFile(artifactBasePath);
+        String sha1 = readChecksum(metadataPath, ".sha1");
+
+        mavenMetadataManager.storeMetadata(artifactBasePath,
+                                           null,
+                                           createMetadata("1.1"),
+                                           MetadataType.ARTIFACT_ROOT_LEVEL);
+
+        assertTrue(Files.exists(metadataPath));
+        assertFalse(sha1.equals(readChecksum(metadataPath, ".sha1")));
+        assertEquals(checksum("SHA-1", Files.readAllBytes(metadataPath)), readChecksum(metadataPath, ".sha1"));
+    }
+
+    private static Metadata createMetadata(String version)
+    {
+        Versioning versioning = new Versioning();
+        versioning.addVersion(version);
+        versioning.setRelease(version);
+        versioning.setLatest(version);
+
+        Metadata metadata = new Metadata();
+        metadata.setGroupId("org.carlspring.strongbox");
+        metadata.setArtifactId("metadata");
+        metadata.setVersioning(versioning);
+
+        return metadata;
+    }
+
+    private static String readChecksum(Path metadataPath,
+                                       String extension)
+            throws Exception
+    {
+        return new String(Files.readAllBytes(metadataPath.resolveSibling(metadataPath.getFileName() + extension)),
+                          StandardCharsets.UTF_8).trim();
+    }
+
+    private static String checksum(String algorithm,
+                                   byte[] content)
+            throws Exception
+    {
+        return MessageDigestUtils.convertToHexadecimalString(MessageDigest.getInstance(algorithm).digest(content));
+    }
+
+}
@@ -0,0 +1,228 @@
+package org.carlspring.strongbox.storage.providers.repository;
+
+import org.carlspring.strongbox.config.CommonConfig;
+import org.carlspring.strongbox.config.StorageApiConfig;
+import org.carlspring.strongbox.configuration.ConfigurationManager;
+import org.carlspring.strongbox.providers.repository.LocalRemoteRepository;
+import org.carlspring.strongbox.providers.repository.RepositoryProvider;
+import org.carlspring.strongbox.providers.repository.RepositoryProviderRegistry;
+import org.carlspring.strongbox.storage.Storage;
+import org.carlspring.strongbox.storage.repository.GroupResolutionConfiguration;
+import org.carlspring.strongbox.storage.repository.RemoteRepository;
+import org.carlspring.strongbox.storage.repository.Repository;
+import org.carlspring.strongbox.storage.repository.RepositoryTypeEnum;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import com.google.common.io.ByteStreams;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Resolves artifacts via a group repository, whose first member is a proxy of a slow remote and whose second member
+ * is a hosted repository, which answers straight away.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration
+public class GroupRepositoryParallelResolutionTest
+{
+
+    @org.springframework.context.annotation.Configuration
+    @Import({
+            StorageApiConfig.class,
+            CommonConfig.class
+    })
+    public static class SpringConfig { }
+
+    private static final String STORAGE_ID = "storage-parallel";
+
+    private static final String GROUP_REPOSITORY_ID = "group-parallel";
+
+    private static final long REMOTE_RESPONSE_DELAY_MILLIS = 3000;
+
+    @Autowired
+    private ConfigurationManager configurationManager;
+
+    @Autowired
+    private RepositoryProviderRegistry repositoryProviderRegistry;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private LocalRemoteRepository localRemoteRepository;
+
+    private LocalRemoteRepository fastLocalRemoteRepository;
+
+    private Storage storage;
+
+    private Repository hostedRepository;
+
+    private Repository groupRepository;
+
+
+    @Before
+    public void setUp()
+            throws IOException
+    {
+        localRemoteRepository = new LocalRemoteRepository();
+        localRemoteRepository.setResponseDelayMillis(REMOTE_RESPONSE_DELAY_MILLIS);
+
+        fastLocalRemoteRepository = new LocalRemoteRepository();
+
+        storage = new Storage(STORAGE_ID, temporaryFolder.newFolder(STORAGE_ID).getAbsolutePath());
+
+        RemoteRepository remoteRepository = new RemoteRepository();
+        remoteRepository.setUrl(localRemoteRepository.getUrl());
+
+        Repository proxyRepository = createRepository("proxy-slow", RepositoryTypeEnum.PROXY);
+        proxyRepository.setRemoteRepository(remoteRepository);
+
+        hostedRepository = createRepository("releases-fast", RepositoryTypeEnum.HOSTED);
+
+        groupRepository = createRepository(GROUP_REPOSITORY_ID, RepositoryTypeEnum.GROUP);
+        groupRepository.addRepositoryToGroup(proxyRepository.getId());
+        groupRepository.addRepositoryToGroup(hostedRepository.getId());
+
+        GroupResolutionConfiguration resolution = new GroupResolutionConfiguration();
+        resolution.setParallel(true);
+        resolution.setMemberTimeoutSeconds(30);
+        groupRepository.setGroupResolutionConfiguration(resolution);
+
+        configurationManager.getConfiguration().addStorage(storage);
+    }
+
+    @After
+    public void tearDown()
+    {
+        configurationManager.getConfiguration().removeStorage(storage);
+
+        localRemoteRepository.close();
+        fastLocalRemoteRepository.close();
+    }
+
+    @Test
+    public void testEarlierMemberTakesPrecedenceOverFasterOne()
+            throws Exception
+    {
+        String path = "org/carlspring/strongbox/parallel/parallel-foo/1.0/parallel-foo-1.0.jar";
+
+        localRemoteRepository.addResource(path, "proxy-slow".getBytes(StandardCharsets.UTF_8));
+        writeHostedArtifact(path, "releases-fast");
+
+        assertEquals("The artifact of the later member was served, although the first member has it!",
+                     "proxy-slow",
+                     resolveViaGroup(path));
+    }
+
+    @Test
+    public void testMemberWhichExceedsTheTimeoutIsSkipped()
+            throws Exception
+    {
+        String path = "org/carlspring/strongbox/parallel/parallel-bar/1.0/parallel-bar-1.0.jar";
+
+        groupRepository.getGroupResolutionConfiguration().setMemberTimeoutSeconds(1);
+
+        localRemoteRepository.addResource(path, "proxy-slow".getBytes(StandardCharsets.UTF_8));
+        writeHostedArtifact(path, "releases-fast");
+
+        long startTime = System.currentTimeMillis();
+
+        assertEquals("releases-fast", resolveViaGroup(path));
+
+        long duration = System.currentTimeMillis() - startTime;
+
+        assertTrue("Waited for the member, which exceeded its timeout (" + duration + " ms)!",
+                   duration < REMOTE_RESPONSE_DELAY_MILLIS);
+    }
+
+    @Test
+    public void testSlowEarlierProxyWinsAndTheFasterOneIsCancelled()
+            throws Exception
+    {
+        String path = "org/carlspring/strongbox/parallel/parallel-baz/1.0/parallel-baz-1.0.jar";
+
+        RemoteRepository fastRemoteRepository = new RemoteRepository();
+        fastRemoteRepository.setUrl(fastLocalRemoteRepository.getUrl());
+
+        Repository fastProxyRepository = createRepository("proxy-fast", RepositoryTypeEnum.PROXY);
+        fastProxyRepository.setRemoteRepository(fastRemoteRepository);
+
+        Repository proxiesGroupRepository = createRepository("group-parallel-proxies", RepositoryTypeEnum.GROUP);
+        proxiesGroupRepository.addRepositoryToGroup("proxy-slow");
+        proxiesGroupRepository.addRepositoryToGroup(fastProxyRepository.getId());
+        proxiesGroupRepository.setGroupResolutionConfiguration(groupRepository.getGroupResolutionConfiguration());
+
+        localRemoteRepository.addResource(path, "proxy-slow".getBytes(StandardCharsets.UTF_8));
+        fastLocalRemoteRepository.addResource(path, "proxy-fast".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals("proxy-slow", resolveViaGroup(proxiesGroupRepository.getId(), path));
+
+        // Resolving the members one after another would never have asked the second one.
+        assertEquals("The later member wasn't probed in parallel!", 1, fastLocalRemoteRepository.getRequestCount(path));
+        assertFalse("The download of the later member wasn't cancelled!",
+                    Files.exists(Paths.get(fastProxyRepository.getBasedir()).resolve(path)));
+    }
+
+    private String resolveViaGroup(String path)
+            throws Exception
+    {
+        return resolveViaGroup(GROUP_REPOSITORY_ID, path);
+    }
+
+    private String resolveViaGroup(String groupRepositoryId,
+                                   String path)
+            throws Exception
+    {
+        RepositoryProvider repositoryProvider = repositoryProviderRegistry.getProvider(groupRepository.getType());
+
+        try (InputStream is = repositoryProvider.getInputStream(STORAGE_ID, groupRepositoryId, path))
+        {
+            assertNotNull("Failed to resolve " + path + " via the group repository!", is);
+
+            return new String(ByteStreams.toByteArray(is), StandardCharsets.UTF_8);
+        }
+    }
+
+    private Repository createRepository(String repositoryId,
+                                        RepositoryTypeEnum type)
+            throws IOException
+    {
+        Repository repository = new Repository(repositoryId);
+        repository.setStorage(storage);
+        repository.setImplementation("file-system");
+        repository.setLayout("Maven 2");
+        repository.setType(type.getType());
+        Files.createDirectories(Paths.get(repository.getBasedir()));
+
+        storage.addOrUpdateRepository(repository);
+
+        return repository;
+    }
+
+    private void writeHostedArtifact(String path,
+                                     String content)
+            throws IOException
+    {
+        Path artifactPath = Paths.get(hostedRepository.getBasedir()).resolve(path);
+        Files.createDirectories(artifactPath.getParent());
+        Files.write(artifactPath, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
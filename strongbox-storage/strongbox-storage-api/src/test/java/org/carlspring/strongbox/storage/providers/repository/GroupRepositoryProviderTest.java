@@ -6,20 +6,27 @@ import org.carlspring.strongbox.config.StorageApiConfig;
 import org.carlspring.strongbox.configuration.ConfigurationManager;
 import org.carlspring.strongbox.providers.ProviderImplementationException;
 import org.carlspring.strongbox.providers.repository.GroupRepositoryProvider;
+import org.carlspring.strongbox.providers.repository.GroupResolvedLocationCache;
 import org.carlspring.strongbox.providers.repository.RepositoryProvider;
 import org.carlspring.strongbox.providers.repository.RepositoryProviderRegistry;
 import org.carlspring.strongbox.resource.ConfigurationResourceResolver;
 import org.carlspring.strongbox.resource.ResourceCloser;
+import org.carlspring.strongbox.storage.metadata.MavenMetadataManager;
+import org.carlspring.strongbox.storage.metadata.MetadataType;
 import org.carlspring.strongbox.storage.repository.Repository;
 import org.carlspring.strongbox.testing.TestCaseWithArtifactGeneration;
+import org.carlspring.strongbox.util.MessageDigestUtils;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
 
 import com.carmatechnologies.commons.testing.logging.ExpectedLogs;
 import com.carmatechnologies.commons.testing.logging.api.LogLevel;
+import org.apache.maven.artifact.repository.metadata.Metadata;
+import org.apache.maven.artifact.repository.metadata.Versioning;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Ignore;
@@ -30,6 +37,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Import;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 
@@ -63,6 +71,12 @@ public class GroupRepositoryProviderTest
     @Autowired
     private ConfigurationManager configurationManager;
 
+    @Autowired
+    private GroupResolvedLocationCache groupResolvedLocationCache;
+
+    @Autowired
+    private MavenMetadataManager mavenMetadataManager;
+
     @Rule
     public final ExpectedLogs logs = new ExpectedLogs()
     {{
@@ -166,6 +180,39 @@ public class GroupRepositoryProviderTest
         ResourceCloser.close(is, null);
     }
 
+    @Test
+    public void testGroupResolvedLocationIsCached()
+            throws IOException,
+                   NoSuchAlgorithmException,
+                   ArtifactTransportException,
+                   ProviderImplementationException
+    {
+        System.out.println("# Testing the caching of resolved group locations...");
+
+        String path = "org/carlspring/metadata/by/juan/juancho/1.2.64/juancho-1.2.64.jar";
+
+        groupResolvedLocationCache.invalidate(path);
+
+        Repository repository = configurationManager.getRepository("storage0:group-releases-nested-deep-3");
+        RepositoryProvider repositoryProvider = repositoryProviderRegistry.getProvider(repository.getType());
+
+        InputStream is = repositoryProvider.getInputStream("storage0", "group-releases-nested-deep-3", path);
+
+        assertNotNull(is);
+
+        ResourceCloser.close(is, null);
+
+        assertEquals("storage0:releases-test-nested",
+                     groupResolvedLocationCache.getLocation("storage0", "group-releases-nested-deep-3", path));
+
+        // The second lookup goes straight to the member.
+        is = repositoryProvider.getInputStream("storage0", "group-releases-nested-deep-3", path);
+
+        assertNotNull(is);
+
+        ResourceCloser.close(is, null);
+    }
+
     @Test
     public void testGroupIncludesWildcardRuleAgainstNestedRepository()
             throws IOException,
@@ -246,4 +293,83 @@ public class GroupRepositoryProviderTest
         assertNull(is);
     }
 
+    @Test
+    public void testGroupMergesTheMetadataOfItsMembers()
+            throws Exception
+    {
+        System.out.println("# Testing the merging of the metadata of group members...");
+
+        String basePath = "com/artifacts/merged/metadata/foo";
+
+        storeMetadata(REPOSITORY_BASEDIR_RELEASES, basePath, "1.0");
+        storeMetadata(REPOSITORY_BASEDIR_RELEASES_WITH_TRASH, basePath, "1.1");
+
+        Repository repository = configurationManager.getRepository("storage0:group-releases");
+        RepositoryProvider repositoryProvider = repositoryProviderRegistry.getProvider(repository.getType());
+
+        Metadata metadata = mavenMetadataManager.readMetadata(
+                repositoryProvider.getInputStream("storage0", "group-releases", basePath + "/maven-metadata.xml"));
+
+        assertEquals(Arrays.asList("1.0", "1.1"), metadata.getVersioning().getVersions());
+        assertEquals("1.1", metadata.getVersioning().getRelease());
+
+        // The merged metadata is no longer served, once the metadata of a member has changed.
+        storeMetadata(REPOSITORY_BASEDIR_RELEASES, basePath, "1.0", "1.2");
+
+        metadata = mavenMetadataManager.readMetadata(
+                repositoryProvider.getInputStream("storage0", "group-releases", basePath + "/maven-metadata.xml"));
+
+        assertEquals(Arrays.asList("1.0", "1.1", "1.2"), metadata.getVersioning().getVersions());
+        assertEquals("1.2", metadata.getVersioning().getRelease());
+
+        try (InputStream is = repositoryProvider.getInputStream("storage0",
+                                                                "group-releases",
+                                                                basePath + "/maven-metadata.xml.sha1"))
+        {
+            assertNotNull(is);
+            assertEquals(40, MessageDigestUtils.readChecksumFile(is).length());
+        }
+
+        try (InputStream is = repositoryProvider.getInputStream("storage0",
+                                                                "group-releases",
+                                                                basePath + "/maven-metadata.xml.sha256"))
+        {
+            assertNotNull(is);
+            assertEquals(64, MessageDigestUtils.readChecksumFile(is).length());
+        }
+
+        try (InputStream is = repositoryProvider.getInputStream("storage0",
+                                                                "group-releases",
+                                                                basePath + "/maven-metadata.xml.sha512"))
+        {
+            assertNotNull(is);
+            assertEquals(128, MessageDigestUtils.readChecksumFile(is).length());
+        }
+    }
+
+    private void storeMetadata(File repositoryBasedir,
+                               String basePath,
+                               String... versions)
+            throws IOException,
+                   NoSuchAlgorithmException
+    {
+        Versioning versioning = new Versioning();
+        for (String version : versions)
+        {
+            versioning.addVersion(version);
+        }
+        versioning.setRelease(versions[versions.length - 1]);
+        versioning.setLatest(versions[versions.length - 1]);
+
+        Metadata metadata = new Metadata();
+        metadata.setGroupId("com.artifacts.merged.metadata");
+        metadata.setArtifactId("foo");
+        metadata.setVersioning(versioning);
+
+        mavenMetadataManager.storeMetadata(new File(repositoryBasedir, basePath).toPath(),
+                                           null,
+                                           metadata,
+                                           MetadataType.ARTIFACT_ROOT_LEVEL);
+    }
+
 }
@@ -0,0 +1,171 @@
+package org.carlspring.strongbox.storage.repository.artifact.locator;
+
+import org.carlspring.strongbox.artifact.locator.ArtifactDirectoryCheckpoint;
+import org.carlspring.strongbox.artifact.locator.ArtifactDirectoryCheckpointLockedException;
+import org.carlspring.strongbox.artifact.locator.ParallelArtifactDirectoryLocator;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ParallelArtifactDirectoryLocatorTest
+{
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Path basedir;
+
+    private Path checkpointPath;
+
+    private Set<String> handledPaths = ConcurrentHashMap.newKeySet();
+
+
+    @Before
+    public void setUp()
+            throws IOException
+    {
+        basedir = temporaryFolder.newFolder("releases").toPath();
+        checkpointPath = basedir.resolve(".checkpoint");
+
+        createArtifact("org/apache/maven/location-utils", "1.0", "1.1");
+        createArtifact("org/carlspring/maven/locator-testing", "2.1");
+        createArtifact("org/carlspring/strongbox/locator", "5.2.1");
+        createArtifact("org/carlspring/strongbox/locator/foo-locator", "1.0");
+        createArtifact(".index/org/carlspring/hidden", "1.0");
+    }
+
+    @Test
+    public void testLocateDirectories()
+            throws IOException
+    {
+        assertTrue(createLocator(basedir).locateArtifactDirectories());
+
+        assertEquals(new HashSet<>(Arrays.asList("org/apache/maven/location-utils",
+                                                 "org/carlspring/maven/locator-testing",
+                                                 "org/carlspring/strongbox/locator",
+                                                 "org/carlspring/strongbox/locator/foo-locator")),
+                     handledPaths);
+        assertFalse("Failed to remove the checkpoint of a completed run!", Files.exists(checkpointPath));
+    }
+
+    @Test
+    public void testLocateDirectoriesWithBasePath()
+            throws IOException
+    {
+        assertTrue(createLocator(basedir.resolve("org/carlspring")).locateArtifactDirectories());
+
+        assertEquals(new HashSet<>(Arrays.asList("org/carlspring/maven/locator-testing",
+                                                 "org/carlspring/strongbox/locator",
+                                                 "org/carlspring/strongbox/locator/foo-locator")),
+                     handledPaths);
+    }
+
+    @Test
+    public void testInterruptedRunIsResumed()
+            throws IOException
+    {
+        ParallelArtifactDirectoryLocator locator = createLocator(basedir);
+        locator.setHandler(path -> {
+            if (path.endsWith("locator-testing"))
+            {
+                throw new IllegalStateException("Failed to handle " + path);
+            }
+
+            handledPaths.add(relativize(path));
+        });
+
+        assertFalse(locator.locateArtifactDirectories());
+        assertTrue("Failed to keep the checkpoint of an incomplete run!", Files.exists(checkpointPath));
+
+        handledPaths.clear();
+
+        assertTrue(createLocator(basedir).locateArtifactDirectories());
+
+        // The subtrees, which were completed by the first run, are skipped.
+        assertEquals(new HashSet<>(Arrays.asList("org/carlspring/maven/locator-testing")), handledPaths);
+        assertFalse(Files.exists(checkpointPath));
+    }
+
+    @Test
+    public void testCheckpointOfAnotherStartingPathIsDiscarded()
+            throws IOException
+    {
+        Files.write(checkpointPath,
+                    Arrays.asList("# startingPath: org/apache", "org/carlspring"),
+                    StandardCharsets.UTF_8);
+
+        assertTrue(createLocator(basedir).locateArtifactDirectories());
+
+        assertEquals(4, handledPaths.size());
+    }
+
+    @Test
+    public void testConcurrentRunIsRejected()
+            throws IOException
+    {
+        ArtifactDirectoryCheckpoint checkpoint = new ArtifactDirectoryCheckpoint(checkpointPath, basedir);
+        checkpoint.open(basedir);
+        try
+        {
+            createLocator(basedir).locateArtifactDirectories();
+
+            fail("Started a second run, while the checkpoint was in use!");
+        }
+        catch (ArtifactDirectoryCheckpointLockedException e)
+        {
+            assertTrue(handledPaths.isEmpty());
+        }
+        finally
+        {
+            checkpoint.close();
+        }
+
+        // The lock is released with the checkpoint.
+        assertTrue(createLocator(basedir).locateArtifactDirectories());
+        assertEquals(4, handledPaths.size());
+    }
+
+    private ParallelArtifactDirectoryLocator createLocator(Path startingPath)
+    {
+        ParallelArtifactDirectoryLocator locator = new ParallelArtifactDirectoryLocator();
+        locator.setStartingPath(startingPath);
+        locator.setParallelism(4);
+        locator.setHandler(path -> handledPaths.add(relativize(path)));
+        locator.setCheckpoint(new ArtifactDirectoryCheckpoint(checkpointPath, basedir));
+
+        return locator;
+    }
+
+    private void createArtifact(String artifactPath,
+                                String... versions)
+            throws IOException
+    {
+        String artifactId = artifactPath.substring(artifactPath.lastIndexOf('/') + 1);
+        for (String version : versions)
+        {
+            Path versionPath = Files.createDirectories(basedir.resolve(artifactPath).resolve(version));
+            Files.createFile(versionPath.resolve(artifactId + "-" + version + ".pom"));
+        }
+    }
+
+    private String relativize(Path path)
+    {
+        return basedir.relativize(path).toString().replace('\\', '/');
+    }
+
+}
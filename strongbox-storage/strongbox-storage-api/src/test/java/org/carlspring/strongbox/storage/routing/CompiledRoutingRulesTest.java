@@ -0,0 +1,138 @@
+package org.carlspring.strongbox.storage.routing;
+
+import org.carlspring.strongbox.configuration.Configuration;
+import org.carlspring.strongbox.configuration.ConfigurationManager;
+import org.carlspring.strongbox.storage.Storage;
+import org.carlspring.strongbox.storage.repository.Repository;
+import org.carlspring.strongbox.storage.repository.RepositoryTypeEnum;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import static org.junit.Assert.*;
+
+public class CompiledRoutingRulesTest
+{
+
+
+    @Test
+    public void testCompileRoutingRulesAndGroupMembers()
+    {
+        Storage storage = new Storage("storage0");
+
+        Repository group = new Repository("group-releases");
+        group.setType(RepositoryTypeEnum.GROUP.getType());
+        group.setStorage(storage);
+        group.addRepositoryToGroup("releases");
+        group.addRepositoryToGroup("storage1:releases");
+
+        storage.addOrUpdateRepository(group);
+
+        RoutingRules routingRules = new RoutingRules();
+        routingRules.addAcceptRule("group-releases", createRuleSet("group-releases",
+                                                                   ".*(com|org)/carlspring.*",
+                                                                   "storage1:releases"));
+        routingRules.addDenyRule(RoutingRules.WILDCARD, createRuleSet(RoutingRules.WILDCARD,
+                                                                      ".*(com|org)/denied.*",
+                                                                      "releases"));
+
+        Configuration configuration = new Configuration();
+        configuration.addStorage(storage);
+        configuration.setRoutingRules(routingRules);
+
+        CompiledRoutingRules compiledRoutingRules = CompiledRoutingRules.compile(configuration);
+
+        List<CompiledRoutingRule> acceptRules = compiledRoutingRules.getAcceptRules("group-releases");
+        assertEquals(1, acceptRules.size());
+        assertTrue(acceptRules.get(0).matches("org/carlspring/strongbox/foo/1.0/foo-1.0.jar"));
+        assertFalse(acceptRules.get(0).matches("org/apache/foo/1.0/foo-1.0.jar"));
+        assertEquals("storage1", acceptRules.get(0).getRepositories().get(0).getStorageId(storage));
+        assertEquals("releases", acceptRules.get(0).getRepositories().get(0).getRepositoryId());
+
+        assertTrue(compiledRoutingRules.getWildcardAcceptRules().isEmpty());
+        assertTrue(compiledRoutingRules.getDenyRules("group-releases").isEmpty());
+
+        CompiledRoutingRule denyRule = compiledRoutingRules.getWildcardDenyRules().get(0);
+        assertTrue(denyRule.appliesTo("releases"));
+        assertFalse(denyRule.appliesTo("snapshots"));
+        assertTrue(denyRule.matches("com/denied/foo/1.0/foo-1.0.jar"));
+
+        List<RepositoryReference> members = compiledRoutingRules.getGroupMembers(group);
+        assertEquals(2, members.size());
+        assertEquals("storage0", members.get(0).getStorageId(storage));
+        assertEquals("releases", members.get(0).getRepositoryId());
+        assertEquals("storage1", members.get(1).getStorageId(storage));
+        assertEquals("releases", members.get(1).getRepositoryId());
+    }
+
+    @Test
+    public void testRulesAreOnlyCompiledAgainOnceInvalidated()
+    {
+        Storage storage = new Storage("storage0");
+
+        Repository group = new Repository("group-releases");
+        group.setType(RepositoryTypeEnum.GROUP.getType());
+        group.setStorage(storage);
+        group.addRepositoryToGroup("releases");
+
+        storage.addOrUpdateRepository(group);
+
+        RoutingRules routingRules = new RoutingRules();
+        routingRules.addAcceptRule("group-releases", createRuleSet("group-releases",
+                                                                   ".*(com|org)/carlspring.*",
+                                                                   "releases"));
+
+        Configuration configuration = new Configuration();
+        configuration.addStorage(storage);
+        configuration.setRoutingRules(routingRules);
+
+        ConfigurationManager configurationManager = new ConfigurationManager()
+        {
+
+            @Override
+            public Configuration getConfiguration()
+            {
+                return configuration;
+            }
+
+        };
+
+        CompiledRoutingRulesCache cache = new CompiledRoutingRulesCache();
+        ReflectionTestUtils.setField(cache, "configurationManager", configurationManager);
+
+        CompiledRoutingRules compiledRoutingRules = cache.getCompiledRoutingRules();
+
+        // Requests don't compare the rules with the configuration again.
+        routingRules.getAcceptRules("group-releases").getRoutingRules().get(0).setPattern(".*(com|org)/apache.*");
+        group.addRepositoryToGroup("snapshots");
+
+        assertSame(compiledRoutingRules, cache.getCompiledRoutingRules());
+        assertEquals(1, compiledRoutingRules.getGroupMembers(group).size());
+
+        // Changing them is what invalidates the cache.
+        cache.invalidate();
+
+        CompiledRoutingRules recompiledRoutingRules = cache.getCompiledRoutingRules();
+
+        assertNotSame(compiledRoutingRules, recompiledRoutingRules);
+        assertTrue(recompiledRoutingRules.getAcceptRules("group-releases")
+                                         .get(0)
+                                         .matches("org/apache/foo/1.0/foo-1.0.jar"));
+        assertEquals(2, recompiledRoutingRules.getGroupMembers(group).size());
+    }
+
+    private RuleSet createRuleSet(String groupRepository,
+                                  String pattern,
+                                  String... repositories)
+    {
+        RuleSet ruleSet = new RuleSet();
+        ruleSet.setGroupRepository(groupRepository);
+        ruleSet.getRoutingRules().add(new RoutingRule(pattern, new LinkedHashSet<>(Arrays.asList(repositories))));
+
+        return ruleSet;
+    }
+
+}
@@ -0,0 +1,69 @@
+package org.carlspring.strongbox.services;
+
+import org.carlspring.strongbox.storage.proxy.ProxyRepositoryWarmUpProgress;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+
+/**
+ * Populates the cache of a proxy repository ahead of time, so that new build agents, or replicas, don't have
+ * to fetch every artifact from the remote repository on demand.
+ */
+public interface ProxyRepositoryWarmUpService
+{
+
+    /**
+     * Resolve the paths of the given artifacts, their POM-s and the checksums of both.
+     *
+     * @param gavs artifacts in the groupId:artifactId:version[:type[:classifier]] format
+     */
+    Set<String> getPathsOfArtifacts(Collection<String> gavs);
+
+    /**
+     * Resolve the paths of the parent and the dependencies (including the managed ones) of the given POM.
+     * Dependencies with versions which can't be determined from the POM itself are skipped.
+     */
+    Set<String> getPathsOfDependencies(InputStream pom)
+            throws IOException, XmlPullParserException;
+
+    /**
+     * Resolve the paths of the artifacts, which the index of the proxy repository lists under the given path
+     * (either a group, or an artifact).
+     */
+    Set<String> getPathsUnderPrefix(String storageId,
+                                    String repositoryId,
+                                    String prefix)
+            throws IOException;
+
+    /**
+     * Fetch the given paths, which aren't cached yet, from the remote repository of the proxy repository.
+     *
+     * @param progressListener notified after each path; may be null
+     * @return the progress, once all the paths have been processed
+     */
+    ProxyRepositoryWarmUpProgress warmUp(String storageId,
+                                         String repositoryId,
+                                         Collection<String> paths,
+                                         Consumer<ProxyRepositoryWarmUpProgress> progressListener)
+            throws IOException;
+
+    /**
+     * Start fetching the given paths, which aren't cached yet, from the remote repository of the proxy repository,
+     * without waiting for them.
+     *
+     * @param progressListener notified after each path; may be null
+     * @return the progress, which is completed once all the paths have been processed
+     */
+    CompletableFuture<ProxyRepositoryWarmUpProgress> warmUpAsync(String storageId,
+                                                                 String repositoryId,
+                                                                 Collection<String> paths,
+                                                                 Consumer<ProxyRepositoryWarmUpProgress> progressListener)
+            throws IOException;
+
+}
@@ -9,9 +9,9 @@ import java.io.InputStream;
 import java.security.NoSuchAlgorithmException;
 import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
-import org.apache.commons.io.FileUtils;
 import org.apache.maven.artifact.Artifact;
 import org.carlspring.maven.commons.util.ArtifactUtils;
 import org.carlspring.strongbox.artifact.coordinates.ArtifactCoordinates;
@@ -22,7 +22,12 @@ import org.carlspring.strongbox.io.ArtifactOutputStream;
 import org.carlspring.strongbox.providers.ProviderImplementationException;
 import org.carlspring.strongbox.providers.layout.LayoutProvider;
 import org.carlspring.strongbox.providers.layout.LayoutProviderRegistry;
+import org.carlspring.strongbox.providers.repository.ArtifactNotFoundCache;
+import org.carlspring.strongbox.providers.repository.GroupResolvedLocationCache;
+import org.carlspring.strongbox.providers.storage.StorageProvider;
+import org.carlspring.strongbox.providers.storage.StorageProviderRegistry;
 import org.carlspring.strongbox.services.ArtifactManagementService;
+import org.carlspring.strongbox.services.ArtifactMetadataService;
 import org.carlspring.strongbox.services.ArtifactResolutionService;
 import org.carlspring.strongbox.services.VersionValidatorService;
 import org.carlspring.strongbox.storage.ArtifactStorageException;
@@ -32,13 +37,18 @@ import org.carlspring.strongbox.storage.checksum.ChecksumCacheManager;
 import org.carlspring.strongbox.storage.indexing.RepositoryIndexManager;
 import org.carlspring.strongbox.storage.indexing.RepositoryIndexer;
 import org.carlspring.strongbox.storage.repository.Repository;
+import org.carlspring.strongbox.storage.repository.RepositoryLayoutEnum;
+import org.carlspring.strongbox.storage.repository.RepositoryTypeEnum;
 import org.carlspring.strongbox.storage.validation.resource.ArtifactOperationsValidator;
 import org.carlspring.strongbox.storage.validation.version.VersionValidationException;
 import org.carlspring.strongbox.storage.validation.version.VersionValidator;
 import org.carlspring.strongbox.util.ArtifactFileUtils;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 /**
@@ -51,6 +61,8 @@ public class ArtifactManagementServiceImpl
 
     private static final Logger logger = LoggerFactory.getLogger(ArtifactManagementServiceImpl.class);
 
+    private static final int STORE_BUFFER_SIZE = 64 * 1024;
+
     @Autowired
     private ArtifactResolutionService artifactResolutionService;
 
@@ -72,6 +84,25 @@ public class ArtifactManagementServiceImpl
     @Autowired
     private LayoutProviderRegistry layoutProviderRegistry;
 
+    @Autowired
+    private StorageProviderRegistry storageProviderRegistry;
+
+    @Autowired
+    @Qualifier("filesystemStorageProvider")
+    private StorageProvider filesystemStorageProvider;
+
+    @Autowired
+    private ArtifactNotFoundCache artifactNotFoundCache;
+
+    @Autowired
+    private GroupResolvedLocationCache groupResolvedLocationCache;
+
+    @Autowired
+    private ArtifactMetadataService artifactMetadataService;
+
+    @Value("${metadata.incrementalUpdates.enabled:true}")
+    private boolean incrementalMetadataUpdates;
+
 
     @Override
     public void store(String storageId,
@@ -82,43 +113,125 @@ public class ArtifactManagementServiceImpl
     {
         String artifactPath = storageId + "/" + repositoryId + "/" + path;
         performRepositoryAcceptanceValidation(storageId, repositoryId, path);
-        
-        
-        try(ArtifactOutputStream os = artifactResolutionService.getOutputStream(storageId, repositoryId, path))
+
+        Storage storage = getStorage(storageId);
+        Repository repository = storage.getRepository(repositoryId);
+        if (!RepositoryTypeEnum.HOSTED.getType().equals(repository.getType()))
+        {
+            // Group and proxy repositories only serve what already exists in their members, or remotely.
+            throw new ArtifactStorageException("Artifact " + path + " cannot be stored in the " +
+                                               repository.getType() + " repository " + repositoryId + ".");
+        }
+
+        LayoutProvider layoutProvider = getLayoutProvider(repository, layoutProviderRegistry);
+
+        // The file is written to the temporary location of the repository and only moved into place,
+        // once its checksums have been stored. This way, a client, which finds the file, also finds its checksums
+        // and never sees it half-written.
+        String transferId = UUID.randomUUID().toString();
+
+        Map<String, String> digests;
+        try
         {
-            //If we have no Digests then we have a Checksum to store.
-            if (os.getDigests().isEmpty())
+            try (ArtifactOutputStream os = layoutProvider.getTempOutputStream(storageId, repositoryId, path, transferId))
             {
-                os.setCacheOutputStream(new ByteArrayOutputStream());
+                //If we have no Digests then we have a Checksum to store.
+                if (os.getDigests().isEmpty())
+                {
+                    os.setCacheOutputStream(new ByteArrayOutputStream());
+                }
+
+                int readLength;
+                byte[] bytes = new byte[STORE_BUFFER_SIZE];
+                while ((readLength = is.read(bytes, 0, bytes.length)) != -1)
+                {
+                    // Write the artifact
+                    os.write(bytes, 0, readLength);
+                }
+
+                os.flush();
+
+                // Calculating the digests resets them, so this must only be done once.
+                digests = os.getDigestMap();
+                if (!digests.isEmpty())
+                {
+                    // Store artifact Digests in cache if we have them.
+                    addChecksumsToCacheManager(digests, artifactPath);
+                }
+                else
+                {
+                    // Validate checksum with Artifact Digest cache.
+                    byte[] checksum = ((ByteArrayOutputStream) os.getCacheOutputStream()).toByteArray();
+                    validateUploadedChecksumAgainstCache(checksum,
+                                                         artifactPath);
+
+                }
             }
 
-            int readLength;
-            byte[] bytes = new byte[4096];
-            while ((readLength = is.read(bytes, 0, bytes.length)) != -1)
+            if (!digests.isEmpty())
             {
-                // Write the artifact
-                os.write(bytes, 0, readLength);
-                os.flush();
+                // This spares the clients and the download path from having to calculate the checksums again.
+                layoutProvider.storeChecksums(storageId, repositoryId, path, digests);
             }
 
-            if (!os.getDigestMap().isEmpty())
+            layoutProvider.moveFromTemp(storageId, repositoryId, path, transferId);
+        }
+        catch (IOException e)
+        {
+            ArtifactStorageException failure = e instanceof ArtifactStorageException ?
+                                               (ArtifactStorageException) e :
+                                               new ArtifactStorageException(e);
+            try
             {
-                // Store artifact Digests in cache if we have them.
-                addChecksumsToCacheManager(os.getDigestMap(), artifactPath);
-                addArtifactToIndex(storageId, repositoryId, path);
+                layoutProvider.deleteTemp(storageId, repositoryId, transferId);
             }
-            else
+            catch (IOException | RuntimeException cleanupFailure)
             {
-                // Validate checksum with Artifact Digest cache.
-                byte[] checksum = ((ByteArrayOutputStream) os.getCacheOutputStream()).toByteArray();
-                validateUploadedChecksumAgainstCache(checksum,
-                                                     artifactPath);
+                // The reason the deployment failed matters more than the leftover temporary file.
+                failure.addSuppressed(cleanupFailure);
+            }
 
+            throw failure;
+        }
+
+        if (!digests.isEmpty())
+        {
+            addArtifactToIndex(storageId, repositoryId, path);
+
+            if (incrementalMetadataUpdates)
+            {
+                addArtifactToMetadata(repository, path);
             }
         }
-        catch (IOException e)
+
+        // The path may have been looked up, before it was deployed.
+        artifactNotFoundCache.invalidate(path);
+        // It may now be available in a group member with a higher priority.
+        groupResolvedLocationCache.invalidate(path);
+    }
+
+    /**
+     * Applies the deployment to the Maven metadata, so that it doesn't have to be rebuilt by rescanning
+     * the artifact's directories. Rebuilding is then only needed to repair it.
+     */
+    private void addArtifactToMetadata(Repository repository,
+                                       String path)
+    {
+        if (!ArtifactFileUtils.isArtifactFile(path) ||
+            !RepositoryLayoutEnum.MAVEN_2.getLayout().equals(repository.getLayout()))
+        {
+            return;
+        }
+
+        try
+        {
+            artifactMetadataService.addArtifact(repository.getStorage().getId(), repository.getId(), path);
+        }
+        catch (IOException | XmlPullParserException | NoSuchAlgorithmException | RuntimeException e)
         {
-            throw new ArtifactStorageException(e);
+            // The artifact itself has been stored, so the deployment shouldn't fail because of this.
+            logger.warn("Failed to add /" + repository.getStorage().getId() + "/" + repository.getId() + "/" + path +
+                        " to the metadata. Rebuild the metadata to repair it.", e);
         }
     }
 
@@ -179,7 +292,7 @@ public class ArtifactManagementServiceImpl
         final Repository repository = storage.getRepository(repositoryId);
 
         if (!path.contains("/maven-metadata.") &&
-            !ArtifactUtils.isMetadata(path) && !ArtifactUtils.isChecksum(path))
+            !ArtifactUtils.isMetadata(path) && !ArtifactUtils.isChecksum(path) && !ArtifactFileUtils.isChecksum(path))
         {
             LayoutProvider layoutProvider = layoutProviderRegistry.getProvider(repository.getLayout());
             ArtifactCoordinates coordinates = (ArtifactCoordinates) layoutProvider.getArtifactCoordinates(path);
@@ -223,6 +336,8 @@ public class ArtifactManagementServiceImpl
             LayoutProvider layoutProvider = getLayoutProvider(repository, layoutProviderRegistry);
             layoutProvider.delete(storageId, repositoryId, artifactPath, force);
 
+            groupResolvedLocationCache.invalidateAllUnder(artifactPath);
+
             final RepositoryIndexer indexer = repositoryIndexManager.getRepositoryIndex(storageId + ":" + repositoryId);
             if (indexer != null)
             {
@@ -270,20 +385,27 @@ public class ArtifactManagementServiceImpl
         final Repository destRepository = destStorage.getRepository(destRepositoryId);
 
         File srcFile = new File(srcRepository.getBasedir(), path);
-        File destFile = new File(destRepository.getBasedir(), path);
 
-        if (srcFile.isDirectory())
+        // Depending on the storage provider, this may only link the destination to the content of the source.
+        StorageProvider storageProvider = storageProviderRegistry.getProvider(destRepository.getImplementation());
+        if (storageProvider == null)
         {
-            FileUtils.copyDirectoryToDirectory(srcFile, destFile.getParentFile());
+            storageProvider = filesystemStorageProvider;
+        }
+        storageProvider.copy(srcRepository, destRepository, path);
 
+        if (srcFile.isDirectory())
+        {
             // TODO: SB-377: Sort out the logic for artifact directory paths
             // TODO: SB-377: addArtifactToIndex(destStorageId, destRepositoryId, path);
         }
         else
         {
-            FileUtils.copyFile(srcFile, destFile);
             addArtifactToIndex(destStorageId, destRepositoryId, path);
         }
+
+        artifactNotFoundCache.invalidate(path);
+        groupResolvedLocationCache.invalidateAllUnder(path);
     }
 
     private void validateUploadedChecksumAgainstCache(byte[] checksum,
@@ -395,6 +517,8 @@ public class ArtifactManagementServiceImpl
             LayoutProvider layoutProvider = getLayoutProvider(repository, layoutProviderRegistry);
             layoutProvider.undelete(storageId, repositoryId, artifactPath);
 
+            groupResolvedLocationCache.invalidateAllUnder(artifactPath);
+
             /*
             // TODO: This will need further fixing:
             final RepositoryIndexer indexer = repositoryIndexManager.getRepositoryIndex(storageId + ":" + repositoryId);
@@ -4,11 +4,13 @@ import org.carlspring.strongbox.configuration.Configuration;
 import org.carlspring.strongbox.configuration.ConfigurationManager;
 import org.carlspring.strongbox.configuration.ConfigurationRepository;
 import org.carlspring.strongbox.configuration.ProxyConfiguration;
+import org.carlspring.strongbox.providers.repository.GroupResolvedLocationCache;
 import org.carlspring.strongbox.services.ConfigurationManagementService;
 import org.carlspring.strongbox.storage.Storage;
 import org.carlspring.strongbox.storage.repository.HttpConnectionPool;
 import org.carlspring.strongbox.storage.repository.Repository;
 import org.carlspring.strongbox.storage.repository.RepositoryTypeEnum;
+import org.carlspring.strongbox.storage.routing.CompiledRoutingRulesCache;
 import org.carlspring.strongbox.storage.routing.RoutingRule;
 import org.carlspring.strongbox.storage.routing.RoutingRules;
 import org.carlspring.strongbox.storage.routing.RuleSet;
@@ -43,6 +45,12 @@ public class ConfigurationManagementServiceImpl
     @Autowired
     ConfigurationRepository configurationRepository;
 
+    @Autowired
+    private GroupResolvedLocationCache groupResolvedLocationCache;
+
+    @Autowired
+    private CompiledRoutingRulesCache compiledRoutingRulesCache;
+
 
     @Override
     public void setConfiguration(Configuration configuration)
@@ -52,6 +60,8 @@ public class ConfigurationManagementServiceImpl
         configurationManager.setConfiguration(configuration);
         configurationManager.store();
         configurationManager.setRepositoryStorageRelationships();
+
+        groupResolvedLocationCache.invalidateAll();
     }
 
     @Override
@@ -131,6 +141,8 @@ public class ConfigurationManagementServiceImpl
         configuration.addStorage(storage);
         configurationManager.setConfiguration(configuration);
         configurationManager.store();
+
+        groupResolvedLocationCache.invalidateAll();
     }
 
     @Override
@@ -148,6 +160,8 @@ public class ConfigurationManagementServiceImpl
         configuration.getStorages().remove(storageId);
         configurationManager.setConfiguration(configuration);
         configurationManager.store();
+
+        groupResolvedLocationCache.invalidateAll();
     }
 
     @Override
@@ -159,6 +173,8 @@ public class ConfigurationManagementServiceImpl
         configuration.getStorage(storageId).addOrUpdateRepository(repository);
         configurationManager.setConfiguration(configuration);
         configurationManager.store();
+
+        groupResolvedLocationCache.invalidateAll();
     }
 
     @Override
@@ -223,6 +239,8 @@ public class ConfigurationManagementServiceImpl
             }
 
             configurationManager.store();
+
+            groupResolvedLocationCache.invalidateAll();
         }
     }
 
@@ -237,6 +255,8 @@ public class ConfigurationManagementServiceImpl
 
         configurationManager.setConfiguration(configuration);
         configurationManager.store();
+
+        groupResolvedLocationCache.invalidateAll();
     }
 
     @Override
@@ -377,11 +397,18 @@ public class ConfigurationManagementServiceImpl
     private void updateConfiguration(Configuration configuration)
     {
         configurationRepository.updateConfiguration(configuration);
+
+        // The routing rules have changed.
+        compiledRoutingRulesCache.invalidate();
+        groupResolvedLocationCache.invalidateAll();
     }
 
+    /**
+     * @return a copy of the live configuration, which replaces it on {@link #updateConfiguration(Configuration)}
+     */
     private Configuration getConfig()
     {
-        return configurationRepository.getConfiguration();
+        return configurationRepository.copyConfiguration();
     }
 
     public ConfigurationManager getConfigurationManager()
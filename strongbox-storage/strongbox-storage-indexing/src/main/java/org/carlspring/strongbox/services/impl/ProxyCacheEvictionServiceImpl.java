@@ -0,0 +1,399 @@
+package org.carlspring.strongbox.services.impl;
+
+import org.carlspring.maven.commons.util.ArtifactUtils;
+import org.carlspring.strongbox.configuration.Configuration;
+import org.carlspring.strongbox.configuration.ConfigurationManager;
+import org.carlspring.strongbox.providers.repository.GroupMergedMetadataCache;
+import org.carlspring.strongbox.providers.repository.GroupResolvedLocationCache;
+import org.carlspring.strongbox.providers.repository.ProxyCacheAccessTracker;
+import org.carlspring.strongbox.services.ConfigurationService;
+import org.carlspring.strongbox.services.ProxyCacheEvictionService;
+import org.carlspring.strongbox.storage.ArtifactStorageException;
+import org.carlspring.strongbox.storage.Storage;
+import org.carlspring.strongbox.storage.indexing.RepositoryIndexManager;
+import org.carlspring.strongbox.storage.indexing.RepositoryIndexer;
+import org.carlspring.strongbox.storage.repository.CacheEvictionConfiguration;
+import org.carlspring.strongbox.storage.repository.CacheEvictionPolicyEnum;
+import org.carlspring.strongbox.storage.repository.Repository;
+import org.carlspring.strongbox.storage.repository.RepositoryTypeEnum;
+import org.carlspring.strongbox.util.ArtifactFileUtils;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.index.ArtifactInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Evicts whole artifacts, that is an artifact file along with its checksums and signature, so that the cache
+ * never serves checksums without the file they belong to. The metadata is left in place, as it's small and it's
+ * revalidated against the remote anyway.
+ * <p>
+ * The files are deleted, rather than moved to the trash. Requests, which are reading them at the time, keep
+ * reading the already opened files, while the following requests fetch them from the remote again. The evicted
+ * artifacts are also removed from the index of the repository and from what the group repositories have cached
+ * about them.
+ * <p>
+ * A cache is only walked, once its estimated size (see {@link ProxyCacheAccessTracker}) exceeds its quota, or when
+ * it hasn't been walked since the startup.
+ */
+@Component
+public class ProxyCacheEvictionServiceImpl
+        implements ProxyCacheEvictionService, ConfigurationService
+{
+
+    private static final Logger logger = LoggerFactory.getLogger(ProxyCacheEvictionServiceImpl.class);
+
+    private static final String SIGNATURE_EXTENSION = ".asc";
+
+    private static final String METADATA_FILE_NAME = "maven-metadata.xml";
+
+    @Autowired
+    private ConfigurationManager configurationManager;
+
+    @Autowired
+    private ProxyCacheAccessTracker proxyCacheAccessTracker;
+
+    @Autowired
+    private RepositoryIndexManager repositoryIndexManager;
+
+    @Autowired
+    private GroupResolvedLocationCache groupResolvedLocationCache;
+
+    @Autowired
+    private GroupMergedMetadataCache groupMergedMetadataCache;
+
+
+    @Override
+    public long evict(String storageId,
+                      String repositoryId)
+            throws IOException
+    {
+        Storage storage = getConfiguration().getStorage(storageId);
+        Repository repository = storage != null ? storage.getRepository(repositoryId) : null;
+        if (repository == null || !RepositoryTypeEnum.PROXY.getType().equals(repository.getType()))
+        {
+            throw new ArtifactStorageException(storageId + ":" + repositoryId + " is not a proxy repository.");
+        }
+
+        return evict(repository);
+    }
+
+    @Override
+    public long evict()
+            throws IOException
+    {
+        long evicted = 0;
+        for (Storage storage : getConfiguration().getStorages().values())
+        {
+            for (Repository repository : storage.getRepositories().values())
+            {
+                if (RepositoryTypeEnum.PROXY.getType().equals(repository.getType()))
+                {
+                    evicted += evict(repository);
+                }
+            }
+        }
+
+        return evicted;
+    }
+
+    private long evict(Repository repository)
+            throws IOException
+    {
+        CacheEvictionConfiguration configuration = repository.getCacheEvictionConfiguration();
+        if (configuration == null || !configuration.isEnabled() || configuration.getMaxSizeBytes() <= 0)
+        {
+            return 0;
+        }
+
+        String repositoryKey = repository.getStorage().getId() + ":" + repository.getId();
+
+        long estimatedSize = proxyCacheAccessTracker.getEstimatedSize(repository);
+        if (estimatedSize >= 0 && estimatedSize <= configuration.getMaxSizeBytes())
+        {
+            logger.debug("The cache of " + repositoryKey + " (about " + estimatedSize + " bytes) is within its quota.");
+
+            return 0;
+        }
+
+        Path basedir = Paths.get(repository.getBasedir());
+        if (!Files.isDirectory(basedir))
+        {
+            return 0;
+        }
+
+        Map<String, CachedArtifact> artifacts = new HashMap<>();
+        long size = collect(basedir, artifacts);
+
+        if (size <= configuration.getMaxSizeBytes())
+        {
+            logger.debug("The cache of " + repositoryKey + " (" + size + " bytes) is within its quota.");
+
+            proxyCacheAccessTracker.setEstimatedSize(repository, size);
+
+            return 0;
+        }
+
+        List<CachedArtifact> candidates = new ArrayList<>(artifacts.values());
+        for (CachedArtifact artifact : candidates)
+        {
+            ProxyCacheAccessTracker.Access access = proxyCacheAccessTracker.getAccess(repository, artifact.path);
+            if (access != null)
+            {
+                artifact.lastAccessed = Math.max(artifact.lastAccessed, access.getLastAccessed());
+                artifact.count = access.getCount();
+            }
+        }
+        candidates.sort(getComparator(configuration.getPolicyEnum()));
+
+        long targetSize = configuration.getTargetSizeBytes();
+        long evicted = 0;
+        int evictedArtifacts = 0;
+        for (CachedArtifact artifact : candidates)
+        {
+            if (size - evicted <= targetSize)
+            {
+                break;
+            }
+
+            evicted += delete(artifact);
+            evictedArtifacts++;
+
+            proxyCacheAccessTracker.forget(repository, artifact.path);
+
+            deleteFromIndex(repository, artifact.path);
+            invalidateGroupCaches(artifact);
+        }
+
+        proxyCacheAccessTracker.setEstimatedSize(repository, size - evicted);
+
+        logger.info("Evicted " + evictedArtifacts + " artifacts (" + evicted + " bytes) from the cache of " +
+                    repositoryKey + " (" + configuration.getPolicyEnum() + ").");
+
+        return evicted;
+    }
+
+    /**
+     * @return the total size of the repository
+     */
+    private long collect(Path basedir,
+                         Map<String, CachedArtifact> artifacts)
+            throws IOException
+    {
+        long[] size = new long[1];
+
+        Files.walkFileTree(basedir, new SimpleFileVisitor<Path>()
+        {
+
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir,
+                                                     BasicFileAttributes attrs)
+            {
+                // The index, the trash, the temporary files and the quarantine.
+                return !dir.equals(basedir) && dir.getFileName().toString().startsWith(".") ?
+                       FileVisitResult.SKIP_SUBTREE :
+                       FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file,
+                                             BasicFileAttributes attrs)
+            {
+                size[0] += attrs.size();
+
+                String path = basedir.relativize(file).toString().replace('\\', '/');
+                if (ArtifactFileUtils.isMetadataFile("/" + path))
+                {
+                    return FileVisitResult.CONTINUE;
+                }
+
+                String artifactPath = getArtifactPath(path);
+                CachedArtifact artifact = artifacts.computeIfAbsent(artifactPath, CachedArtifact::new);
+                artifact.files.add(file);
+                artifact.paths.add(path);
+
+                // The access time survives restarts, where the file system maintains it (it doesn't with noatime).
+                artifact.lastAccessed = Math.max(artifact.lastAccessed,
+                                                 Math.max(attrs.lastModifiedTime().toMillis(),
+                                                          attrs.lastAccessTime().toMillis()));
+
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file,
+                                                   IOException e)
+            {
+                // Most likely moved into place, or deleted, while walking.
+                logger.debug("Failed to visit " + file + ".", e);
+
+                return FileVisitResult.CONTINUE;
+            }
+
+        });
+
+        return size[0];
+    }
+
+    private long delete(CachedArtifact artifact)
+    {
+        long deleted = 0;
+        for (Path file : artifact.files)
+        {
+            try
+            {
+                long size = Files.size(file);
+                if (Files.deleteIfExists(file))
+                {
+                    deleted += size;
+                }
+            }
+            catch (IOException e)
+            {
+                logger.warn("Failed to evict " + file + ".", e);
+            }
+        }
+
+        return deleted;
+    }
+
+    private void deleteFromIndex(Repository repository,
+                                 String artifactPath)
+    {
+        String storageId = repository.getStorage().getId();
+
+        RepositoryIndexer indexer = repositoryIndexManager.getRepositoryIndex(storageId + ":" + repository.getId());
+        if (indexer == null)
+        {
+            return;
+        }
+
+        try
+        {
+            Artifact artifact = ArtifactUtils.convertPathToArtifact(artifactPath);
+            String extension = artifactPath.substring(artifactPath.lastIndexOf('.') + 1);
+
+            indexer.delete(Collections.singletonList(new ArtifactInfo(repository.getId(),
+                                                                      artifact.getGroupId(),
+                                                                      artifact.getArtifactId(),
+                                                                      artifact.getVersion(),
+                                                                      artifact.getClassifier(),
+                                                                      extension)));
+        }
+        catch (IOException | RuntimeException e)
+        {
+            // The artifact is gone either way, the index only points to it, until the next reindexing.
+            logger.warn("Failed to remove " + artifactPath + " from the index of " + storageId + ":" +
+                        repository.getId() + ".", e);
+        }
+    }
+
+    /**
+     * Makes the group repositories resolve the evicted files, as well as the metadata of the artifact and its
+     * version, again.
+     */
+    private void invalidateGroupCaches(CachedArtifact artifact)
+    {
+        for (String path : artifact.paths)
+        {
+            groupResolvedLocationCache.invalidate(path);
+        }
+
+        int versionIndex = artifact.path.lastIndexOf('/');
+        if (versionIndex < 0)
+        {
+            return;
+        }
+
+        String versionDirectory = artifact.path.substring(0, versionIndex);
+        groupMergedMetadataCache.invalidate(versionDirectory + "/" + METADATA_FILE_NAME);
+
+        int artifactIndex = versionDirectory.lastIndexOf('/');
+        if (artifactIndex >= 0)
+        {
+            groupMergedMetadataCache.invalidate(versionDirectory.substring(0, artifactIndex) + "/" +
+                                                METADATA_FILE_NAME);
+        }
+    }
+
+    /**
+     * @return the path of the artifact, which the given checksum, or signature belongs to
+     */
+    static String getArtifactPath(String path)
+    {
+        String artifactPath = path;
+        while (ArtifactFileUtils.isChecksum(artifactPath) || artifactPath.endsWith(SIGNATURE_EXTENSION))
+        {
+            artifactPath = artifactPath.substring(0, artifactPath.lastIndexOf('.'));
+        }
+
+        return artifactPath;
+    }
+
+    /**
+     * Under LFU, the artifacts which aren't tracked (because they were cached before the startup, warmed up, or
+     * dropped from the tracker) count as used once. Counting them as never used would evict whatever has just been
+     * warmed up, or was cached before a restart, ahead of everything which has been served since.
+     */
+    private static Comparator<CachedArtifact> getComparator(CacheEvictionPolicyEnum policy)
+    {
+        Comparator<CachedArtifact> leastRecentlyUsed = Comparator.comparingLong(a -> a.lastAccessed);
+
+        return policy == CacheEvictionPolicyEnum.LFU ?
+               Comparator.<CachedArtifact>comparingLong(a -> a.count).thenComparing(leastRecentlyUsed) :
+               leastRecentlyUsed;
+    }
+
+    @Override
+    public Configuration getConfiguration()
+    {
+        return configurationManager.getConfiguration();
+    }
+
+    private static class CachedArtifact
+    {
+
+        private final String path;
+
+        private final List<Path> files = new ArrayList<>();
+
+        /**
+         * The paths of the files, relative to the repository.
+         */
+        private final List<String> paths = new ArrayList<>();
+
+        /**
+         * When it was last served, or cached, if it hasn't been served since the startup.
+         */
+        private long lastAccessed;
+
+        /**
+         * How often it has been served since the startup, or 1, if it isn't tracked.
+         */
+        private long count = 1;
+
+
+        CachedArtifact(String path)
+        {
+            this.path = path;
+        }
+
+    }
+
+}
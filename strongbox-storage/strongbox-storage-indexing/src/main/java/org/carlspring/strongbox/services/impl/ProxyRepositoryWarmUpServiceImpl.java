@@ -0,0 +1,458 @@
+package org.carlspring.strongbox.services.impl;
+
+import static org.carlspring.strongbox.providers.layout.LayoutProviderRegistry.getLayoutProvider;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.RateLimiter;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Parent;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.carlspring.maven.commons.util.ArtifactUtils;
+import org.carlspring.strongbox.configuration.Configuration;
+import org.carlspring.strongbox.configuration.ConfigurationManager;
+import org.carlspring.strongbox.io.ArtifactInputStream;
+import org.carlspring.strongbox.providers.layout.LayoutProvider;
+import org.carlspring.strongbox.providers.layout.LayoutProviderRegistry;
+import org.carlspring.strongbox.providers.repository.RepositoryProvider;
+import org.carlspring.strongbox.providers.repository.RepositoryProviderRegistry;
+import org.carlspring.strongbox.services.ConfigurationService;
+import org.carlspring.strongbox.services.ProxyRepositoryWarmUpService;
+import org.carlspring.strongbox.storage.ArtifactStorageException;
+import org.carlspring.strongbox.storage.Storage;
+import org.carlspring.strongbox.storage.indexing.RepositoryIndexManager;
+import org.carlspring.strongbox.storage.indexing.RepositoryIndexer;
+import org.carlspring.strongbox.storage.indexing.SearchResult;
+import org.carlspring.strongbox.storage.proxy.ProxyRepositoryWarmUpProgress;
+import org.carlspring.strongbox.storage.repository.Repository;
+import org.carlspring.strongbox.storage.repository.RepositoryTypeEnum;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * All the warm-ups share one pool of fetching threads (proxy.warmUp.threads), so running several of them at the same
+ * time queues their paths, rather than multiplying the threads.
+ */
+@Component
+public class ProxyRepositoryWarmUpServiceImpl
+        implements ProxyRepositoryWarmUpService, ConfigurationService
+{
+
+    private static final Logger logger = LoggerFactory.getLogger(ProxyRepositoryWarmUpServiceImpl.class);
+
+    private static final Pattern PROPERTY_PATTERN = Pattern.compile("\\$\\{([^}]+)}");
+
+    private static final String CHECKSUM_EXTENSION = ".sha1";
+
+    /**
+     * The dependency types, whose artifacts are packaged as jars.
+     */
+    private static final Set<String> JAR_TYPES = new HashSet<>(Arrays.asList("jar", "bundle", "maven-plugin", "ejb"));
+
+    @Autowired
+    private ConfigurationManager configurationManager;
+
+    @Autowired
+    private RepositoryProviderRegistry repositoryProviderRegistry;
+
+    @Autowired
+    private LayoutProviderRegistry layoutProviderRegistry;
+
+    @Autowired
+    private RepositoryIndexManager repositoryIndexManager;
+
+    @Value("${proxy.warmUp.threads:8}")
+    private int threads;
+
+    /**
+     * Shared by all the warm-ups, so that running several of them doesn't overload the remote.
+     */
+    @Value("${proxy.warmUp.requestsPerSecondPerHost:20}")
+    private double requestsPerSecondPerHost;
+
+    /**
+     * K: The host of the remote repository
+     * V: The limiter of the rate at which it is requested.
+     */
+    private final ConcurrentMap<String, RateLimiter> rateLimiters = new ConcurrentHashMap<>();
+
+    private ExecutorService executor;
+
+
+    @PostConstruct
+    public void init()
+    {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "proxy-warm-up-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void destroy()
+    {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public Set<String> getPathsOfArtifacts(Collection<String> gavs)
+    {
+        Set<String> paths = new LinkedHashSet<>();
+        for (String gav : gavs)
+        {
+            if (gav == null || gav.trim().isEmpty())
+            {
+                continue;
+            }
+
+            try
+            {
+                addPaths(paths, ArtifactUtils.getArtifactFromGAVTC(gav.trim()));
+            }
+            catch (RuntimeException e)
+            {
+                logger.warn("Skipping the invalid artifact coordinates '" + gav + "'.");
+            }
+        }
+
+        return paths;
+    }
+
+    @Override
+    public Set<String> getPathsOfDependencies(InputStream pom)
+            throws IOException, XmlPullParserException
+    {
+        Model model = new MavenXpp3Reader().read(pom);
+
+        Properties properties = new Properties();
+        properties.putAll(model.getProperties());
+
+        // The groupId and the version are inherited from the parent, unless they're overridden.
+        Parent parent = model.getParent();
+        String groupId = model.getGroupId() != null ?
+                         model.getGroupId() :
+                         (parent != null ? parent.getGroupId() : null);
+        String version = model.getVersion() != null ?
+                         model.getVersion() :
+                         (parent != null ? parent.getVersion() : null);
+
+        setProjectProperty(properties, "groupId", groupId);
+        setProjectProperty(properties, "artifactId", model.getArtifactId());
+        setProjectProperty(properties, "version", version);
+
+        Set<String> paths = new LinkedHashSet<>();
+
+        if (parent != null)
+        {
+            addPaths(paths, parent.getGroupId(), parent.getArtifactId(), parent.getVersion(), "pom", null, properties);
+        }
+
+        List<Dependency> dependencies = new ArrayList<>(model.getDependencies());
+        if (model.getDependencyManagement() != null)
+        {
+            dependencies.addAll(model.getDependencyManagement().getDependencies());
+        }
+
+        for (Dependency dependency : dependencies)
+        {
+            addPaths(paths,
+                     dependency.getGroupId(),
+                     dependency.getArtifactId(),
+                     dependency.getVersion(),
+                     dependency.getType(),
+                     dependency.getClassifier(),
+                     properties);
+        }
+
+        return paths;
+    }
+
+    @Override
+    public Set<String> getPathsUnderPrefix(String storageId,
+                                           String repositoryId,
+                                           String prefix)
+            throws IOException
+    {
+        RepositoryIndexer indexer = repositoryIndexManager.getRepositoryIndex(storageId + ":" + repositoryId);
+        if (indexer == null)
+        {
+            throw new ArtifactStorageException("Repository " + storageId + ":" + repositoryId + " has no index.");
+        }
+
+        String normalizedPrefix = prefix.replaceAll("^/+", "").replaceAll("/+$", "");
+
+        // The prefix is either a group, or an artifact of the group denoted by its parent directory.
+        Set<SearchResult> results = new LinkedHashSet<>(indexer.search(normalizedPrefix.replace('/', '.'),
+                                                                       null,
+                                                                       null,
+                                                                       null,
+                                                                       null));
+
+        int lastSlash = normalizedPrefix.lastIndexOf('/');
+        if (lastSlash > 0)
+        {
+            results.addAll(indexer.search(normalizedPrefix.substring(0, lastSlash).replace('/', '.'),
+                                          normalizedPrefix.substring(lastSlash + 1),
+                                          null,
+                                          null,
+                                          null));
+        }
+
+        Set<String> paths = new LinkedHashSet<>();
+        for (SearchResult result : results)
+        {
+            if (result.getPath().startsWith(normalizedPrefix + "/"))
+            {
+                addPaths(paths, ArtifactUtils.convertPathToArtifact(result.getPath()));
+            }
+        }
+
+        return paths;
+    }
+
+    @Override
+    public ProxyRepositoryWarmUpProgress warmUp(String storageId,
+                                                String repositoryId,
+                                                Collection<String> paths,
+                                                Consumer<ProxyRepositoryWarmUpProgress> progressListener)
+            throws IOException
+    {
+        try
+        {
+            return warmUpAsync(storageId, repositoryId, paths, progressListener).get();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+
+            throw new InterruptedIOException("Interrupted while warming up " + storageId + ":" + repositoryId);
+        }
+        catch (ExecutionException e)
+        {
+            throw new IOException("Failed to warm up " + storageId + ":" + repositoryId, e.getCause());
+        }
+    }
+
+    @Override
+    public CompletableFuture<ProxyRepositoryWarmUpProgress> warmUpAsync(String storageId,
+                                                                        String repositoryId,
+                                                                        Collection<String> paths,
+                                                                        Consumer<ProxyRepositoryWarmUpProgress> progressListener)
+            throws IOException
+    {
+        Storage storage = getConfiguration().getStorage(storageId);
+        Repository repository = storage != null ? storage.getRepository(repositoryId) : null;
+        if (repository == null || !RepositoryTypeEnum.PROXY.getType().equals(repository.getType()))
+        {
+            throw new ArtifactStorageException(storageId + ":" + repositoryId + " is not a proxy repository.");
+        }
+
+        RepositoryProvider repositoryProvider = repositoryProviderRegistry.getProvider(repository.getType());
+        LayoutProvider layoutProvider = getLayoutProvider(repository, layoutProviderRegistry);
+        RateLimiter rateLimiter = getRateLimiter(repository);
+
+        ProxyRepositoryWarmUpProgress progress = new ProxyRepositoryWarmUpProgress(paths.size());
+
+        logger.info("Warming up the cache of " + storageId + ":" + repositoryId + " with " + paths.size() + " paths...");
+
+        List<CompletableFuture<Void>> fetches = new ArrayList<>(paths.size());
+        for (String path : paths)
+        {
+            fetches.add(CompletableFuture.runAsync(() -> {
+                fetch(repositoryProvider, layoutProvider, rateLimiter, repository, storageId, path, progress);
+
+                if (progressListener != null)
+                {
+                    progressListener.accept(progress);
+                }
+            }, executor));
+        }
+
+        return CompletableFuture.allOf(fetches.toArray(new CompletableFuture[fetches.size()]))
+                                .thenApply(v -> {
+                                    logger.info("Warmed up the cache of " + storageId + ":" + repositoryId + ": " +
+                                                progress + ".");
+
+                                    return progress;
+                                });
+    }
+
+    private void fetch(RepositoryProvider repositoryProvider,
+                       LayoutProvider layoutProvider,
+                       RateLimiter rateLimiter,
+                       Repository repository,
+                       String storageId,
+                       String path,
+                       ProxyRepositoryWarmUpProgress progress)
+    {
+        try
+        {
+            if (layoutProvider.containsPath(repository, path))
+            {
+                progress.recordAlreadyCached();
+                return;
+            }
+
+            rateLimiter.acquire();
+
+            try (ArtifactInputStream is = repositoryProvider.getInputStream(storageId, repository.getId(), path))
+            {
+                if (is == null)
+                {
+                    progress.recordNotFound();
+                    return;
+                }
+
+                // Reading it through is what stores it in the cache.
+                ByteStreams.exhaust(is);
+            }
+
+            progress.recordFetched();
+        }
+        catch (Exception e)
+        {
+            logger.warn("Failed to warm up " + storageId + ":" + repository.getId() + "/" + path + ".", e);
+
+            progress.recordFailed();
+        }
+    }
+
+    private RateLimiter getRateLimiter(Repository repository)
+    {
+        String host = repository.getRemoteRepository() != null ?
+                      URI.create(repository.getRemoteRepository().getUrl()).getHost() :
+                      null;
+
+        return rateLimiters.computeIfAbsent(String.valueOf(host), h -> RateLimiter.create(requestsPerSecondPerHost));
+    }
+
+    private void addPaths(Set<String> paths,
+                          String groupId,
+                          String artifactId,
+                          String version,
+                          String type,
+                          String classifier,
+                          Properties properties)
+    {
+        groupId = interpolate(groupId, properties);
+        artifactId = interpolate(artifactId, properties);
+        version = interpolate(version, properties);
+        if (groupId == null || artifactId == null || version == null)
+        {
+            logger.debug("Skipping " + groupId + ":" + artifactId + ", as its coordinates could not be determined.");
+            return;
+        }
+
+        String gavtc = groupId + ":" + artifactId + ":" + version;
+        if ("test-jar".equals(type))
+        {
+            gavtc += ":jar:tests";
+        }
+        else
+        {
+            String extension = type == null || JAR_TYPES.contains(type) ? "jar" : type;
+
+            gavtc += ":" + extension + (classifier != null ? ":" + classifier : "");
+        }
+
+        addPaths(paths, ArtifactUtils.getArtifactFromGAVTC(gavtc));
+    }
+
+    private void addPaths(Set<String> paths,
+                          Artifact artifact)
+    {
+        String path = ArtifactUtils.convertArtifactToPath(artifact);
+        paths.add(path);
+        paths.add(path + CHECKSUM_EXTENSION);
+
+        String pomPath = ArtifactUtils.convertArtifactToPath(ArtifactUtils.getPOMArtifact(artifact));
+        paths.add(pomPath);
+        paths.add(pomPath + CHECKSUM_EXTENSION);
+    }
+
+    /**
+     * Makes the given coordinate of the project available under the names, with which POMs refer to it.
+     */
+    private static void setProjectProperty(Properties properties,
+                                           String name,
+                                           String value)
+    {
+        if (value == null)
+        {
+            return;
+        }
+
+        properties.setProperty("project." + name, value);
+        properties.setProperty("pom." + name, value);
+        properties.setProperty(name, value);
+    }
+
+    /**
+     * @return the value with its properties resolved, or null, if some of them couldn't be resolved
+     */
+    private String interpolate(String value,
+                               Properties properties)
+    {
+        if (value == null)
+        {
+            return null;
+        }
+
+        StringBuffer result = new StringBuffer();
+
+        Matcher matcher = PROPERTY_PATTERN.matcher(value);
+        while (matcher.find())
+        {
+            String property = properties.getProperty(matcher.group(1));
+            if (property == null)
+            {
+                return null;
+            }
+
+            matcher.appendReplacement(result, Matcher.quoteReplacement(property));
+        }
+        matcher.appendTail(result);
+
+        return result.toString();
+    }
+
+    @Override
+    public Configuration getConfiguration()
+    {
+        return configurationManager.getConfiguration();
+    }
+
+}
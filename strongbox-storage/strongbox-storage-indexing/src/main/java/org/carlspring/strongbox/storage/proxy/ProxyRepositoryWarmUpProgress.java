@@ -0,0 +1,92 @@
+package org.carlspring.strongbox.storage.proxy;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The progress of populating the cache of a proxy repository ahead of time.
+ */
+public class ProxyRepositoryWarmUpProgress
+{
+
+    private final long total;
+
+    private final AtomicLong fetched = new AtomicLong();
+
+    private final AtomicLong alreadyCached = new AtomicLong();
+
+    private final AtomicLong notFound = new AtomicLong();
+
+    private final AtomicLong failed = new AtomicLong();
+
+
+    public ProxyRepositoryWarmUpProgress(long total)
+    {
+        this.total = total;
+    }
+
+    public void recordFetched()
+    {
+        fetched.incrementAndGet();
+    }
+
+    public void recordAlreadyCached()
+    {
+        alreadyCached.incrementAndGet();
+    }
+
+    public void recordNotFound()
+    {
+        notFound.incrementAndGet();
+    }
+
+    public void recordFailed()
+    {
+        failed.incrementAndGet();
+    }
+
+    public long getTotal()
+    {
+        return total;
+    }
+
+    public long getFetched()
+    {
+        return fetched.get();
+    }
+
+    public long getAlreadyCached()
+    {
+        return alreadyCached.get();
+    }
+
+    public long getNotFound()
+    {
+        return notFound.get();
+    }
+
+    public long getFailed()
+    {
+        return failed.get();
+    }
+
+    public long getCompleted()
+    {
+        return getFetched() + getAlreadyCached() + getNotFound() + getFailed();
+    }
+
+    public boolean isDone()
+    {
+        return getCompleted() >= total;
+    }
+
+    @Override
+    public String toString()
+    {
+        return getCompleted() + "/" + total +
+               " (fetched: " + getFetched() +
+               ", already cached: " + getAlreadyCached() +
+               ", not found: " + getNotFound() +
+               ", failed: " + getFailed() + ")";
+    }
+
+}
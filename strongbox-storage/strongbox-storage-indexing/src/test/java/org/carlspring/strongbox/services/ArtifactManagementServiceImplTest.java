@@ -5,18 +5,33 @@ import org.carlspring.strongbox.client.ArtifactTransportException;
 import org.carlspring.strongbox.config.ClientConfig;
 import org.carlspring.strongbox.config.CommonConfig;
 import org.carlspring.strongbox.config.StorageApiConfig;
+import org.carlspring.strongbox.configuration.ConfigurationManager;
 import org.carlspring.strongbox.providers.ProviderImplementationException;
+import org.carlspring.strongbox.providers.repository.ArtifactNotFoundCache;
 import org.carlspring.strongbox.resource.ConfigurationResourceResolver;
 import org.carlspring.strongbox.resource.ResourceCloser;
 import org.carlspring.strongbox.storage.ArtifactStorageException;
+import org.carlspring.strongbox.storage.repository.NotFoundCacheConfiguration;
+import org.carlspring.strongbox.storage.repository.Repository;
 import org.carlspring.strongbox.testing.TestCaseWithArtifactGenerationWithIndexing;
+import org.carlspring.strongbox.util.MessageDigestUtils;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
 
+import org.apache.commons.codec.digest.MessageDigestAlgorithms;
 import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.repository.metadata.Metadata;
+import org.apache.maven.artifact.repository.metadata.Plugin;
+import org.apache.maven.artifact.repository.metadata.SnapshotVersion;
 import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
 import org.junit.Before;
 import org.junit.Test;
@@ -50,6 +65,15 @@ public class ArtifactManagementServiceImplTest
     @Autowired
     private ArtifactManagementService artifactManagementService;
 
+    @Autowired
+    private ArtifactMetadataService artifactMetadataService;
+
+    @Autowired
+    private ConfigurationManager configurationManager;
+
+    @Autowired
+    private ArtifactNotFoundCache artifactNotFoundCache;
+
     private static boolean INITIALIZED = false;
 
     @Before
@@ -304,6 +328,280 @@ public class ArtifactManagementServiceImplTest
         is.close();
     }
 
+    @Test
+    public void testDeploymentUpdatesTheMetadata()
+            throws NoSuchAlgorithmException,
+                   XmlPullParserException,
+                   IOException,
+                   ProviderImplementationException
+    {
+        String repositoryId = "releases";
+
+        for (String version : new String[]{ "1.0", "1.1" })
+        {
+            String gavtc = "org.carlspring.strongbox:strongbox-incremental:" + version + ":jar";
+
+            Artifact artifact = ArtifactUtils.getArtifactFromGAVTC(gavtc);
+            try (InputStream is = generateArtifactInputStream(STORAGE_BASEDIR.getAbsolutePath(),
+                                                              repositoryId,
+                                                              gavtc,
+                                                              true))
+            {
+                artifactManagementService.store("storage0",
+                                                repositoryId,
+                                                ArtifactUtils.convertArtifactToPath(artifact),
+                                                is);
+            }
+        }
+
+        Metadata metadata = artifactMetadataService.getMetadata("storage0",
+                                                                repositoryId,
+                                                                "org/carlspring/strongbox/strongbox-incremental");
+
+        assertNotNull("Failed to create the metadata on deployment!", metadata);
+        assertTrue(metadata.getVersioning().getVersions().contains("1.0"));
+        assertTrue(metadata.getVersioning().getVersions().contains("1.1"));
+        assertEquals("1.1", metadata.getVersioning().getRelease());
+    }
+
+    @Test
+    public void testDeploymentOrdersTheVersionsLikeARebuild()
+            throws NoSuchAlgorithmException,
+                   XmlPullParserException,
+                   IOException,
+                   ProviderImplementationException
+    {
+        String repositoryId = "releases";
+
+        for (String version : new String[]{ "1.9", "1.10" })
+        {
+            String gavtc = "org.carlspring.strongbox:strongbox-incremental-ordering:" + version + ":jar";
+
+            Artifact artifact = ArtifactUtils.getArtifactFromGAVTC(gavtc);
+            try (InputStream is = generateArtifactInputStream(STORAGE_BASEDIR.getAbsolutePath(),
+                                                              repositoryId,
+                                                              gavtc,
+                                                              true))
+            {
+                artifactManagementService.store("storage0",
+                                                repositoryId,
+                                                ArtifactUtils.convertArtifactToPath(artifact),
+                                                is);
+            }
+        }
+
+        Metadata metadata = artifactMetadataService.getMetadata("storage0",
+                                                                repositoryId,
+                                                                "org/carlspring/strongbox/strongbox-incremental-ordering");
+
+        // A string sort would have put 1.10 first and made 1.9 the latest.
+        assertEquals(Arrays.asList("1.9", "1.10"), metadata.getVersioning().getVersions());
+        assertEquals("1.10", metadata.getVersioning().getLatest());
+        assertEquals("1.10", metadata.getVersioning().getRelease());
+    }
+
+    @Test
+    public void testDeploymentOfATimestampedSnapshotUpdatesTheMetadata()
+            throws NoSuchAlgorithmException,
+                   XmlPullParserException,
+                   IOException,
+                   ProviderImplementationException
+    {
+        String repositoryId = "releases";
+        String artifactPath = "org/carlspring/strongbox/strongbox-incremental-snapshot";
+
+        String gavtc = "org.carlspring.strongbox:strongbox-incremental-snapshot:1.0:jar";
+        try (InputStream is = generateArtifactInputStream(STORAGE_BASEDIR.getAbsolutePath(),
+                                                          repositoryId,
+                                                          gavtc,
+                                                          true))
+        {
+            artifactManagementService.store("storage0",
+                                            repositoryId,
+                                            ArtifactUtils.convertArtifactToPath(ArtifactUtils.getArtifactFromGAVTC(gavtc)),
+                                            is);
+        }
+
+        Artifact snapshot = createTimestampedSnapshotArtifact(getTempDirectory(repositoryId).getAbsolutePath(),
+                                                              "org.carlspring.strongbox",
+                                                              "strongbox-incremental-snapshot",
+                                                              "1.1-SNAPSHOT");
+        deploy(repositoryId, snapshot);
+
+        Metadata metadata = artifactMetadataService.getMetadata("storage0", repositoryId, artifactPath);
+
+        assertEquals(Arrays.asList("1.0", "1.1-SNAPSHOT"), metadata.getVersioning().getVersions());
+        assertEquals("1.1-SNAPSHOT", metadata.getVersioning().getLatest());
+        assertEquals("A snapshot was made the release!", "1.0", metadata.getVersioning().getRelease());
+
+        Metadata snapshotMetadata = artifactMetadataService.getMetadata("storage0",
+                                                                        repositoryId,
+                                                                        artifactPath + "/1.1-SNAPSHOT");
+
+        assertNotNull("Failed to create the metadata of the snapshot!", snapshotMetadata);
+        assertEquals("1.1-SNAPSHOT", snapshotMetadata.getVersion());
+
+        boolean listed = false;
+        for (SnapshotVersion snapshotVersion : snapshotMetadata.getVersioning().getSnapshotVersions())
+        {
+            if ("jar".equals(snapshotVersion.getExtension()))
+            {
+                assertEquals(snapshot.getVersion(), snapshotVersion.getVersion());
+                listed = true;
+            }
+        }
+
+        assertTrue("Failed to list the timestamped snapshot!", listed);
+    }
+
+    @Test
+    public void testDeploymentOfAPluginUpdatesTheMetadataOfItsGroup()
+            throws NoSuchAlgorithmException,
+                   XmlPullParserException,
+                   IOException,
+                   ProviderImplementationException
+    {
+        String repositoryId = "releases";
+
+        File tempDirectory = getTempDirectory(repositoryId);
+        generatePluginArtifact(tempDirectory.getAbsolutePath(),
+                               "org.carlspring.strongbox.incremental:strongbox-incremental-maven-plugin",
+                               "1.0");
+
+        deploy(repositoryId,
+               ArtifactUtils.getArtifactFromGAVTC("org.carlspring.strongbox.incremental:strongbox-incremental-maven-plugin:1.0"));
+
+        // The metadata of the plugins lives in the directory of their group.
+        Metadata metadata = artifactMetadataService.getMetadata("storage0",
+                                                                repositoryId,
+                                                                "org/carlspring/strongbox/incremental");
+
+        assertNotNull("Failed to create the metadata of the plugin group!", metadata);
+        assertEquals(1, metadata.getPlugins().size());
+
+        Plugin plugin = metadata.getPlugins().get(0);
+
+        assertEquals("strongbox-incremental-maven-plugin", plugin.getArtifactId());
+        assertEquals("strongbox-incremental", plugin.getPrefix());
+    }
+
+    @Test
+    public void testDeploymentStoresTheChecksums()
+            throws NoSuchAlgorithmException,
+                   XmlPullParserException,
+                   IOException,
+                   ProviderImplementationException
+    {
+        String repositoryId = "releases";
+        String gavtc = "org.carlspring.strongbox:strongbox-checksums:1.0:jar";
+
+        Artifact artifact = ArtifactUtils.getArtifactFromGAVTC(gavtc);
+        String path = ArtifactUtils.convertArtifactToPath(artifact);
+
+        try (InputStream is = generateArtifactInputStream(STORAGE_BASEDIR.getAbsolutePath(),
+                                                          repositoryId,
+                                                          gavtc,
+                                                          true))
+        {
+            artifactManagementService.store("storage0", repositoryId, path, is);
+        }
+
+        Path artifactPath = REPOSITORY_BASEDIR.toPath().resolve(path);
+        byte[] content = Files.readAllBytes(artifactPath);
+
+        for (String algorithm : new String[]{ MessageDigestAlgorithms.MD5,
+                                              MessageDigestAlgorithms.SHA_1,
+                                              MessageDigestAlgorithms.SHA_256,
+                                              MessageDigestAlgorithms.SHA_512 })
+        {
+            String extension = algorithm.toLowerCase().replaceAll("-", "");
+            Path checksumPath = artifactPath.resolveSibling(artifactPath.getFileName() + "." + extension);
+
+            assertTrue("Failed to store the " + algorithm + " checksum!", Files.exists(checksumPath));
+            assertEquals("Stored an incorrect " + algorithm + " checksum!",
+                         MessageDigestUtils.convertToHexadecimalString(MessageDigest.getInstance(algorithm)
+                                                                                    .digest(content)),
+                         new String(Files.readAllBytes(checksumPath), StandardCharsets.UTF_8).trim());
+
+            Path metadataChecksumPath = artifactPath.getParent().resolveSibling("maven-metadata.xml." + extension);
+            assertTrue("Failed to store the " + algorithm + " checksum of the metadata!",
+                       Files.exists(metadataChecksumPath));
+        }
+
+        // The artifact was generated in the temporary location of the repository and must not have been overwritten.
+        assertArrayEquals(Files.readAllBytes(REPOSITORY_BASEDIR.toPath().resolve(".temp").resolve(path)), content);
+    }
+
+    @Test
+    public void testDeploymentInvalidatesTheNotFoundCache()
+            throws NoSuchAlgorithmException,
+                   XmlPullParserException,
+                   IOException,
+                   ArtifactTransportException,
+                   ProviderImplementationException
+    {
+        String gavtc = "org.carlspring.strongbox:strongbox-not-found:1.0:jar";
+
+        Artifact artifact = ArtifactUtils.getArtifactFromGAVTC(gavtc);
+        String path = ArtifactUtils.convertArtifactToPath(artifact);
+
+        Repository groupRepository = configurationManager.getRepository("storage0:group-releases");
+        groupRepository.setNotFoundCacheConfiguration(new NotFoundCacheConfiguration());
+        try
+        {
+            assertNull(artifactManagementService.resolve("storage0", "group-releases", path));
+            assertTrue(artifactNotFoundCache.isNotFound(groupRepository, path));
+
+            try (InputStream is = generateArtifactInputStream(STORAGE_BASEDIR.getAbsolutePath(),
+                                                              "releases",
+                                                              gavtc,
+                                                              true))
+            {
+                artifactManagementService.store("storage0", "releases", path, is);
+            }
+
+            assertFalse("Failed to forget the missing path on deployment!",
+                        artifactNotFoundCache.isNotFound(groupRepository, path));
+
+            try (InputStream is = artifactManagementService.resolve("storage0", "group-releases", path))
+            {
+                assertNotNull("Failed to resolve the deployed artifact from the group repository!", is);
+            }
+        }
+        finally
+        {
+            groupRepository.setNotFoundCacheConfiguration(null);
+        }
+    }
+
+    /**
+     * Stores the jar and the POM of an artifact, which was generated in the temporary directory of the repository.
+     */
+    private void deploy(String repositoryId,
+                        Artifact artifact)
+            throws IOException,
+                   ProviderImplementationException,
+                   NoSuchAlgorithmException
+    {
+        File tempDirectory = getTempDirectory(repositoryId);
+
+        String artifactPath = ArtifactUtils.convertArtifactToPath(artifact);
+        String pomPath = ArtifactUtils.convertArtifactToPath(ArtifactUtils.getPOMArtifact(artifact));
+
+        for (String path : new String[]{ artifactPath, pomPath })
+        {
+            try (InputStream is = new FileInputStream(new File(tempDirectory, path)))
+            {
+                artifactManagementService.store("storage0", repositoryId, path, is);
+            }
+        }
+    }
+
+    private File getTempDirectory(String repositoryId)
+    {
+        return new File(STORAGE_BASEDIR, repositoryId + "/.temp");
+    }
+
     @Test
     public void testForceDelete()
             throws IOException
@@ -0,0 +1,227 @@
+package org.carlspring.strongbox.services;
+
+import org.carlspring.strongbox.configuration.ConfigurationManager;
+import org.carlspring.strongbox.providers.repository.ProxyCacheAccessTracker;
+import org.carlspring.strongbox.storage.Storage;
+import org.carlspring.strongbox.storage.repository.CacheEvictionConfiguration;
+import org.carlspring.strongbox.storage.repository.CacheEvictionPolicyEnum;
+import org.carlspring.strongbox.storage.repository.RemoteRepository;
+import org.carlspring.strongbox.storage.repository.Repository;
+import org.carlspring.strongbox.storage.repository.RepositoryTypeEnum;
+import org.carlspring.strongbox.testing.TestCaseWithArtifactGenerationWithIndexing;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributeView;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Evicts the cache of a proxy, which holds four artifacts of 1040 bytes each (the jar and its checksum), down to
+ * 75% of its 3500 bytes quota, that is two of them.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+public class ProxyCacheEvictionServiceImplTest
+        extends TestCaseWithArtifactGenerationWithIndexing
+{
+
+    private static final String STORAGE_ID = "storage-eviction";
+
+    private static final String REPOSITORY_ID = "proxy-eviction";
+
+    private static final int JAR_SIZE = 1000;
+
+    private static final int ARTIFACT_SIZE = JAR_SIZE + 40;
+
+    private static final long MAX_SIZE = 3500;
+
+    private static final int TARGET_PERCENTAGE = 75;
+
+    private static final String ARTIFACT_A = getPath("a");
+
+    private static final String ARTIFACT_B = getPath("b");
+
+    private static final String ARTIFACT_C = getPath("c");
+
+    private static final String ARTIFACT_D = getPath("d");
+
+    @Autowired
+    private ConfigurationManager configurationManager;
+
+    @Autowired
+    private ProxyCacheEvictionService proxyCacheEvictionService;
+
+    @Autowired
+    private ProxyCacheAccessTracker proxyCacheAccessTracker;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Storage storage;
+
+    private Repository repository;
+
+    private long now;
+
+
+    @Before
+    public void setUp()
+            throws IOException
+    {
+        storage = new Storage(STORAGE_ID, temporaryFolder.newFolder(STORAGE_ID).getAbsolutePath());
+
+        RemoteRepository remoteRepository = new RemoteRepository();
+        remoteRepository.setUrl("http://localhost:48080/");
+
+        CacheEvictionConfiguration cacheEvictionConfiguration = new CacheEvictionConfiguration();
+        cacheEvictionConfiguration.setMaxSizeBytes(MAX_SIZE);
+        cacheEvictionConfiguration.setTargetPercentage(TARGET_PERCENTAGE);
+
+        repository = new Repository(REPOSITORY_ID);
+        repository.setStorage(storage);
+        repository.setImplementation("file-system");
+        repository.setLayout("Maven 2");
+        repository.setType(RepositoryTypeEnum.PROXY.getType());
+        repository.setRemoteRepository(remoteRepository);
+        repository.setCacheEvictionConfiguration(cacheEvictionConfiguration);
+        Files.createDirectories(Paths.get(repository.getBasedir()));
+
+        storage.addOrUpdateRepository(repository);
+
+        configurationManager.getConfiguration().addStorage(storage);
+
+        now = System.currentTimeMillis();
+    }
+
+    @After
+    public void tearDown()
+    {
+        for (String path : new String[]{ ARTIFACT_A, ARTIFACT_B, ARTIFACT_C, ARTIFACT_D })
+        {
+            proxyCacheAccessTracker.forget(repository, path);
+        }
+
+        // Not walked, as far as the next test is concerned.
+        proxyCacheAccessTracker.setEstimatedSize(repository, -1);
+
+        configurationManager.getConfiguration().removeStorage(storage);
+    }
+
+    @Test
+    public void testLeastRecentlyUsedArtifactsAreEvicted()
+            throws IOException
+    {
+        repository.getCacheEvictionConfiguration().setPolicy(CacheEvictionPolicyEnum.LRU.getPolicy());
+
+        cache(ARTIFACT_A, now - TimeUnit.HOURS.toMillis(4));
+        cache(ARTIFACT_B, now - TimeUnit.HOURS.toMillis(3));
+        cache(ARTIFACT_C, now - TimeUnit.HOURS.toMillis(2));
+        cache(ARTIFACT_D, now - TimeUnit.HOURS.toMillis(1));
+
+        // The oldest one has just been served.
+        proxyCacheAccessTracker.recordAccess(repository, ARTIFACT_A);
+
+        assertEvicted(ARTIFACT_A, ARTIFACT_D);
+    }
+
+    @Test
+    public void testLeastFrequentlyUsedArtifactsAreEvicted()
+            throws IOException
+    {
+        repository.getCacheEvictionConfiguration().setPolicy(CacheEvictionPolicyEnum.LFU.getPolicy());
+
+        cache(ARTIFACT_A, now - TimeUnit.HOURS.toMillis(4));
+        cache(ARTIFACT_B, now - TimeUnit.HOURS.toMillis(4));
+        cache(ARTIFACT_D, now - TimeUnit.HOURS.toMillis(3));
+
+        // The oldest ones have been served since the startup, the first one more often than the second one.
+        for (int i = 0; i < 3; i++)
+        {
+            proxyCacheAccessTracker.recordAccess(repository, ARTIFACT_A);
+        }
+        proxyCacheAccessTracker.recordAccess(repository, ARTIFACT_B);
+
+        // Warmed up after the second one was served, so it's not tracked, but it's more recent.
+        cache(ARTIFACT_C, proxyCacheAccessTracker.getAccess(repository, ARTIFACT_B).getLastAccessed() + 1000);
+
+        // The untracked ones count as used once and then it's the least recently used one first.
+        assertEvicted(ARTIFACT_A, ARTIFACT_C);
+    }
+
+    private void assertEvicted(String survivor1,
+                               String survivor2)
+            throws IOException
+    {
+        long evicted = proxyCacheEvictionService.evict(STORAGE_ID, REPOSITORY_ID);
+
+        assertEquals(2 * ARTIFACT_SIZE, evicted);
+
+        long targetSize = MAX_SIZE * TARGET_PERCENTAGE / 100;
+        long remaining = 4 * ARTIFACT_SIZE - evicted;
+
+        // Down to the target, but not any further than that.
+        assertTrue(remaining <= targetSize);
+        assertTrue(remaining + ARTIFACT_SIZE > targetSize);
+        assertEquals(remaining, proxyCacheAccessTracker.getEstimatedSize(repository));
+
+        for (String path : new String[]{ ARTIFACT_A, ARTIFACT_B, ARTIFACT_C, ARTIFACT_D })
+        {
+            boolean survived = path.equals(survivor1) || path.equals(survivor2);
+
+            // The checksums are evicted along with the artifact.
+            assertEquals("Unexpected eviction of " + path + "!", survived, Files.exists(resolve(path)));
+            assertEquals(survived, Files.exists(resolve(path + ".sha1")));
+
+            if (!survived)
+            {
+                assertNull(proxyCacheAccessTracker.getAccess(repository, path));
+            }
+        }
+    }
+
+    private void cache(String path,
+                       long lastAccessed)
+            throws IOException
+    {
+        byte[] content = new byte[JAR_SIZE];
+        byte[] checksum = DigestUtils.sha1Hex(content).getBytes(StandardCharsets.UTF_8);
+
+        Path file = resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content);
+        Files.write(resolve(path + ".sha1"), checksum);
+
+        FileTime time = FileTime.fromMillis(lastAccessed);
+        for (Path cachedFile : new Path[]{ file, resolve(path + ".sha1") })
+        {
+            Files.getFileAttributeView(cachedFile, BasicFileAttributeView.class).setTimes(time, time, null);
+        }
+    }
+
+    private Path resolve(String path)
+    {
+        return Paths.get(repository.getBasedir()).resolve(path);
+    }
+
+    private static String getPath(String artifactId)
+    {
+        return "org/carlspring/strongbox/eviction/" + artifactId + "/1.0/" + artifactId + "-1.0.jar";
+    }
+
+}
@@ -0,0 +1,148 @@
+package org.carlspring.strongbox.services;
+
+import org.carlspring.maven.commons.util.ArtifactUtils;
+import org.carlspring.strongbox.resource.ConfigurationResourceResolver;
+import org.carlspring.strongbox.testing.TestCaseWithArtifactGenerationWithIndexing;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+public class ProxyRepositoryWarmUpServiceImplTest
+        extends TestCaseWithArtifactGenerationWithIndexing
+{
+
+    private static final File REPOSITORY_BASEDIR = new File(ConfigurationResourceResolver.getVaultDirectory() +
+                                                            "/storages/storage0/releases");
+
+    private static final String POM = "<project>\n" +
+                                      "    <modelVersion>4.0.0</modelVersion>\n" +
+                                      "    <parent>\n" +
+                                      "        <groupId>org.carlspring.strongbox.warmup</groupId>\n" +
+                                      "        <artifactId>warmup-parent</artifactId>\n" +
+                                      "        <version>1.0</version>\n" +
+                                      "    </parent>\n" +
+                                      "    <artifactId>warmup-app</artifactId>\n" +
+                                      "    <properties>\n" +
+                                      "        <commons-io.version>2.4</commons-io.version>\n" +
+                                      "    </properties>\n" +
+                                      "    <dependencies>\n" +
+                                      "        <dependency>\n" +
+                                      "            <groupId>${project.groupId}</groupId>\n" +
+                                      "            <artifactId>${project.artifactId}-api</artifactId>\n" +
+                                      "            <version>${project.version}</version>\n" +
+                                      "        </dependency>\n" +
+                                      "        <dependency>\n" +
+                                      "            <groupId>commons-io</groupId>\n" +
+                                      "            <artifactId>commons-io</artifactId>\n" +
+                                      "            <version>${commons-io.version}</version>\n" +
+                                      "        </dependency>\n" +
+                                      "        <dependency>\n" +
+                                      "            <groupId>org.apache.felix</groupId>\n" +
+                                      "            <artifactId>org.apache.felix.framework</artifactId>\n" +
+                                      "            <version>5.6.1</version>\n" +
+                                      "            <type>bundle</type>\n" +
+                                      "        </dependency>\n" +
+                                      "        <dependency>\n" +
+                                      "            <groupId>org.apache.maven.plugins</groupId>\n" +
+                                      "            <artifactId>maven-jar-plugin</artifactId>\n" +
+                                      "            <version>3.0.2</version>\n" +
+                                      "            <type>maven-plugin</type>\n" +
+                                      "        </dependency>\n" +
+                                      "        <dependency>\n" +
+                                      "            <groupId>org.carlspring.strongbox.warmup</groupId>\n" +
+                                      "            <artifactId>warmup-unresolved</artifactId>\n" +
+                                      "            <version>${undefined.version}</version>\n" +
+                                      "        </dependency>\n" +
+                                      "    </dependencies>\n" +
+                                      "</project>\n";
+
+    @Autowired
+    private ProxyRepositoryWarmUpService proxyRepositoryWarmUpService;
+
+    @Autowired
+    private RepositoryManagementService repositoryManagementService;
+
+
+    @Test
+    public void testPathsOfDependencies()
+            throws Exception
+    {
+        Set<String> paths = proxyRepositoryWarmUpService.getPathsOfDependencies(
+                new ByteArrayInputStream(POM.getBytes(StandardCharsets.UTF_8)));
+
+        assertContains(paths, "org/carlspring/strongbox/warmup/warmup-parent/1.0/warmup-parent-1.0.pom");
+        assertContains(paths, "org/carlspring/strongbox/warmup/warmup-parent/1.0/warmup-parent-1.0.pom.sha1");
+
+        // The groupId and the version are inherited from the parent.
+        assertContains(paths, "org/carlspring/strongbox/warmup/warmup-app-api/1.0/warmup-app-api-1.0.jar");
+        assertContains(paths, "org/carlspring/strongbox/warmup/warmup-app-api/1.0/warmup-app-api-1.0.jar.sha1");
+        assertContains(paths, "org/carlspring/strongbox/warmup/warmup-app-api/1.0/warmup-app-api-1.0.pom");
+        assertContains(paths, "org/carlspring/strongbox/warmup/warmup-app-api/1.0/warmup-app-api-1.0.pom.sha1");
+
+        assertContains(paths, "commons-io/commons-io/2.4/commons-io-2.4.jar");
+
+        // Bundles and plugins are packaged as jars.
+        assertContains(paths, "org/apache/felix/org.apache.felix.framework/5.6.1/org.apache.felix.framework-5.6.1.jar");
+        assertContains(paths, "org/apache/maven/plugins/maven-jar-plugin/3.0.2/maven-jar-plugin-3.0.2.jar");
+
+        for (String path : paths)
+        {
+            assertFalse("Unexpected " + path + "!", path.contains("${") || path.contains("warmup-unresolved"));
+        }
+    }
+
+    @Test
+    public void testPathsUnderPrefix()
+            throws Exception
+    {
+        generateArtifact(REPOSITORY_BASEDIR.getAbsolutePath(),
+                         ArtifactUtils.getArtifactFromGAVTC("org.carlspring.strongbox.warmup:warmup-prefix:1.0:jar"));
+        generateArtifact(REPOSITORY_BASEDIR.getAbsolutePath(),
+                         ArtifactUtils.getArtifactFromGAVTC("org.carlspring.strongbox.warmup:warmup-prefix:1.1:jar"));
+        generateArtifact(REPOSITORY_BASEDIR.getAbsolutePath(),
+                         ArtifactUtils.getArtifactFromGAVTC("org.carlspring.strongbox.warmup:warmup-other:1.0:jar"));
+
+        repositoryManagementService.reIndex("storage0", "releases", "org/carlspring/strongbox/warmup");
+
+        // An artifact, under the path of its group.
+        Set<String> paths = proxyRepositoryWarmUpService.getPathsUnderPrefix("storage0",
+                                                                             "releases",
+                                                                             "/org/carlspring/strongbox/warmup/warmup-prefix/");
+
+        assertContains(paths, "org/carlspring/strongbox/warmup/warmup-prefix/1.0/warmup-prefix-1.0.jar");
+        assertContains(paths, "org/carlspring/strongbox/warmup/warmup-prefix/1.0/warmup-prefix-1.0.jar.sha1");
+        assertContains(paths, "org/carlspring/strongbox/warmup/warmup-prefix/1.0/warmup-prefix-1.0.pom");
+        assertContains(paths, "org/carlspring/strongbox/warmup/warmup-prefix/1.1/warmup-prefix-1.1.jar");
+
+        for (String path : paths)
+        {
+            assertTrue("Unexpected " + path + "!",
+                       path.startsWith("org/carlspring/strongbox/warmup/warmup-prefix/"));
+        }
+
+        // A whole group.
+        paths = proxyRepositoryWarmUpService.getPathsUnderPrefix("storage0",
+                                                                 "releases",
+                                                                 "org/carlspring/strongbox/warmup");
+
+        assertContains(paths, "org/carlspring/strongbox/warmup/warmup-prefix/1.1/warmup-prefix-1.1.jar");
+        assertContains(paths, "org/carlspring/strongbox/warmup/warmup-other/1.0/warmup-other-1.0.jar");
+    }
+
+    private static void assertContains(Set<String> paths,
+                                       String path)
+    {
+        assertTrue("Missing " + path + " in " + paths + "!", paths.contains(path));
+    }
+
+}
@@ -39,6 +39,7 @@ public enum Privileges
     MANAGEMENT_REBUILD_METADATA,
     MANAGEMENT_DELETE_METADATA,
     MANAGEMENT_REBUILD_INDEXES,
+    MANAGEMENT_WARM_UP_PROXY_CACHE,
     ADMIN_CREATE_REPO,
     ADMIN_UPDATE_REPO,
     ADMIN_DELETE_REPO,
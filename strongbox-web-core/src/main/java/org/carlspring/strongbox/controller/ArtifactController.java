@@ -8,6 +8,8 @@ import static org.springframework.http.HttpStatus.NOT_FOUND;
 import java.io.File;
 import java.io.IOException;
 import java.net.URLEncoder;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.security.NoSuchAlgorithmException;
 import java.text.SimpleDateFormat;
@@ -36,6 +38,7 @@ import org.carlspring.strongbox.storage.metadata.MavenMetadataManager;
 import org.carlspring.strongbox.storage.metadata.MetadataType;
 import org.carlspring.strongbox.storage.repository.Repository;
 import org.carlspring.strongbox.utils.ArtifactControllerHelper;
+import org.carlspring.strongbox.utils.NonBlockingArtifactTransfer;
 import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -74,9 +77,16 @@ public class ArtifactController
     // must be the same as @RequestMapping value on the class definition
     public final static String ROOT_CONTEXT = "/storages";
 
+    private static final String FILE_SYSTEM_IMPLEMENTATION = "file-system";
+
+    private static final String CONTENT_ADDRESSABLE_IMPLEMENTATION = "content-addressable";
+
     @Inject
     protected MavenMetadataManager mavenMetadataManager;
 
+    @Inject
+    private NonBlockingArtifactTransfer nonBlockingArtifactTransfer;
+
     @PreAuthorize("authenticated")
     @RequestMapping(value = "greet",
                     method = RequestMethod.GET)
@@ -101,10 +111,37 @@ public class ArtifactController
                                            required = true)
                                  @PathVariable(name = "repositoryId") String repositoryId,
                                  @PathVariable String path,
-                                 HttpServletRequest request)
+                                 HttpServletRequest request,
+                                 HttpServletResponse response)
     {
         try
         {
+            if (nonBlockingArtifactTransfer.isEnabled(request))
+            {
+                if (getStorage(storageId) == null)
+                {
+                    return ResponseEntity.status(NOT_FOUND)
+                                         .body("The specified storageId does not exist!");
+                }
+                Repository repository = getStorage(storageId).getRepository(repositoryId);
+                if (repository == null)
+                {
+                    return ResponseEntity.status(NOT_FOUND)
+                                         .body("The specified repositoryId does not exist!");
+                }
+
+                // The response is written, once the artifact has been received and stored.
+                nonBlockingArtifactTransfer.receive(request,
+                                                    response,
+                                                    Paths.get(repository.getBasedir()).resolve(".temp"),
+                                                    is -> getArtifactManagementService().store(storageId,
+                                                                                               repositoryId,
+                                                                                               path,
+                                                                                               is));
+
+                return null;
+            }
+
             getArtifactManagementService().store(storageId, repositoryId, path, request.getInputStream());
 
             return ResponseEntity.ok("The artifact was deployed successfully.");
@@ -179,12 +216,80 @@ public class ArtifactController
                 return;
             }
 
-            if (isRangedRequest(httpHeaders))
+            setMediaTypeHeader(path, response);
+
+            response.setHeader("Accept-Ranges", "bytes");
+
+            // The checksums are read from the stored .md5/.sha1 files, so they can be sent before the body.
+            ArtifactControllerHelper.setHeadersForChecksums(is, response);
+
+            // The validators are taken from the file, which is actually served. For a group repository,
+            // that's the file of the member, which the artifact was resolved from.
+            long size = -1L;
+            long lastModified = -1L;
+            Path servedPath = is.getPath();
+            if (servedPath != null && Files.isRegularFile(servedPath))
             {
-                logger.debug("Detecting range request....");
-                handlePartialDownload(is, httpHeaders, response);
+                size = Files.size(servedPath);
+                lastModified = Files.getLastModifiedTime(servedPath).toMillis();
+            }
+
+            String eTag = ArtifactControllerHelper.getETag(is, path, size, lastModified);
+            ArtifactControllerHelper.setCacheHeaders(repository, path, eTag, lastModified, response);
+
+            if (ArtifactControllerHelper.isNotModified(httpHeaders, eTag, lastModified))
+            {
+                logger.debug("Not modified: /" + storageId + "/" + repositoryId + "/" + path);
+
+                is.close();
+
+                response.setStatus(HttpStatus.NOT_MODIFIED.value());
+                return;
+            }
+
+            if (isRangedRequest(httpHeaders) && isZeroCopyTransferSupported(repository, path))
+            {
+                logger.debug("Serving range request for " + path + " directly from the file system...");
+
+                is.close();
+
+                handlePartialDownload(getFileSystemPath(repository, path), eTag, httpHeaders, response);
+            }
+            else if (isRangedRequest(httpHeaders))
+            {
+                logger.debug("Serving range request for " + path + " from the stream...");
+
+                try
+                {
+                    handlePartialDownload(is, eTag, size, lastModified, httpHeaders, response);
+                }
+                finally
+                {
+                    is.close();
+                }
+            }
+            else if (isZeroCopyTransferSupported(repository, path))
+            {
+                logger.debug("Serving " + path + " directly from the file system...");
+
+                // The stream was only needed to resolve the artifact and its stored checksums.
+                is.close();
+
+                if (nonBlockingArtifactTransfer.isEnabled(request))
+                {
+                    nonBlockingArtifactTransfer.transferToResponse(getFileSystemPath(repository, path),
+                                                                   request,
+                                                                   response);
+                }
+                else
+                {
+                    transferToResponse(getFileSystemPath(repository, path), response);
+                }
+            }
+            else
+            {
+                copyToResponse(is, response);
             }
-            copyToResponse(is, response);
         }
         catch (ArtifactResolutionException | ArtifactTransportException e)
         {
@@ -194,13 +299,33 @@ public class ArtifactController
             return;
         }
 
-        setMediaTypeHeader(path, response);
+        logger.debug("Download succeeded.");
+    }
 
-        response.setHeader("Accept-Ranges", "bytes");
+    /**
+     * Artifacts in hosted repositories backed by the file system don't need to be passed through the digesting
+     * {@link ArtifactInputStream}, as their checksums are already stored next to them. Such files can be written
+     * to the response straight from a {@link java.nio.channels.FileChannel}.
+     */
+    private boolean isZeroCopyTransferSupported(Repository repository,
+                                                String path)
+    {
+        return repository.isHostedRepository() && isStoredOnFileSystem(repository, path);
+    }
 
-        ArtifactControllerHelper.setHeadersForChecksums(is, response);
+    private boolean isStoredOnFileSystem(Repository repository,
+                                         String path)
+    {
+        // The content-addressable repositories keep hard links to their blobs, which are regular files as well.
+        return (FILE_SYSTEM_IMPLEMENTATION.equals(repository.getImplementation()) ||
+                CONTENT_ADDRESSABLE_IMPLEMENTATION.equals(repository.getImplementation())) &&
+               Files.isRegularFile(getFileSystemPath(repository, path));
+    }
 
-        logger.debug("Download succeeded.");
+    private Path getFileSystemPath(Repository repository,
+                                   String path)
+    {
+        return Paths.get(repository.getBasedir()).resolve(path);
     }
 
     private void setMediaTypeHeader(String path,
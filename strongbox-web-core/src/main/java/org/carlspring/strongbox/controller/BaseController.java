@@ -7,6 +7,11 @@ import javax.servlet.http.HttpServletResponse;
 import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.io.ByteStreams;
@@ -67,4 +72,40 @@ public abstract class BaseController
         }
     }
 
+    /**
+     * Writes the file to the response using {@link FileChannel#transferTo(long, long, WritableByteChannel)}, which
+     * lets the operating system move the bytes without copying them through the heap, where supported.
+     */
+    protected void transferToResponse(Path path,
+                                      HttpServletResponse response)
+            throws Exception
+    {
+        try (FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ))
+        {
+            long size = fileChannel.size();
+            response.setHeader("Content-Length", size + "");
+
+            WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+
+            long position = 0;
+            while (position < size)
+            {
+                long transferred = fileChannel.transferTo(position, size - position, target);
+                if (transferred <= 0)
+                {
+                    // The file was truncated while it was being served.
+                    break;
+                }
+
+                position += transferred;
+            }
+
+            response.flushBuffer();
+        }
+        catch (IOException e)
+        {
+            throw new RuntimeException("Unable transfer to response", e);
+        }
+    }
+
 }
@@ -1,6 +1,7 @@
 package org.carlspring.strongbox.controller;
 
 import org.carlspring.maven.commons.util.ArtifactUtils;
+import org.carlspring.strongbox.artifact.locator.ArtifactDirectoryCheckpointLockedException;
 import org.carlspring.strongbox.security.exceptions.AuthenticationException;
 import org.carlspring.strongbox.services.ArtifactMetadataService;
 import org.carlspring.strongbox.storage.ArtifactStorageException;
@@ -47,6 +48,8 @@ public class MetadataManagementController
                   position = 0)
     @ApiResponses(value = { @ApiResponse(code = 200,
                                          message = "The metadata was successfully rebuilt!"),
+                            @ApiResponse(code = 409,
+                                         message = "The metadata of the repository is already being rebuilt."),
                             @ApiResponse(code = 500,
                                          message = "An error occurred.") })
     @PreAuthorize("hasAuthority('MANAGEMENT_REBUILD_METADATA')")
@@ -72,6 +75,13 @@ public class MetadataManagementController
 
             return ResponseEntity.ok("The metadata was successfully rebuilt!");
         }
+        catch (ArtifactDirectoryCheckpointLockedException e)
+        {
+            logger.debug(e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                                 .body("The metadata of " + storageId + ":" + repositoryId +
+                                       " is already being rebuilt.");
+        }
         catch (ArtifactStorageException e)
         {
             logger.error(e.getMessage(), e);
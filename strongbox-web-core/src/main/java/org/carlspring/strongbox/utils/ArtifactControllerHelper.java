@@ -1,17 +1,32 @@
 package org.carlspring.strongbox.utils;
 
+import static org.springframework.http.HttpStatus.OK;
 import static org.springframework.http.HttpStatus.PARTIAL_CONTENT;
 import static org.springframework.http.HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
 import javax.servlet.http.HttpServletResponse;
 
-import org.carlspring.commons.http.range.ByteRange;
-import org.carlspring.commons.http.range.ByteRangeHeaderParser;
+import com.google.common.io.ByteStreams;
+import org.apache.commons.codec.digest.MessageDigestAlgorithms;
+import org.carlspring.maven.commons.util.ArtifactUtils;
 import org.carlspring.strongbox.io.ArtifactInputStream;
 import org.carlspring.strongbox.io.StreamUtils;
+import org.carlspring.strongbox.storage.repository.CacheControlConfiguration;
+import org.carlspring.strongbox.storage.repository.Repository;
+import org.carlspring.strongbox.util.ArtifactFileUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpHeaders;
@@ -20,6 +35,18 @@ public class ArtifactControllerHelper
 {
 
     public static final String HEADER_NAME_RANGE = "Range";
+
+    /**
+     * Requests with more ranges than this are served in full, as allowed by RFC 7233, section 3.1.
+     */
+    public static final int MAX_RANGES = 64;
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private static final String RANGE_UNIT_PREFIX = "bytes=";
+
+    private static final String CRLF = "\r\n";
+
     private static final Logger logger = LoggerFactory.getLogger(ArtifactControllerHelper.class);
 
     private ArtifactControllerHelper()
@@ -27,92 +54,543 @@ public class ArtifactControllerHelper
 
     }
     
+    /**
+     * Serves a ranged request from the stream of the artifact, as described in RFC 7233. This works for any kind of
+     * repository and storage, but the stream has to be read through up to the last requested byte. Several ranges
+     * are therefore only served, if they are in ascending order and don't overlap; otherwise, or if the length of
+     * the artifact isn't known, the whole of it is sent.
+     *
+     * @param length       the length of the artifact, or -1, if it should be taken from the stream
+     * @param lastModified the last modification time of the artifact, or -1, if it isn't known
+     */
     public static void handlePartialDownload(ArtifactInputStream is,
+                                             String eTag,
+                                             long length,
+                                             long lastModified,
                                              HttpHeaders headers,
                                              HttpServletResponse response)
         throws IOException
     {
-        ByteRangeHeaderParser parser = new ByteRangeHeaderParser(headers.getFirst(HEADER_NAME_RANGE));
-        List<ByteRange> ranges = parser.getRanges();
-        if (ranges.size() == 1)
+        if (length < 0)
         {
-            logger.debug("Received request for a partial download with a single range.");
-            handlePartialDownloadWithSingleRange(is, (ByteRange) ranges.get(0), response);
+            length = StreamUtils.getLength(is);
         }
-        else
+
+        if (length < 0)
         {
-            logger.debug("Received request for a partial download with multiple ranges.");
-            handlePartialDownloadWithMultipleRanges(is, ranges, response);
+            logger.debug("The length of the artifact is not known, serving the whole of it.");
+
+            response.setStatus(OK.value());
+            ByteStreams.copy(is, response.getOutputStream());
+            response.flushBuffer();
+
+            return;
+        }
+
+        List<ResolvedByteRange> ranges = getRanges(headers, eTag, lastModified, length);
+        if (ranges != null && !isAscending(ranges))
+        {
+            logger.debug("The ranges are not in ascending order, serving the whole of the artifact.");
+
+            ranges = null;
         }
+
+        StreamRangeWriter writer = new StreamRangeWriter(is);
+        writeRanges(ranges, length, writer, response);
     }
 
-    public static void handlePartialDownloadWithSingleRange(ArtifactInputStream is,
-                                                            ByteRange byteRange,
-                                                            HttpServletResponse response)
+    /**
+     * Serves a ranged request for a file, which is available on the file system, as described in RFC 7233.
+     * Single, multiple and suffix ranges (<code>bytes=-500</code>) are supported, as is the <code>If-Range</code>
+     * header. The requested ranges are read from the file at their positions, without reading through the
+     * preceding bytes.
+     */
+    public static void handlePartialDownload(Path path,
+                                             String eTag,
+                                             HttpHeaders headers,
+                                             HttpServletResponse response)
         throws IOException
     {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
+        {
+            long length = channel.size();
+            long lastModified = Files.getLastModifiedTime(path).toMillis();
+
+            List<ResolvedByteRange> ranges = getRanges(headers, eTag, lastModified, length);
+
+            writeRanges(ranges, length, (range, os) -> writeRange(channel, range, os), response);
+        }
+    }
 
-        long length = StreamUtils.getLength(is);
-        if (byteRange.getOffset() < length)
+    /**
+     * @return the satisfiable ranges, an empty list, if none of them are satisfiable, or <code>null</code>,
+     *         if the whole representation should be sent instead
+     */
+    private static List<ResolvedByteRange> getRanges(HttpHeaders headers,
+                                                     String eTag,
+                                                     long lastModified,
+                                                     long length)
+    {
+        if (!isIfRangeSatisfied(headers, eTag, lastModified))
         {
-            long partialLength = calculatePartialRangeLength(byteRange, length);
+            logger.debug("The If-Range validator does not match, serving the whole representation.");
 
-            logger.debug("Calculated partial range length ->>> " + partialLength + "\n");
+            return null;
+        }
+
+        return resolveRanges(headers.getFirst(HEADER_NAME_RANGE), length);
+    }
+
+    private static boolean isAscending(List<ResolvedByteRange> ranges)
+    {
+        for (int i = 1; i < ranges.size(); i++)
+        {
+            if (ranges.get(i).getFirst() <= ranges.get(i - 1).getLast())
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
 
-            StreamUtils.setCurrentByteRange(is, byteRange);
+    private static void writeRanges(List<ResolvedByteRange> ranges,
+                                    long length,
+                                    RangeWriter writer,
+                                    HttpServletResponse response)
+        throws IOException
+    {
+        if (ranges == null)
+        {
+            // The Range header has to be ignored, so the whole representation is sent instead.
+            response.setStatus(OK.value());
+            response.setHeader("Content-Length", String.valueOf(length));
+
+            writer.write(new ResolvedByteRange(0, length - 1), response.getOutputStream());
+        }
+        else if (ranges.isEmpty())
+        {
+            response.setStatus(REQUESTED_RANGE_NOT_SATISFIABLE.value());
+            response.setHeader("Content-Range", "bytes */" + length);
+        }
+        else if (ranges.size() == 1)
+        {
+            logger.debug("Received request for a partial download with a single range.");
+
+            ResolvedByteRange range = ranges.get(0);
 
-            response.setHeader("Content-Length", partialLength + "");
             response.setStatus(PARTIAL_CONTENT.value());
+            response.setHeader("Content-Range", range.toContentRange(length));
+            response.setHeader("Content-Length", String.valueOf(range.getLength()));
 
-            prepareResponseBuilderForPartialRequest(byteRange, length, response);
+            writer.write(range, response.getOutputStream());
         }
         else
         {
-            response.setStatus(REQUESTED_RANGE_NOT_SATISFIABLE.value());
+            logger.debug("Received request for a partial download with multiple ranges.");
+
+            writeMultipartRanges(ranges, length, writer, response);
         }
+
+        response.flushBuffer();
+    }
+
+    private static void writeMultipartRanges(List<ResolvedByteRange> ranges,
+                                             long length,
+                                             RangeWriter writer,
+                                             HttpServletResponse response)
+        throws IOException
+    {
+        String boundary = UUID.randomUUID().toString().replace("-", "");
+        String contentType = response.getContentType() != null ? response.getContentType() :
+                             "application/octet-stream";
+
+        List<byte[]> partHeaders = new ArrayList<>(ranges.size());
+        long contentLength = 0;
+        for (ResolvedByteRange range : ranges)
+        {
+            byte[] partHeader = (CRLF + "--" + boundary + CRLF +
+                                 "Content-Type: " + contentType + CRLF +
+                                 "Content-Range: " + range.toContentRange(length) + CRLF +
+                                 CRLF).getBytes(StandardCharsets.US_ASCII);
+
+            partHeaders.add(partHeader);
+            contentLength += partHeader.length + range.getLength();
+        }
+
+        byte[] closingBoundary = (CRLF + "--" + boundary + "--" + CRLF).getBytes(StandardCharsets.US_ASCII);
+        contentLength += closingBoundary.length;
+
+        response.setStatus(PARTIAL_CONTENT.value());
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        response.setHeader("Content-Length", String.valueOf(contentLength));
+
+        OutputStream os = response.getOutputStream();
+        for (int i = 0; i < ranges.size(); i++)
+        {
+            os.write(partHeaders.get(i));
+            writer.write(ranges.get(i), os);
+        }
+
+        os.write(closingBoundary);
     }
 
-    public static void handlePartialDownloadWithMultipleRanges(ArtifactInputStream is,
-                                                               List<ByteRange> byteRanges,
-                                                               HttpServletResponse response)
+    private static void writeRange(FileChannel channel,
+                                   ResolvedByteRange range,
+                                   OutputStream os)
         throws IOException
     {
-        // XXX: this is not implemented yet
-        response.setStatus(REQUESTED_RANGE_NOT_SATISFIABLE.value());
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(READ_BUFFER_SIZE, Math.max(range.getLength(), 1)));
+
+        long position = range.getFirst();
+        long end = range.getLast() + 1;
+        while (position < end)
+        {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), end - position));
+
+            int read = channel.read(buffer, position);
+            if (read < 0)
+            {
+                // The file was truncated while it was being served.
+                throw new IOException("Unexpected end of file at position " + position + " of " + range + ".");
+            }
+
+            os.write(buffer.array(), 0, read);
+            position += read;
+        }
+    }
+
+    /**
+     * Resolves the byte ranges of a <code>Range</code> header against the length of the representation.
+     *
+     * @return the satisfiable ranges, an empty list, if none of them are satisfiable, or <code>null</code>,
+     *         if the header is invalid, or has too many ranges, in which case it should be ignored
+     */
+    public static List<ResolvedByteRange> resolveRanges(String rangeHeader,
+                                                        long length)
+    {
+        if (rangeHeader == null || !rangeHeader.regionMatches(true, 0, RANGE_UNIT_PREFIX, 0, RANGE_UNIT_PREFIX.length()))
+        {
+            return null;
+        }
+
+        String[] rangeSpecs = rangeHeader.substring(RANGE_UNIT_PREFIX.length()).split(",");
+        if (rangeSpecs.length > MAX_RANGES)
+        {
+            logger.debug("Ignoring a Range header with " + rangeSpecs.length + " ranges.");
+            return null;
+        }
+
+        List<ResolvedByteRange> ranges = new ArrayList<>(rangeSpecs.length);
+        for (String rangeSpec : rangeSpecs)
+        {
+            String spec = rangeSpec.trim();
+            int dash = spec.indexOf('-');
+            if (dash < 0)
+            {
+                return null;
+            }
+
+            try
+            {
+                String firstPart = spec.substring(0, dash).trim();
+                String lastPart = spec.substring(dash + 1).trim();
+
+                if (firstPart.isEmpty())
+                {
+                    // A suffix range, such as bytes=-500, which asks for the last 500 bytes.
+                    long suffixLength = Long.parseLong(lastPart);
+                    if (suffixLength < 0)
+                    {
+                        return null;
+                    }
+                    if (suffixLength > 0 && length > 0)
+                    {
+                        ranges.add(new ResolvedByteRange(Math.max(0, length - suffixLength), length - 1));
+                    }
+
+                    continue;
+                }
+
+                long first = Long.parseLong(firstPart);
+                long last = lastPart.isEmpty() ? length - 1 : Long.parseLong(lastPart);
+                if (first < 0 || last < first)
+                {
+                    return null;
+                }
+
+                if (first < length)
+                {
+                    ranges.add(new ResolvedByteRange(first, Math.min(last, length - 1)));
+                }
+            }
+            catch (NumberFormatException e)
+            {
+                return null;
+            }
+        }
+
+        return ranges;
+    }
+
+    /**
+     * Checks whether the partial copy, which the client has, is still current. An <code>If-Range</code> entity tag
+     * has to be strongly equal to the current one, while a date has to match the last modification exactly.
+     */
+    public static boolean isIfRangeSatisfied(HttpHeaders headers,
+                                             String eTag,
+                                             long lastModified)
+    {
+        String ifRange = headers.getFirst(HttpHeaders.IF_RANGE);
+        if (ifRange == null)
+        {
+            return true;
+        }
+
+        if (ifRange.startsWith("W/"))
+        {
+            return false;
+        }
+
+        if (ifRange.startsWith("\""))
+        {
+            return ifRange.equals(eTag);
+        }
+
+        try
+        {
+            // HTTP dates only have a precision of seconds.
+            return headers.getFirstDate(HttpHeaders.IF_RANGE) / 1000 == lastModified / 1000;
+        }
+        catch (IllegalArgumentException e)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Returns the entity tag of an artifact, which is its stored SHA-1 checksum. Metadata and checksum files,
+     * which are rewritten in place, as well as artifacts without a stored checksum, are tagged by their size
+     * and last modification time instead. Metadata, which isn't a file, such as the merged metadata of a group
+     * repository, is tagged by the SHA-1 checksum of its content.
+     *
+     * @return the quoted entity tag, or <code>null</code>, if it can't be determined without reading the file
+     */
+    public static String getETag(ArtifactInputStream is,
+                                 String path,
+                                 long size,
+                                 long lastModified)
+    {
+        String sha1 = is.getHexDigests().get(MessageDigestAlgorithms.SHA_1);
+        if (sha1 != null && !isMetadata(path) && !ArtifactFileUtils.isChecksum(path))
+        {
+            return "\"" + sha1 + "\"";
+        }
+
+        if (size >= 0 && lastModified > 0)
+        {
+            return "\"" + Long.toHexString(size) + "-" + Long.toHexString(lastModified) + "\"";
+        }
+
+        if (sha1 != null && is.getPath() == null && isMetadata(path))
+        {
+            return "\"" + sha1 + "\"";
+        }
+
+        return null;
     }
 
-    public static long calculatePartialRangeLength(ByteRange byteRange,
-                                                   long length)
+    /**
+     * Evaluates the <code>If-None-Match</code> and <code>If-Modified-Since</code> headers, as described in
+     * RFC 7232, section 6. <code>If-Modified-Since</code> is ignored, when <code>If-None-Match</code> is present.
+     */
+    public static boolean isNotModified(HttpHeaders headers,
+                                        String eTag,
+                                        long lastModified)
     {
-        if (byteRange.getLimit() > 0L && byteRange.getOffset() > 0L)
+        String ifNoneMatch = headers.getFirst(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null)
         {
-            logger.debug("Partial content byteRange.getOffset: " + byteRange.getOffset());
-            logger.debug("Partial content byteRange.getLimit: " + byteRange.getLimit());
-            logger.debug("Partial content length: " + (byteRange.getLimit() - byteRange.getOffset()));
+            if (eTag == null)
+            {
+                return false;
+            }
 
-            return byteRange.getLimit() - byteRange.getOffset();
+            for (String tag : ifNoneMatch.split(","))
+            {
+                tag = tag.trim();
+                if ("*".equals(tag) || stripWeakPrefix(tag).equals(stripWeakPrefix(eTag)))
+                {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        if (lastModified <= 0)
+        {
+            return false;
+        }
+
+        try
+        {
+            long ifModifiedSince = headers.getIfModifiedSince();
+
+            // HTTP dates only have a precision of seconds.
+            return ifModifiedSince >= 0 && lastModified / 1000 <= ifModifiedSince / 1000;
+        }
+        catch (IllegalArgumentException e)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Sets the validators and the <code>Cache-Control</code> header of the repository for the requested path.
+     * The <code>Cache-Control</code> header is only sent, if the repository has a cache control configuration.
+     */
+    public static void setCacheHeaders(Repository repository,
+                                       String path,
+                                       String eTag,
+                                       long lastModified,
+                                       HttpServletResponse response)
+    {
+        if (eTag != null)
+        {
+            response.setHeader(HttpHeaders.ETAG, eTag);
+        }
+        if (lastModified > 0)
+        {
+            response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+        }
+
+        CacheControlConfiguration cacheControl = repository.getCacheControlConfiguration();
+        if (cacheControl == null)
+        {
+            return;
+        }
+
+        long maxAge;
+        if (isMetadata(path))
+        {
+            maxAge = cacheControl.getMetadataMaxAgeSeconds();
         }
-        else if (length > 0L && byteRange.getOffset() > 0L && byteRange.getLimit() == 0L)
+        else if (path.contains("SNAPSHOT"))
         {
-            logger.debug("Partial content length: " + (length - byteRange.getOffset()));
-            return length - byteRange.getOffset();
+            maxAge = cacheControl.getSnapshotMaxAgeSeconds();
         }
         else
         {
-            return -1L;
+            maxAge = cacheControl.getReleaseMaxAgeSeconds();
         }
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, maxAge > 0 ? "max-age=" + maxAge : "no-cache");
+    }
+
+    private static boolean isMetadata(String path)
+    {
+        return ArtifactFileUtils.isMetadataFile(path) || ArtifactUtils.isMetadata(path);
+    }
+
+    private static String stripWeakPrefix(String eTag)
+    {
+        return eTag.startsWith("W/") ? eTag.substring(2) : eTag;
+    }
+
+    /**
+     * Writes a range of the representation to the response.
+     */
+    private interface RangeWriter
+    {
+
+        void write(ResolvedByteRange range,
+                   OutputStream os)
+            throws IOException;
+
     }
 
-    public static void prepareResponseBuilderForPartialRequest(ByteRange br,
-                                                               long length,
-                                                               HttpServletResponse response)
+    /**
+     * Writes the ranges of a stream, which have to be requested in ascending order, as the stream can't go back.
+     */
+    private static class StreamRangeWriter
+            implements RangeWriter
     {
-        response.setHeader("Accept-Ranges", "bytes");
-        response.setHeader("Content-Range",
-                           "bytes " + br.getOffset() + "-" + (length - 1L) + "/" + length);
 
-        logger.debug("Content-Range HEADER ->>> " + response.getHeader("Content-Range"));
-        response.setHeader("Pragma", "no-cache");
+        private final InputStream is;
+
+        private long position;
+
+
+        StreamRangeWriter(InputStream is)
+        {
+            this.is = is;
+        }
+
+        @Override
+        public void write(ResolvedByteRange range,
+                          OutputStream os)
+            throws IOException
+        {
+            ByteStreams.skipFully(is, range.getFirst() - position);
+
+            long copied = ByteStreams.copy(ByteStreams.limit(is, range.getLength()), os);
+            if (copied < range.getLength())
+            {
+                // The artifact was truncated while it was being served.
+                throw new IOException("Unexpected end of stream at position " + (range.getFirst() + copied) +
+                                      " of " + range + ".");
+            }
+
+            position = range.getLast() + 1;
+        }
+
+    }
+
+    /**
+     * An inclusive range of bytes, which has been resolved against the length of the representation.
+     */
+    public static class ResolvedByteRange
+    {
+
+        private final long first;
+
+        private final long last;
+
+        public ResolvedByteRange(long first,
+                                 long last)
+        {
+            this.first = first;
+            this.last = last;
+        }
+
+        public long getFirst()
+        {
+            return first;
+        }
+
+        public long getLast()
+        {
+            return last;
+        }
+
+        public long getLength()
+        {
+            return last - first + 1;
+        }
+
+        public String toContentRange(long length)
+        {
+            return "bytes " + first + "-" + last + "/" + length;
+        }
+
+        @Override
+        public String toString()
+        {
+            return first + "-" + last;
+        }
+
     }
 
     public static boolean isRangedRequest(HttpHeaders headers)
@@ -0,0 +1,619 @@
+package org.carlspring.strongbox.utils;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.Channel;
+import java.nio.channels.CompletionHandler;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Transfers artifacts using the non-blocking I/O of Servlet 3.1, so that slow clients don't hold on to a container
+ * thread for the whole transfer. The container only calls back, when the client is ready to receive, or has sent,
+ * more data. Thread usage is then bounded by the actual work, rather than by the number of open connections.
+ * <p>
+ * Downloads are served straight from the file. Uploads are spooled to a temporary file, which is written
+ * asynchronously, so that the container threads don't wait for the disk. Once the whole body has been received,
+ * it's stored on a small executor, as storing also generates the checksums and updates the metadata and the indexes.
+ * <p>
+ * The asynchronous processing is started on the request itself, rather than through Spring's WebAsyncManager
+ * (i.e. by returning a DeferredResult), which would dispatch the request back to the controller in order to write
+ * a result. Here the response is written by the listeners, which complete the request, so it's never dispatched
+ * again. This is safe, as long as the controller has already handled the request, once it has started the
+ * transfer: the download handler has the response as an argument and returns nothing, while the upload handler
+ * returns a null ResponseEntity, so Spring MVC leaves the response alone. The listeners don't rely on anything,
+ * which is bound to the request thread, apart from the security context, which is passed to the store explicitly.
+ * The timeouts, which WebAsyncManager would otherwise take care of, are handled by the listeners as well.
+ */
+@Component
+public class NonBlockingArtifactTransfer
+{
+
+    private static final Logger logger = LoggerFactory.getLogger(NonBlockingArtifactTransfer.class);
+
+    @Value("${artifact.transfer.nonBlocking.enabled:false}")
+    private boolean enabled;
+
+    @Value("${artifact.transfer.nonBlocking.bufferSize:65536}")
+    private int bufferSize;
+
+    /**
+     * How long a transfer may take, before it's aborted; zero, or less means that it may take any time, which lets
+     * clients that have stopped sending, or receiving, hold on to their connections and files forever.
+     */
+    @Value("${artifact.transfer.nonBlocking.timeoutMillis:600000}")
+    private long timeoutMillis;
+
+    @Value("${artifact.transfer.nonBlocking.storeThreads:8}")
+    private int storeThreads;
+
+    @Value("${artifact.transfer.nonBlocking.storeQueueSize:256}")
+    private int storeQueueSize;
+
+    private ThreadPoolExecutor storeExecutor;
+
+
+    @PostConstruct
+    public void init()
+    {
+        AtomicInteger threadNumber = new AtomicInteger();
+        storeExecutor = new ThreadPoolExecutor(storeThreads,
+                                               storeThreads,
+                                               60L,
+                                               TimeUnit.SECONDS,
+                                               new ArrayBlockingQueue<>(storeQueueSize),
+                                               r -> {
+                                                   Thread thread = new Thread(r, "artifact-upload-store-" +
+                                                                                 threadNumber.incrementAndGet());
+                                                   thread.setDaemon(true);
+
+                                                   return thread;
+                                               });
+        storeExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void destroy()
+    {
+        storeExecutor.shutdownNow();
+    }
+
+    /**
+     * @return whether the given request can be served asynchronously
+     */
+    public boolean isEnabled(HttpServletRequest request)
+    {
+        return enabled && request.isAsyncSupported();
+    }
+
+    /**
+     * Writes the file to the response, whenever the client is ready to receive more of it.
+     */
+    public void transferToResponse(Path path,
+                                   HttpServletRequest request,
+                                   HttpServletResponse response)
+            throws IOException
+    {
+        FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ);
+        try
+        {
+            response.setHeader("Content-Length", fileChannel.size() + "");
+
+            AsyncContext asyncContext = startAsync(request, response);
+
+            ServletOutputStream outputStream = response.getOutputStream();
+
+            FileWriteListener listener = new FileWriteListener(path, fileChannel, outputStream, asyncContext);
+            asyncContext.addListener(listener);
+            outputStream.setWriteListener(listener);
+        }
+        catch (IOException | RuntimeException e)
+        {
+            fileChannel.close();
+
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the request body into a temporary file, whenever the client has sent more of it, and then passes it
+     * to the given store.
+     *
+     * @param tempDirectory where the body is spooled; preferably on the same file system as the repository
+     */
+    public void receive(HttpServletRequest request,
+                        HttpServletResponse response,
+                        Path tempDirectory,
+                        ArtifactStore store)
+            throws IOException
+    {
+        Files.createDirectories(tempDirectory);
+
+        Path tempPath = Files.createTempFile(tempDirectory, "upload-", ".tmp");
+        AsynchronousFileChannel fileChannel;
+        try
+        {
+            fileChannel = AsynchronousFileChannel.open(tempPath, StandardOpenOption.WRITE);
+        }
+        catch (IOException e)
+        {
+            Files.deleteIfExists(tempPath);
+
+            throw e;
+        }
+
+        try
+        {
+            AsyncContext asyncContext = startAsync(request, response);
+
+            ServletInputStream inputStream = request.getInputStream();
+
+            FileReadListener listener = new FileReadListener(tempPath,
+                                                             fileChannel,
+                                                             inputStream,
+                                                             asyncContext,
+                                                             SecurityContextHolder.getContext(),
+                                                             store);
+            asyncContext.addListener(listener);
+            inputStream.setReadListener(listener);
+        }
+        catch (IOException | RuntimeException e)
+        {
+            fileChannel.close();
+            Files.deleteIfExists(tempPath);
+
+            throw e;
+        }
+    }
+
+    private AsyncContext startAsync(HttpServletRequest request,
+                                    HttpServletResponse response)
+    {
+        AsyncContext asyncContext = request.startAsync(request, response);
+        asyncContext.setTimeout(Math.max(0, timeoutMillis));
+
+        return asyncContext;
+    }
+
+    private static void closeQuietly(Channel fileChannel)
+    {
+        try
+        {
+            fileChannel.close();
+        }
+        catch (IOException e)
+        {
+            logger.debug("Failed to close the file channel.", e);
+        }
+    }
+
+    private static void respond(AsyncContext asyncContext,
+                                HttpStatus status,
+                                String message)
+    {
+        try
+        {
+            HttpServletResponse response = (HttpServletResponse) asyncContext.getResponse();
+            if (!response.isCommitted())
+            {
+                response.setStatus(status.value());
+                response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+                response.getOutputStream().write(message.getBytes(StandardCharsets.UTF_8));
+            }
+
+            asyncContext.complete();
+        }
+        catch (IOException | IllegalStateException e)
+        {
+            // The request has already been completed, most likely, because it timed out.
+            logger.debug("Failed to write the response.", e);
+        }
+    }
+
+    private static void complete(AsyncContext asyncContext)
+    {
+        try
+        {
+            asyncContext.complete();
+        }
+        catch (IllegalStateException e)
+        {
+            logger.debug("The request has already been completed.", e);
+        }
+    }
+
+    /**
+     * Only needed for the events, which the transfers have to clean up after.
+     */
+    private abstract static class TransferAsyncListener
+            implements AsyncListener
+    {
+
+        @Override
+        public void onComplete(AsyncEvent event)
+        {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event)
+        {
+        }
+
+    }
+
+    /**
+     * Stores the artifact, once its whole body has been received.
+     */
+    @FunctionalInterface
+    public interface ArtifactStore
+    {
+
+        void store(InputStream is)
+                throws Exception;
+
+    }
+
+    private class FileWriteListener
+            extends TransferAsyncListener
+            implements WriteListener
+    {
+
+        private final Path path;
+
+        private final FileChannel fileChannel;
+
+        private final ServletOutputStream outputStream;
+
+        private final AsyncContext asyncContext;
+
+        private final byte[] buffer = new byte[bufferSize];
+
+
+        FileWriteListener(Path path,
+                          FileChannel fileChannel,
+                          ServletOutputStream outputStream,
+                          AsyncContext asyncContext)
+        {
+            this.path = path;
+            this.fileChannel = fileChannel;
+            this.outputStream = outputStream;
+            this.asyncContext = asyncContext;
+        }
+
+        @Override
+        public void onWritePossible()
+                throws IOException
+        {
+            while (outputStream.isReady())
+            {
+                int read = fileChannel.read(ByteBuffer.wrap(buffer));
+                if (read < 0)
+                {
+                    closeQuietly(fileChannel);
+                    asyncContext.complete();
+
+                    return;
+                }
+
+                outputStream.write(buffer, 0, read);
+            }
+        }
+
+        @Override
+        public void onError(Throwable t)
+        {
+            // Most likely, the client has gone away.
+            logger.debug("Failed to serve " + path + ".", t);
+
+            closeQuietly(fileChannel);
+            complete(asyncContext);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event)
+        {
+            logger.debug("Timed out serving " + path + ".");
+
+            closeQuietly(fileChannel);
+            complete(asyncContext);
+        }
+
+        @Override
+        public void onError(AsyncEvent event)
+        {
+            onError(event.getThrowable());
+        }
+
+    }
+
+    /**
+     * Reads the body, whenever the client has sent more of it, and writes it to the temporary file asynchronously.
+     * The next chunk is only read, once the previous one has been written, so only one buffer is needed and the
+     * container threads never wait for the disk. The reads following a write happen on the thread which completed
+     * the write, which the servlet API allows, as long as isReady() is checked before each read.
+     */
+    private class FileReadListener
+            extends TransferAsyncListener
+            implements ReadListener, CompletionHandler<Integer, ByteBuffer>
+    {
+
+        private final Path tempPath;
+
+        private final AsynchronousFileChannel fileChannel;
+
+        private final ServletInputStream inputStream;
+
+        private final AsyncContext asyncContext;
+
+        /**
+         * The container calls back on its own threads, which don't carry the security context of the request.
+         */
+        private final SecurityContext securityContext;
+
+        private final ArtifactStore store;
+
+        private final byte[] buffer = new byte[bufferSize];
+
+        /**
+         * Where the next chunk goes in the temporary file.
+         */
+        private long position;
+
+        /**
+         * Guarded by this.
+         */
+        private boolean writing;
+
+        /**
+         * Guarded by this.
+         */
+        private boolean allDataRead;
+
+        /**
+         * Whether the upload has been stored, or aborted, so that only one of them takes place.
+         */
+        private final AtomicBoolean finished = new AtomicBoolean();
+
+
+        FileReadListener(Path tempPath,
+                         AsynchronousFileChannel fileChannel,
+                         ServletInputStream inputStream,
+                         AsyncContext asyncContext,
+                         SecurityContext securityContext,
+                         ArtifactStore store)
+        {
+            this.tempPath = tempPath;
+            this.fileChannel = fileChannel;
+            this.inputStream = inputStream;
+            this.asyncContext = asyncContext;
+            this.securityContext = securityContext;
+            this.store = store;
+        }
+
+        @Override
+        public void onDataAvailable()
+                throws IOException
+        {
+            synchronized (this)
+            {
+                if (writing)
+                {
+                    // The chunk which is being written is going to carry on reading.
+                    return;
+                }
+            }
+
+            readNextChunk();
+        }
+
+        private void readNextChunk()
+                throws IOException
+        {
+            while (!finished.get() && inputStream.isReady() && !inputStream.isFinished())
+            {
+                int read = inputStream.read(buffer);
+                if (read > 0)
+                {
+                    synchronized (this)
+                    {
+                        writing = true;
+                    }
+
+                    ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, read);
+                    fileChannel.write(byteBuffer, position, byteBuffer, this);
+
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public void completed(Integer written,
+                              ByteBuffer byteBuffer)
+        {
+            position += written;
+            if (byteBuffer.hasRemaining())
+            {
+                fileChannel.write(byteBuffer, position, byteBuffer, this);
+
+                return;
+            }
+
+            boolean lastChunk;
+            synchronized (this)
+            {
+                writing = false;
+                lastChunk = allDataRead;
+            }
+
+            if (lastChunk)
+            {
+                storeWhenReceived();
+
+                return;
+            }
+
+            try
+            {
+                readNextChunk();
+            }
+            catch (IOException e)
+            {
+                onError(e);
+            }
+        }
+
+        @Override
+        public void failed(Throwable t,
+                           ByteBuffer byteBuffer)
+        {
+            logger.error("Failed to write " + tempPath + ".", t);
+
+            abort(HttpStatus.INTERNAL_SERVER_ERROR, "The upload could not be written.");
+        }
+
+        @Override
+        public void onAllDataRead()
+        {
+            synchronized (this)
+            {
+                allDataRead = true;
+                if (writing)
+                {
+                    // The last chunk is still being written, it's going to store the upload.
+                    return;
+                }
+            }
+
+            storeWhenReceived();
+        }
+
+        private void storeWhenReceived()
+        {
+            if (!finished.compareAndSet(false, true))
+            {
+                return;
+            }
+
+            closeQuietly(fileChannel);
+
+            Runnable storeTask = new DelegatingSecurityContextRunnable(this::store, securityContext);
+            try
+            {
+                storeExecutor.execute(storeTask);
+            }
+            catch (RejectedExecutionException e)
+            {
+                deleteTempFile();
+
+                respond(asyncContext, HttpStatus.SERVICE_UNAVAILABLE, "Too many uploads are being stored.");
+            }
+        }
+
+        private void store()
+        {
+            try
+            {
+                try (InputStream is = Files.newInputStream(tempPath))
+                {
+                    store.store(is);
+                }
+
+                respond(asyncContext, HttpStatus.OK, "The artifact was deployed successfully.");
+            }
+            catch (Exception e)
+            {
+                logger.error(e.getMessage(), e);
+
+                respond(asyncContext, HttpStatus.INTERNAL_SERVER_ERROR, String.valueOf(e.getMessage()));
+            }
+            finally
+            {
+                deleteTempFile();
+            }
+        }
+
+        @Override
+        public void onError(Throwable t)
+        {
+            logger.debug("Failed to receive " + tempPath + ".", t);
+
+            abort(HttpStatus.BAD_REQUEST, "The upload did not complete.");
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event)
+        {
+            logger.debug("Timed out receiving " + tempPath + ".");
+
+            abort(HttpStatus.REQUEST_TIMEOUT, "The upload did not complete in time.");
+        }
+
+        @Override
+        public void onError(AsyncEvent event)
+        {
+            onError(event.getThrowable());
+        }
+
+        private void abort(HttpStatus status,
+                           String message)
+        {
+            if (!finished.compareAndSet(false, true))
+            {
+                // Already being stored, which responds on its own.
+                return;
+            }
+
+            closeQuietly(fileChannel);
+            deleteTempFile();
+
+            respond(asyncContext, status, message);
+        }
+
+        private void deleteTempFile()
+        {
+            try
+            {
+                Files.deleteIfExists(tempPath);
+            }
+            catch (IOException e)
+            {
+                logger.warn("Failed to delete " + tempPath + ".", e);
+            }
+        }
+
+    }
+
+}
@@ -13,8 +13,13 @@ import org.carlspring.strongbox.rest.context.IntegrationTest;
 import org.carlspring.strongbox.util.MessageDigestUtils;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
 
+import com.jayway.restassured.module.mockmvc.RestAssuredMockMvc;
+import com.jayway.restassured.module.mockmvc.response.MockMvcResponse;
 import com.jayway.restassured.response.ExtractableResponse;
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.artifact.repository.metadata.Metadata;
@@ -24,6 +29,7 @@ import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.springframework.http.HttpStatus;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import static org.carlspring.maven.commons.util.ArtifactUtils.getArtifactFromGAVTC;
 import static org.carlspring.strongbox.testing.TestCaseWithArtifactGeneration.generateArtifact;
@@ -252,6 +258,215 @@ public class ArtifactControllerTest
         assertEquals("Glued partial fetches did not match SHA-1 checksum!", sha1Remote, sha1Local);
     }
 
+    @Test
+    public void testFetchFromHostedRepository()
+            throws Exception
+    {
+        String url = getContextBaseUrl() + "/storages/storage0/releases";
+        String pathToJar = "/org/carlspring/strongbox/partial/partial-foo/3.1/partial-foo-3.1.jar";
+        String artifactPath = url + pathToJar;
+
+        assertPathExists(artifactPath);
+
+        byte[] artifactBytes = Files.readAllBytes(new File(REPOSITORY_BASEDIR_RELEASES, pathToJar).toPath());
+
+        MockMvcResponse response = RestAssuredMockMvc.given()
+                                                     .header("user-agent", "Maven/*")
+                                                     .when()
+                                                     .get(artifactPath);
+
+        assertEquals(HttpStatus.OK.value(), response.getStatusCode());
+        assertEquals(String.valueOf(artifactBytes.length), response.getHeader("Content-Length"));
+        assertArrayEquals("The served artifact did not match the stored one!",
+                          artifactBytes,
+                          response.getMockHttpServletResponse().getContentAsByteArray());
+    }
+
+    @Test
+    public void testSuffixAndMultipleRangeFetch()
+            throws Exception
+    {
+        String url = getContextBaseUrl() + "/storages/storage0/releases";
+        String pathToJar = "/org/carlspring/strongbox/partial/partial-foo/3.2/partial-foo-3.2.jar";
+        String artifactPath = url + pathToJar;
+
+        assertPathExists(artifactPath);
+
+        byte[] artifactBytes = Files.readAllBytes(new File(REPOSITORY_BASEDIR_RELEASES, pathToJar).toPath());
+        int length = artifactBytes.length;
+
+        MockMvcResponse response = RestAssuredMockMvc.given()
+                                                     .header("user-agent", "Maven/*")
+                                                     .header("Range", "bytes=-10")
+                                                     .when()
+                                                     .get(artifactPath);
+
+        assertEquals(HttpStatus.PARTIAL_CONTENT.value(), response.getStatusCode());
+        assertEquals("bytes " + (length - 10) + "-" + (length - 1) + "/" + length, response.getHeader("Content-Range"));
+        assertArrayEquals("Suffix range did not match the end of the artifact!",
+                          Arrays.copyOfRange(artifactBytes, length - 10, length),
+                          response.getMockHttpServletResponse().getContentAsByteArray());
+
+        response = RestAssuredMockMvc.given()
+                                     .header("user-agent", "Maven/*")
+                                     .header("Range", "bytes=0-9,20-29")
+                                     .when()
+                                     .get(artifactPath);
+
+        assertEquals(HttpStatus.PARTIAL_CONTENT.value(), response.getStatusCode());
+        assertTrue(response.getContentType().startsWith("multipart/byteranges"));
+
+        String body = new String(response.getMockHttpServletResponse().getContentAsByteArray(),
+                                 StandardCharsets.ISO_8859_1);
+
+        assertTrue(body.contains("Content-Range: bytes 0-9/" + length));
+        assertTrue(body.contains("Content-Range: bytes 20-29/" + length));
+        assertTrue(body.contains(new String(Arrays.copyOfRange(artifactBytes, 20, 30), StandardCharsets.ISO_8859_1)));
+
+        response = RestAssuredMockMvc.given()
+                                     .header("user-agent", "Maven/*")
+                                     .header("Range", "bytes=" + length + "-")
+                                     .when()
+                                     .get(artifactPath);
+
+        assertEquals(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value(), response.getStatusCode());
+    }
+
+    @Test
+    public void testConditionalFetch()
+            throws Exception
+    {
+        String url = getContextBaseUrl() + "/storages/storage0/releases";
+        String pathToJar = "/org/carlspring/strongbox/partial/partial-foo/3.2/partial-foo-3.2.jar";
+        String artifactPath = url + pathToJar;
+
+        assertPathExists(artifactPath);
+
+        MockMvcResponse response = RestAssuredMockMvc.given()
+                                                     .header("user-agent", "Maven/*")
+                                                     .when()
+                                                     .get(artifactPath);
+
+        String eTag = response.getHeader("ETag");
+        String lastModified = response.getHeader("Last-Modified");
+
+        assertNotNull("Failed to get the ETag of the artifact!", eTag);
+        assertNotNull("Failed to get the last modification date of the artifact!", lastModified);
+
+        RestAssuredMockMvc.given()
+                          .header("user-agent", "Maven/*")
+                          .header("If-None-Match", eTag)
+                          .when()
+                          .get(artifactPath)
+                          .then()
+                          .statusCode(HttpStatus.NOT_MODIFIED.value());
+
+        RestAssuredMockMvc.given()
+                          .header("user-agent", "Maven/*")
+                          .header("If-Modified-Since", lastModified)
+                          .when()
+                          .get(artifactPath)
+                          .then()
+                          .statusCode(HttpStatus.NOT_MODIFIED.value());
+
+        RestAssuredMockMvc.given()
+                          .header("user-agent", "Maven/*")
+                          .header("If-None-Match", "\"outdated\"")
+                          .when()
+                          .get(artifactPath)
+                          .then()
+                          .statusCode(HttpStatus.OK.value());
+    }
+
+    @Test
+    public void testConditionalFetchViaGroupRepository()
+            throws Exception
+    {
+        String pathToJar = "/org/carlspring/strongbox/partial/partial-foo/3.2/partial-foo-3.2.jar";
+        String artifactPath = getContextBaseUrl() + "/storages/storage0/group-releases" + pathToJar;
+
+        MockMvcResponse response = RestAssuredMockMvc.given()
+                                                     .header("user-agent", "Maven/*")
+                                                     .when()
+                                                     .get(artifactPath);
+
+        assertEquals(HttpStatus.OK.value(), response.getStatusCode());
+
+        String eTag = response.getHeader("ETag");
+        String lastModified = response.getHeader("Last-Modified");
+
+        // The validators are those of the member, which the artifact is served from.
+        assertNotNull("Failed to get the ETag of the artifact via the group repository!", eTag);
+        assertNotNull("Failed to get the last modification date of the artifact via the group repository!",
+                      lastModified);
+
+        RestAssuredMockMvc.given()
+                          .header("user-agent", "Maven/*")
+                          .header("If-None-Match", eTag)
+                          .when()
+                          .get(artifactPath)
+                          .then()
+                          .statusCode(HttpStatus.NOT_MODIFIED.value());
+
+        RestAssuredMockMvc.given()
+                          .header("user-agent", "Maven/*")
+                          .header("If-Modified-Since", lastModified)
+                          .when()
+                          .get(artifactPath)
+                          .then()
+                          .statusCode(HttpStatus.NOT_MODIFIED.value());
+    }
+
+    @Test
+    public void testRangeFetchViaGroupRepository()
+            throws Exception
+    {
+        // Group repositories serve their members' streams, so these ranges aren't read from the file directly.
+        String pathToJar = "/org/carlspring/strongbox/partial/partial-foo/3.2/partial-foo-3.2.jar";
+        String artifactPath = getContextBaseUrl() + "/storages/storage0/group-releases" + pathToJar;
+
+        byte[] artifactBytes = Files.readAllBytes(new File(REPOSITORY_BASEDIR_RELEASES, pathToJar).toPath());
+        int length = artifactBytes.length;
+
+        MockMvcResponse response = RestAssuredMockMvc.given()
+                                                     .header("user-agent", "Maven/*")
+                                                     .header("Range", "bytes=-10")
+                                                     .when()
+                                                     .get(artifactPath);
+
+        assertEquals(HttpStatus.PARTIAL_CONTENT.value(), response.getStatusCode());
+        assertEquals("bytes " + (length - 10) + "-" + (length - 1) + "/" + length, response.getHeader("Content-Range"));
+        assertArrayEquals("Suffix range did not match the end of the artifact!",
+                          Arrays.copyOfRange(artifactBytes, length - 10, length),
+                          response.getMockHttpServletResponse().getContentAsByteArray());
+
+        response = RestAssuredMockMvc.given()
+                                     .header("user-agent", "Maven/*")
+                                     .header("Range", "bytes=0-9,20-29")
+                                     .when()
+                                     .get(artifactPath);
+
+        assertEquals(HttpStatus.PARTIAL_CONTENT.value(), response.getStatusCode());
+        assertTrue(response.getContentType().startsWith("multipart/byteranges"));
+
+        String body = new String(response.getMockHttpServletResponse().getContentAsByteArray(),
+                                 StandardCharsets.ISO_8859_1);
+
+        assertTrue(body.contains("Content-Range: bytes 0-9/" + length));
+        assertTrue(body.contains("Content-Range: bytes 20-29/" + length));
+        assertTrue(body.contains(new String(Arrays.copyOfRange(artifactBytes, 20, 30), StandardCharsets.ISO_8859_1)));
+
+        // The stream can't go back, so ranges out of order are answered with the whole artifact.
+        response = RestAssuredMockMvc.given()
+                                     .header("user-agent", "Maven/*")
+                                     .header("Range", "bytes=20-29,0-9")
+                                     .when()
+                                     .get(artifactPath);
+
+        assertEquals(HttpStatus.OK.value(), response.getStatusCode());
+        assertArrayEquals(artifactBytes, response.getMockHttpServletResponse().getContentAsByteArray());
+    }
+
     @Test
     public void testCopyArtifactFile()
             throws Exception
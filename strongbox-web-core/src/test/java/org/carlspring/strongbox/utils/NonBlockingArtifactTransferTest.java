@@ -0,0 +1,288 @@
+package org.carlspring.strongbox.utils;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.io.ByteStreams;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.springframework.test.util.ReflectionTestUtils;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+/**
+ * Drives the listeners of the transfers the way a servlet container would, using mocks of the request, the
+ * response and their streams.
+ */
+public class NonBlockingArtifactTransferTest
+{
+
+    private static final byte[] CONTENT = "strongbox-non-blocking-transfer".getBytes(StandardCharsets.UTF_8);
+
+    private static final long TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(10);
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Mock
+    private HttpServletRequest request;
+
+    @Mock
+    private HttpServletResponse response;
+
+    @Mock
+    private AsyncContext asyncContext;
+
+    @Mock
+    private ServletInputStream inputStream;
+
+    @Mock
+    private ServletOutputStream outputStream;
+
+    private final ByteArrayOutputStream written = new ByteArrayOutputStream();
+
+    private NonBlockingArtifactTransfer transfer;
+
+
+    @Before
+    public void setUp()
+            throws IOException
+    {
+        initMocks(this);
+
+        transfer = new NonBlockingArtifactTransfer();
+        // Smaller than the content, so that it takes several chunks.
+        ReflectionTestUtils.setField(transfer, "bufferSize", 8);
+        ReflectionTestUtils.setField(transfer, "timeoutMillis", 600000L);
+        ReflectionTestUtils.setField(transfer, "storeThreads", 1);
+        ReflectionTestUtils.setField(transfer, "storeQueueSize", 1);
+        transfer.init();
+
+        when(request.startAsync(request, response)).thenReturn(asyncContext);
+        when(request.getInputStream()).thenReturn(inputStream);
+        when(response.getOutputStream()).thenReturn(outputStream);
+        when(asyncContext.getResponse()).thenReturn(response);
+
+        doAnswer(invocation -> {
+            written.write((byte[]) invocation.getArguments()[0],
+                          (int) invocation.getArguments()[1],
+                          (int) invocation.getArguments()[2]);
+
+            return null;
+        }).when(outputStream).write(any(byte[].class), anyInt(), anyInt());
+        doAnswer(invocation -> {
+            written.write((byte[]) invocation.getArguments()[0]);
+
+            return null;
+        }).when(outputStream).write(any(byte[].class));
+    }
+
+    @After
+    public void tearDown()
+    {
+        transfer.destroy();
+    }
+
+    @Test
+    public void testDownloadIsWrittenWheneverTheClientIsReady()
+            throws Exception
+    {
+        Path path = temporaryFolder.newFile().toPath();
+        Files.write(path, CONTENT);
+
+        // The client is only ready for one chunk at first.
+        when(outputStream.isReady()).thenReturn(true, false, true);
+
+        transfer.transferToResponse(path, request, response);
+
+        verify(asyncContext).setTimeout(600000L);
+        verify(response).setHeader("Content-Length", CONTENT.length + "");
+
+        WriteListener listener = captureWriteListener();
+
+        listener.onWritePossible();
+
+        assertEquals(8, written.size());
+        verify(asyncContext, never()).complete();
+
+        listener.onWritePossible();
+
+        assertArrayEquals(CONTENT, written.toByteArray());
+        verify(asyncContext).complete();
+    }
+
+    @Test
+    public void testDownloadIsCompletedOnTimeout()
+            throws Exception
+    {
+        Path path = temporaryFolder.newFile().toPath();
+        Files.write(path, CONTENT);
+
+        transfer.transferToResponse(path, request, response);
+
+        captureAsyncListener().onTimeout(new AsyncEvent(asyncContext));
+
+        verify(asyncContext).complete();
+    }
+
+    @Test
+    public void testUploadIsStoredOnceReceived()
+            throws Exception
+    {
+        Path tempDirectory = temporaryFolder.newFolder().toPath();
+        mockRequestBody(CONTENT);
+
+        CompletableFuture<byte[]> stored = new CompletableFuture<>();
+
+        transfer.receive(request, response, tempDirectory, is -> stored.complete(ByteStreams.toByteArray(is)));
+
+        ReadListener listener = captureReadListener();
+        listener.onDataAvailable();
+
+        // The container calls back, once the whole body has been read.
+        waitForBodyToBeRead();
+        listener.onAllDataRead();
+
+        assertArrayEquals(CONTENT, stored.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+
+        verify(asyncContext, timeout(TIMEOUT_MILLIS)).complete();
+        verify(response).setStatus(200);
+        assertTempDirectoryIsEmpty(tempDirectory);
+    }
+
+    @Test
+    public void testUploadWhichFailsToBeStoredIsReported()
+            throws Exception
+    {
+        Path tempDirectory = temporaryFolder.newFolder().toPath();
+        mockRequestBody(CONTENT);
+
+        transfer.receive(request, response, tempDirectory, is -> {
+            throw new IOException("Failed to store the artifact.");
+        });
+
+        ReadListener listener = captureReadListener();
+        listener.onDataAvailable();
+        waitForBodyToBeRead();
+        listener.onAllDataRead();
+
+        verify(asyncContext, timeout(TIMEOUT_MILLIS)).complete();
+        verify(response).setStatus(500);
+        assertEquals("Failed to store the artifact.", new String(written.toByteArray(), StandardCharsets.UTF_8));
+        assertTempDirectoryIsEmpty(tempDirectory);
+    }
+
+    @Test
+    public void testUploadWhichTimesOutIsDiscarded()
+            throws Exception
+    {
+        Path tempDirectory = temporaryFolder.newFolder().toPath();
+
+        // The client has stopped sending.
+        when(inputStream.isReady()).thenReturn(false);
+
+        transfer.receive(request, response, tempDirectory, is -> {
+            throw new AssertionError("Stored an incomplete upload!");
+        });
+
+        captureReadListener().onDataAvailable();
+        captureAsyncListener().onTimeout(new AsyncEvent(asyncContext));
+
+        verify(asyncContext).complete();
+        verify(response).setStatus(408);
+        assertTempDirectoryIsEmpty(tempDirectory);
+    }
+
+    /**
+     * Hands out the body in chunks, as long as there's any left.
+     */
+    private void mockRequestBody(byte[] content)
+            throws IOException
+    {
+        ByteArrayInputStream body = new ByteArrayInputStream(content);
+
+        when(inputStream.isReady()).thenAnswer(invocation -> body.available() > 0);
+        when(inputStream.isFinished()).thenAnswer(invocation -> body.available() == 0);
+        when(inputStream.read(any(byte[].class))).thenAnswer(
+                invocation -> body.read((byte[]) invocation.getArguments()[0]));
+    }
+
+    private void waitForBodyToBeRead()
+            throws Exception
+    {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!inputStream.isFinished())
+        {
+            assertTrue("Timed out reading the body!", System.currentTimeMillis() < deadline);
+
+            Thread.sleep(10);
+        }
+    }
+
+    private void assertTempDirectoryIsEmpty(Path tempDirectory)
+            throws Exception
+    {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (Files.list(tempDirectory).findAny().isPresent())
+        {
+            assertFalse("The temporary file was not deleted!", System.currentTimeMillis() > deadline);
+
+            Thread.sleep(10);
+        }
+    }
+
+    private WriteListener captureWriteListener()
+    {
+        ArgumentCaptor<WriteListener> captor = ArgumentCaptor.forClass(WriteListener.class);
+        verify(outputStream).setWriteListener(captor.capture());
+
+        return captor.getValue();
+    }
+
+    private ReadListener captureReadListener()
+    {
+        ArgumentCaptor<ReadListener> captor = ArgumentCaptor.forClass(ReadListener.class);
+        verify(inputStream).setReadListener(captor.capture());
+
+        return captor.getValue();
+    }
+
+    private AsyncListener captureAsyncListener()
+    {
+        ArgumentCaptor<AsyncListener> captor = ArgumentCaptor.forClass(AsyncListener.class);
+        verify(asyncContext).addListener(captor.capture());
+
+        return captor.getValue();
+    }
+
+}